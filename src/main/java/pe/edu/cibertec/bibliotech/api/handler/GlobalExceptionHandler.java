@@ -1,5 +1,7 @@
 package pe.edu.cibertec.bibliotech.api.handler;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -36,6 +38,27 @@ public class GlobalExceptionHandler {
                 .body(ErrorResponse.of("BUSINESS_RULE", ex.getMessage()));
     }
     
+    /**
+     * Maneja conflictos de concurrencia optimista (@Version) no resueltos con reintentos
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleConflict(OptimisticLockingFailureException ex) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(ErrorResponse.of("CONFLICT", "El registro fue modificado por otra operación. Intente nuevamente"));
+    }
+    
+    /**
+     * Maneja violaciones de restricciones de la base (p. ej. un ISBN, DNI o email duplicado
+     * que no se detectó antes de guardar)
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponse> handleDataIntegrity(DataIntegrityViolationException ex) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(ErrorResponse.of("CONFLICT", "El registro viola una restricción de unicidad o integridad"));
+    }
+    
     /**
      * Maneja errores de validación (@Valid en DTOs)
      */
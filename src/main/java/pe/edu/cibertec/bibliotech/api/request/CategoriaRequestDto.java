@@ -1,5 +1,9 @@
 package pe.edu.cibertec.bibliotech.api.request;
 
+import java.math.BigDecimal;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
@@ -13,4 +17,13 @@ public class CategoriaRequestDto {
     
     @Size(max = 200, message = "La descripción no puede exceder 200 caracteres")
     private String descripcion;
+    
+    // Opcionales: sin valor la categoría usa las tarifas generales de multa
+    @DecimalMin(value = "0.00", message = "La multa diaria no puede ser negativa")
+    @Digits(integer = 6, fraction = 2, message = "La multa diaria admite hasta 2 decimales")
+    private BigDecimal multaDiaria;
+    
+    @DecimalMin(value = "0.00", message = "La multa máxima no puede ser negativa")
+    @Digits(integer = 6, fraction = 2, message = "La multa máxima admite hasta 2 decimales")
+    private BigDecimal multaMaxima;
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package pe.edu.cibertec.bibliotech.api.request;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class DevolucionLoteRequestDto {
+    
+    @Size(max = 1000, message = "El lote no puede exceder 1000 préstamos")
+    private List<@NotNull Long> prestamoIds = new ArrayList<>();
+    
+    @Size(max = 1000, message = "El lote no puede exceder 1000 préstamos")
+    private List<@Valid LibroUsuario> librosUsuarios = new ArrayList<>();
+    
+    @Size(max = 500, message = "Las observaciones no pueden exceder 500 caracteres")
+    private String observaciones;
+    
+    // Un null explícito en el JSON reemplaza la lista por defecto: se trata como lista vacía
+    public List<Long> getPrestamoIds() {
+        return prestamoIds != null ? prestamoIds : List.of();
+    }
+    
+    public List<LibroUsuario> getLibrosUsuarios() {
+        return librosUsuarios != null ? librosUsuarios : List.of();
+    }
+    
+    @AssertTrue(message = "Debe indicar al menos un préstamo a devolver")
+    public boolean isConPrestamos() {
+        return !getPrestamoIds().isEmpty() || !getLibrosUsuarios().isEmpty();
+    }
+    
+    // Identifica un préstamo pendiente por el ISBN del libro y el DNI del usuario
+    @Data
+    public static class LibroUsuario {
+        
+        @NotBlank(message = "El ISBN es obligatorio")
+        private String isbn;
+        
+        @NotBlank(message = "El DNI es obligatorio")
+        @Pattern(regexp = "\\d{8}", message = "El DNI debe tener exactamente 8 dígitos")
+        private String dni;
+    }
+}
@@ -0,0 +1,34 @@
+package pe.edu.cibertec.bibliotech.api.request;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+
+/**
+ * Parámetros de paginación de los listados (query string).
+ * Por defecto se pagina por cursor (keyset sobre el id); si se envía
+ * "pagina" se usa paginación por desplazamiento para la interfaz.
+ */
+@Data
+public class PaginaRequestDto {
+    
+    // Id del último elemento recibido (siguienteCursor de la respuesta anterior)
+    @PositiveOrZero(message = "El cursor no puede ser negativo")
+    private Long cursor;
+    
+    @PositiveOrZero(message = "La página no puede ser negativa")
+    private Integer pagina;
+    
+    @Min(value = 1, message = "El tamaño de página debe ser al menos 1")
+    private Integer tamanio;
+    
+    @AssertTrue(message = "Use cursor o pagina, no ambos")
+    public boolean isModoUnico() {
+        return cursor == null || pagina == null;
+    }
+    
+    public boolean isPorDesplazamiento() {
+        return pagina != null;
+    }
+}
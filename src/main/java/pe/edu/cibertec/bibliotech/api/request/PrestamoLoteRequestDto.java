@@ -0,0 +1,26 @@
+package pe.edu.cibertec.bibliotech.api.request;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class PrestamoLoteRequestDto {
+    
+    @NotEmpty(message = "El lote debe contener al menos un préstamo")
+    @Size(max = 200, message = "El lote no puede exceder 200 préstamos")
+    private List<@Valid PrestamoRequestDto> prestamos;
+    
+    @NotNull(message = "El modo del lote es obligatorio")
+    private ModoLote modo = ModoLote.TODO_O_NADA;
+    
+    // TODO_O_NADA: si algún préstamo es inválido no se registra ninguno.
+    // MEJOR_ESFUERZO: se registran los válidos y se informan los rechazados.
+    public enum ModoLote {
+        TODO_O_NADA, MEJOR_ESFUERZO
+    }
+}
@@ -0,0 +1,26 @@
+package pe.edu.cibertec.bibliotech.api.request;
+
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import jakarta.validation.constraints.AssertTrue;
+import lombok.Data;
+
+/**
+ * Rango de fechas inclusivo (query string). Los límites omitidos los completa cada servicio.
+ */
+@Data
+public class RangoFechasRequestDto {
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate desde;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate hasta;
+    
+    @AssertTrue(message = "La fecha 'desde' no puede ser posterior a 'hasta'")
+    public boolean isRangoValido() {
+        return desde == null || hasta == null || !desde.isAfter(hasta);
+    }
+}
\ No newline at end of file
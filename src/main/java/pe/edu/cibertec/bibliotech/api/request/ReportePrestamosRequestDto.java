@@ -0,0 +1,34 @@
+package pe.edu.cibertec.bibliotech.api.request;
+
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import pe.edu.cibertec.bibliotech.entity.Prestamo.EstadoPrestamo;
+
+/**
+ * Filtros opcionales del reporte de préstamos (query string).
+ * El rango se aplica sobre la fecha del préstamo y es inclusivo.
+ */
+@Data
+public class ReportePrestamosRequestDto {
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate desde;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate hasta;
+    
+    private EstadoPrestamo estado;
+    
+    @Positive(message = "El id del usuario debe ser positivo")
+    private Long usuarioId;
+    
+    @AssertTrue(message = "La fecha 'desde' no puede ser posterior a 'hasta'")
+    public boolean isRangoValido() {
+        return desde == null || hasta == null || !desde.isAfter(hasta);
+    }
+}
\ No newline at end of file
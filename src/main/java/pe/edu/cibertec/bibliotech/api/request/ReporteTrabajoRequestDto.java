@@ -0,0 +1,33 @@
+package pe.edu.cibertec.bibliotech.api.request;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * Solicitud de un reporte PDF en segundo plano.
+ * AVISOS_VENCIDOS usa "fecha" como corte (hoy si no se envía);
+ * CIRCULACION_MENSUAL requiere "periodo" (yyyy-MM).
+ */
+@Data
+public class ReporteTrabajoRequestDto {
+    
+    public enum Tipo {
+        AVISOS_VENCIDOS, CIRCULACION_MENSUAL
+    }
+    
+    @NotNull(message = "El tipo de reporte es obligatorio")
+    private Tipo tipo;
+    
+    private LocalDate fecha;
+    
+    private YearMonth periodo;
+    
+    @AssertTrue(message = "El reporte de circulación mensual requiere el período (yyyy-MM)")
+    public boolean isPeriodoValido() {
+        return tipo != Tipo.CIRCULACION_MENSUAL || periodo != null;
+    }
+}
\ No newline at end of file
@@ -23,6 +23,7 @@ public class UsuarioRequestDto {
     
     @NotBlank(message = "El email es obligatorio")
     @Email(message = "Email inválido")
+    @Size(max = 255, message = "El email no puede exceder 255 caracteres")
     private String email;
     
     @NotBlank(message = "El teléfono es obligatorio")
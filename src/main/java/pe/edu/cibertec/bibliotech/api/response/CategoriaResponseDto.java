@@ -1,5 +1,6 @@
 package pe.edu.cibertec.bibliotech.api.response;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 import lombok.Data;
@@ -10,6 +11,8 @@ public class CategoriaResponseDto {
     private Long id;
     private String nombre;
     private String descripcion;
+    private BigDecimal multaDiaria;
+    private BigDecimal multaMaxima;
     private LocalDateTime fechaRegistro;
     private Integer cantidadLibros;
 }
\ No newline at end of file
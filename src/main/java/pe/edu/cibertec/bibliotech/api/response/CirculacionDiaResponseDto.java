@@ -0,0 +1,14 @@
+package pe.edu.cibertec.bibliotech.api.response;
+
+import java.time.LocalDate;
+
+import lombok.Data;
+
+@Data
+public class CirculacionDiaResponseDto {
+    
+    private LocalDate fecha;
+    private long prestamos;
+    private long devoluciones;
+    private long devolucionesConAtraso;
+}
\ No newline at end of file
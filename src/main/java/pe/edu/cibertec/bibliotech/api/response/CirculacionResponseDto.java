@@ -0,0 +1,14 @@
+package pe.edu.cibertec.bibliotech.api.response;
+
+import lombok.Data;
+
+@Data
+public class CirculacionResponseDto {
+    
+    // Id y nombre del libro, la categoría o el autor
+    private Long id;
+    private String nombre;
+    private long prestamos;
+    private long devoluciones;
+    private long devolucionesConAtraso;
+}
\ No newline at end of file
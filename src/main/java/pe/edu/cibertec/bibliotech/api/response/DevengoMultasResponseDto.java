@@ -0,0 +1,14 @@
+package pe.edu.cibertec.bibliotech.api.response;
+
+import java.time.LocalDate;
+
+import lombok.Data;
+
+@Data
+public class DevengoMultasResponseDto {
+    
+    private LocalDate fechaCorte;
+    private int actualizados;
+    private int lotes;
+    private long duracionMs;
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package pe.edu.cibertec.bibliotech.api.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class DevolucionLoteResponseDto {
+    
+    private int total;
+    private int devueltos;
+    private int rechazados;
+    private List<Resultado> resultados = new ArrayList<>();
+    
+    @Data
+    public static class Resultado {
+        private Long prestamoId;
+        private String isbn;
+        private String dni;
+        private boolean devuelto;
+        private Long diasAtraso;
+        private String error;
+    }
+}
@@ -0,0 +1,14 @@
+package pe.edu.cibertec.bibliotech.api.response;
+
+import lombok.Data;
+
+@Data
+public class DisponibilidadResponseDto {
+    
+    private Long librosConStock;
+    private Long librosSinStock;
+    private Long librosStockBajo;
+    private Long totalEjemplares;
+    private Long ejemplaresDisponibles;
+    private Integer umbralStockBajo;
+}
\ No newline at end of file
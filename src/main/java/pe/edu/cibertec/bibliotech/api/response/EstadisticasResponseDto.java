@@ -0,0 +1,30 @@
+package pe.edu.cibertec.bibliotech.api.response;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import lombok.Data;
+
+@Data
+public class EstadisticasResponseDto {
+    
+    // Libros
+    private Long totalLibros;
+    private Long librosDisponibles;
+    private Long librosSinStock;
+    private Long librosStockBajo;
+    private Long totalEjemplares;
+    private Long ejemplaresDisponibles;
+    
+    // Préstamos
+    private Long totalPrestamos;
+    private Map<String, Long> prestamosPorEstado;
+    private Long prestamosAtrasados;
+    
+    // Usuarios
+    private Long totalUsuarios;
+    private Long usuariosActivos;
+    
+    // Momento en que se tomó la instantánea
+    private LocalDateTime generadoEn;
+}
\ No newline at end of file
@@ -0,0 +1,33 @@
+package pe.edu.cibertec.bibliotech.api.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+public class ImportacionLibrosResponseDto implements ResultadoImportacion<ImportacionLibrosResponseDto.FilaRechazada> {
+    
+    private int total;
+    private int importados;
+    private int rechazados;
+    private int autoresCreados;
+    private int categoriasCreadas;
+    private long duracionMs;
+    
+    // Detalle de las filas rechazadas, hasta el máximo configurado
+    private List<FilaRechazada> errores = new ArrayList<>();
+    private boolean erroresTruncados;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FilaRechazada {
+        // Número de fila de datos (sin contar el encabezado)
+        private long fila;
+        private String isbn;
+        private String error;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package pe.edu.cibertec.bibliotech.api.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+public class ImportacionUsuariosResponseDto implements ResultadoImportacion<ImportacionUsuariosResponseDto.FilaRechazada> {
+    
+    private int total;
+    private int creados;
+    private int actualizados;
+    private int sinCambios;
+    private int rechazados;
+    
+    // Usuarios activos que no figuran en el padrón (solo con desactivarAusentes)
+    private int desactivados;
+    private int ausentesConPrestamos;
+    // No se desactivó a nadie porque el archivo no se pudo leer completo
+    private boolean desactivacionOmitida;
+    private long duracionMs;
+    
+    // Detalle de las filas rechazadas, hasta el máximo configurado
+    private List<FilaRechazada> errores = new ArrayList<>();
+    private boolean erroresTruncados;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FilaRechazada {
+        // Número de fila de datos (sin contar el encabezado)
+        private long fila;
+        private String dni;
+        private String error;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package pe.edu.cibertec.bibliotech.api.response;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class PaginaResponseDto<T> {
+    
+    private List<T> contenido;
+    private int tamanio;
+    private Integer pagina;
+    private boolean hayMas;
+    // Cursor a enviar para pedir la página siguiente (null si no hay más)
+    private Long siguienteCursor;
+}
@@ -0,0 +1,27 @@
+package pe.edu.cibertec.bibliotech.api.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+import pe.edu.cibertec.bibliotech.api.request.PrestamoLoteRequestDto.ModoLote;
+
+@Data
+public class PrestamoLoteResponseDto {
+    
+    private ModoLote modo;
+    private int total;
+    private int registrados;
+    private int rechazados;
+    private List<Resultado> resultados = new ArrayList<>();
+    
+    @Data
+    public static class Resultado {
+        private int indice;
+        private Long libroId;
+        private Long usuarioId;
+        private boolean registrado;
+        private PrestamoResponseDto prestamo;
+        private String error;
+    }
+}
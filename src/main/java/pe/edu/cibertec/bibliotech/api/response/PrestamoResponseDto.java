@@ -1,5 +1,6 @@
 package pe.edu.cibertec.bibliotech.api.response;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 
 import lombok.Data;
@@ -19,4 +20,5 @@ public class PrestamoResponseDto {
     private String observaciones;
     private boolean vencido;
     private Long diasAtraso;
+    private BigDecimal multa;
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package pe.edu.cibertec.bibliotech.api.response;
+
+import lombok.Data;
+
+@Data
+public class RankingLibroResponseDto {
+    
+    private Integer posicion;
+    private Long prestamos;
+    private LibroResponseDto libro;
+}
\ No newline at end of file
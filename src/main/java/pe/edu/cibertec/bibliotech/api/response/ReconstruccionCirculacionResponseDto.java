@@ -0,0 +1,16 @@
+package pe.edu.cibertec.bibliotech.api.response;
+
+import java.time.LocalDate;
+
+import lombok.Data;
+
+@Data
+public class ReconstruccionCirculacionResponseDto {
+    
+    private LocalDate desde;
+    private LocalDate hasta;
+    private int bloques;
+    private long filasLibros;
+    private long filasCategorias;
+    private long duracionMs;
+}
\ No newline at end of file
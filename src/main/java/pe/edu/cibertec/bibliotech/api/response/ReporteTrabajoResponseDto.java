@@ -0,0 +1,18 @@
+package pe.edu.cibertec.bibliotech.api.response;
+
+import java.time.LocalDateTime;
+
+import lombok.Data;
+
+@Data
+public class ReporteTrabajoResponseDto {
+    
+    private String id;
+    private String archivo;
+    private String estado;
+    private Integer progreso;
+    private String error;
+    private LocalDateTime fechaSolicitud;
+    private LocalDateTime fechaFin;
+    private String urlDescarga;
+}
\ No newline at end of file
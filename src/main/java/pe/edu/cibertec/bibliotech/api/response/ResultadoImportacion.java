@@ -0,0 +1,18 @@
+package pe.edu.cibertec.bibliotech.api.response;
+
+import java.util.List;
+
+/**
+ * Lo común a los resultados de las importaciones por CSV: filas leídas y detalle de las
+ * rechazadas (E), hasta el máximo configurado.
+ */
+public interface ResultadoImportacion<E> {
+    
+    int getTotal();
+    
+    void setTotal(int total);
+    
+    List<E> getErrores();
+    
+    void setErroresTruncados(boolean erroresTruncados);
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package pe.edu.cibertec.bibliotech.api.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import lombok.Data;
+
+@Data
+public class SaldoMultasResponseDto {
+    
+    private Long usuarioId;
+    private String dni;
+    private String usuarioNombreCompleto;
+    private BigDecimal devengado;
+    private BigDecimal adeudado;
+    private BigDecimal total;
+    private LocalDateTime ultimaActualizacion;
+}
\ No newline at end of file
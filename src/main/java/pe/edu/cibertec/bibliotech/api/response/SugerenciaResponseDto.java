@@ -0,0 +1,12 @@
+package pe.edu.cibertec.bibliotech.api.response;
+
+import lombok.Data;
+
+@Data
+public class SugerenciaResponseDto {
+    
+    private String tipo;
+    private Long id;
+    private String texto;
+    private Long popularidad;
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package pe.edu.cibertec.bibliotech.api.restcontroller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import pe.edu.cibertec.bibliotech.api.response.SugerenciaResponseDto;
+import pe.edu.cibertec.bibliotech.service.AutocompletadoService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/autocomplete")
+@RequiredArgsConstructor
+public class AutocompletadoRestController {
+    
+    private final AutocompletadoService autocompletadoService;
+    
+    @GetMapping
+    public ResponseEntity<List<SugerenciaResponseDto>> sugerir(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limite) {
+        List<SugerenciaResponseDto> response = autocompletadoService.sugerir(q, limite);
+        return ResponseEntity.ok(response);
+    }
+}
\ No newline at end of file
@@ -6,11 +6,11 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import pe.edu.cibertec.bibliotech.api.request.AutorRequestDto;
+import pe.edu.cibertec.bibliotech.api.request.PaginaRequestDto;
 import pe.edu.cibertec.bibliotech.api.response.AutorResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.PaginaResponseDto;
 import pe.edu.cibertec.bibliotech.service.AutorService;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/autores")
 @RequiredArgsConstructor
@@ -45,14 +45,14 @@ public class AutorRestController {
     }
     
     @GetMapping
-    public ResponseEntity<List<AutorResponseDto>> listar() {
-        List<AutorResponseDto> response = autorService.listar();
+    public ResponseEntity<PaginaResponseDto<AutorResponseDto>> listar(@Valid PaginaRequestDto pagina) {
+        PaginaResponseDto<AutorResponseDto> response = autorService.listar(pagina);
         return ResponseEntity.ok(response);
     }
     
     @GetMapping("/buscar")
-    public ResponseEntity<List<AutorResponseDto>> buscarPorNombre(@RequestParam String nombre) {
-        List<AutorResponseDto> response = autorService.buscarPorNombre(nombre);
+    public ResponseEntity<PaginaResponseDto<AutorResponseDto>> buscarPorNombre(@RequestParam String nombre, @Valid PaginaRequestDto pagina) {
+        PaginaResponseDto<AutorResponseDto> response = autorService.buscarPorNombre(nombre, pagina);
         return ResponseEntity.ok(response);
     }
 }
\ No newline at end of file
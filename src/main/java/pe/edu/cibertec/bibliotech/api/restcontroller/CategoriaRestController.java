@@ -5,12 +5,13 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import pe.edu.cibertec.bibliotech.api.request.CategoriaRequestDto;
+import pe.edu.cibertec.bibliotech.api.request.PaginaRequestDto;
 import pe.edu.cibertec.bibliotech.api.response.CategoriaResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.PaginaResponseDto;
 import pe.edu.cibertec.bibliotech.service.CategoriaService;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/categorias")
 @RequiredArgsConstructor
@@ -45,8 +46,12 @@ public class CategoriaRestController {
     }
     
     @GetMapping
-    public ResponseEntity<List<CategoriaResponseDto>> listar() {
-        List<CategoriaResponseDto> response = categoriaService.listar();
+    public ResponseEntity<PaginaResponseDto<CategoriaResponseDto>> listar(@Valid PaginaRequestDto pagina, WebRequest request) {
+        // GET condicional: con If-None-Match vigente se responde 304 sin consultar la base
+        if (request.checkNotModified(categoriaService.etagListado())) {
+            return null;
+        }
+        PaginaResponseDto<CategoriaResponseDto> response = categoriaService.listar(pagina);
         return ResponseEntity.ok(response);
     }
     
@@ -0,0 +1,54 @@
+package pe.edu.cibertec.bibliotech.api.restcontroller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import pe.edu.cibertec.bibliotech.api.request.RangoFechasRequestDto;
+import pe.edu.cibertec.bibliotech.api.response.CirculacionDiaResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.CirculacionResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.ReconstruccionCirculacionResponseDto;
+import pe.edu.cibertec.bibliotech.service.CirculacionService;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/circulacion")
+@RequiredArgsConstructor
+public class CirculacionRestController {
+    
+    private final CirculacionService circulacionService;
+    
+    // Rango opcional: desde, hasta (yyyy-MM-dd). Por defecto, los últimos 30 días
+    @GetMapping("/diaria")
+    public ResponseEntity<List<CirculacionDiaResponseDto>> porDia(@Valid RangoFechasRequestDto rango) {
+        List<CirculacionDiaResponseDto> response = circulacionService.porDia(rango);
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/categorias")
+    public ResponseEntity<List<CirculacionResponseDto>> porCategoria(@Valid RangoFechasRequestDto rango) {
+        List<CirculacionResponseDto> response = circulacionService.porCategoria(rango);
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/autores")
+    public ResponseEntity<List<CirculacionResponseDto>> porAutor(@Valid RangoFechasRequestDto rango) {
+        List<CirculacionResponseDto> response = circulacionService.porAutor(rango);
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/libros")
+    public ResponseEntity<List<CirculacionResponseDto>> porLibro(
+            @Valid RangoFechasRequestDto rango,
+            @RequestParam(required = false) Integer limite) {
+        List<CirculacionResponseDto> response = circulacionService.porLibro(rango, limite);
+        return ResponseEntity.ok(response);
+    }
+    
+    // Carga o corrige el historial. Sin rango, desde el primer préstamo hasta hoy
+    @PostMapping("/reconstruir")
+    public ResponseEntity<ReconstruccionCirculacionResponseDto> reconstruir(@Valid RangoFechasRequestDto rango) {
+        ReconstruccionCirculacionResponseDto response = circulacionService.reconstruir(rango);
+        return ResponseEntity.ok(response);
+    }
+}
\ No newline at end of file
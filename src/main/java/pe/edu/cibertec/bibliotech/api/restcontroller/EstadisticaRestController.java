@@ -0,0 +1,22 @@
+package pe.edu.cibertec.bibliotech.api.restcontroller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import pe.edu.cibertec.bibliotech.api.response.EstadisticasResponseDto;
+import pe.edu.cibertec.bibliotech.service.EstadisticaService;
+
+@RestController
+@RequestMapping("/api/estadisticas")
+@RequiredArgsConstructor
+public class EstadisticaRestController {
+    
+    private final EstadisticaService estadisticaService;
+    
+    // Conteos del panel de administración, servidos desde una instantánea (ver generadoEn)
+    @GetMapping
+    public ResponseEntity<EstadisticasResponseDto> obtener() {
+        EstadisticasResponseDto response = estadisticaService.obtener();
+        return ResponseEntity.ok(response);
+    }
+}
\ No newline at end of file
@@ -2,13 +2,24 @@ package pe.edu.cibertec.bibliotech.api.restcontroller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import pe.edu.cibertec.bibliotech.api.request.LibroRequestDto;
+import pe.edu.cibertec.bibliotech.api.request.PaginaRequestDto;
+import pe.edu.cibertec.bibliotech.api.response.DisponibilidadResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.ImportacionLibrosResponseDto;
 import pe.edu.cibertec.bibliotech.api.response.LibroResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.PaginaResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.RankingLibroResponseDto;
 import pe.edu.cibertec.bibliotech.service.LibroService;
-
+import pe.edu.cibertec.bibliotech.service.support.RankingPrestamos.Ventana;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -38,45 +49,106 @@ public class LibroRestController {
         return ResponseEntity.noContent().build();
     }
     
+    // GET condicional: con If-None-Match vigente se responde 304 sin cargar ni serializar el libro
     @GetMapping("/{id}")
-    public ResponseEntity<LibroResponseDto> obtener(@PathVariable Long id) {
+    public ResponseEntity<LibroResponseDto> obtener(@PathVariable Long id, WebRequest request) {
+        if (request.checkNotModified(libroService.etag(id))) {
+            return null;
+        }
         LibroResponseDto response = libroService.obtener(id);
         return ResponseEntity.ok(response);
     }
     
     @GetMapping
-    public ResponseEntity<List<LibroResponseDto>> listar() {
-        List<LibroResponseDto> response = libroService.listar();
+    public ResponseEntity<PaginaResponseDto<LibroResponseDto>> listar(@Valid PaginaRequestDto pagina, WebRequest request) {
+        if (request.checkNotModified(libroService.etagListado())) {
+            return null;
+        }
+        PaginaResponseDto<LibroResponseDto> response = libroService.listar(pagina);
         return ResponseEntity.ok(response);
     }
     
     @GetMapping("/disponibles")
-    public ResponseEntity<List<LibroResponseDto>> listarDisponibles() {
-        List<LibroResponseDto> response = libroService.listarDisponibles();
+    public ResponseEntity<PaginaResponseDto<LibroResponseDto>> listarDisponibles(@Valid PaginaRequestDto pagina, WebRequest request) {
+        if (request.checkNotModified(libroService.etagListado())) {
+            return null;
+        }
+        PaginaResponseDto<LibroResponseDto> response = libroService.listarDisponibles(pagina);
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/sin-stock")
+    public ResponseEntity<PaginaResponseDto<LibroResponseDto>> listarSinStock(@Valid PaginaRequestDto pagina, WebRequest request) {
+        if (request.checkNotModified(libroService.etagListado())) {
+            return null;
+        }
+        PaginaResponseDto<LibroResponseDto> response = libroService.listarSinStock(pagina);
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/stock-bajo")
+    public ResponseEntity<PaginaResponseDto<LibroResponseDto>> listarStockBajo(@Valid PaginaRequestDto pagina, WebRequest request) {
+        if (request.checkNotModified(libroService.etagListado())) {
+            return null;
+        }
+        PaginaResponseDto<LibroResponseDto> response = libroService.listarStockBajo(pagina);
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/disponibilidad")
+    public ResponseEntity<DisponibilidadResponseDto> resumenDisponibilidad() {
+        DisponibilidadResponseDto response = libroService.resumenDisponibilidad();
+        return ResponseEntity.ok(response);
+    }
+    
+    // Ventanas: TOTAL, ULTIMOS_30_DIAS o SEMESTRE
+    @GetMapping("/mas-prestados")
+    public ResponseEntity<List<RankingLibroResponseDto>> listarMasPrestados(
+            @RequestParam(defaultValue = "TOTAL") Ventana ventana,
+            @RequestParam(required = false) Integer limite) {
+        List<RankingLibroResponseDto> response = libroService.listarMasPrestados(ventana, limite);
         return ResponseEntity.ok(response);
     }
     
     @GetMapping("/buscar/titulo")
-    public ResponseEntity<List<LibroResponseDto>> buscarPorTitulo(@RequestParam String titulo) {
-        List<LibroResponseDto> response = libroService.buscarPorTitulo(titulo);
+    public ResponseEntity<PaginaResponseDto<LibroResponseDto>> buscarPorTitulo(@RequestParam String titulo, @Valid PaginaRequestDto pagina) {
+        PaginaResponseDto<LibroResponseDto> response = libroService.buscarPorTitulo(titulo, pagina);
         return ResponseEntity.ok(response);
     }
     
     @GetMapping("/buscar/autor/{autorId}")
-    public ResponseEntity<List<LibroResponseDto>> buscarPorAutor(@PathVariable Long autorId) {
-        List<LibroResponseDto> response = libroService.buscarPorAutor(autorId);
+    public ResponseEntity<PaginaResponseDto<LibroResponseDto>> buscarPorAutor(@PathVariable Long autorId, @Valid PaginaRequestDto pagina) {
+        PaginaResponseDto<LibroResponseDto> response = libroService.buscarPorAutor(autorId, pagina);
         return ResponseEntity.ok(response);
     }
     
     @GetMapping("/buscar/categoria/{categoriaId}")
-    public ResponseEntity<List<LibroResponseDto>> buscarPorCategoria(@PathVariable Long categoriaId) {
-        List<LibroResponseDto> response = libroService.buscarPorCategoria(categoriaId);
+    public ResponseEntity<PaginaResponseDto<LibroResponseDto>> buscarPorCategoria(@PathVariable Long categoriaId, @Valid PaginaRequestDto pagina) {
+        PaginaResponseDto<LibroResponseDto> response = libroService.buscarPorCategoria(categoriaId, pagina);
         return ResponseEntity.ok(response);
     }
     
     @GetMapping("/buscar")
-    public ResponseEntity<List<LibroResponseDto>> buscar(@RequestParam String keyword) {
-        List<LibroResponseDto> response = libroService.buscarPorPalabra(keyword);
+    public ResponseEntity<PaginaResponseDto<LibroResponseDto>> buscar(@RequestParam String keyword, @Valid PaginaRequestDto pagina) {
+        PaginaResponseDto<LibroResponseDto> response = libroService.buscarPorPalabra(keyword, pagina);
+        return ResponseEntity.ok(response);
+    }
+    
+    // Exportación completa en NDJSON (un objeto por línea), escrita mientras se lee
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportar() {
+        StreamingResponseBody cuerpo = salida -> libroService.exportar(salida);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"libros.ndjson\"")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(cuerpo);
+    }
+    
+    // Importación masiva: CSV con encabezado (titulo, isbn, anio_publicacion, cantidad_total,
+    // descripcion, autor, categoria), leído como stream. Las filas inválidas se informan en la respuesta
+    @PostMapping(value = "/importar", consumes = "text/csv")
+    public ResponseEntity<ImportacionLibrosResponseDto> importarCsv(InputStream cuerpo) throws IOException {
+        ImportacionLibrosResponseDto response = libroService.importarCsv(cuerpo);
         return ResponseEntity.ok(response);
     }
 }
\ No newline at end of file
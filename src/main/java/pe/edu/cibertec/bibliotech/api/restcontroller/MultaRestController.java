@@ -0,0 +1,37 @@
+package pe.edu.cibertec.bibliotech.api.restcontroller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import pe.edu.cibertec.bibliotech.api.response.DevengoMultasResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.SaldoMultasResponseDto;
+import pe.edu.cibertec.bibliotech.service.MultaService;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/multas")
+@RequiredArgsConstructor
+public class MultaRestController {
+    
+    private final MultaService multaService;
+    
+    @GetMapping("/usuarios/{usuarioId}")
+    public ResponseEntity<SaldoMultasResponseDto> saldoDeUsuario(@PathVariable Long usuarioId) {
+        SaldoMultasResponseDto response = multaService.saldoDeUsuario(usuarioId);
+        return ResponseEntity.ok(response);
+    }
+    
+    // Usuarios con mayor saldo (adeudado + devengado), 20 por defecto
+    @GetMapping("/usuarios")
+    public ResponseEntity<List<SaldoMultasResponseDto>> deudores(@RequestParam(required = false) Integer limite) {
+        List<SaldoMultasResponseDto> response = multaService.deudores(limite);
+        return ResponseEntity.ok(response);
+    }
+    
+    // Ejecuta ahora el devengo nocturno (por ejemplo, tras cambiar las tarifas)
+    @PostMapping("/devengar")
+    public ResponseEntity<DevengoMultasResponseDto> devengar() {
+        DevengoMultasResponseDto response = multaService.devengar();
+        return ResponseEntity.ok(response);
+    }
+}
\ No newline at end of file
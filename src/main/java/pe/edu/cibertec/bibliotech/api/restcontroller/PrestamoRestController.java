@@ -2,15 +2,23 @@ package pe.edu.cibertec.bibliotech.api.restcontroller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pe.edu.cibertec.bibliotech.api.request.DevolucionLoteRequestDto;
+import pe.edu.cibertec.bibliotech.api.request.PaginaRequestDto;
+import pe.edu.cibertec.bibliotech.api.request.PrestamoLoteRequestDto;
 import pe.edu.cibertec.bibliotech.api.request.PrestamoRequestDto;
+import pe.edu.cibertec.bibliotech.api.response.BarridoVencidosResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.DevolucionLoteResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.PaginaResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.PrestamoLoteResponseDto;
 import pe.edu.cibertec.bibliotech.api.response.PrestamoResponseDto;
 import pe.edu.cibertec.bibliotech.service.PrestamoService;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/prestamos")
 @RequiredArgsConstructor
@@ -24,6 +32,13 @@ public class PrestamoRestController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
     
+    @PostMapping("/lote")
+    public ResponseEntity<PrestamoLoteResponseDto> registrarLote(@Valid @RequestBody PrestamoLoteRequestDto request) {
+        PrestamoLoteResponseDto response = prestamoService.registrarLote(request);
+        HttpStatus status = response.getRegistrados() > 0 ? HttpStatus.CREATED : HttpStatus.UNPROCESSABLE_ENTITY;
+        return ResponseEntity.status(status).body(response);
+    }
+    
     @PatchMapping("/{id}/devolver")
     public ResponseEntity<PrestamoResponseDto> registrarDevolucion(
             @PathVariable Long id,
@@ -32,6 +47,12 @@ public class PrestamoRestController {
         return ResponseEntity.ok(response);
     }
     
+    @PatchMapping("/lote/devolver")
+    public ResponseEntity<DevolucionLoteResponseDto> registrarDevolucionLote(@Valid @RequestBody DevolucionLoteRequestDto request) {
+        DevolucionLoteResponseDto response = prestamoService.registrarDevolucionLote(request);
+        return ResponseEntity.ok(response);
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> cancelar(@PathVariable Long id) {
         prestamoService.cancelar(id);
@@ -45,38 +66,48 @@ public class PrestamoRestController {
     }
     
     @GetMapping
-    public ResponseEntity<List<PrestamoResponseDto>> listar() {
-        List<PrestamoResponseDto> response = prestamoService.listar();
+    public ResponseEntity<PaginaResponseDto<PrestamoResponseDto>> listar(@Valid PaginaRequestDto pagina) {
+        PaginaResponseDto<PrestamoResponseDto> response = prestamoService.listar(pagina);
         return ResponseEntity.ok(response);
     }
     
     @GetMapping("/activos")
-    public ResponseEntity<List<PrestamoResponseDto>> listarActivos() {
-        List<PrestamoResponseDto> response = prestamoService.listarActivos();
+    public ResponseEntity<PaginaResponseDto<PrestamoResponseDto>> listarActivos(@Valid PaginaRequestDto pagina) {
+        PaginaResponseDto<PrestamoResponseDto> response = prestamoService.listarActivos(pagina);
         return ResponseEntity.ok(response);
     }
     
     @GetMapping("/vencidos")
-    public ResponseEntity<List<PrestamoResponseDto>> listarVencidos() {
-        List<PrestamoResponseDto> response = prestamoService.listarVencidos();
+    public ResponseEntity<PaginaResponseDto<PrestamoResponseDto>> listarVencidos(@Valid PaginaRequestDto pagina) {
+        PaginaResponseDto<PrestamoResponseDto> response = prestamoService.listarVencidos(pagina);
         return ResponseEntity.ok(response);
     }
     
     @GetMapping("/usuario/{usuarioId}")
-    public ResponseEntity<List<PrestamoResponseDto>> listarPorUsuario(@PathVariable Long usuarioId) {
-        List<PrestamoResponseDto> response = prestamoService.listarPorUsuario(usuarioId);
+    public ResponseEntity<PaginaResponseDto<PrestamoResponseDto>> listarPorUsuario(@PathVariable Long usuarioId, @Valid PaginaRequestDto pagina) {
+        PaginaResponseDto<PrestamoResponseDto> response = prestamoService.listarPorUsuario(usuarioId, pagina);
         return ResponseEntity.ok(response);
     }
     
     @GetMapping("/libro/{libroId}")
-    public ResponseEntity<List<PrestamoResponseDto>> listarPorLibro(@PathVariable Long libroId) {
-        List<PrestamoResponseDto> response = prestamoService.listarPorLibro(libroId);
+    public ResponseEntity<PaginaResponseDto<PrestamoResponseDto>> listarPorLibro(@PathVariable Long libroId, @Valid PaginaRequestDto pagina) {
+        PaginaResponseDto<PrestamoResponseDto> response = prestamoService.listarPorLibro(libroId, pagina);
         return ResponseEntity.ok(response);
     }
     
     @PostMapping("/actualizar-vencidos")
-    public ResponseEntity<Void> actualizarEstadosVencidos() {
-        prestamoService.actualizarEstadosVencidos();
-        return ResponseEntity.ok().build();
+    public ResponseEntity<BarridoVencidosResponseDto> actualizarEstadosVencidos() {
+        BarridoVencidosResponseDto response = prestamoService.actualizarEstadosVencidos();
+        return ResponseEntity.ok(response);
+    }
+    
+    // Exportación completa en NDJSON (un objeto por línea), escrita mientras se lee
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportar() {
+        StreamingResponseBody cuerpo = salida -> prestamoService.exportar(salida);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"prestamos.ndjson\"")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(cuerpo);
     }
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package pe.edu.cibertec.bibliotech.api.restcontroller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pe.edu.cibertec.bibliotech.api.request.ReportePrestamosRequestDto;
+import pe.edu.cibertec.bibliotech.api.request.ReporteTrabajoRequestDto;
+import pe.edu.cibertec.bibliotech.api.response.ReporteTrabajoResponseDto;
+import pe.edu.cibertec.bibliotech.service.ReporteService;
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/reportes")
+@RequiredArgsConstructor
+public class ReporteRestController {
+    
+    private static final MediaType XLSX =
+            MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+    
+    private final ReporteService reporteService;
+    
+    // Filtros opcionales: desde, hasta (yyyy-MM-dd), estado y usuarioId. El archivo se escribe mientras se lee
+    @GetMapping("/prestamos.xlsx")
+    public ResponseEntity<StreamingResponseBody> prestamosExcel(@Valid ReportePrestamosRequestDto filtro) {
+        StreamingResponseBody cuerpo = salida -> reporteService.prestamosExcel(filtro, salida);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"prestamos.xlsx\"")
+                .contentType(XLSX)
+                .body(cuerpo);
+    }
+    
+    // Reportes PDF: se encolan (202) y se consultan hasta que el archivo esté listo
+    @PostMapping("/trabajos")
+    public ResponseEntity<ReporteTrabajoResponseDto> solicitarPdf(@Valid @RequestBody ReporteTrabajoRequestDto request) {
+        ReporteTrabajoResponseDto response = reporteService.solicitarPdf(request);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/reportes/trabajos/" + response.getId()))
+                .body(response);
+    }
+    
+    @GetMapping("/trabajos/{id}")
+    public ResponseEntity<ReporteTrabajoResponseDto> obtenerTrabajo(@PathVariable String id) {
+        ReporteTrabajoResponseDto response = reporteService.obtenerTrabajo(id);
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/trabajos/{id}/archivo")
+    public ResponseEntity<Resource> descargarTrabajo(@PathVariable String id) {
+        Resource archivo = reporteService.descargarTrabajo(id);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + archivo.getFilename() + "\"")
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(archivo);
+    }
+}
\ No newline at end of file
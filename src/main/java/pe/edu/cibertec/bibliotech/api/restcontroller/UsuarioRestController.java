@@ -5,11 +5,14 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import pe.edu.cibertec.bibliotech.api.request.PaginaRequestDto;
 import pe.edu.cibertec.bibliotech.api.request.UsuarioRequestDto;
+import pe.edu.cibertec.bibliotech.api.response.ImportacionUsuariosResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.PaginaResponseDto;
 import pe.edu.cibertec.bibliotech.api.response.UsuarioResponseDto;
 import pe.edu.cibertec.bibliotech.service.UsuarioService;
-
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("/api/usuarios")
@@ -45,14 +48,14 @@ public class UsuarioRestController {
     }
     
     @GetMapping
-    public ResponseEntity<List<UsuarioResponseDto>> listar() {
-        List<UsuarioResponseDto> response = usuarioService.listar();
+    public ResponseEntity<PaginaResponseDto<UsuarioResponseDto>> listar(@Valid PaginaRequestDto pagina) {
+        PaginaResponseDto<UsuarioResponseDto> response = usuarioService.listar(pagina);
         return ResponseEntity.ok(response);
     }
     
     @GetMapping("/activos")
-    public ResponseEntity<List<UsuarioResponseDto>> listarActivos() {
-        List<UsuarioResponseDto> response = usuarioService.listarActivos();
+    public ResponseEntity<PaginaResponseDto<UsuarioResponseDto>> listarActivos(@Valid PaginaRequestDto pagina) {
+        PaginaResponseDto<UsuarioResponseDto> response = usuarioService.listarActivos(pagina);
         return ResponseEntity.ok(response);
     }
     
@@ -79,4 +82,12 @@ public class UsuarioRestController {
         usuarioService.desactivar(id);
         return ResponseEntity.ok().build();
     }
+    
+    @PostMapping(value = "/importar", consumes = "text/csv")
+    public ResponseEntity<ImportacionUsuariosResponseDto> importarCsv(
+            InputStream cuerpo,
+            @RequestParam(defaultValue = "false") boolean desactivarAusentes) throws IOException {
+        ImportacionUsuariosResponseDto response = usuarioService.importarCsv(cuerpo, desactivarAusentes);
+        return ResponseEntity.ok(response);
+    }
 }
\ No newline at end of file
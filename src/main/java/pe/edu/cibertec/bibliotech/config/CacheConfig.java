@@ -0,0 +1,36 @@
+package pe.edu.cibertec.bibliotech.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import pe.edu.cibertec.bibliotech.service.support.CatalogoCache;
+
+/**
+ * Cachés en memoria (Caffeine) acotadas por tamaño y TTL. Se declaran de antemano
+ * para que Actuator publique sus métricas (cache.gets con result=hit|miss, cache.evictions).
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${bibliotech.cache.catalogo.tamanio-maximo:1000}") long tamanioMaximo,
+            @Value("${bibliotech.cache.catalogo.ttl:30m}") Duration ttl) {
+        CaffeineCacheManager manager = new CaffeineCacheManager(
+                CatalogoCache.AUTORES, CatalogoCache.CATEGORIAS, CatalogoCache.CATEGORIAS_POR_NOMBRE);
+        manager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(tamanioMaximo)
+                .expireAfterWrite(ttl)
+                .recordStats());
+        return manager;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package pe.edu.cibertec.bibliotech.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca una operación que inserta entidades con ids por bloques (entity.Secuencias).
+ * LimiteInsercionesAspect deja entrar a la vez una transacción menos que las conexiones
+ * del pool, para que siempre quede una libre para reservar el siguiente bloque de ids.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface LimiteInserciones {
+}
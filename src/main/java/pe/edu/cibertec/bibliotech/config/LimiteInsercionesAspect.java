@@ -0,0 +1,50 @@
+package pe.edu.cibertec.bibliotech.config;
+
+import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
+
+import javax.sql.DataSource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Limita las transacciones anotadas con @LimiteInserciones a una menos que el tamaño del pool.
+ * Hibernate reserva cada bloque de ids en una transacción aparte, con una segunda conexión,
+ * mientras los demás hilos esperan el bloque conservando la suya: sin este límite, con el pool
+ * lleno de transacciones que esperan ids, la reserva no consigue conexión y todas fallan al
+ * cumplirse connection-timeout. Se ordena por delante de los reintentos y de @Transactional,
+ * de modo que el permiso se toma antes de pedir la conexión.
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 2)
+public class LimiteInsercionesAspect {
+    
+    private final Semaphore permisos;
+    
+    public LimiteInsercionesAspect(DataSource dataSource) throws SQLException {
+        int conexiones = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+        this.permisos = new Semaphore(Math.max(conexiones - 1, 1), true);
+        log.info("Inserciones con ids por bloques limitadas a {} transacciones simultáneas", permisos.availablePermits());
+    }
+    
+    @Around("@annotation(pe.edu.cibertec.bibliotech.config.LimiteInserciones)")
+    public Object limitar(ProceedingJoinPoint punto) throws Throwable {
+        permisos.acquire();
+        try {
+            return punto.proceed();
+        } finally {
+            permisos.release();
+        }
+    }
+}
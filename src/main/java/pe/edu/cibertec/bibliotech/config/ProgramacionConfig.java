@@ -0,0 +1,12 @@
+package pe.edu.cibertec.bibliotech.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas programadas (@Scheduled) del paquete job.
+ */
+@Configuration
+@EnableScheduling
+public class ProgramacionConfig {
+}
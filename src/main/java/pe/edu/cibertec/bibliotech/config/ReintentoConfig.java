@@ -0,0 +1,14 @@
+package pe.edu.cibertec.bibliotech.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.retry.annotation.EnableRetry;
+
+/**
+ * Habilita @Retryable. El interceptor de reintentos se ordena por delante del
+ * de @Transactional, de modo que cada intento se ejecuta en una transacción nueva.
+ */
+@Configuration
+@EnableRetry(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class ReintentoConfig {
+}
@@ -0,0 +1,65 @@
+package pe.edu.cibertec.bibliotech.config;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Publica como métricas los conflictos (de versión o de bloqueo) y los reintentos realizados
+ * por cada operación anotada con @ReintentoPorConflicto (etiqueta "operacion").
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReintentoMetricasListener implements RetryListener {
+    
+    private final MeterRegistry registry;
+    
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        if (esConflicto(throwable)) {
+            log.debug("Conflicto de concurrencia en '{}' (intento {}): {}", operacion(context),
+                      context.getRetryCount(), throwable.getClass().getSimpleName());
+            contador("bibliotech.concurrencia.conflictos", context).increment();
+        }
+    }
+    
+    @Override
+    public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        int intentosFallidos = context.getRetryCount();
+        int reintentos = throwable == null ? intentosFallidos : Math.max(intentosFallidos - 1, 0);
+        
+        if (reintentos > 0) {
+            contador("bibliotech.concurrencia.reintentos", context).increment(reintentos);
+        }
+        
+        if (esConflicto(throwable)) {
+            log.warn("Reintentos agotados en '{}' tras {} intento(s)", operacion(context), intentosFallidos);
+            contador("bibliotech.concurrencia.reintentos.agotados", context).increment();
+        }
+    }
+    
+    private static boolean esConflicto(Throwable throwable) {
+        return throwable instanceof OptimisticLockingFailureException
+                || throwable instanceof PessimisticLockingFailureException;
+    }
+    
+    private Counter contador(String nombre, RetryContext context) {
+        return Counter.builder(nombre)
+                .tag("operacion", operacion(context))
+                .register(registry);
+    }
+    
+    private String operacion(RetryContext context) {
+        Object nombre = context.getAttribute(RetryContext.NAME);
+        return nombre != null ? nombre.toString() : "desconocida";
+    }
+}
@@ -0,0 +1,33 @@
+package pe.edu.cibertec.bibliotech.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.springframework.core.annotation.AliasFor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+/**
+ * Reintenta la operación en una transacción nueva ante un conflicto de versión o de bloqueo
+ * (deadlock o espera de bloqueo agotada), con espera exponencial y aleatoria
+ * (bibliotech.reintentos.*). El valor es la etiqueta "operacion" de las métricas de
+ * ReintentoMetricasListener.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Retryable(retryFor = { OptimisticLockingFailureException.class, PessimisticLockingFailureException.class },
+           maxAttemptsExpression = "${bibliotech.reintentos.max-intentos:3}",
+           backoff = @Backoff(delayExpression = "${bibliotech.reintentos.espera-ms:50}",
+                              maxDelayExpression = "${bibliotech.reintentos.espera-max-ms:400}",
+                              multiplier = 2, random = true))
+public @interface ReintentoPorConflicto {
+    
+    @AliasFor(annotation = Retryable.class, attribute = "label")
+    String value();
+}
\ No newline at end of file
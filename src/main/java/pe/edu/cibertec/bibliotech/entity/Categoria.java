@@ -1,16 +1,21 @@
 package pe.edu.cibertec.bibliotech.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "categorias")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "categorias")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -27,6 +32,13 @@ public class Categoria {
     @Column(length = 200)
     private String descripcion;
     
+    // Tarifas de multa por día de atraso y tope por préstamo; sin valor se usan las de bibliotech.multas
+    @Column(name = "multa_diaria", precision = 8, scale = 2)
+    private BigDecimal multaDiaria;
+    
+    @Column(name = "multa_maxima", precision = 8, scale = 2)
+    private BigDecimal multaMaxima;
+    
     @Column(name = "fecha_registro", updatable = false)
     private LocalDateTime fechaRegistro = LocalDateTime.now();
     
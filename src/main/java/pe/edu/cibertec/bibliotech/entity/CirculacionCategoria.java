@@ -0,0 +1,57 @@
+package pe.edu.cibertec.bibliotech.entity;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import org.hibernate.annotations.ColumnDefault;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Circulación acumulada por día y categoría. Los préstamos cuentan en su fecha de préstamo
+ * y las devoluciones en su fecha de devolución real. Se actualiza con upserts nativos
+ * desde PrestamoServiceImpl y se reconstruye con ReconstruccionCirculacion.
+ */
+@Entity
+@Table(name = "circulacion_categorias_dia")
+@IdClass(CirculacionCategoria.Clave.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CirculacionCategoria {
+    
+    @Id
+    @Column(nullable = false)
+    private LocalDate fecha;
+    
+    @Id
+    @Column(name = "categoria_id", nullable = false)
+    private Long categoriaId;
+    
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long prestamos = 0L;
+    
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long devoluciones = 0L;
+    
+    @ColumnDefault("0")
+    @Column(name = "devoluciones_atraso", nullable = false)
+    private Long devolucionesAtraso = 0L;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Clave implements Serializable {
+        private LocalDate fecha;
+        private Long categoriaId;
+    }
+}
\ No newline at end of file
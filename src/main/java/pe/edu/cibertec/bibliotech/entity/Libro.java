@@ -4,6 +4,11 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -15,6 +20,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
@@ -23,6 +29,8 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Table(name = "libros")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "libros")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -71,6 +79,17 @@ public class Libro {
     @Column(name = "ultima_actualizacion")
     private LocalDateTime ultimaActualizacion = LocalDateTime.now();
     
+    // Préstamos registrados (sin contar los cancelados). Solo cambia con actualizaciones
+    // por conjunto en LibroRepository; guardar la entidad nunca pisa el contador
+    @ColumnDefault("0")
+    @Column(name = "total_prestamos", nullable = false, insertable = false, updatable = false)
+    private Long totalPrestamos = 0L;
+    
+    // Control de concurrencia optimista
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     // Método de utilidad
     public boolean isDisponible() {
         return cantidadDisponible != null && cantidadDisponible > 0;
@@ -1,9 +1,12 @@
 package pe.edu.cibertec.bibliotech.entity;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 
+import org.hibernate.annotations.ColumnDefault;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -15,6 +18,8 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -27,8 +32,12 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class Prestamo {
     
+    // Ids por bloques (Secuencias) para que los lotes de préstamos se inserten en batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "prestamos_id")
+    @TableGenerator(name = "prestamos_id", table = Secuencias.TABLA,
+                    pkColumnName = Secuencias.COLUMNA_NOMBRE, valueColumnName = Secuencias.COLUMNA_VALOR,
+                    pkColumnValue = "prestamos", allocationSize = Secuencias.TAMANIO_BLOQUE)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -57,9 +66,19 @@ public class Prestamo {
     @Column(length = 500)
     private String observaciones;
     
+    // Devengada cada noche mientras el préstamo está abierto y fijada al devolverlo (MotorMultas)
+    @ColumnDefault("0")
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal multa = BigDecimal.ZERO;
+    
     @Column(name = "fecha_registro", updatable = false)
     private LocalDateTime fechaRegistro = LocalDateTime.now();
     
+    // Control de concurrencia optimista
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     // Enum para estados
     public enum EstadoPrestamo {
         ACTIVO, DEVUELTO, VENCIDO
@@ -79,10 +98,9 @@ public class Prestamo {
                LocalDate.now().isAfter(fechaDevolucionEsperada);
     }
     
+    // Hasta la devolución real o, si sigue abierto, hasta hoy
     public long getDiasAtraso() {
-        if (isVencido()) {
-            return ChronoUnit.DAYS.between(fechaDevolucionEsperada, LocalDate.now());
-        }
-        return 0;
+        LocalDate fin = fechaDevolucionReal != null ? fechaDevolucionReal : LocalDate.now();
+        return Math.max(ChronoUnit.DAYS.between(fechaDevolucionEsperada, fin), 0);
     }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package pe.edu.cibertec.bibliotech.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.ColumnDefault;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Saldo de multas por usuario. Lo mantienen MotorMultas (devoluciones y cancelaciones)
+ * y DevengoMultas (devengo nocturno) con sentencias nativas, para que consultar el
+ * saldo no recorra el historial de préstamos. Solo hay fila para usuarios con multas.
+ */
+@Entity
+@Table(name = "saldos_multas")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoMultas {
+    
+    @Id
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+    
+    // Multas de los préstamos abiertos, al último devengo
+    @ColumnDefault("0")
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal devengado = BigDecimal.ZERO;
+    
+    // Multas fijadas al devolver los préstamos
+    @ColumnDefault("0")
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal adeudado = BigDecimal.ZERO;
+    
+    @Column(name = "ultima_actualizacion", nullable = false)
+    private LocalDateTime ultimaActualizacion;
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package pe.edu.cibertec.bibliotech.entity;
+
+/**
+ * Tabla de secuencias para las entidades que generan su id por bloques en lugar de usar
+ * IDENTITY. Con IDENTITY Hibernate debe ejecutar cada INSERT al persistir para conocer el id,
+ * y no puede agruparlos en batches JDBC. Con un @TableGenerator sobre esta tabla y el
+ * optimizador pooled-lo (hibernate.id.optimizer.pooled.preferred), cada lectura de la
+ * secuencia reserva TAMANIO_BLOQUE ids y los INSERT se envían de a hibernate.jdbc.batch_size.
+ *
+ * Para pasar una entidad a este esquema: @GeneratedValue(strategy = GenerationType.TABLE)
+ * con un @TableGenerator que use estas constantes, y su fila inicial en la tabla
+ * (ver db/cambios/005_secuencias.sql). Las entidades que también se insertan por JDBC sin
+ * indicar el id (Libro, Usuario) deben seguir con IDENTITY: ambos contadores chocarían.
+ * <p>
+ * Hibernate reserva cada bloque en una transacción aparte, con una segunda conexión del pool,
+ * mientras la transacción que inserta conserva la suya. Si todas las conexiones están tomadas
+ * por transacciones que esperan ids, la reserva espera hasta connection-timeout: las operaciones
+ * que insertan estas entidades se anotan con config.LimiteInserciones, que deja libre al menos
+ * una conexión del pool.
+ */
+public final class Secuencias {
+    
+    public static final String TABLA = "secuencias";
+    public static final String COLUMNA_NOMBRE = "nombre";
+    public static final String COLUMNA_VALOR = "siguiente_valor";
+    
+    // Igual a hibernate.jdbc.batch_size: un bloque de ids por batch
+    public static final int TAMANIO_BLOQUE = 50;
+    
+    private Secuencias() {
+    }
+}
\ No newline at end of file
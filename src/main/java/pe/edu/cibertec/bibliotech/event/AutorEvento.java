@@ -0,0 +1,21 @@
+package pe.edu.cibertec.bibliotech.event;
+
+import pe.edu.cibertec.bibliotech.entity.Autor;
+
+/**
+ * Se publica cuando un autor se crea, cambia sus datos (p. ej. su nombre) o se elimina.
+ */
+public record AutorEvento(
+    Long autorId,
+    String nombre,
+    boolean eliminado
+) {
+    
+    public static AutorEvento guardado(Autor autor) {
+        return new AutorEvento(autor.getId(), autor.getNombre(), false);
+    }
+    
+    public static AutorEvento eliminado(Long autorId) {
+        return new AutorEvento(autorId, null, true);
+    }
+}
@@ -0,0 +1,21 @@
+package pe.edu.cibertec.bibliotech.event;
+
+import pe.edu.cibertec.bibliotech.entity.Categoria;
+
+/**
+ * Se publica cuando una categoría se crea, cambia sus datos o se elimina.
+ */
+public record CategoriaEvento(
+    Long categoriaId,
+    String nombre,
+    boolean eliminado
+) {
+    
+    public static CategoriaEvento guardado(Categoria categoria) {
+        return new CategoriaEvento(categoria.getId(), categoria.getNombre(), false);
+    }
+    
+    public static CategoriaEvento eliminado(Long categoriaId) {
+        return new CategoriaEvento(categoriaId, null, true);
+    }
+}
\ No newline at end of file
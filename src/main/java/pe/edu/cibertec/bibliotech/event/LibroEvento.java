@@ -0,0 +1,29 @@
+package pe.edu.cibertec.bibliotech.event;
+
+import pe.edu.cibertec.bibliotech.entity.Libro;
+
+/**
+ * Se publica cuando un libro se crea, actualiza o elimina.
+ * Lleva los datos que necesitan los índices en memoria para no volver a consultar la base.
+ * Los listeners corren después de cada commit y pueden llegar en otro orden: la versión
+ * (ya incrementada, se publica después del flush) permite descartar los eventos atrasados.
+ */
+public record LibroEvento(
+    Long libroId,
+    String titulo,
+    String isbn,
+    Long autorId,
+    String autorNombre,
+    Long version,
+    boolean eliminado
+) {
+    
+    public static LibroEvento guardado(Libro libro) {
+        return new LibroEvento(libro.getId(), libro.getTitulo(), libro.getIsbn(),
+                libro.getAutor().getId(), libro.getAutor().getNombre(), libro.getVersion(), false);
+    }
+    
+    public static LibroEvento eliminado(Long libroId) {
+        return new LibroEvento(libroId, null, null, null, null, null, true);
+    }
+}
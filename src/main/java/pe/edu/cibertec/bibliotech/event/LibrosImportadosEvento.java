@@ -0,0 +1,12 @@
+package pe.edu.cibertec.bibliotech.event;
+
+import java.util.List;
+
+/**
+ * Se publica una vez por bloque de libros insertados en la importación masiva, en lugar
+ * de un LibroEvento por libro, para que los índices en memoria se actualicen en lote.
+ */
+public record LibrosImportadosEvento(
+    List<LibroEvento> libros
+) {
+}
\ No newline at end of file
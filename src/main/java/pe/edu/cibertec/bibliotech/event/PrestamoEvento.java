@@ -0,0 +1,18 @@
+package pe.edu.cibertec.bibliotech.event;
+
+import java.time.LocalDate;
+
+/**
+ * Se publica por cada préstamo registrado, devuelto o cancelado (también en los lotes).
+ */
+public record PrestamoEvento(
+    Long prestamoId,
+    Long libroId,
+    LocalDate fechaPrestamo,
+    Tipo tipo
+) {
+    
+    public enum Tipo {
+        REGISTRADO, DEVUELTO, CANCELADO
+    }
+}
@@ -0,0 +1,21 @@
+package pe.edu.cibertec.bibliotech.event;
+
+import pe.edu.cibertec.bibliotech.entity.Usuario;
+
+/**
+ * Se publica cuando un usuario se crea, cambia sus datos o su estado, o se elimina.
+ */
+public record UsuarioEvento(
+    Long usuarioId,
+    boolean activo,
+    boolean eliminado
+) {
+    
+    public static UsuarioEvento guardado(Usuario usuario) {
+        return new UsuarioEvento(usuario.getId(), Boolean.TRUE.equals(usuario.getActivo()), false);
+    }
+    
+    public static UsuarioEvento eliminado(Long usuarioId) {
+        return new UsuarioEvento(usuarioId, false, true);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,12 @@
+package pe.edu.cibertec.bibliotech.event;
+
+import java.util.List;
+
+/**
+ * Se publica una vez por bloque de usuarios creados, actualizados o desactivados en la
+ * importación del padrón, en lugar de un UsuarioEvento por usuario.
+ */
+public record UsuariosImportadosEvento(
+    List<UsuarioEvento> usuarios
+) {
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package pe.edu.cibertec.bibliotech.job;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import pe.edu.cibertec.bibliotech.service.support.BarridoVencidos;
+
+/**
+ * Barrido nocturno de préstamos vencidos (service.support.BarridoVencidos).
+ */
+@Component
+@RequiredArgsConstructor
+public class BarridoVencidosJob {
+    
+    private final BarridoVencidos barrido;
+    
+    @Scheduled(cron = "${bibliotech.vencidos.cron:0 5 0 * * *}")
+    public void programado() {
+        barrido.ejecutar();
+    }
+}
@@ -0,0 +1,23 @@
+package pe.edu.cibertec.bibliotech.job;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import pe.edu.cibertec.bibliotech.service.support.DevengoMultas;
+
+/**
+ * Devengo nocturno de multas (service.support.DevengoMultas). Se programa después del
+ * barrido de vencidos y fuera del horario de atención.
+ */
+@Component
+@RequiredArgsConstructor
+public class DevengoMultasJob {
+    
+    private final DevengoMultas devengo;
+    
+    @Scheduled(cron = "${bibliotech.multas.cron:0 15 0 * * *}")
+    public void programado() {
+        devengo.ejecutar();
+    }
+}
\ No newline at end of file
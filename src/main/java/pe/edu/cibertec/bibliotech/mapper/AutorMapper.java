@@ -12,6 +12,7 @@ import org.mapstruct.ReportingPolicy;
 import pe.edu.cibertec.bibliotech.api.request.AutorRequestDto;
 import pe.edu.cibertec.bibliotech.api.response.AutorResponseDto;
 import pe.edu.cibertec.bibliotech.entity.Autor;
+import pe.edu.cibertec.bibliotech.repository.projection.AutorResumen;
 
 @Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
 public interface AutorMapper {
@@ -26,6 +27,9 @@ public interface AutorMapper {
     @Mapping(target = "cantidadLibros", expression = "java(entity.getLibros() != null ? entity.getLibros().size() : 0)")
     AutorResponseDto toResponseDto(Autor entity);
     
+    // Proyección a Response DTO
+    AutorResponseDto toResponseDto(AutorResumen resumen);
+    
     // Update Entity desde DTO
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(target = "id", ignore = true)
@@ -12,6 +12,7 @@ import org.mapstruct.ReportingPolicy;
 import pe.edu.cibertec.bibliotech.api.request.CategoriaRequestDto;
 import pe.edu.cibertec.bibliotech.api.response.CategoriaResponseDto;
 import pe.edu.cibertec.bibliotech.entity.Categoria;
+import pe.edu.cibertec.bibliotech.repository.projection.CategoriaResumen;
 
 @Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
 public interface CategoriaMapper {
@@ -26,6 +27,9 @@ public interface CategoriaMapper {
     @Mapping(target = "cantidadLibros", expression = "java(entity.getLibros() != null ? entity.getLibros().size() : 0)")
     CategoriaResponseDto toResponseDto(Categoria entity);
     
+    // Proyección a Response DTO
+    CategoriaResponseDto toResponseDto(CategoriaResumen resumen);
+    
     // Update Entity desde DTO
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(target = "id", ignore = true)
@@ -11,10 +11,13 @@ import org.mapstruct.NullValuePropertyMappingStrategy;
 import org.mapstruct.ReportingPolicy;
 
 import pe.edu.cibertec.bibliotech.api.request.LibroRequestDto;
+import pe.edu.cibertec.bibliotech.api.response.DisponibilidadResponseDto;
 import pe.edu.cibertec.bibliotech.api.response.LibroResponseDto;
 import pe.edu.cibertec.bibliotech.entity.Autor;
 import pe.edu.cibertec.bibliotech.entity.Categoria;
 import pe.edu.cibertec.bibliotech.entity.Libro;
+import pe.edu.cibertec.bibliotech.repository.projection.LibroResumen;
+import pe.edu.cibertec.bibliotech.repository.projection.ResumenStock;
 
 @Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
 public interface LibroMapper {
@@ -35,6 +38,14 @@ public interface LibroMapper {
     @Mapping(target = "disponible", expression = "java(entity.isDisponible())")
     LibroResponseDto toResponseDto(Libro entity);
     
+    // Proyección a Response DTO
+    @Mapping(target = "disponible", expression = "java(resumen.isDisponible())")
+    LibroResponseDto toResponseDto(LibroResumen resumen);
+    
+    // Conteos de disponibilidad
+    @Mapping(target = "umbralStockBajo", ignore = true)
+    DisponibilidadResponseDto toResponseDto(ResumenStock resumen);
+    
     // Update Entity desde DTO
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(target = "id", ignore = true)
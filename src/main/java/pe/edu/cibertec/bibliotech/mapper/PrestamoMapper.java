@@ -12,6 +12,7 @@ import pe.edu.cibertec.bibliotech.api.response.PrestamoResponseDto;
 import pe.edu.cibertec.bibliotech.entity.Libro;
 import pe.edu.cibertec.bibliotech.entity.Prestamo;
 import pe.edu.cibertec.bibliotech.entity.Usuario;
+import pe.edu.cibertec.bibliotech.repository.projection.PrestamoResumen;
 
 @Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
 public interface PrestamoMapper {
@@ -36,6 +37,13 @@ public interface PrestamoMapper {
     @Mapping(target = "diasAtraso", expression = "java(entity.getDiasAtraso())")
     PrestamoResponseDto toResponseDto(Prestamo entity);
     
+    // Proyección a Response DTO
+    @Mapping(target = "usuarioNombreCompleto", expression = "java(resumen.usuarioNombreCompleto())")
+    @Mapping(target = "estado", expression = "java(resumen.estado().name())")
+    @Mapping(target = "vencido", expression = "java(resumen.isVencido())")
+    @Mapping(target = "diasAtraso", expression = "java(resumen.getDiasAtraso())")
+    PrestamoResponseDto toResponseDto(PrestamoResumen resumen);
+    
     // Métodos auxiliares
     @Named("idToLibro")
     default Libro idToLibro(Long libroId) {
@@ -13,6 +13,7 @@ import pe.edu.cibertec.bibliotech.api.request.UsuarioRequestDto;
 import pe.edu.cibertec.bibliotech.api.response.UsuarioResponseDto;
 import pe.edu.cibertec.bibliotech.entity.Prestamo;
 import pe.edu.cibertec.bibliotech.entity.Usuario;
+import pe.edu.cibertec.bibliotech.repository.projection.UsuarioResumen;
 
 @Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
 public interface UsuarioMapper {
@@ -29,6 +30,11 @@ public interface UsuarioMapper {
     @Mapping(target = "prestamosActivos", expression = "java(contarPrestamosActivos(entity))")
     UsuarioResponseDto toResponseDto(Usuario entity);
     
+    // Proyección a Response DTO
+    @Mapping(target = "nombreCompleto", expression = "java(resumen.nombreCompleto())")
+    @Mapping(target = "prestamosActivos", expression = "java(resumen.prestamosActivos() != null ? resumen.prestamosActivos().intValue() : 0)")
+    UsuarioResponseDto toResponseDto(UsuarioResumen resumen);
+    
     // Update Entity desde DTO
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(target = "id", ignore = true)
@@ -1,14 +1,43 @@
 package pe.edu.cibertec.bibliotech.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import pe.edu.cibertec.bibliotech.entity.Autor;
+import pe.edu.cibertec.bibliotech.repository.projection.AutorRef;
+import pe.edu.cibertec.bibliotech.repository.projection.AutorResumen;
 
 @Repository
 public interface AutorRepository extends JpaRepository<Autor, Long> {
     
+    String SELECT_RESUMEN = "SELECT new pe.edu.cibertec.bibliotech.repository.projection.AutorResumen(" +
+            "a.id, a.nombre, a.nacionalidad, a.fechaRegistro, SIZE(a.libros)) FROM Autor a ";
+    
+    String SELECT_REF = "SELECT new pe.edu.cibertec.bibliotech.repository.projection.AutorRef(a.id, a.nombre) FROM Autor a ";
+    
     List<Autor> findByNombreContainingIgnoreCase(String nombre);
+    
+    // Proyecciones de solo lectura para los listados, paginadas por keyset sobre el id
+    @Query(SELECT_RESUMEN + "WHERE a.id > :despuesDe ORDER BY a.id")
+    List<AutorResumen> listarResumen(@Param("despuesDe") Long despuesDe, Pageable pageable);
+    
+    @Query(SELECT_RESUMEN + "WHERE LOWER(a.nombre) LIKE LOWER(CONCAT('%', :nombre, '%')) AND a.id > :despuesDe ORDER BY a.id")
+    List<AutorResumen> listarResumenPorNombre(@Param("nombre") String nombre, @Param("despuesDe") Long despuesDe, Pageable pageable);
+    
+    @Query(SELECT_REF)
+    List<AutorRef> listarRefs();
+    
+    @Query(SELECT_REF + "WHERE a.id = :id")
+    Optional<AutorRef> buscarRef(@Param("id") Long id);
+    
+    // Los nombres de autor no son únicos: se ordena por id para quedarse con el primero
+    @Query(SELECT_REF + "WHERE LOWER(a.nombre) IN :nombres ORDER BY a.id")
+    List<AutorRef> buscarRefsPorNombres(@Param("nombres") Collection<String> nombres);
 }
\ No newline at end of file
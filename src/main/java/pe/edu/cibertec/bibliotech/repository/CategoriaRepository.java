@@ -1,14 +1,38 @@
 package pe.edu.cibertec.bibliotech.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import pe.edu.cibertec.bibliotech.entity.Categoria;
+import pe.edu.cibertec.bibliotech.repository.projection.CategoriaRef;
+import pe.edu.cibertec.bibliotech.repository.projection.CategoriaResumen;
 
 @Repository
 public interface CategoriaRepository extends JpaRepository<Categoria, Long> {
     
+    String SELECT_REF = "SELECT new pe.edu.cibertec.bibliotech.repository.projection.CategoriaRef(c.id, c.nombre) FROM Categoria c ";
+    
     Optional<Categoria> findByNombre(String nombre);
+    
+    // Proyección de solo lectura para el listado, paginada por keyset sobre el id
+    @Query("SELECT new pe.edu.cibertec.bibliotech.repository.projection.CategoriaResumen(" +
+           "c.id, c.nombre, c.descripcion, c.multaDiaria, c.multaMaxima, c.fechaRegistro, SIZE(c.libros)) FROM Categoria c " +
+           "WHERE c.id > :despuesDe ORDER BY c.id")
+    List<CategoriaResumen> listarResumen(@Param("despuesDe") Long despuesDe, Pageable pageable);
+    
+    @Query(SELECT_REF + "WHERE c.id = :id")
+    Optional<CategoriaRef> buscarRef(@Param("id") Long id);
+    
+    @Query(SELECT_REF + "WHERE c.nombre = :nombre")
+    Optional<CategoriaRef> buscarRefPorNombre(@Param("nombre") String nombre);
+    
+    @Query(SELECT_REF + "WHERE LOWER(c.nombre) IN :nombres")
+    List<CategoriaRef> buscarRefsPorNombres(@Param("nombres") Collection<String> nombres);
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package pe.edu.cibertec.bibliotech.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import pe.edu.cibertec.bibliotech.entity.CirculacionCategoria;
+import pe.edu.cibertec.bibliotech.repository.projection.CirculacionPorDia;
+import pe.edu.cibertec.bibliotech.repository.projection.ConteoCirculacion;
+
+@Repository
+public interface CirculacionCategoriaRepository extends JpaRepository<CirculacionCategoria, CirculacionCategoria.Clave> {
+    
+    // Suma (o resta, con cantidades negativas) sobre la fila del día en una sola sentencia
+    @Modifying
+    @Query(value = "INSERT INTO circulacion_categorias_dia (fecha, categoria_id, prestamos, devoluciones, devoluciones_atraso) " +
+                   "VALUES (:fecha, :categoriaId, :prestamos, :devoluciones, :atraso) " +
+                   "ON DUPLICATE KEY UPDATE prestamos = prestamos + :prestamos, devoluciones = devoluciones + :devoluciones, " +
+                   "devoluciones_atraso = devoluciones_atraso + :atraso",
+           nativeQuery = true)
+    int acumular(@Param("fecha") LocalDate fecha, @Param("categoriaId") Long categoriaId, @Param("prestamos") long prestamos,
+                 @Param("devoluciones") long devoluciones, @Param("atraso") long atraso);
+    
+    @Query("SELECT new pe.edu.cibertec.bibliotech.repository.projection.ConteoCirculacion(" +
+           "cat.id, cat.nombre, SUM(c.prestamos), SUM(c.devoluciones), SUM(c.devolucionesAtraso)) " +
+           "FROM CirculacionCategoria c JOIN Categoria cat ON cat.id = c.categoriaId " +
+           "WHERE c.fecha BETWEEN :desde AND :hasta GROUP BY cat.id, cat.nombre ORDER BY SUM(c.prestamos) DESC, cat.id")
+    List<ConteoCirculacion> sumarPorCategoria(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+    
+    // Hay pocas categorías por día: los totales diarios salen de esta tabla y no de la de libros
+    @Query("SELECT new pe.edu.cibertec.bibliotech.repository.projection.CirculacionPorDia(" +
+           "c.fecha, SUM(c.prestamos), SUM(c.devoluciones), SUM(c.devolucionesAtraso)) " +
+           "FROM CirculacionCategoria c WHERE c.fecha BETWEEN :desde AND :hasta GROUP BY c.fecha ORDER BY c.fecha")
+    List<CirculacionPorDia> sumarPorDia(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+    
+    // Reconstrucción a partir de circulacion_libros_dia ya reconstruida (ReconstruccionCirculacion)
+    @Modifying
+    @Query("DELETE FROM CirculacionCategoria c WHERE c.fecha BETWEEN :desde AND :hasta")
+    int borrarEntre(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+    
+    @Modifying
+    @Query(value = "INSERT INTO circulacion_categorias_dia (fecha, categoria_id, prestamos, devoluciones, devoluciones_atraso) " +
+                   "SELECT c.fecha, l.categoria_id, SUM(c.prestamos), SUM(c.devoluciones), SUM(c.devoluciones_atraso) " +
+                   "FROM circulacion_libros_dia c JOIN libros l ON l.id = c.libro_id " +
+                   "WHERE c.fecha BETWEEN :desde AND :hasta GROUP BY c.fecha, l.categoria_id",
+           nativeQuery = true)
+    int reconstruirEntre(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package pe.edu.cibertec.bibliotech.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import pe.edu.cibertec.bibliotech.entity.CirculacionLibro;
+import pe.edu.cibertec.bibliotech.repository.projection.ConteoCirculacion;
+
+@Repository
+public interface CirculacionLibroRepository extends JpaRepository<CirculacionLibro, CirculacionLibro.Clave> {
+    
+    // Suma (o resta, con cantidades negativas) sobre la fila del día en una sola sentencia
+    @Modifying
+    @Query(value = "INSERT INTO circulacion_libros_dia (fecha, libro_id, prestamos, devoluciones, devoluciones_atraso) " +
+                   "VALUES (:fecha, :libroId, :prestamos, :devoluciones, :atraso) " +
+                   "ON DUPLICATE KEY UPDATE prestamos = prestamos + :prestamos, devoluciones = devoluciones + :devoluciones, " +
+                   "devoluciones_atraso = devoluciones_atraso + :atraso",
+           nativeQuery = true)
+    int acumular(@Param("fecha") LocalDate fecha, @Param("libroId") Long libroId, @Param("prestamos") long prestamos,
+                 @Param("devoluciones") long devoluciones, @Param("atraso") long atraso);
+    
+    @Query("SELECT new pe.edu.cibertec.bibliotech.repository.projection.ConteoCirculacion(" +
+           "l.id, l.titulo, SUM(c.prestamos), SUM(c.devoluciones), SUM(c.devolucionesAtraso)) " +
+           "FROM CirculacionLibro c JOIN Libro l ON l.id = c.libroId " +
+           "WHERE c.fecha BETWEEN :desde AND :hasta GROUP BY l.id, l.titulo ORDER BY SUM(c.prestamos) DESC, l.id")
+    List<ConteoCirculacion> sumarPorLibro(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta, Pageable pageable);
+    
+    @Query("SELECT new pe.edu.cibertec.bibliotech.repository.projection.ConteoCirculacion(" +
+           "a.id, a.nombre, SUM(c.prestamos), SUM(c.devoluciones), SUM(c.devolucionesAtraso)) " +
+           "FROM CirculacionLibro c JOIN Libro l ON l.id = c.libroId JOIN l.autor a " +
+           "WHERE c.fecha BETWEEN :desde AND :hasta GROUP BY a.id, a.nombre ORDER BY SUM(c.prestamos) DESC, a.id")
+    List<ConteoCirculacion> sumarPorAutor(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+    
+    // Reconstrucción desde la tabla de préstamos (ReconstruccionCirculacion)
+    @Modifying
+    @Query("DELETE FROM CirculacionLibro c WHERE c.fecha BETWEEN :desde AND :hasta")
+    int borrarEntre(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+    
+    @Modifying
+    @Query(value = "INSERT INTO circulacion_libros_dia (fecha, libro_id, prestamos, devoluciones, devoluciones_atraso) " +
+                   "SELECT t.fecha, t.libro_id, SUM(t.prestamos), SUM(t.devoluciones), SUM(t.atraso) FROM (" +
+                   "SELECT p.fecha_prestamo AS fecha, p.libro_id, 1 AS prestamos, 0 AS devoluciones, 0 AS atraso " +
+                   "FROM prestamos p WHERE p.fecha_prestamo BETWEEN :desde AND :hasta " +
+                   "UNION ALL " +
+                   "SELECT p.fecha_devolucion_real, p.libro_id, 0, 1, " +
+                   "CASE WHEN p.fecha_devolucion_real > p.fecha_devolucion_esperada THEN 1 ELSE 0 END " +
+                   "FROM prestamos p WHERE p.fecha_devolucion_real BETWEEN :desde AND :hasta" +
+                   ") t GROUP BY t.fecha, t.libro_id",
+           nativeQuery = true)
+    int reconstruirEntre(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+}
\ No newline at end of file
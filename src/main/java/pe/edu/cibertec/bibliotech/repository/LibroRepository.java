@@ -1,18 +1,39 @@
 package pe.edu.cibertec.bibliotech.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
 import pe.edu.cibertec.bibliotech.entity.Libro;
+import pe.edu.cibertec.bibliotech.repository.projection.ConteoPorId;
+import pe.edu.cibertec.bibliotech.repository.projection.LibroIndexado;
+import pe.edu.cibertec.bibliotech.repository.projection.LibroResumen;
+import pe.edu.cibertec.bibliotech.repository.projection.ResumenStock;
+import pe.edu.cibertec.bibliotech.repository.projection.StockLibro;
+import pe.edu.cibertec.bibliotech.repository.projection.VersionLibro;
 
 @Repository
 public interface LibroRepository extends JpaRepository<Libro, Long> {
     
+    String SELECT_RESUMEN = "SELECT new pe.edu.cibertec.bibliotech.repository.projection.LibroResumen(" +
+            "l.id, l.titulo, l.isbn, l.anioPublicacion, l.cantidadTotal, l.cantidadDisponible, l.descripcion, " +
+            "a.nombre, c.nombre, l.fechaRegistro) FROM Libro l JOIN l.autor a JOIN l.categoria c ";
+    
+    // Región del caché de consultas (perfil cache-l2). Hibernate invalida sus resultados
+    // en cuanto se modifica la tabla libros, incluidas las actualizaciones de stock
+    String CONSULTAS_CACHE = "consultas-libros";
+    
     // Métodos derivados de Spring Data JPA
     Optional<Libro> findByIsbn(String isbn);
     
@@ -32,7 +53,7 @@ public interface LibroRepository extends JpaRepository<Libro, Long> {
     @Query("SELECT l FROM Libro l WHERE LOWER(l.titulo) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(l.autor.nombre) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     List<Libro> buscarPorTituloOAutor(@Param("keyword") String keyword);
     
-    @Query("SELECT l FROM Libro l LEFT JOIN l.prestamos p GROUP BY l ORDER BY COUNT(p) DESC")
+    @Query("SELECT l FROM Libro l ORDER BY l.totalPrestamos DESC, l.id")
     List<Libro> findLibrosMasPrestados();
     
     @Query("SELECT COUNT(l) FROM Libro l WHERE l.cantidadDisponible > 0")
@@ -46,4 +67,120 @@ public interface LibroRepository extends JpaRepository<Libro, Long> {
     
     @Query("SELECT l FROM Libro l WHERE l.cantidadDisponible > 0 AND l.cantidadDisponible <= 2")
     List<Libro> findLibrosStockBajo();
+    
+    // Actualizaciones condicionales de stock (una sola sentencia, sin leer-modificar-escribir)
+    @Modifying
+    @Query("UPDATE Libro l SET l.cantidadDisponible = l.cantidadDisponible - 1, l.version = l.version + 1 WHERE l.id = :id AND l.cantidadDisponible > 0")
+    int decrementarStock(@Param("id") Long id);
+    
+    @Modifying
+    @Query("UPDATE Libro l SET l.cantidadDisponible = l.cantidadDisponible + 1, l.version = l.version + 1 WHERE l.id = :id AND l.cantidadDisponible < l.cantidadTotal")
+    int incrementarStock(@Param("id") Long id);
+    
+    @Modifying
+    @Query("UPDATE Libro l SET l.cantidadDisponible = l.cantidadDisponible - :cantidad, l.version = l.version + 1 WHERE l.id = :id AND l.cantidadDisponible >= :cantidad")
+    int decrementarStock(@Param("id") Long id, @Param("cantidad") int cantidad);
+    
+    @Modifying
+    @Query("UPDATE Libro l SET l.cantidadDisponible = l.cantidadDisponible + :cantidad, l.version = l.version + 1 WHERE l.id = :id AND l.cantidadDisponible + :cantidad <= l.cantidadTotal")
+    int incrementarStock(@Param("id") Long id, @Param("cantidad") int cantidad);
+    
+    // Contador de popularidad: +n al registrar préstamos, -1 al cancelar uno
+    @Modifying
+    @Query("UPDATE Libro l SET l.totalPrestamos = l.totalPrestamos + :cantidad WHERE l.id = :id")
+    int sumarPrestamos(@Param("id") Long id, @Param("cantidad") long cantidad);
+    
+    // Ranking histórico: lee las primeras filas de idx_libros_total_prestamos
+    @Query("SELECT new pe.edu.cibertec.bibliotech.repository.projection.ConteoPorId(l.id, l.totalPrestamos) " +
+           "FROM Libro l WHERE l.totalPrestamos > 0 ORDER BY l.totalPrestamos DESC, l.id")
+    List<ConteoPorId> listarMasPrestados(Pageable pageable);
+    
+    @Query("SELECT new pe.edu.cibertec.bibliotech.repository.projection.ConteoPorId(l.id, l.totalPrestamos) " +
+           "FROM Libro l WHERE l.totalPrestamos > 0")
+    List<ConteoPorId> listarTotalesPrestamos();
+    
+    // Proyecciones de solo lectura para los listados, paginadas por keyset sobre el id
+    @Query(SELECT_RESUMEN + "WHERE l.id > :despuesDe ORDER BY l.id")
+    List<LibroResumen> listarResumen(@Param("despuesDe") Long despuesDe, Pageable pageable);
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CONSULTAS_CACHE)
+    })
+    @Query(SELECT_RESUMEN + "WHERE l.cantidadDisponible > 0 AND l.id > :despuesDe ORDER BY l.id")
+    List<LibroResumen> listarResumenDisponibles(@Param("despuesDe") Long despuesDe, Pageable pageable);
+    
+    @Query(SELECT_RESUMEN + "WHERE l.cantidadDisponible = 0 AND l.id > :despuesDe ORDER BY l.id")
+    List<LibroResumen> listarResumenSinStock(@Param("despuesDe") Long despuesDe, Pageable pageable);
+    
+    @Query(SELECT_RESUMEN + "WHERE l.cantidadDisponible > 0 AND l.cantidadDisponible <= :umbral AND l.id > :despuesDe ORDER BY l.id")
+    List<LibroResumen> listarResumenStockBajo(@Param("umbral") int umbral, @Param("despuesDe") Long despuesDe, Pageable pageable);
+    
+    @Query(SELECT_RESUMEN + "WHERE LOWER(l.titulo) LIKE LOWER(CONCAT('%', :titulo, '%')) AND l.id > :despuesDe ORDER BY l.id")
+    List<LibroResumen> listarResumenPorTitulo(@Param("titulo") String titulo, @Param("despuesDe") Long despuesDe, Pageable pageable);
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CONSULTAS_CACHE)
+    })
+    @Query(SELECT_RESUMEN + "WHERE a.id = :autorId AND l.id > :despuesDe ORDER BY l.id")
+    List<LibroResumen> listarResumenPorAutor(@Param("autorId") Long autorId, @Param("despuesDe") Long despuesDe, Pageable pageable);
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CONSULTAS_CACHE)
+    })
+    @Query(SELECT_RESUMEN + "WHERE c.id = :categoriaId AND l.id > :despuesDe ORDER BY l.id")
+    List<LibroResumen> listarResumenPorCategoria(@Param("categoriaId") Long categoriaId, @Param("despuesDe") Long despuesDe, Pageable pageable);
+    
+    @Query(SELECT_RESUMEN + "WHERE (LOWER(l.titulo) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(a.nombre) LIKE LOWER(CONCAT('%', :keyword, '%'))) AND l.id > :despuesDe ORDER BY l.id")
+    List<LibroResumen> buscarResumenPorTituloOAutor(@Param("keyword") String keyword, @Param("despuesDe") Long despuesDe, Pageable pageable);
+    
+    // Exportación completa: se lee fila a fila con LecturaEnStreaming
+    String EXPORTAR_RESUMEN = SELECT_RESUMEN + "ORDER BY l.id";
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CONSULTAS_CACHE)
+    })
+    @Query(SELECT_RESUMEN + "WHERE l.id IN :ids")
+    List<LibroResumen> listarResumenPorIds(@Param("ids") Collection<Long> ids);
+    
+    // Marcas para el ETag de un libro (el stock solo cambia la versión, no ultimaActualizacion)
+    @Query("SELECT new pe.edu.cibertec.bibliotech.repository.projection.VersionLibro(l.id, l.ultimaActualizacion, l.version) " +
+           "FROM Libro l WHERE l.id = :id")
+    Optional<VersionLibro> buscarVersion(@Param("id") Long id);
+    
+    // Índice de disponibilidad en memoria (y su respaldo en SQL mientras se construye)
+    @Query("SELECT new pe.edu.cibertec.bibliotech.repository.projection.StockLibro(" +
+           "l.id, l.cantidadDisponible, l.cantidadTotal, l.version) FROM Libro l")
+    Stream<StockLibro> streamStock();
+    
+    @Query("SELECT new pe.edu.cibertec.bibliotech.repository.projection.StockLibro(" +
+           "l.id, l.cantidadDisponible, l.cantidadTotal, l.version) FROM Libro l WHERE l.id = :id")
+    Optional<StockLibro> buscarStock(@Param("id") Long id);
+    
+    @Query("SELECT new pe.edu.cibertec.bibliotech.repository.projection.StockLibro(" +
+           "l.id, l.cantidadDisponible, l.cantidadTotal, l.version) FROM Libro l WHERE l.id IN :ids")
+    List<StockLibro> buscarStocks(@Param("ids") Collection<Long> ids);
+    
+    // Importación: ISBN ya registrados entre los candidatos de un bloque
+    @Query("SELECT l.isbn FROM Libro l WHERE l.isbn IN :isbns")
+    List<String> buscarIsbnsExistentes(@Param("isbns") Collection<String> isbns);
+    
+    @Query("SELECT new pe.edu.cibertec.bibliotech.repository.projection.ResumenStock(" +
+           "COALESCE(SUM(CASE WHEN l.cantidadDisponible > 0 THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN l.cantidadDisponible = 0 THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN l.cantidadDisponible > 0 AND l.cantidadDisponible <= :umbral THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(l.cantidadTotal), 0), COALESCE(SUM(l.cantidadDisponible), 0)) FROM Libro l")
+    ResumenStock resumenStock(@Param("umbral") int umbral);
+    
+    // Carga del filtro de unicidad de ISBN
+    @Query("SELECT l.isbn FROM Libro l")
+    Stream<String> streamIsbns();
+    
+    // Carga del índice de búsqueda en memoria
+    @Query("SELECT new pe.edu.cibertec.bibliotech.repository.projection.LibroIndexado(" +
+           "l.id, l.titulo, l.isbn, a.id, a.nombre, l.version) FROM Libro l JOIN l.autor a")
+    Stream<LibroIndexado> streamIndexados();
 }
\ No newline at end of file
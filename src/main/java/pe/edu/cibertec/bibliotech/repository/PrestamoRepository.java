@@ -1,36 +1,73 @@
 package pe.edu.cibertec.bibliotech.repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import pe.edu.cibertec.bibliotech.entity.Prestamo;
 import pe.edu.cibertec.bibliotech.entity.Prestamo.EstadoPrestamo;
+import pe.edu.cibertec.bibliotech.repository.projection.ConteoPorId;
+import pe.edu.cibertec.bibliotech.repository.projection.ConteoPorNombre;
+import pe.edu.cibertec.bibliotech.repository.projection.PrestamoDelDia;
+import pe.edu.cibertec.bibliotech.repository.projection.PrestamoPendiente;
+import pe.edu.cibertec.bibliotech.repository.projection.PrestamoResumen;
+import pe.edu.cibertec.bibliotech.repository.projection.ResumenPrestamos;
 
 @Repository
 public interface PrestamoRepository extends JpaRepository<Prestamo, Long> {
     
+    String SELECT_RESUMEN = "SELECT new pe.edu.cibertec.bibliotech.repository.projection.PrestamoResumen(" +
+            "p.id, l.id, l.titulo, u.id, u.nombre, u.apellido, p.fechaPrestamo, p.fechaDevolucionEsperada, " +
+            "p.fechaDevolucionReal, p.estado, p.observaciones, p.multa) FROM Prestamo p JOIN p.libro l JOIN p.usuario u ";
+    
+    // Multa de p al corte (o a su devolución real): días de atraso x tarifa diaria, hasta el tope de la
+    // categoría. Misma regla que MotorMultas.calcular
+    String MULTA = "(SELECT LEAST(GREATEST(TIMESTAMPDIFF(DAY, p.fecha_devolucion_esperada, " +
+            "COALESCE(p.fecha_devolucion_real, :fecha)), 0) * COALESCE(c.multa_diaria, :tarifa), " +
+            "COALESCE(c.multa_maxima, :tope)) FROM libros l JOIN categorias c ON c.id = l.categoria_id WHERE l.id = p.libro_id)";
+    
+    // Los listados cargan libro y usuario en la misma consulta (el mapper los lee)
+    @Override
+    @EntityGraph(attributePaths = {"libro", "usuario"})
+    List<Prestamo> findAll();
+    
     // Métodos derivados
+    @EntityGraph(attributePaths = {"libro", "usuario"})
     List<Prestamo> findByUsuarioId(Long usuarioId);
     
+    @EntityGraph(attributePaths = {"libro", "usuario"})
     List<Prestamo> findByLibroId(Long libroId);
     
+    @EntityGraph(attributePaths = {"libro", "usuario"})
     List<Prestamo> findByEstado(EstadoPrestamo estado);
     
     // Consultas JPQL personalizadas
+    @EntityGraph(attributePaths = {"libro", "usuario"})
     @Query("SELECT p FROM Prestamo p WHERE p.estado = 'ACTIVO' AND p.fechaDevolucionEsperada < :fecha")
     List<Prestamo> findPrestamosVencidos(@Param("fecha") LocalDate fecha);
     
     @Query("SELECT COUNT(p) FROM Prestamo p WHERE p.estado = 'ACTIVO'")
     Long contarPrestamosActivos();
     
-    @Query("SELECT p FROM Prestamo p WHERE p.usuario.id = :usuarioId AND p.estado = 'ACTIVO'")
+    @Query("SELECT p FROM Prestamo p WHERE p.usuario.id = :usuarioId AND p.estado IN ('ACTIVO', 'VENCIDO')")
     List<Prestamo> findPrestamosActivosPorUsuario(@Param("usuarioId") Long usuarioId);
     
+    @Query("SELECT p FROM Prestamo p JOIN FETCH p.libro WHERE p.usuario.id IN :usuarioIds AND p.estado IN ('ACTIVO', 'VENCIDO')")
+    List<Prestamo> findPrestamosActivosPorUsuarios(@Param("usuarioIds") Collection<Long> usuarioIds);
+    
+    @Query("SELECT DISTINCT p.usuario.id FROM Prestamo p WHERE p.usuario.id IN :usuarioIds AND p.estado IN ('ACTIVO', 'VENCIDO')")
+    List<Long> buscarUsuariosConPendientes(@Param("usuarioIds") Collection<Long> usuarioIds);
+    
     @Query("SELECT p FROM Prestamo p WHERE p.libro.id = :libroId AND p.estado = 'ACTIVO'")
     List<Prestamo> findPrestamosActivosPorLibro(@Param("libroId") Long libroId);
     
@@ -42,4 +79,133 @@ public interface PrestamoRepository extends JpaRepository<Prestamo, Long> {
     
     @Query("SELECT COUNT(p) FROM Prestamo p WHERE p.estado = :estado")
     Long contarPorEstado(@Param("estado") EstadoPrestamo estado);
+    
+    // Estadísticas: todos los conteos por estado en un solo recorrido
+    @Query("SELECT new pe.edu.cibertec.bibliotech.repository.projection.ResumenPrestamos(COUNT(p), " +
+           "COALESCE(SUM(CASE WHEN p.estado = 'ACTIVO' THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN p.estado = 'VENCIDO' THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN p.estado = 'DEVUELTO' THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN p.estado = 'ACTIVO' AND p.fechaDevolucionEsperada < :fecha THEN 1 ELSE 0 END), 0)) " +
+           "FROM Prestamo p")
+    ResumenPrestamos resumenPorEstado(@Param("fecha") LocalDate fecha);
+    
+    // Devoluciones en lote: proyecciones y actualizaciones por conjunto
+    @Query("SELECT new pe.edu.cibertec.bibliotech.repository.projection.PrestamoPendiente(p.id, l.id, l.categoria.id, l.isbn, u.dni, p.estado, p.fechaPrestamo, p.fechaDevolucionEsperada) " +
+           "FROM Prestamo p JOIN p.libro l JOIN p.usuario u WHERE p.id IN :ids")
+    List<PrestamoPendiente> findPendientesPorIds(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT new pe.edu.cibertec.bibliotech.repository.projection.PrestamoPendiente(p.id, l.id, l.categoria.id, l.isbn, u.dni, p.estado, p.fechaPrestamo, p.fechaDevolucionEsperada) " +
+           "FROM Prestamo p JOIN p.libro l JOIN p.usuario u WHERE p.estado IN ('ACTIVO', 'VENCIDO') AND l.isbn IN :isbns AND u.dni IN :dnis")
+    List<PrestamoPendiente> findPendientesPorIsbnYDni(@Param("isbns") Collection<String> isbns, @Param("dnis") Collection<String> dnis);
+    
+    @Modifying
+    @Query("UPDATE Prestamo p SET p.observaciones = CASE WHEN p.observaciones IS NULL OR p.observaciones = '' THEN :observacion " +
+           "ELSE CONCAT(p.observaciones, ' | ', :observacion) END WHERE p.id IN :ids AND p.estado IN ('ACTIVO', 'VENCIDO')")
+    int agregarObservacion(@Param("ids") Collection<Long> ids, @Param("observacion") String observacion);
+    
+    @Modifying
+    @Query("UPDATE Prestamo p SET p.estado = :devuelto, p.fechaDevolucionReal = :fecha, p.version = p.version + 1 " +
+           "WHERE p.id IN :ids AND p.estado IN ('ACTIVO', 'VENCIDO')")
+    int marcarDevueltos(@Param("ids") Collection<Long> ids, @Param("fecha") LocalDate fecha, @Param("devuelto") EstadoPrestamo devuelto);
+    
+    // Barrido de vencidos por bloques (recorrido por id para no releer filas ya procesadas)
+    @Query("SELECT p.id FROM Prestamo p WHERE p.estado = 'ACTIVO' AND p.fechaDevolucionEsperada < :fecha AND p.id > :despuesDe ORDER BY p.id")
+    List<Long> findIdsVencidos(@Param("fecha") LocalDate fecha, @Param("despuesDe") Long despuesDe, Pageable limite);
+    
+    @Modifying
+    @Query("UPDATE Prestamo p SET p.estado = :vencido, p.version = p.version + 1 " +
+           "WHERE p.id IN :ids AND p.estado = 'ACTIVO' AND p.fechaDevolucionEsperada < :fecha")
+    int marcarVencidos(@Param("ids") Collection<Long> ids, @Param("fecha") LocalDate fecha, @Param("vencido") EstadoPrestamo vencido);
+    
+    // Devengo de multas por bloques sobre los préstamos abiertos con atraso
+    @Query("SELECT p.id FROM Prestamo p WHERE p.estado IN ('ACTIVO', 'VENCIDO') AND p.fechaDevolucionEsperada < :fecha " +
+           "AND p.id > :despuesDe ORDER BY p.id")
+    List<Long> findIdsConAtraso(@Param("fecha") LocalDate fecha, @Param("despuesDe") Long despuesDe, Pageable limite);
+    
+    @Modifying
+    @Query(value = "UPDATE prestamos p SET multa = " + MULTA + ", version = version + 1 " +
+                   "WHERE p.id IN (:ids) AND p.estado IN ('ACTIVO', 'VENCIDO') AND p.fecha_devolucion_esperada < :fecha",
+           nativeQuery = true)
+    int devengarMultas(@Param("ids") Collection<Long> ids, @Param("fecha") LocalDate fecha,
+                       @Param("tarifa") BigDecimal tarifa, @Param("tope") BigDecimal tope);
+    
+    // Fija la multa de préstamos ya marcados como devueltos (devoluciones en lote)
+    @Modifying
+    @Query(value = "UPDATE prestamos p SET multa = " + MULTA + " WHERE p.id IN (:ids) AND p.estado = 'DEVUELTO'",
+           nativeQuery = true)
+    int liquidarMultas(@Param("ids") Collection<Long> ids, @Param("fecha") LocalDate fecha,
+                       @Param("tarifa") BigDecimal tarifa, @Param("tope") BigDecimal tope);
+    
+    // Proyecciones de solo lectura para los listados, paginadas por keyset sobre el id
+    @Query(SELECT_RESUMEN + "WHERE p.id > :despuesDe ORDER BY p.id")
+    List<PrestamoResumen> listarResumen(@Param("despuesDe") Long despuesDe, Pageable pageable);
+    
+    @Query(SELECT_RESUMEN + "WHERE p.estado = :estado AND p.id > :despuesDe ORDER BY p.id")
+    List<PrestamoResumen> listarResumenPorEstado(@Param("estado") EstadoPrestamo estado, @Param("despuesDe") Long despuesDe, Pageable pageable);
+    
+    @Query(SELECT_RESUMEN + "WHERE (p.estado = 'VENCIDO' OR (p.estado = 'ACTIVO' AND p.fechaDevolucionEsperada < :fecha)) " +
+           "AND p.id > :despuesDe ORDER BY p.id")
+    List<PrestamoResumen> listarResumenVencidos(@Param("fecha") LocalDate fecha, @Param("despuesDe") Long despuesDe, Pageable pageable);
+    
+    @Query(SELECT_RESUMEN + "WHERE u.id = :usuarioId AND p.id > :despuesDe ORDER BY p.id")
+    List<PrestamoResumen> listarResumenPorUsuario(@Param("usuarioId") Long usuarioId, @Param("despuesDe") Long despuesDe, Pageable pageable);
+    
+    @Query(SELECT_RESUMEN + "WHERE l.id = :libroId AND p.id > :despuesDe ORDER BY p.id")
+    List<PrestamoResumen> listarResumenPorLibro(@Param("libroId") Long libroId, @Param("despuesDe") Long despuesDe, Pageable pageable);
+    
+    // Exportación completa y reportes: se leen fila a fila con LecturaEnStreaming
+    String EXPORTAR_RESUMEN = SELECT_RESUMEN + "ORDER BY p.id";
+    
+    // Reporte en Excel y detalle del PDF mensual; los filtros nulos no se aplican
+    String REPORTE = SELECT_RESUMEN + "WHERE (:desde IS NULL OR p.fechaPrestamo >= :desde) " +
+            "AND (:hasta IS NULL OR p.fechaPrestamo <= :hasta) " +
+            "AND (:estado IS NULL OR p.estado = :estado) " +
+            "AND (:usuarioId IS NULL OR u.id = :usuarioId) " +
+            "ORDER BY p.fechaPrestamo, p.id";
+    
+    String VENCIDOS_PENDIENTES = SELECT_RESUMEN +
+            "WHERE p.estado = 'VENCIDO' OR (p.estado = 'ACTIVO' AND p.fechaDevolucionEsperada < :fecha) " +
+            "ORDER BY u.apellido, u.nombre, u.id, p.fechaDevolucionEsperada";
+    
+    // Reportes PDF: avisos de vencimiento (pendientes de devolución con la fecha vencida)
+    @Query("SELECT COUNT(p) FROM Prestamo p " +
+           "WHERE p.estado = 'VENCIDO' OR (p.estado = 'ACTIVO' AND p.fechaDevolucionEsperada < :fecha)")
+    long contarVencidosPendientes(@Param("fecha") LocalDate fecha);
+    
+    
+    // Inicio del historial para reconstruir las tablas de circulación
+    @Query("SELECT MIN(p.fechaPrestamo) FROM Prestamo p")
+    LocalDate primeraFechaPrestamo();
+    
+    // Reportes PDF: circulación de un período
+    @Query("SELECT COUNT(p) FROM Prestamo p WHERE p.fechaPrestamo BETWEEN :desde AND :hasta")
+    long contarRegistradosEntre(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+    
+    @Query("SELECT COUNT(p) FROM Prestamo p WHERE p.fechaDevolucionReal BETWEEN :desde AND :hasta")
+    long contarDevueltosEntre(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+    
+    @Query("SELECT COUNT(p) FROM Prestamo p WHERE p.fechaDevolucionReal BETWEEN :desde AND :hasta " +
+           "AND p.fechaDevolucionReal > p.fechaDevolucionEsperada")
+    long contarDevueltosConAtrasoEntre(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+    
+    @Query("SELECT new pe.edu.cibertec.bibliotech.repository.projection.ConteoPorNombre(c.nombre, COUNT(p)) " +
+           "FROM Prestamo p JOIN p.libro l JOIN l.categoria c WHERE p.fechaPrestamo BETWEEN :desde AND :hasta " +
+           "GROUP BY c.id, c.nombre ORDER BY COUNT(p) DESC, c.nombre")
+    List<ConteoPorNombre> contarPorCategoriaEntre(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+    
+    @Query("SELECT new pe.edu.cibertec.bibliotech.repository.projection.ConteoPorNombre(l.titulo, COUNT(p)) " +
+           "FROM Prestamo p JOIN p.libro l WHERE p.fechaPrestamo BETWEEN :desde AND :hasta " +
+           "GROUP BY l.id, l.titulo ORDER BY COUNT(p) DESC, l.titulo")
+    List<ConteoPorNombre> contarPorLibroEntre(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta, Pageable pageable);
+    
+    // Popularidad reciente: préstamos desde una fecha (idx_prestamos_fecha_libro), con su id
+    // para no contar dos veces los que también llegan como evento durante la carga
+    @Query("SELECT new pe.edu.cibertec.bibliotech.repository.projection.PrestamoDelDia(p.id, p.libro.id, p.fechaPrestamo) " +
+           "FROM Prestamo p WHERE p.fechaPrestamo >= :desde")
+    Stream<PrestamoDelDia> streamPorLibroYDia(@Param("desde") LocalDate desde);
+    
+    // Respaldo del ranking por ventana mientras RankingPrestamos no terminó de cargar
+    @Query("SELECT new pe.edu.cibertec.bibliotech.repository.projection.ConteoPorId(p.libro.id, COUNT(p)) " +
+           "FROM Prestamo p WHERE p.fechaPrestamo >= :desde GROUP BY p.libro.id ORDER BY COUNT(p) DESC, p.libro.id")
+    List<ConteoPorId> contarMasPrestadosDesde(@Param("desde") LocalDate desde, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package pe.edu.cibertec.bibliotech.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import pe.edu.cibertec.bibliotech.entity.SaldoMultas;
+import pe.edu.cibertec.bibliotech.repository.projection.SaldoMultasResumen;
+
+@Repository
+public interface SaldoMultasRepository extends JpaRepository<SaldoMultas, Long> {
+    
+    String SELECT_RESUMEN = "SELECT new pe.edu.cibertec.bibliotech.repository.projection.SaldoMultasResumen(" +
+            "s.usuarioId, u.dni, u.nombre, u.apellido, s.devengado, s.adeudado, s.ultimaActualizacion) " +
+            "FROM SaldoMultas s JOIN Usuario u ON u.id = s.usuarioId ";
+    
+    // Crea (en cero) la fila de los usuarios de esos préstamos que tengan multa y aún no la tengan
+    @Modifying
+    @Query(value = "INSERT INTO saldos_multas (usuario_id, devengado, adeudado, ultima_actualizacion) " +
+                   "SELECT DISTINCT p.usuario_id, 0, 0, :ahora FROM prestamos p WHERE p.id IN (:prestamoIds) AND p.multa > 0 " +
+                   "ON DUPLICATE KEY UPDATE usuario_id = usuario_id",
+           nativeQuery = true)
+    int asegurar(@Param("prestamoIds") Collection<Long> prestamoIds, @Param("ahora") LocalDateTime ahora);
+    
+    // Suma al adeudado las multas fijadas de préstamos recién devueltos
+    @Modifying
+    @Query(value = "UPDATE saldos_multas s SET adeudado = adeudado + " +
+                   "(SELECT COALESCE(SUM(p.multa), 0) FROM prestamos p WHERE p.usuario_id = s.usuario_id AND p.id IN (:prestamoIds)), " +
+                   "ultima_actualizacion = :ahora " +
+                   "WHERE s.usuario_id IN (SELECT p.usuario_id FROM prestamos p WHERE p.id IN (:prestamoIds))",
+           nativeQuery = true)
+    int sumarAdeudado(@Param("prestamoIds") Collection<Long> prestamoIds, @Param("ahora") LocalDateTime ahora);
+    
+    // El devengado se recalcula desde los préstamos abiertos del usuario (a lo sumo unos pocos)
+    @Modifying
+    @Query(value = "UPDATE saldos_multas s SET devengado = " +
+                   "(SELECT COALESCE(SUM(p.multa), 0) FROM prestamos p WHERE p.usuario_id = s.usuario_id AND p.estado IN ('ACTIVO', 'VENCIDO')), " +
+                   "ultima_actualizacion = :ahora " +
+                   "WHERE s.usuario_id IN (SELECT p.usuario_id FROM prestamos p WHERE p.id IN (:prestamoIds))",
+           nativeQuery = true)
+    int recalcularDevengado(@Param("prestamoIds") Collection<Long> prestamoIds, @Param("ahora") LocalDateTime ahora);
+    
+    @Modifying
+    @Query(value = "UPDATE saldos_multas s SET devengado = " +
+                   "(SELECT COALESCE(SUM(p.multa), 0) FROM prestamos p WHERE p.usuario_id = s.usuario_id AND p.estado IN ('ACTIVO', 'VENCIDO')), " +
+                   "ultima_actualizacion = :ahora WHERE s.usuario_id = :usuarioId",
+           nativeQuery = true)
+    int recalcularDevengadoDeUsuario(@Param("usuarioId") Long usuarioId, @Param("ahora") LocalDateTime ahora);
+    
+    @Query(SELECT_RESUMEN + "WHERE s.usuarioId = :usuarioId")
+    Optional<SaldoMultasResumen> buscarResumen(@Param("usuarioId") Long usuarioId);
+    
+    @Query(SELECT_RESUMEN + "WHERE s.adeudado + s.devengado > 0 ORDER BY s.adeudado + s.devengado DESC, s.usuarioId")
+    List<SaldoMultasResumen> listarDeudores(Pageable pageable);
+}
\ No newline at end of file
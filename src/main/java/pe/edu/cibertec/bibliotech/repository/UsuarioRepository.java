@@ -1,18 +1,30 @@
 package pe.edu.cibertec.bibliotech.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import pe.edu.cibertec.bibliotech.entity.Usuario;
+import pe.edu.cibertec.bibliotech.repository.projection.ResumenUsuarios;
+import pe.edu.cibertec.bibliotech.repository.projection.UsuarioPadron;
+import pe.edu.cibertec.bibliotech.repository.projection.UsuarioResumen;
 
 @Repository
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     
+    String SELECT_RESUMEN = "SELECT new pe.edu.cibertec.bibliotech.repository.projection.UsuarioResumen(" +
+            "u.id, u.nombre, u.apellido, u.dni, u.email, u.telefono, u.direccion, u.activo, u.fechaRegistro, " +
+            "(SELECT COUNT(p) FROM Prestamo p WHERE p.usuario = u AND p.estado = 'ACTIVO')) FROM Usuario u ";
+    
     Optional<Usuario> findByDni(String dni);
     
     Optional<Usuario> findByEmail(String email);
@@ -24,4 +36,34 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     
     @Query("SELECT COUNT(u) FROM Usuario u WHERE u.activo = true")
     Long contarUsuariosActivos();
+    
+    @Query("SELECT new pe.edu.cibertec.bibliotech.repository.projection.ResumenUsuarios(COUNT(u), " +
+           "COALESCE(SUM(CASE WHEN u.activo = true THEN 1 ELSE 0 END), 0)) FROM Usuario u")
+    ResumenUsuarios resumenUsuarios();
+    
+    // Proyecciones de solo lectura para los listados, paginadas por keyset sobre el id
+    @Query(SELECT_RESUMEN + "WHERE u.id > :despuesDe ORDER BY u.id")
+    List<UsuarioResumen> listarResumen(@Param("despuesDe") Long despuesDe, Pageable pageable);
+    
+    @Query(SELECT_RESUMEN + "WHERE u.activo = true AND u.id > :despuesDe ORDER BY u.id")
+    List<UsuarioResumen> listarResumenActivos(@Param("despuesDe") Long despuesDe, Pageable pageable);
+    
+    // Carga de los filtros de unicidad de DNI y email
+    @Query("SELECT u.dni FROM Usuario u")
+    Stream<String> streamDnis();
+    
+    @Query("SELECT u.email FROM Usuario u")
+    Stream<String> streamEmails();
+    
+    // Importación del padrón: todos los usuarios en una sola lectura
+    @Query("SELECT new pe.edu.cibertec.bibliotech.repository.projection.UsuarioPadron(" +
+           "u.id, u.dni, u.email, u.nombre, u.apellido, u.telefono, u.direccion, u.activo) FROM Usuario u")
+    Stream<UsuarioPadron> streamPadron();
+    
+    // Desactiva los indicados que sigan activos y no tengan préstamos pendientes
+    @Modifying
+    @Query("UPDATE Usuario u SET u.activo = false, u.ultimaActualizacion = :fecha " +
+           "WHERE u.id IN :ids AND u.activo = true AND NOT EXISTS (" +
+           "SELECT p.id FROM Prestamo p WHERE p.usuario = u AND p.estado IN ('ACTIVO', 'VENCIDO'))")
+    int desactivarSinPendientes(@Param("ids") Collection<Long> ids, @Param("fecha") LocalDateTime fecha);
 }
\ No newline at end of file
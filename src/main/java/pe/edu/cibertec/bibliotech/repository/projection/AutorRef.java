@@ -0,0 +1,10 @@
+package pe.edu.cibertec.bibliotech.repository.projection;
+
+/**
+ * Referencia mínima a un autor (id y nombre).
+ */
+public record AutorRef(
+    Long id,
+    String nombre
+) {
+}
@@ -0,0 +1,15 @@
+package pe.edu.cibertec.bibliotech.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Proyección de solo lectura con las columnas que necesita AutorResponseDto.
+ */
+public record AutorResumen(
+    Long id,
+    String nombre,
+    String nacionalidad,
+    LocalDateTime fechaRegistro,
+    Integer cantidadLibros
+) {
+}
@@ -0,0 +1,10 @@
+package pe.edu.cibertec.bibliotech.repository.projection;
+
+/**
+ * Referencia mínima a una categoría (id y nombre).
+ */
+public record CategoriaRef(
+    Long id,
+    String nombre
+) {
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package pe.edu.cibertec.bibliotech.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Proyección de solo lectura con las columnas que necesita CategoriaResponseDto.
+ */
+public record CategoriaResumen(
+    Long id,
+    String nombre,
+    String descripcion,
+    BigDecimal multaDiaria,
+    BigDecimal multaMaxima,
+    LocalDateTime fechaRegistro,
+    Integer cantidadLibros
+) {
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package pe.edu.cibertec.bibliotech.repository.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Totales de circulación de un día.
+ */
+public record CirculacionPorDia(
+    LocalDate fecha,
+    Long prestamos,
+    Long devoluciones,
+    Long devolucionesAtraso
+) {
+}
\ No newline at end of file
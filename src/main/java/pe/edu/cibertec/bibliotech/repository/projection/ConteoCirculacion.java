@@ -0,0 +1,13 @@
+package pe.edu.cibertec.bibliotech.repository.projection;
+
+/**
+ * Circulación de un rango de fechas agrupada por libro, categoría o autor.
+ */
+public record ConteoCirculacion(
+    Long id,
+    String nombre,
+    Long prestamos,
+    Long devoluciones,
+    Long devolucionesAtraso
+) {
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package pe.edu.cibertec.bibliotech.repository.projection;
+
+/**
+ * Resultado de un conteo agrupado por id (p. ej. préstamos por libro).
+ */
+public record ConteoPorId(
+    Long id,
+    Long cantidad
+) {
+}
@@ -0,0 +1,10 @@
+package pe.edu.cibertec.bibliotech.repository.projection;
+
+/**
+ * Resultado de un conteo agrupado con su etiqueta (p. ej. préstamos por categoría).
+ */
+public record ConteoPorNombre(
+    String nombre,
+    Long cantidad
+) {
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package pe.edu.cibertec.bibliotech.repository.projection;
+
+/**
+ * Columnas que alimentan el índice de búsqueda de libros.
+ */
+public record LibroIndexado(
+    Long id,
+    String titulo,
+    String isbn,
+    Long autorId,
+    String autorNombre,
+    Long version
+) {
+}
@@ -0,0 +1,25 @@
+package pe.edu.cibertec.bibliotech.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Proyección de solo lectura con las columnas que necesita LibroResponseDto.
+ * No es una entidad administrada: no entra al contexto de persistencia.
+ */
+public record LibroResumen(
+    Long id,
+    String titulo,
+    String isbn,
+    Integer anioPublicacion,
+    Integer cantidadTotal,
+    Integer cantidadDisponible,
+    String descripcion,
+    String autorNombre,
+    String categoriaNombre,
+    LocalDateTime fechaRegistro
+) {
+    
+    public boolean isDisponible() {
+        return cantidadDisponible != null && cantidadDisponible > 0;
+    }
+}
@@ -0,0 +1,13 @@
+package pe.edu.cibertec.bibliotech.repository.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Préstamo registrado de un libro en un día (carga de RankingPrestamos).
+ */
+public record PrestamoDelDia(
+    Long id,
+    Long libroId,
+    LocalDate fecha
+) {
+}
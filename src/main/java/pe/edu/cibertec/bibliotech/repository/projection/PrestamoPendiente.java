@@ -0,0 +1,30 @@
+package pe.edu.cibertec.bibliotech.repository.projection;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+import pe.edu.cibertec.bibliotech.entity.Prestamo.EstadoPrestamo;
+
+/**
+ * Proyección mínima de un préstamo para procesar devoluciones en lote
+ * sin cargar las entidades Prestamo, Libro y Usuario.
+ */
+public record PrestamoPendiente(
+    Long id,
+    Long libroId,
+    Long categoriaId,
+    String isbn,
+    String dni,
+    EstadoPrestamo estado,
+    LocalDate fechaPrestamo,
+    LocalDate fechaDevolucionEsperada
+) {
+    
+    public boolean isDevolvible() {
+        return estado == EstadoPrestamo.ACTIVO || estado == EstadoPrestamo.VENCIDO;
+    }
+    
+    public long diasAtraso(LocalDate fecha) {
+        return Math.max(ChronoUnit.DAYS.between(fechaDevolucionEsperada, fecha), 0);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package pe.edu.cibertec.bibliotech.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+import pe.edu.cibertec.bibliotech.entity.Prestamo.EstadoPrestamo;
+
+/**
+ * Proyección de solo lectura con las columnas que necesita PrestamoResponseDto.
+ * Replica las reglas de vencimiento de la entidad Prestamo.
+ */
+public record PrestamoResumen(
+    Long id,
+    Long libroId,
+    String libroTitulo,
+    Long usuarioId,
+    String usuarioNombre,
+    String usuarioApellido,
+    LocalDate fechaPrestamo,
+    LocalDate fechaDevolucionEsperada,
+    LocalDate fechaDevolucionReal,
+    EstadoPrestamo estado,
+    String observaciones,
+    BigDecimal multa
+) {
+    
+    public String usuarioNombreCompleto() {
+        return usuarioNombre + " " + usuarioApellido;
+    }
+    
+    public boolean isVencido() {
+        return estado == EstadoPrestamo.ACTIVO && 
+               LocalDate.now().isAfter(fechaDevolucionEsperada);
+    }
+    
+    public long getDiasAtraso() {
+        LocalDate fin = fechaDevolucionReal != null ? fechaDevolucionReal : LocalDate.now();
+        return Math.max(ChronoUnit.DAYS.between(fechaDevolucionEsperada, fin), 0);
+    }
+}
\ No newline at end of file
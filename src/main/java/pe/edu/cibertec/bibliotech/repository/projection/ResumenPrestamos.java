@@ -0,0 +1,14 @@
+package pe.edu.cibertec.bibliotech.repository.projection;
+
+/**
+ * Conteos de préstamos por estado. "atrasados" son los ACTIVO con la fecha de
+ * devolución vencida que el barrido todavía no marcó como VENCIDO.
+ */
+public record ResumenPrestamos(
+    Long total,
+    Long activos,
+    Long vencidos,
+    Long devueltos,
+    Long atrasados
+) {
+}
\ No newline at end of file
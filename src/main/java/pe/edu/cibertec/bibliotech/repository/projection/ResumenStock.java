@@ -0,0 +1,13 @@
+package pe.edu.cibertec.bibliotech.repository.projection;
+
+/**
+ * Conteos de disponibilidad del catálogo.
+ */
+public record ResumenStock(
+    Long librosConStock,
+    Long librosSinStock,
+    Long librosStockBajo,
+    Long totalEjemplares,
+    Long ejemplaresDisponibles
+) {
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package pe.edu.cibertec.bibliotech.repository.projection;
+
+/**
+ * Conteos de usuarios registrados y activos.
+ */
+public record ResumenUsuarios(
+    Long total,
+    Long activos
+) {
+}
\ No newline at end of file
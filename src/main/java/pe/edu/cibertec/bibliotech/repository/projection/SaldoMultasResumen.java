@@ -0,0 +1,22 @@
+package pe.edu.cibertec.bibliotech.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Saldo de multas de un usuario con los datos que muestra SaldoMultasResponseDto.
+ */
+public record SaldoMultasResumen(
+    Long usuarioId,
+    String dni,
+    String nombre,
+    String apellido,
+    BigDecimal devengado,
+    BigDecimal adeudado,
+    LocalDateTime ultimaActualizacion
+) {
+    
+    public BigDecimal total() {
+        return devengado.add(adeudado);
+    }
+}
\ No newline at end of file
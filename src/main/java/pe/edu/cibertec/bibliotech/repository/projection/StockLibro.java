@@ -0,0 +1,12 @@
+package pe.edu.cibertec.bibliotech.repository.projection;
+
+/**
+ * Stock de un libro junto con su versión, para el índice de disponibilidad.
+ */
+public record StockLibro(
+    Long id,
+    Integer cantidadDisponible,
+    Integer cantidadTotal,
+    Long version
+) {
+}
\ No newline at end of file
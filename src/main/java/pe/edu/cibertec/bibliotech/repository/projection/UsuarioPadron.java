@@ -0,0 +1,16 @@
+package pe.edu.cibertec.bibliotech.repository.projection;
+
+/**
+ * Datos de un usuario que compara la importación del padrón de alumnos.
+ */
+public record UsuarioPadron(
+    Long id,
+    String dni,
+    String email,
+    String nombre,
+    String apellido,
+    String telefono,
+    String direccion,
+    Boolean activo
+) {
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package pe.edu.cibertec.bibliotech.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Proyección de solo lectura con las columnas que necesita UsuarioResponseDto.
+ * Los préstamos activos se cuentan en la misma consulta (subconsulta).
+ */
+public record UsuarioResumen(
+    Long id,
+    String nombre,
+    String apellido,
+    String dni,
+    String email,
+    String telefono,
+    String direccion,
+    Boolean activo,
+    LocalDateTime fechaRegistro,
+    Long prestamosActivos
+) {
+    
+    public String nombreCompleto() {
+        return nombre + " " + apellido;
+    }
+}
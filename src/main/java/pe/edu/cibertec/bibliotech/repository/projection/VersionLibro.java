@@ -0,0 +1,13 @@
+package pe.edu.cibertec.bibliotech.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marcas de modificación de un libro, para su ETag.
+ */
+public record VersionLibro(
+    Long id,
+    LocalDateTime ultimaActualizacion,
+    Long version
+) {
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package pe.edu.cibertec.bibliotech.service;
+
+import java.util.List;
+
+import pe.edu.cibertec.bibliotech.api.response.SugerenciaResponseDto;
+
+public interface AutocompletadoService {
+    
+    List<SugerenciaResponseDto> sugerir(String q, Integer limite);
+}
\ No newline at end of file
@@ -1,9 +1,9 @@
 package pe.edu.cibertec.bibliotech.service;
 
-import java.util.List;
-
 import pe.edu.cibertec.bibliotech.api.request.AutorRequestDto;
+import pe.edu.cibertec.bibliotech.api.request.PaginaRequestDto;
 import pe.edu.cibertec.bibliotech.api.response.AutorResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.PaginaResponseDto;
 
 public interface AutorService {
     
@@ -15,7 +15,7 @@ public interface AutorService {
     
     AutorResponseDto obtener(Long id);
     
-    List<AutorResponseDto> listar();
+    PaginaResponseDto<AutorResponseDto> listar(PaginaRequestDto pagina);
     
-    List<AutorResponseDto> buscarPorNombre(String nombre);
+    PaginaResponseDto<AutorResponseDto> buscarPorNombre(String nombre, PaginaRequestDto pagina);
 }
\ No newline at end of file
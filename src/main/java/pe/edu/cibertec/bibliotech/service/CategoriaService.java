@@ -1,9 +1,9 @@
 package pe.edu.cibertec.bibliotech.service;
 
-import java.util.List;
-
 import pe.edu.cibertec.bibliotech.api.request.CategoriaRequestDto;
+import pe.edu.cibertec.bibliotech.api.request.PaginaRequestDto;
 import pe.edu.cibertec.bibliotech.api.response.CategoriaResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.PaginaResponseDto;
 
 public interface CategoriaService {
     
@@ -15,7 +15,10 @@ public interface CategoriaService {
     
     CategoriaResponseDto obtener(Long id);
     
-    List<CategoriaResponseDto> listar();
+    PaginaResponseDto<CategoriaResponseDto> listar(PaginaRequestDto pagina);
     
     CategoriaResponseDto buscarPorNombre(String nombre);
+    
+    // ETag para GET condicional del listado
+    String etagListado();
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package pe.edu.cibertec.bibliotech.service;
+
+import java.util.List;
+
+import pe.edu.cibertec.bibliotech.api.request.RangoFechasRequestDto;
+import pe.edu.cibertec.bibliotech.api.response.CirculacionDiaResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.CirculacionResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.ReconstruccionCirculacionResponseDto;
+
+public interface CirculacionService {
+    
+    List<CirculacionDiaResponseDto> porDia(RangoFechasRequestDto rango);
+    
+    List<CirculacionResponseDto> porCategoria(RangoFechasRequestDto rango);
+    
+    List<CirculacionResponseDto> porAutor(RangoFechasRequestDto rango);
+    
+    List<CirculacionResponseDto> porLibro(RangoFechasRequestDto rango, Integer limite);
+    
+    ReconstruccionCirculacionResponseDto reconstruir(RangoFechasRequestDto rango);
+}
\ No newline at end of file
@@ -0,0 +1,8 @@
+package pe.edu.cibertec.bibliotech.service;
+
+import pe.edu.cibertec.bibliotech.api.response.EstadisticasResponseDto;
+
+public interface EstadisticaService {
+    
+    EstadisticasResponseDto obtener();
+}
\ No newline at end of file
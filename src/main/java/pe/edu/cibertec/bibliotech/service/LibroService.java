@@ -1,9 +1,18 @@
 package pe.edu.cibertec.bibliotech.service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
 import pe.edu.cibertec.bibliotech.api.request.LibroRequestDto;
+import pe.edu.cibertec.bibliotech.api.request.PaginaRequestDto;
+import pe.edu.cibertec.bibliotech.api.response.DisponibilidadResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.ImportacionLibrosResponseDto;
 import pe.edu.cibertec.bibliotech.api.response.LibroResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.PaginaResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.RankingLibroResponseDto;
+import pe.edu.cibertec.bibliotech.service.support.RankingPrestamos.Ventana;
 
 public interface LibroService {
     
@@ -15,15 +24,32 @@ public interface LibroService {
     
     LibroResponseDto obtener(Long id);
     
-    List<LibroResponseDto> listar();
+    PaginaResponseDto<LibroResponseDto> listar(PaginaRequestDto pagina);
     
-    List<LibroResponseDto> listarDisponibles();
+    PaginaResponseDto<LibroResponseDto> listarDisponibles(PaginaRequestDto pagina);
     
-    List<LibroResponseDto> buscarPorTitulo(String titulo);
+    PaginaResponseDto<LibroResponseDto> listarSinStock(PaginaRequestDto pagina);
     
-    List<LibroResponseDto> buscarPorAutor(Long autorId);
+    PaginaResponseDto<LibroResponseDto> listarStockBajo(PaginaRequestDto pagina);
     
-    List<LibroResponseDto> buscarPorCategoria(Long categoriaId);
+    DisponibilidadResponseDto resumenDisponibilidad();
     
-    List<LibroResponseDto> buscarPorPalabra(String keyword);
+    List<RankingLibroResponseDto> listarMasPrestados(Ventana ventana, Integer limite);
+    
+    PaginaResponseDto<LibroResponseDto> buscarPorTitulo(String titulo, PaginaRequestDto pagina);
+    
+    PaginaResponseDto<LibroResponseDto> buscarPorAutor(Long autorId, PaginaRequestDto pagina);
+    
+    PaginaResponseDto<LibroResponseDto> buscarPorCategoria(Long categoriaId, PaginaRequestDto pagina);
+    
+    PaginaResponseDto<LibroResponseDto> buscarPorPalabra(String keyword, PaginaRequestDto pagina);
+    
+    long exportar(OutputStream salida) throws IOException;
+    
+    ImportacionLibrosResponseDto importarCsv(InputStream entrada) throws IOException;
+    
+    // ETags para GET condicional
+    String etag(Long id);
+    
+    String etagListado();
 }
\ No newline at end of file
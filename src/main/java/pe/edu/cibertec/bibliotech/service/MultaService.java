@@ -0,0 +1,15 @@
+package pe.edu.cibertec.bibliotech.service;
+
+import java.util.List;
+
+import pe.edu.cibertec.bibliotech.api.response.DevengoMultasResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.SaldoMultasResponseDto;
+
+public interface MultaService {
+    
+    SaldoMultasResponseDto saldoDeUsuario(Long usuarioId);
+    
+    List<SaldoMultasResponseDto> deudores(Integer limite);
+    
+    DevengoMultasResponseDto devengar();
+}
\ No newline at end of file
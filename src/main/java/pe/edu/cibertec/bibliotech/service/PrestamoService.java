@@ -1,29 +1,43 @@
 package pe.edu.cibertec.bibliotech.service;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.OutputStream;
 
+import pe.edu.cibertec.bibliotech.api.request.DevolucionLoteRequestDto;
+import pe.edu.cibertec.bibliotech.api.request.PaginaRequestDto;
+import pe.edu.cibertec.bibliotech.api.request.PrestamoLoteRequestDto;
 import pe.edu.cibertec.bibliotech.api.request.PrestamoRequestDto;
+import pe.edu.cibertec.bibliotech.api.response.BarridoVencidosResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.DevolucionLoteResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.PaginaResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.PrestamoLoteResponseDto;
 import pe.edu.cibertec.bibliotech.api.response.PrestamoResponseDto;
 
 public interface PrestamoService {
     
     PrestamoResponseDto registrarPrestamo(PrestamoRequestDto request);
     
+    PrestamoLoteResponseDto registrarLote(PrestamoLoteRequestDto request);
+    
     PrestamoResponseDto registrarDevolucion(Long prestamoId, String observaciones);
     
+    DevolucionLoteResponseDto registrarDevolucionLote(DevolucionLoteRequestDto request);
+    
     void cancelar(Long id);
     
     PrestamoResponseDto obtener(Long id);
     
-    List<PrestamoResponseDto> listar();
+    PaginaResponseDto<PrestamoResponseDto> listar(PaginaRequestDto pagina);
+    
+    PaginaResponseDto<PrestamoResponseDto> listarActivos(PaginaRequestDto pagina);
     
-    List<PrestamoResponseDto> listarActivos();
+    PaginaResponseDto<PrestamoResponseDto> listarVencidos(PaginaRequestDto pagina);
     
-    List<PrestamoResponseDto> listarVencidos();
+    PaginaResponseDto<PrestamoResponseDto> listarPorUsuario(Long usuarioId, PaginaRequestDto pagina);
     
-    List<PrestamoResponseDto> listarPorUsuario(Long usuarioId);
+    PaginaResponseDto<PrestamoResponseDto> listarPorLibro(Long libroId, PaginaRequestDto pagina);
     
-    List<PrestamoResponseDto> listarPorLibro(Long libroId);
+    BarridoVencidosResponseDto actualizarEstadosVencidos();
     
-    void actualizarEstadosVencidos();
+    long exportar(OutputStream salida) throws IOException;
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package pe.edu.cibertec.bibliotech.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.springframework.core.io.Resource;
+
+import pe.edu.cibertec.bibliotech.api.request.ReportePrestamosRequestDto;
+import pe.edu.cibertec.bibliotech.api.request.ReporteTrabajoRequestDto;
+import pe.edu.cibertec.bibliotech.api.response.ReporteTrabajoResponseDto;
+
+public interface ReporteService {
+    
+    long prestamosExcel(ReportePrestamosRequestDto filtro, OutputStream salida) throws IOException;
+    
+    // Reportes PDF en segundo plano
+    ReporteTrabajoResponseDto solicitarPdf(ReporteTrabajoRequestDto request);
+    
+    ReporteTrabajoResponseDto obtenerTrabajo(String id);
+    
+    Resource descargarTrabajo(String id);
+}
\ No newline at end of file
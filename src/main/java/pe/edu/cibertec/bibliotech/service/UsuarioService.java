@@ -1,8 +1,12 @@
 package pe.edu.cibertec.bibliotech.service;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
 
+import pe.edu.cibertec.bibliotech.api.request.PaginaRequestDto;
 import pe.edu.cibertec.bibliotech.api.request.UsuarioRequestDto;
+import pe.edu.cibertec.bibliotech.api.response.ImportacionUsuariosResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.PaginaResponseDto;
 import pe.edu.cibertec.bibliotech.api.response.UsuarioResponseDto;
 
 public interface UsuarioService {
@@ -15,9 +19,9 @@ public interface UsuarioService {
     
     UsuarioResponseDto obtener(Long id);
     
-    List<UsuarioResponseDto> listar();
+    PaginaResponseDto<UsuarioResponseDto> listar(PaginaRequestDto pagina);
     
-    List<UsuarioResponseDto> listarActivos();
+    PaginaResponseDto<UsuarioResponseDto> listarActivos(PaginaRequestDto pagina);
     
     UsuarioResponseDto buscarPorDni(String dni);
     
@@ -26,4 +30,9 @@ public interface UsuarioService {
     void activar(Long id);
     
     void desactivar(Long id);
+    
+    /**
+     * Crea o actualiza los usuarios del padrón (CSV) y, si se pide, desactiva a los ausentes.
+     */
+    ImportacionUsuariosResponseDto importarCsv(InputStream entrada, boolean desactivarAusentes) throws IOException;
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package pe.edu.cibertec.bibliotech.service.impl;
+
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import pe.edu.cibertec.bibliotech.api.response.SugerenciaResponseDto;
+import pe.edu.cibertec.bibliotech.service.AutocompletadoService;
+import pe.edu.cibertec.bibliotech.service.support.TrieSugerencias;
+
+/**
+ * Autocompletado del buscador: se resuelve completamente en memoria, sin consultar la base.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AutocompletadoServiceImpl implements AutocompletadoService {
+    
+    private final TrieSugerencias trie;
+    
+    @Override
+    public List<SugerenciaResponseDto> sugerir(String q, Integer limite) {
+        // Se llama en cada tecla: solo a nivel debug
+        log.debug("Sugerencias para q='{}'", q);
+        
+        int cantidad = limite == null ? TrieSugerencias.MAX_SUGERENCIAS
+                : Math.max(1, Math.min(limite, TrieSugerencias.MAX_SUGERENCIAS));
+        
+        return trie.sugerir(q, cantidad).stream()
+                .map(sugerencia -> {
+                    SugerenciaResponseDto dto = new SugerenciaResponseDto();
+                    dto.setTipo(sugerencia.tipo().name());
+                    dto.setId(sugerencia.id());
+                    dto.setTexto(sugerencia.texto());
+                    dto.setPopularidad(sugerencia.popularidad());
+                    return dto;
+                })
+                .toList();
+    }
+}
\ No newline at end of file
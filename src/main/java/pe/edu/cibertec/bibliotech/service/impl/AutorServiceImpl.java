@@ -1,22 +1,26 @@
 package pe.edu.cibertec.bibliotech.service.impl;
 
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import pe.edu.cibertec.bibliotech.api.request.AutorRequestDto;
+import pe.edu.cibertec.bibliotech.api.request.PaginaRequestDto;
 import pe.edu.cibertec.bibliotech.api.response.AutorResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.PaginaResponseDto;
 import pe.edu.cibertec.bibliotech.entity.Autor;
+import pe.edu.cibertec.bibliotech.event.AutorEvento;
 import pe.edu.cibertec.bibliotech.exception.BusinessException;
 import pe.edu.cibertec.bibliotech.exception.NotFoundException;
 import pe.edu.cibertec.bibliotech.mapper.AutorMapper;
 import pe.edu.cibertec.bibliotech.repository.AutorRepository;
+import pe.edu.cibertec.bibliotech.repository.projection.AutorResumen;
 import pe.edu.cibertec.bibliotech.service.AutorService;
+import pe.edu.cibertec.bibliotech.service.support.Paginador;
 
 @Slf4j
 @Service
@@ -26,6 +30,8 @@ public class AutorServiceImpl implements AutorService {
     
     private final AutorRepository autorRepo;
     private final AutorMapper mapper;
+    private final Paginador paginador;
+    private final ApplicationEventPublisher eventos;
     
     @Override
     public AutorResponseDto crear(AutorRequestDto req) {
@@ -41,6 +47,7 @@ public class AutorServiceImpl implements AutorService {
         entity.setFechaRegistro(LocalDateTime.now());
         
         Autor saved = autorRepo.save(entity);
+        eventos.publishEvent(AutorEvento.guardado(saved));
         log.info("✓ Autor creado id={}, nombre='{}'", saved.getId(), saved.getNombre());
         
         return mapper.toResponseDto(saved);
@@ -64,6 +71,7 @@ public class AutorServiceImpl implements AutorService {
         }
         
         Autor saved = autorRepo.save(actual);
+        eventos.publishEvent(AutorEvento.guardado(saved));
         log.info("✓ Autor actualizado id={}, nombre='{}'", saved.getId(), saved.getNombre());
         
         return mapper.toResponseDto(saved);
@@ -84,6 +92,7 @@ public class AutorServiceImpl implements AutorService {
         }
         
         autorRepo.delete(autor);
+        eventos.publishEvent(AutorEvento.eliminado(id));
         log.info("✓ Autor eliminado id={}, nombre='{}'", id, autor.getNombre());
     }
     
@@ -100,25 +109,25 @@ public class AutorServiceImpl implements AutorService {
     
     @Override
     @Transactional(readOnly = true)
-    public List<AutorResponseDto> listar() {
+    public PaginaResponseDto<AutorResponseDto> listar(PaginaRequestDto pagina) {
         log.info("Listando todos los autores");
         
-        return autorRepo.findAll().stream()
-                .map(mapper::toResponseDto)
-                .collect(Collectors.toList());
+        return paginador.paginar(pagina,
+                (despuesDe, pageable) -> autorRepo.listarResumen(despuesDe, pageable),
+                AutorResumen::id, mapper::toResponseDto);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<AutorResponseDto> buscarPorNombre(String nombre) {
+    public PaginaResponseDto<AutorResponseDto> buscarPorNombre(String nombre, PaginaRequestDto pagina) {
         log.info("Buscando autores por nombre: {}", nombre);
         
         if (nombre == null || nombre.trim().isEmpty()) {
             throw new BusinessException("El nombre de búsqueda no puede estar vacío");
         }
         
-        return autorRepo.findByNombreContainingIgnoreCase(nombre.trim()).stream()
-                .map(mapper::toResponseDto)
-                .collect(Collectors.toList());
+        return paginador.paginar(pagina,
+                (despuesDe, pageable) -> autorRepo.listarResumenPorNombre(nombre.trim(), despuesDe, pageable),
+                AutorResumen::id, mapper::toResponseDto);
     }
 }
\ No newline at end of file
@@ -1,22 +1,30 @@
 package pe.edu.cibertec.bibliotech.service.impl;
 
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import pe.edu.cibertec.bibliotech.api.request.CategoriaRequestDto;
+import pe.edu.cibertec.bibliotech.api.request.PaginaRequestDto;
 import pe.edu.cibertec.bibliotech.api.response.CategoriaResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.PaginaResponseDto;
 import pe.edu.cibertec.bibliotech.entity.Categoria;
+import pe.edu.cibertec.bibliotech.event.CategoriaEvento;
 import pe.edu.cibertec.bibliotech.exception.BusinessException;
 import pe.edu.cibertec.bibliotech.exception.NotFoundException;
 import pe.edu.cibertec.bibliotech.mapper.CategoriaMapper;
 import pe.edu.cibertec.bibliotech.repository.CategoriaRepository;
+import pe.edu.cibertec.bibliotech.repository.projection.CategoriaResumen;
 import pe.edu.cibertec.bibliotech.service.CategoriaService;
+import pe.edu.cibertec.bibliotech.service.support.CatalogoCache;
+import pe.edu.cibertec.bibliotech.service.support.Paginador;
+import pe.edu.cibertec.bibliotech.service.support.VersionesTablas;
+import pe.edu.cibertec.bibliotech.service.support.VersionesTablas.Tabla;
 
 @Slf4j
 @Service
@@ -26,13 +34,17 @@ public class CategoriaServiceImpl implements CategoriaService {
     
     private final CategoriaRepository categoriaRepo;
     private final CategoriaMapper mapper;
+    private final Paginador paginador;
+    private final CatalogoCache catalogo;
+    private final ApplicationEventPublisher eventos;
+    private final VersionesTablas versiones;
     
     @Override
     public CategoriaResponseDto crear(CategoriaRequestDto req) {
         log.info("Creando categoría: nombre='{}'", req.getNombre());
         
         // Validar que el nombre sea único
-        categoriaRepo.findByNombre(req.getNombre().trim())
+        catalogo.categoriaPorNombre(req.getNombre().trim())
                 .ifPresent(categoria -> {
                     throw new BusinessException("Ya existe una categoría con el nombre: " + req.getNombre());
                 });
@@ -47,6 +59,7 @@ public class CategoriaServiceImpl implements CategoriaService {
         entity.setFechaRegistro(LocalDateTime.now());
         
         Categoria saved = categoriaRepo.save(entity);
+        eventos.publishEvent(CategoriaEvento.guardado(saved));
         log.info("✓ Categoría creada id={}, nombre='{}'", saved.getId(), saved.getNombre());
         
         return mapper.toResponseDto(saved);
@@ -61,9 +74,9 @@ public class CategoriaServiceImpl implements CategoriaService {
         
         // Validar nombre único (excepto la misma categoría)
         if (req.getNombre() != null && !req.getNombre().trim().isEmpty()) {
-            categoriaRepo.findByNombre(req.getNombre().trim())
+            catalogo.categoriaPorNombre(req.getNombre().trim())
                     .ifPresent(categoria -> {
-                        if (!categoria.getId().equals(id)) {
+                        if (!categoria.id().equals(id)) {
                             throw new BusinessException("Ya existe otra categoría con el nombre: " + req.getNombre());
                         }
                     });
@@ -80,6 +93,7 @@ public class CategoriaServiceImpl implements CategoriaService {
         }
         
         Categoria saved = categoriaRepo.save(actual);
+        eventos.publishEvent(CategoriaEvento.guardado(saved));
         log.info("✓ Categoría actualizada id={}, nombre='{}'", saved.getId(), saved.getNombre());
         
         return mapper.toResponseDto(saved);
@@ -100,6 +114,7 @@ public class CategoriaServiceImpl implements CategoriaService {
         }
         
         categoriaRepo.delete(categoria);
+        eventos.publishEvent(CategoriaEvento.eliminado(id));
         log.info("✓ Categoría eliminada id={}, nombre='{}'", id, categoria.getNombre());
     }
     
@@ -116,12 +131,12 @@ public class CategoriaServiceImpl implements CategoriaService {
     
     @Override
     @Transactional(readOnly = true)
-    public List<CategoriaResponseDto> listar() {
+    public PaginaResponseDto<CategoriaResponseDto> listar(PaginaRequestDto pagina) {
         log.info("Listando todas las categorías");
         
-        return categoriaRepo.findAll().stream()
-                .map(mapper::toResponseDto)
-                .collect(Collectors.toList());
+        return paginador.paginar(pagina,
+                (despuesDe, pageable) -> categoriaRepo.listarResumen(despuesDe, pageable),
+                CategoriaResumen::id, mapper::toResponseDto);
     }
     
     @Override
@@ -138,4 +153,11 @@ public class CategoriaServiceImpl implements CategoriaService {
         
         return mapper.toResponseDto(categoria);
     }
+    
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public String etagListado() {
+        // Sin transacción: responder 304 no debe tomar una conexión
+        return "categorias-" + versiones.firma(Tabla.CATEGORIAS);
+    }
 }
\ No newline at end of file
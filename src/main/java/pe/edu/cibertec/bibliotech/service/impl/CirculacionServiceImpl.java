@@ -0,0 +1,123 @@
+package pe.edu.cibertec.bibliotech.service.impl;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import pe.edu.cibertec.bibliotech.api.request.RangoFechasRequestDto;
+import pe.edu.cibertec.bibliotech.api.response.CirculacionDiaResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.CirculacionResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.ReconstruccionCirculacionResponseDto;
+import pe.edu.cibertec.bibliotech.repository.CirculacionCategoriaRepository;
+import pe.edu.cibertec.bibliotech.repository.CirculacionLibroRepository;
+import pe.edu.cibertec.bibliotech.repository.projection.CirculacionPorDia;
+import pe.edu.cibertec.bibliotech.repository.projection.ConteoCirculacion;
+import pe.edu.cibertec.bibliotech.service.CirculacionService;
+import pe.edu.cibertec.bibliotech.service.support.ReconstruccionCirculacion;
+
+/**
+ * Consultas de circulación por rango de fechas, respondidas desde las tablas de
+ * circulación diaria (una fila por día y libro o categoría) en lugar de la de préstamos.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class CirculacionServiceImpl implements CirculacionService {
+    
+    private static final int DIAS_POR_DEFECTO = 30;
+    private static final int LIMITE_LIBROS = 20;
+    private static final int MAX_LIBROS = 100;
+    
+    private final CirculacionLibroRepository circulacionLibroRepo;
+    private final CirculacionCategoriaRepository circulacionCategoriaRepo;
+    private final ReconstruccionCirculacion reconstruccion;
+    
+    @Override
+    public List<CirculacionDiaResponseDto> porDia(RangoFechasRequestDto rango) {
+        LocalDate hasta = hasta(rango);
+        LocalDate desde = desde(rango, hasta);
+        log.info("Circulación diaria del {} al {}", desde, hasta);
+        
+        return circulacionCategoriaRepo.sumarPorDia(desde, hasta).stream()
+                .map(this::toResponseDto)
+                .toList();
+    }
+    
+    @Override
+    public List<CirculacionResponseDto> porCategoria(RangoFechasRequestDto rango) {
+        LocalDate hasta = hasta(rango);
+        LocalDate desde = desde(rango, hasta);
+        log.info("Circulación por categoría del {} al {}", desde, hasta);
+        
+        return circulacionCategoriaRepo.sumarPorCategoria(desde, hasta).stream()
+                .map(this::toResponseDto)
+                .toList();
+    }
+    
+    @Override
+    public List<CirculacionResponseDto> porAutor(RangoFechasRequestDto rango) {
+        LocalDate hasta = hasta(rango);
+        LocalDate desde = desde(rango, hasta);
+        log.info("Circulación por autor del {} al {}", desde, hasta);
+        
+        return circulacionLibroRepo.sumarPorAutor(desde, hasta).stream()
+                .map(this::toResponseDto)
+                .toList();
+    }
+    
+    @Override
+    public List<CirculacionResponseDto> porLibro(RangoFechasRequestDto rango, Integer limite) {
+        LocalDate hasta = hasta(rango);
+        LocalDate desde = desde(rango, hasta);
+        int cantidad = limite == null ? LIMITE_LIBROS : Math.max(1, Math.min(limite, MAX_LIBROS));
+        log.info("Circulación de los {} libros más prestados del {} al {}", cantidad, desde, hasta);
+        
+        return circulacionLibroRepo.sumarPorLibro(desde, hasta, PageRequest.of(0, cantidad)).stream()
+                .map(this::toResponseDto)
+                .toList();
+    }
+    
+    /**
+     * Delegado a la reconstrucción por bloques; cada bloque gestiona su propia transacción.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ReconstruccionCirculacionResponseDto reconstruir(RangoFechasRequestDto rango) {
+        return reconstruccion.ejecutar(rango.getDesde(), rango.getHasta());
+    }
+    
+    // Sin límites, las consultas cubren los últimos 30 días
+    private static LocalDate hasta(RangoFechasRequestDto rango) {
+        return rango.getHasta() != null ? rango.getHasta() : LocalDate.now();
+    }
+    
+    private static LocalDate desde(RangoFechasRequestDto rango, LocalDate hasta) {
+        return rango.getDesde() != null ? rango.getDesde() : hasta.minusDays(DIAS_POR_DEFECTO - 1);
+    }
+    
+    private CirculacionDiaResponseDto toResponseDto(CirculacionPorDia dia) {
+        CirculacionDiaResponseDto dto = new CirculacionDiaResponseDto();
+        dto.setFecha(dia.fecha());
+        dto.setPrestamos(dia.prestamos());
+        dto.setDevoluciones(dia.devoluciones());
+        dto.setDevolucionesConAtraso(dia.devolucionesAtraso());
+        return dto;
+    }
+    
+    private CirculacionResponseDto toResponseDto(ConteoCirculacion conteo) {
+        CirculacionResponseDto dto = new CirculacionResponseDto();
+        dto.setId(conteo.id());
+        dto.setNombre(conteo.nombre());
+        dto.setPrestamos(conteo.prestamos());
+        dto.setDevoluciones(conteo.devoluciones());
+        dto.setDevolucionesConAtraso(conteo.devolucionesAtraso());
+        return dto;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package pe.edu.cibertec.bibliotech.service.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import pe.edu.cibertec.bibliotech.api.response.EstadisticasResponseDto;
+import pe.edu.cibertec.bibliotech.entity.Prestamo.EstadoPrestamo;
+import pe.edu.cibertec.bibliotech.repository.projection.ResumenPrestamos;
+import pe.edu.cibertec.bibliotech.repository.projection.ResumenStock;
+import pe.edu.cibertec.bibliotech.service.EstadisticaService;
+import pe.edu.cibertec.bibliotech.service.support.InstantaneaEstadisticas;
+import pe.edu.cibertec.bibliotech.service.support.InstantaneaEstadisticas.Instantanea;
+
+@Service
+@RequiredArgsConstructor
+public class EstadisticaServiceImpl implements EstadisticaService {
+    
+    private final InstantaneaEstadisticas instantaneas;
+    
+    // Sin transacción: si la instantánea está vigente no se consulta la base de datos
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public EstadisticasResponseDto obtener() {
+        Instantanea instantanea = instantaneas.obtener();
+        ResumenStock libros = instantanea.libros();
+        ResumenPrestamos prestamos = instantanea.prestamos();
+        
+        EstadisticasResponseDto dto = new EstadisticasResponseDto();
+        dto.setTotalLibros(libros.librosConStock() + libros.librosSinStock());
+        dto.setLibrosDisponibles(libros.librosConStock());
+        dto.setLibrosSinStock(libros.librosSinStock());
+        dto.setLibrosStockBajo(libros.librosStockBajo());
+        dto.setTotalEjemplares(libros.totalEjemplares());
+        dto.setEjemplaresDisponibles(libros.ejemplaresDisponibles());
+        
+        Map<String, Long> porEstado = new LinkedHashMap<>();
+        porEstado.put(EstadoPrestamo.ACTIVO.name(), prestamos.activos());
+        porEstado.put(EstadoPrestamo.VENCIDO.name(), prestamos.vencidos());
+        porEstado.put(EstadoPrestamo.DEVUELTO.name(), prestamos.devueltos());
+        dto.setTotalPrestamos(prestamos.total());
+        dto.setPrestamosPorEstado(porEstado);
+        dto.setPrestamosAtrasados(prestamos.atrasados());
+        
+        dto.setTotalUsuarios(instantanea.usuarios().total());
+        dto.setUsuariosActivos(instantanea.usuarios().activos());
+        dto.setGeneradoEn(instantanea.generadaEn());
+        return dto;
+    }
+}
\ No newline at end of file
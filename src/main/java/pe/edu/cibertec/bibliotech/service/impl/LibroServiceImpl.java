@@ -1,25 +1,65 @@
 package pe.edu.cibertec.bibliotech.service.impl;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import pe.edu.cibertec.bibliotech.api.request.LibroRequestDto;
+import pe.edu.cibertec.bibliotech.api.request.PaginaRequestDto;
+import pe.edu.cibertec.bibliotech.api.response.DisponibilidadResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.ImportacionLibrosResponseDto;
 import pe.edu.cibertec.bibliotech.api.response.LibroResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.PaginaResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.RankingLibroResponseDto;
 import pe.edu.cibertec.bibliotech.entity.Autor;
 import pe.edu.cibertec.bibliotech.entity.Categoria;
 import pe.edu.cibertec.bibliotech.entity.Libro;
+import pe.edu.cibertec.bibliotech.event.LibroEvento;
 import pe.edu.cibertec.bibliotech.exception.BusinessException;
 import pe.edu.cibertec.bibliotech.exception.NotFoundException;
 import pe.edu.cibertec.bibliotech.mapper.LibroMapper;
-import pe.edu.cibertec.bibliotech.repository.AutorRepository;
-import pe.edu.cibertec.bibliotech.repository.CategoriaRepository;
 import pe.edu.cibertec.bibliotech.repository.LibroRepository;
+import pe.edu.cibertec.bibliotech.repository.PrestamoRepository;
+import pe.edu.cibertec.bibliotech.repository.projection.AutorRef;
+import pe.edu.cibertec.bibliotech.repository.projection.CategoriaRef;
+import pe.edu.cibertec.bibliotech.repository.projection.ConteoPorId;
+import pe.edu.cibertec.bibliotech.repository.projection.LibroResumen;
+import pe.edu.cibertec.bibliotech.repository.projection.ResumenStock;
+import pe.edu.cibertec.bibliotech.repository.projection.VersionLibro;
 import pe.edu.cibertec.bibliotech.service.LibroService;
+import pe.edu.cibertec.bibliotech.service.support.CatalogoCache;
+import pe.edu.cibertec.bibliotech.service.support.ExportadorNdjson;
+import pe.edu.cibertec.bibliotech.service.support.FiltroClavesUnicas;
+import pe.edu.cibertec.bibliotech.service.support.FiltroClavesUnicas.Clave;
+import pe.edu.cibertec.bibliotech.service.support.ImportadorLibros;
+import pe.edu.cibertec.bibliotech.service.support.IndiceDisponibilidad;
+import pe.edu.cibertec.bibliotech.service.support.IndiceDisponibilidad.Estado;
+import pe.edu.cibertec.bibliotech.service.support.IndiceLibros;
+import pe.edu.cibertec.bibliotech.service.support.IndiceLibros.Campo;
+import pe.edu.cibertec.bibliotech.service.support.LecturaEnStreaming;
+import pe.edu.cibertec.bibliotech.service.support.Paginador;
+import pe.edu.cibertec.bibliotech.service.support.RankingPrestamos;
+import pe.edu.cibertec.bibliotech.service.support.RankingPrestamos.Ventana;
+import pe.edu.cibertec.bibliotech.service.support.VersionesTablas;
+import pe.edu.cibertec.bibliotech.service.support.VersionesTablas.Tabla;
 
 @Slf4j
 @Service
@@ -27,36 +67,52 @@ import pe.edu.cibertec.bibliotech.service.LibroService;
 @Transactional
 public class LibroServiceImpl implements LibroService {
     
+    private static final int LIMITE_RANKING = 10;
+    private static final int MAX_RANKING = 100;
+    
     private final LibroRepository libroRepo;
-    private final AutorRepository autorRepo;
-    private final CategoriaRepository categoriaRepo;
+    private final PrestamoRepository prestamoRepo;
     private final LibroMapper mapper;
+    private final Paginador paginador;
+    private final ExportadorNdjson exportadorNdjson;
+    private final LecturaEnStreaming streaming;
+    private final CatalogoCache catalogo;
+    private final FiltroClavesUnicas filtroClaves;
+    private final VersionesTablas versiones;
+    private final IndiceDisponibilidad disponibilidad;
+    private final IndiceLibros indice;
+    private final ImportadorLibros importador;
+    private final RankingPrestamos ranking;
+    private final ApplicationEventPublisher eventos;
     
     @Override
     public LibroResponseDto crear(LibroRequestDto req) {
         log.info("Creando libro: titulo='{}'", req.getTitulo());
         
-        // Validar ISBN único
-        libroRepo.findByIsbn(req.getIsbn().trim().toUpperCase())
-                .ifPresent(libro -> {
-                    throw new BusinessException("Ya existe un libro con el ISBN: " + req.getIsbn());
-                });
+        // Validar ISBN único (sin consulta si el filtro asegura que el ISBN es nuevo)
+        String isbn = req.getIsbn().trim().toUpperCase();
+        if (filtroClaves.puedeExistir(Clave.ISBN, isbn)) {
+            libroRepo.findByIsbn(isbn)
+                    .ifPresent(libro -> {
+                        throw new BusinessException("Ya existe un libro con el ISBN: " + req.getIsbn());
+                    });
+        }
         
         // Validar que autor existe
-        Autor autor = autorRepo.findById(req.getAutorId())
-                .orElseThrow(() -> new NotFoundException("Autor no encontrado: " + req.getAutorId()));
+        Autor autor = referenciaAutor(req.getAutorId());
         
         // Validar que categoría existe
-        Categoria categoria = categoriaRepo.findById(req.getCategoriaId())
-                .orElseThrow(() -> new NotFoundException("Categoría no encontrada: " + req.getCategoriaId()));
+        Categoria categoria = referenciaCategoria(req.getCategoriaId());
         
         Libro entity = mapper.toEntity(req);
         entity.setTitulo(req.getTitulo().trim());
-        entity.setIsbn(req.getIsbn().trim().toUpperCase());
+        entity.setIsbn(isbn);
         entity.setAutor(autor);
         entity.setCategoria(categoria);
         
         Libro saved = libroRepo.save(entity);
+        filtroClaves.registrar(Clave.ISBN, saved.getIsbn());
+        eventos.publishEvent(LibroEvento.guardado(saved));
         log.info("✓ Libro creado id={}", saved.getId());
         
         return mapper.toResponseDto(saved);
@@ -70,7 +126,7 @@ public class LibroServiceImpl implements LibroService {
                 .orElseThrow(() -> new NotFoundException("Libro no encontrado: " + id));
         
         // Validar ISBN único (excepto el mismo libro)
-        if (req.getIsbn() != null) {
+        if (req.getIsbn() != null && filtroClaves.puedeExistir(Clave.ISBN, req.getIsbn().trim().toUpperCase())) {
             libroRepo.findByIsbn(req.getIsbn().trim().toUpperCase())
                     .ifPresent(libro -> {
                         if (!libro.getId().equals(id)) {
@@ -89,23 +145,21 @@ public class LibroServiceImpl implements LibroService {
             }
         }
         
-        // Validar autor
-        if (req.getAutorId() != null) {
-            Autor autor = autorRepo.findById(req.getAutorId())
-                    .orElseThrow(() -> new NotFoundException("Autor no encontrado: " + req.getAutorId()));
+        // Validar autor y categoría
+        Autor autor = req.getAutorId() != null ? referenciaAutor(req.getAutorId()) : null;
+        Categoria categoria = req.getCategoriaId() != null ? referenciaCategoria(req.getCategoriaId()) : null;
+        
+        // Actualizar campos
+        mapper.updateEntityFromDto(req, actual);
+        
+        // El mapper solo asigna el id; se reemplazan por las referencias que traen el nombre
+        if (autor != null) {
             actual.setAutor(autor);
         }
-        
-        // Validar categoría
-        if (req.getCategoriaId() != null) {
-            Categoria categoria = categoriaRepo.findById(req.getCategoriaId())
-                    .orElseThrow(() -> new NotFoundException("Categoría no encontrada: " + req.getCategoriaId()));
+        if (categoria != null) {
             actual.setCategoria(categoria);
         }
         
-        // Actualizar campos
-        mapper.updateEntityFromDto(req, actual);
-        
         if (actual.getTitulo() != null) {
             actual.setTitulo(actual.getTitulo().trim());
         }
@@ -120,7 +174,10 @@ public class LibroServiceImpl implements LibroService {
             actual.setCantidadTotal(req.getCantidadTotal());
         }
         
-        Libro saved = libroRepo.save(actual);
+        // Flush antes del evento: debe llevar la versión ya incrementada
+        Libro saved = libroRepo.saveAndFlush(actual);
+        filtroClaves.registrar(Clave.ISBN, saved.getIsbn());
+        eventos.publishEvent(LibroEvento.guardado(saved));
         log.info("✓ Libro actualizado id={}", saved.getId());
         
         return mapper.toResponseDto(saved);
@@ -133,9 +190,10 @@ public class LibroServiceImpl implements LibroService {
         Libro libro = libroRepo.findById(id)
                 .orElseThrow(() -> new NotFoundException("Libro no encontrado: " + id));
         
-        // Validar que no tenga préstamos activos
+        // Validar que no tenga préstamos pendientes (activos o vencidos)
         long prestamosActivos = libro.getPrestamos().stream()
-                .filter(p -> p.getEstado() == pe.edu.cibertec.bibliotech.entity.Prestamo.EstadoPrestamo.ACTIVO)
+                .filter(p -> p.getEstado() == pe.edu.cibertec.bibliotech.entity.Prestamo.EstadoPrestamo.ACTIVO
+                        || p.getEstado() == pe.edu.cibertec.bibliotech.entity.Prestamo.EstadoPrestamo.VENCIDO)
                 .count();
         
         if (prestamosActivos > 0) {
@@ -143,6 +201,7 @@ public class LibroServiceImpl implements LibroService {
         }
         
         libroRepo.delete(libro);
+        eventos.publishEvent(LibroEvento.eliminado(id));
         log.info("✓ Libro eliminado id={}", id);
     }
     
@@ -159,69 +218,246 @@ public class LibroServiceImpl implements LibroService {
     
     @Override
     @Transactional(readOnly = true)
-    public List<LibroResponseDto> listar() {
+    public PaginaResponseDto<LibroResponseDto> listar(PaginaRequestDto pagina) {
         log.info("Listando todos los libros");
         
-        return libroRepo.findAll().stream()
-                .map(mapper::toResponseDto)
-                .collect(Collectors.toList());
+        return paginador.paginar(pagina,
+                (despuesDe, pageable) -> libroRepo.listarResumen(despuesDe, pageable),
+                LibroResumen::id, mapper::toResponseDto);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<LibroResponseDto> listarDisponibles() {
+    public PaginaResponseDto<LibroResponseDto> listarDisponibles(PaginaRequestDto pagina) {
         log.info("Listando libros disponibles");
         
-        return libroRepo.findLibrosDisponibles().stream()
-                .map(mapper::toResponseDto)
-                .collect(Collectors.toList());
+        if (disponibilidad.isListo()) {
+            return paginarPorEstado(pagina, Estado.CON_STOCK);
+        }
+        return paginador.paginar(pagina,
+                (despuesDe, pageable) -> libroRepo.listarResumenDisponibles(despuesDe, pageable),
+                LibroResumen::id, mapper::toResponseDto);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaResponseDto<LibroResponseDto> listarSinStock(PaginaRequestDto pagina) {
+        log.info("Listando libros sin stock");
+        
+        if (disponibilidad.isListo()) {
+            return paginarPorEstado(pagina, Estado.SIN_STOCK);
+        }
+        return paginador.paginar(pagina,
+                (despuesDe, pageable) -> libroRepo.listarResumenSinStock(despuesDe, pageable),
+                LibroResumen::id, mapper::toResponseDto);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaResponseDto<LibroResponseDto> listarStockBajo(PaginaRequestDto pagina) {
+        log.info("Listando libros con stock bajo");
+        
+        if (disponibilidad.isListo()) {
+            return paginarPorEstado(pagina, Estado.STOCK_BAJO);
+        }
+        return paginador.paginar(pagina,
+                (despuesDe, pageable) -> libroRepo.listarResumenStockBajo(
+                        disponibilidad.getUmbralStockBajo(), despuesDe, pageable),
+                LibroResumen::id, mapper::toResponseDto);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public DisponibilidadResponseDto resumenDisponibilidad() {
+        log.info("Obteniendo resumen de disponibilidad");
+        
+        ResumenStock resumen = disponibilidad.isListo()
+                ? disponibilidad.resumen()
+                : libroRepo.resumenStock(disponibilidad.getUmbralStockBajo());
+        DisponibilidadResponseDto response = mapper.toResponseDto(resumen);
+        response.setUmbralStockBajo(disponibilidad.getUmbralStockBajo());
+        return response;
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<RankingLibroResponseDto> listarMasPrestados(Ventana ventana, Integer limite) {
+        int cantidad = limite == null ? LIMITE_RANKING : Math.max(1, Math.min(limite, MAX_RANKING));
+        log.info("Listando los {} libros más prestados - ventana: {}", cantidad, ventana);
+        
+        // El histórico sale del contador total_prestamos; las ventanas, de los contadores
+        // diarios en memoria (o de la tabla de préstamos mientras se cargan)
+        List<ConteoPorId> conteos;
+        if (!ventana.isEnMemoria()) {
+            conteos = libroRepo.listarMasPrestados(PageRequest.of(0, cantidad));
+        } else if (ranking.isListo()) {
+            conteos = ranking.mejores(ventana, cantidad);
+        } else {
+            conteos = prestamoRepo.contarMasPrestadosDesde(
+                    LocalDate.now().minusDays(ventana.getDias() - 1), PageRequest.of(0, cantidad));
+        }
+        
+        Map<Long, LibroResumen> porId = resumenesEnOrden(conteos.stream().map(ConteoPorId::id).toList()).stream()
+                .collect(Collectors.toMap(LibroResumen::id, Function.identity()));
+        List<RankingLibroResponseDto> response = new ArrayList<>(conteos.size());
+        for (ConteoPorId conteo : conteos) {
+            LibroResumen resumen = porId.get(conteo.id());
+            if (resumen != null) {
+                RankingLibroResponseDto item = new RankingLibroResponseDto();
+                item.setPosicion(response.size() + 1);
+                item.setPrestamos(conteo.cantidad());
+                item.setLibro(mapper.toResponseDto(resumen));
+                response.add(item);
+            }
+        }
+        return response;
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<LibroResponseDto> buscarPorTitulo(String titulo) {
+    public PaginaResponseDto<LibroResponseDto> buscarPorTitulo(String titulo, PaginaRequestDto pagina) {
         log.info("Buscando libros por título: {}", titulo);
         
-        return libroRepo.findByTituloContainingIgnoreCase(titulo).stream()
-                .map(mapper::toResponseDto)
-                .collect(Collectors.toList());
+        if (indice.isListo()) {
+            return paginador.paginarRanking(pagina,
+                    k -> indice.buscar(titulo, k, EnumSet.of(Campo.TITULO)), this::cargarEnOrden);
+        }
+        return paginador.paginar(pagina,
+                (despuesDe, pageable) -> libroRepo.listarResumenPorTitulo(titulo, despuesDe, pageable),
+                LibroResumen::id, mapper::toResponseDto);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<LibroResponseDto> buscarPorAutor(Long autorId) {
+    public PaginaResponseDto<LibroResponseDto> buscarPorAutor(Long autorId, PaginaRequestDto pagina) {
         log.info("Buscando libros por autor id={}", autorId);
         
-        if (!autorRepo.existsById(autorId)) {
+        if (catalogo.autor(autorId).isEmpty()) {
             throw new NotFoundException("Autor no encontrado: " + autorId);
         }
         
-        return libroRepo.findByAutorId(autorId).stream()
-                .map(mapper::toResponseDto)
-                .collect(Collectors.toList());
+        return paginador.paginar(pagina,
+                (despuesDe, pageable) -> libroRepo.listarResumenPorAutor(autorId, despuesDe, pageable),
+                LibroResumen::id, mapper::toResponseDto);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<LibroResponseDto> buscarPorCategoria(Long categoriaId) {
+    public PaginaResponseDto<LibroResponseDto> buscarPorCategoria(Long categoriaId, PaginaRequestDto pagina) {
         log.info("Buscando libros por categoría id={}", categoriaId);
         
-        if (!categoriaRepo.existsById(categoriaId)) {
+        if (catalogo.categoria(categoriaId).isEmpty()) {
             throw new NotFoundException("Categoría no encontrada: " + categoriaId);
         }
         
-        return libroRepo.findByCategoriaId(categoriaId).stream()
-                .map(mapper::toResponseDto)
-                .collect(Collectors.toList());
+        return paginador.paginar(pagina,
+                (despuesDe, pageable) -> libroRepo.listarResumenPorCategoria(categoriaId, despuesDe, pageable),
+                LibroResumen::id, mapper::toResponseDto);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<LibroResponseDto> buscarPorPalabra(String keyword) {
+    public PaginaResponseDto<LibroResponseDto> buscarPorPalabra(String keyword, PaginaRequestDto pagina) {
         log.info("Buscando libros por palabra clave: {}", keyword);
         
-        return libroRepo.buscarPorTituloOAutor(keyword).stream()
+        if (indice.isListo()) {
+            return paginador.paginarRanking(pagina, k -> indice.buscar(keyword, k), this::cargarEnOrden);
+        }
+        return paginador.paginar(pagina,
+                (despuesDe, pageable) -> libroRepo.buscarResumenPorTituloOAutor(keyword, despuesDe, pageable),
+                LibroResumen::id, mapper::toResponseDto);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public long exportar(OutputStream salida) throws IOException {
+        log.info("Exportando libros en NDJSON");
+        long inicio = System.currentTimeMillis();
+        
+        // Las proyecciones no son entidades administradas: el contexto de persistencia no crece
+        try (Stream<LibroResumen> filas = streaming.leer(LibroRepository.EXPORTAR_RESUMEN, LibroResumen.class)) {
+            long exportados = exportadorNdjson.escribir(filas.map(mapper::toResponseDto), salida);
+            log.info("✓ Exportación de libros terminada - {} registros en {} ms", 
+                     exportados, System.currentTimeMillis() - inicio);
+            return exportados;
+        }
+    }
+    
+    /**
+     * Delegado al importador por bloques; cada bloque gestiona su propia transacción.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ImportacionLibrosResponseDto importarCsv(InputStream entrada) throws IOException {
+        log.info("Importando libros desde CSV");
+        
+        return importador.importar(entrada);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public String etag(Long id) {
+        VersionLibro marca = libroRepo.buscarVersion(id)
+                .orElseThrow(() -> new NotFoundException("Libro no encontrado: " + id));
+        long actualizado = marca.ultimaActualizacion() != null
+                ? marca.ultimaActualizacion().toInstant(ZoneOffset.UTC).toEpochMilli() : 0;
+        
+        // La respuesta también muestra los nombres del autor y la categoría
+        return "libro" + id + "-" + actualizado + "-v" + marca.version() + "-"
+                + versiones.firma(Tabla.AUTORES, Tabla.CATEGORIAS);
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public String etagListado() {
+        // Sin transacción: responder 304 no debe tomar una conexión
+        return "libros-" + versiones.firma(Tabla.LIBROS);
+    }
+    
+    // El índice de disponibilidad entrega los ids de la página; sus filas se leen por clave primaria
+    private PaginaResponseDto<LibroResponseDto> paginarPorEstado(PaginaRequestDto pagina, Estado estado) {
+        return paginador.paginar(pagina,
+                (despuesDe, pageable) -> resumenesEnOrden(disponibilidad.ids(
+                        estado, despuesDe, pageable.getOffset(), pageable.getPageSize())),
+                LibroResumen::id, mapper::toResponseDto);
+    }
+    
+    // Los resultados del índice vienen ordenados por relevancia; se respeta ese orden
+    private List<LibroResponseDto> cargarEnOrden(List<Long> ids) {
+        return resumenesEnOrden(ids).stream()
                 .map(mapper::toResponseDto)
-                .collect(Collectors.toList());
+                .toList();
+    }
+    
+    private List<LibroResumen> resumenesEnOrden(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, LibroResumen> porId = libroRepo.listarResumenPorIds(ids).stream()
+                .collect(Collectors.toMap(LibroResumen::id, Function.identity()));
+        return ids.stream()
+                .map(porId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+    
+    // Referencias armadas desde la caché del catálogo: no consultan las tablas de autores
+    // y categorías, y traen el nombre que necesitan la respuesta y el evento
+    private Autor referenciaAutor(Long autorId) {
+        AutorRef ref = catalogo.autor(autorId)
+                .orElseThrow(() -> new NotFoundException("Autor no encontrado: " + autorId));
+        Autor autor = new Autor();
+        autor.setId(ref.id());
+        autor.setNombre(ref.nombre());
+        return autor;
+    }
+    
+    private Categoria referenciaCategoria(Long categoriaId) {
+        CategoriaRef ref = catalogo.categoria(categoriaId)
+                .orElseThrow(() -> new NotFoundException("Categoría no encontrada: " + categoriaId));
+        Categoria categoria = new Categoria();
+        categoria.setId(ref.id());
+        categoria.setNombre(ref.nombre());
+        return categoria;
     }
 }
\ No newline at end of file
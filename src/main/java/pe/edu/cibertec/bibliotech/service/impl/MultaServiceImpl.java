@@ -0,0 +1,94 @@
+package pe.edu.cibertec.bibliotech.service.impl;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import pe.edu.cibertec.bibliotech.api.response.DevengoMultasResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.SaldoMultasResponseDto;
+import pe.edu.cibertec.bibliotech.entity.Usuario;
+import pe.edu.cibertec.bibliotech.exception.NotFoundException;
+import pe.edu.cibertec.bibliotech.repository.SaldoMultasRepository;
+import pe.edu.cibertec.bibliotech.repository.UsuarioRepository;
+import pe.edu.cibertec.bibliotech.repository.projection.SaldoMultasResumen;
+import pe.edu.cibertec.bibliotech.service.MultaService;
+import pe.edu.cibertec.bibliotech.service.support.DevengoMultas;
+
+/**
+ * Saldos de multas respondidos desde saldos_multas (una fila por usuario con multas),
+ * sin recorrer el historial de préstamos.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class MultaServiceImpl implements MultaService {
+    
+    private static final int LIMITE_DEUDORES = 20;
+    private static final int MAX_DEUDORES = 100;
+    
+    private final SaldoMultasRepository saldoRepo;
+    private final UsuarioRepository usuarioRepo;
+    private final DevengoMultas devengo;
+    
+    @Override
+    public SaldoMultasResponseDto saldoDeUsuario(Long usuarioId) {
+        log.info("Obteniendo saldo de multas del usuario id={}", usuarioId);
+        
+        return saldoRepo.buscarResumen(usuarioId)
+                .map(this::toResponseDto)
+                .orElseGet(() -> sinMultas(usuarioId));
+    }
+    
+    @Override
+    public List<SaldoMultasResponseDto> deudores(Integer limite) {
+        int cantidad = limite == null ? LIMITE_DEUDORES : Math.max(1, Math.min(limite, MAX_DEUDORES));
+        log.info("Listando los {} usuarios con mayor saldo de multas", cantidad);
+        
+        return saldoRepo.listarDeudores(PageRequest.of(0, cantidad)).stream()
+                .map(this::toResponseDto)
+                .toList();
+    }
+    
+    /**
+     * Delegado al devengo por bloques; cada bloque gestiona su propia transacción.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public DevengoMultasResponseDto devengar() {
+        return devengo.ejecutar();
+    }
+    
+    // Usuario sin fila en saldos_multas: nunca tuvo multas
+    private SaldoMultasResponseDto sinMultas(Long usuarioId) {
+        Usuario usuario = usuarioRepo.findById(usuarioId)
+                .orElseThrow(() -> new NotFoundException("Usuario no encontrado: " + usuarioId));
+        
+        SaldoMultasResponseDto dto = new SaldoMultasResponseDto();
+        dto.setUsuarioId(usuario.getId());
+        dto.setDni(usuario.getDni());
+        dto.setUsuarioNombreCompleto(usuario.getNombreCompleto());
+        dto.setDevengado(BigDecimal.ZERO);
+        dto.setAdeudado(BigDecimal.ZERO);
+        dto.setTotal(BigDecimal.ZERO);
+        return dto;
+    }
+    
+    private SaldoMultasResponseDto toResponseDto(SaldoMultasResumen saldo) {
+        SaldoMultasResponseDto dto = new SaldoMultasResponseDto();
+        dto.setUsuarioId(saldo.usuarioId());
+        dto.setDni(saldo.dni());
+        dto.setUsuarioNombreCompleto(saldo.nombre() + " " + saldo.apellido());
+        dto.setDevengado(saldo.devengado());
+        dto.setAdeudado(saldo.adeudado());
+        dto.setTotal(saldo.total());
+        dto.setUltimaActualizacion(saldo.ultimaActualizacion());
+        return dto;
+    }
+}
\ No newline at end of file
@@ -1,27 +1,59 @@
 package pe.edu.cibertec.bibliotech.service.impl;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import pe.edu.cibertec.bibliotech.api.request.DevolucionLoteRequestDto;
+import pe.edu.cibertec.bibliotech.api.request.PaginaRequestDto;
+import pe.edu.cibertec.bibliotech.api.request.PrestamoLoteRequestDto.ModoLote;
+import pe.edu.cibertec.bibliotech.api.request.PrestamoLoteRequestDto;
 import pe.edu.cibertec.bibliotech.api.request.PrestamoRequestDto;
+import pe.edu.cibertec.bibliotech.api.response.BarridoVencidosResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.DevolucionLoteResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.PaginaResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.PrestamoLoteResponseDto;
 import pe.edu.cibertec.bibliotech.api.response.PrestamoResponseDto;
+import pe.edu.cibertec.bibliotech.config.LimiteInserciones;
+import pe.edu.cibertec.bibliotech.config.ReintentoPorConflicto;
 import pe.edu.cibertec.bibliotech.entity.Libro;
-import pe.edu.cibertec.bibliotech.entity.Prestamo;
 import pe.edu.cibertec.bibliotech.entity.Prestamo.EstadoPrestamo;
+import pe.edu.cibertec.bibliotech.entity.Prestamo;
 import pe.edu.cibertec.bibliotech.entity.Usuario;
+import pe.edu.cibertec.bibliotech.event.PrestamoEvento;
 import pe.edu.cibertec.bibliotech.exception.BusinessException;
 import pe.edu.cibertec.bibliotech.exception.NotFoundException;
 import pe.edu.cibertec.bibliotech.mapper.PrestamoMapper;
 import pe.edu.cibertec.bibliotech.repository.LibroRepository;
 import pe.edu.cibertec.bibliotech.repository.PrestamoRepository;
 import pe.edu.cibertec.bibliotech.repository.UsuarioRepository;
+import pe.edu.cibertec.bibliotech.repository.projection.PrestamoPendiente;
+import pe.edu.cibertec.bibliotech.repository.projection.PrestamoResumen;
 import pe.edu.cibertec.bibliotech.service.PrestamoService;
+import pe.edu.cibertec.bibliotech.service.support.BarridoVencidos;
+import pe.edu.cibertec.bibliotech.service.support.CirculacionDiaria;
+import pe.edu.cibertec.bibliotech.service.support.ExportadorNdjson;
+import pe.edu.cibertec.bibliotech.service.support.LecturaEnStreaming;
+import pe.edu.cibertec.bibliotech.service.support.MotorMultas;
+import pe.edu.cibertec.bibliotech.service.support.Paginador;
 
 @Slf4j
 @Service
@@ -29,16 +61,30 @@ import pe.edu.cibertec.bibliotech.service.PrestamoService;
 @Transactional
 public class PrestamoServiceImpl implements PrestamoService {
     
+    private static final int MAX_PRESTAMOS_ACTIVOS = 3;
+    
     private final PrestamoRepository prestamoRepo;
     private final LibroRepository libroRepo;
     private final UsuarioRepository usuarioRepo;
     private final PrestamoMapper mapper;
+    private final Paginador paginador;
+    private final ExportadorNdjson exportadorNdjson;
+    private final LecturaEnStreaming streaming;
+    private final BarridoVencidos barridoVencidos;
+    private final CirculacionDiaria circulacion;
+    private final MotorMultas multas;
+    private final ApplicationEventPublisher eventos;
     
     /**
      * OPERACIÓN TRANSACCIONAL CRÍTICA: 
      * Registra un préstamo y reduce el stock del libro de forma atómica.
+     * La carrera por el último ejemplar la resuelve la reducción condicional del stock
+     * (BusinessException); si la base aborta la transacción por un deadlock o una espera
+     * de bloqueo (p. ej. en los upserts de circulación diaria), se reintenta.
      */
     @Override
+    @LimiteInserciones
+    @ReintentoPorConflicto("prestamos.registrar")
     public PrestamoResponseDto registrarPrestamo(PrestamoRequestDto req) {
         log.info("Registrando préstamo: libroId={}, usuarioId={}", req.getLibroId(), req.getUsuarioId());
         
@@ -46,83 +92,174 @@ public class PrestamoServiceImpl implements PrestamoService {
         Libro libro = libroRepo.findById(req.getLibroId())
                 .orElseThrow(() -> new NotFoundException("Libro no encontrado: " + req.getLibroId()));
         
-        // 2. Validar que hay stock disponible
-        if (!libro.isDisponible()) {
-            throw new BusinessException(
-                "El libro '" + libro.getTitulo() + "' no está disponible. Stock disponible: " + libro.getCantidadDisponible()
-            );
-        }
-        
-        // 3. Validar que el usuario existe y está activo
+        // 2. Validar que el usuario existe
         Usuario usuario = usuarioRepo.findById(req.getUsuarioId())
                 .orElseThrow(() -> new NotFoundException("Usuario no encontrado: " + req.getUsuarioId()));
         
-        if (!usuario.getActivo()) {
-            throw new BusinessException("El usuario " + usuario.getNombreCompleto() + " está inactivo y no puede realizar préstamos");
-        }
-        
-        // 4. Validar que el usuario no tenga préstamos vencidos
+        // 3. Validar stock, estado del usuario, vencidos, límite y libro repetido
         List<Prestamo> prestamosActivosUsuario = prestamoRepo.findPrestamosActivosPorUsuario(usuario.getId());
         
-        long prestamosVencidos = prestamosActivosUsuario.stream()
-                .filter(Prestamo::isVencido)
-                .count();
-        
-        if (prestamosVencidos > 0) {
-            throw new BusinessException(
-                "El usuario tiene " + prestamosVencidos + " préstamo(s) vencido(s). Debe devolverlos antes de solicitar un nuevo préstamo"
-            );
+        String motivo = motivoRechazo(libro, libro.getCantidadDisponible(), usuario, prestamosActivosUsuario);
+        if (motivo != null) {
+            throw new BusinessException(motivo);
         }
         
-        // 5. Validar límite de préstamos simultáneos (máximo 3 por usuario)
-        long prestamosActivos = prestamosActivosUsuario.size();
-        if (prestamosActivos >= 3) {
+        // 4. Crear el préstamo
+        Prestamo prestamo = nuevoPrestamo(req, libro, usuario);
+        
+        // 5. OPERACIÓN CRÍTICA: Reducir stock con una actualización condicional.
+        //    Si otra transacción tomó el último ejemplar, no se afecta ninguna fila.
+        if (libroRepo.decrementarStock(libro.getId()) == 0) {
             throw new BusinessException(
-                "El usuario ya tiene " + prestamosActivos + " préstamos activos. Límite máximo: 3"
+                "El libro '" + libro.getTitulo() + "' no está disponible. Stock disponible: 0"
             );
         }
         
-        // 6. Validar que el usuario no tenga ya este mismo libro prestado
-        boolean yaTieneLibro = prestamosActivosUsuario.stream()
-                .anyMatch(p -> p.getLibro().getId().equals(libro.getId()));
+        // Contador de popularidad del libro (libros.total_prestamos)
+        libroRepo.sumarPrestamos(libro.getId(), 1);
+        circulacion.prestamos(prestamo.getFechaPrestamo(), libro.getId(), libro.getCategoria().getId(), 1);
         
-        if (yaTieneLibro) {
-            throw new BusinessException(
-                "El usuario ya tiene prestado el libro '" + libro.getTitulo() + "'"
-            );
+        // 6. Guardar el préstamo en la misma transacción
+        Prestamo saved = prestamoRepo.save(prestamo);
+        eventos.publishEvent(new PrestamoEvento(saved.getId(), libro.getId(), saved.getFechaPrestamo(),
+                                                PrestamoEvento.Tipo.REGISTRADO));
+        
+        log.info("✓ Préstamo registrado - ID: {}, Libro: '{}'", saved.getId(), libro.getTitulo());
+        
+        return mapper.toResponseDto(saved);
+    }
+    
+    /**
+     * Registra varios préstamos (p. ej. visitas de aula) con una consulta por tabla:
+     * libros, usuarios y préstamos activos se cargan de una vez, las reglas se evalúan
+     * en memoria y el stock se descuenta con una actualización condicional por libro.
+     * Si la base aborta el lote por un deadlock o una espera de bloqueo, se reintenta.
+     */
+    @Override
+    @LimiteInserciones
+    @ReintentoPorConflicto("prestamos.registrar-lote")
+    public PrestamoLoteResponseDto registrarLote(PrestamoLoteRequestDto req) {
+        List<PrestamoRequestDto> items = req.getPrestamos();
+        ModoLote modo = req.getModo();
+        log.info("Registrando lote de {} préstamos (modo {})", items.size(), modo);
+        
+        // 1. Cargar todas las entidades referenciadas (una consulta por tabla)
+        Set<Long> libroIds = items.stream().map(PrestamoRequestDto::getLibroId).collect(Collectors.toSet());
+        Set<Long> usuarioIds = items.stream().map(PrestamoRequestDto::getUsuarioId).collect(Collectors.toSet());
+        
+        Map<Long, Libro> libros = libroRepo.findAllById(libroIds).stream()
+                .collect(Collectors.toMap(Libro::getId, Function.identity()));
+        Map<Long, Usuario> usuarios = usuarioRepo.findAllById(usuarioIds).stream()
+                .collect(Collectors.toMap(Usuario::getId, Function.identity()));
+        
+        Map<Long, List<Prestamo>> activosPorUsuario = new HashMap<>();
+        for (Prestamo activo : prestamoRepo.findPrestamosActivosPorUsuarios(usuarioIds)) {
+            activosPorUsuario.computeIfAbsent(activo.getUsuario().getId(), id -> new ArrayList<>()).add(activo);
         }
         
-        // 7. Crear el préstamo
-        Prestamo prestamo = mapper.toEntity(req);
-        prestamo.setLibro(libro);
-        prestamo.setUsuario(usuario);
-        prestamo.setFechaPrestamo(LocalDate.now());
+        Map<Long, Integer> stockRestante = new HashMap<>();
+        libros.values().forEach(libro -> stockRestante.put(libro.getId(), libro.getCantidadDisponible()));
+        
+        // 2. Validar en memoria, acumulando el efecto de los préstamos ya aceptados del lote
+        PrestamoLoteResponseDto response = new PrestamoLoteResponseDto();
+        response.setModo(modo);
+        response.setTotal(items.size());
+        
+        Map<Integer, Prestamo> aceptados = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            PrestamoRequestDto item = items.get(i);
+            PrestamoLoteResponseDto.Resultado resultado = new PrestamoLoteResponseDto.Resultado();
+            resultado.setIndice(i);
+            resultado.setLibroId(item.getLibroId());
+            resultado.setUsuarioId(item.getUsuarioId());
+            response.getResultados().add(resultado);
+            
+            Libro libro = libros.get(item.getLibroId());
+            Usuario usuario = usuarios.get(item.getUsuarioId());
+            List<Prestamo> activos = activosPorUsuario.computeIfAbsent(item.getUsuarioId(), id -> new ArrayList<>());
+            
+            String motivo;
+            if (libro == null) {
+                motivo = "Libro no encontrado: " + item.getLibroId();
+            } else if (usuario == null) {
+                motivo = "Usuario no encontrado: " + item.getUsuarioId();
+            } else {
+                motivo = motivoRechazo(libro, stockRestante.get(libro.getId()), usuario, activos);
+            }
+            
+            if (motivo != null) {
+                resultado.setError(motivo);
+                continue;
+            }
+            
+            Prestamo prestamo = nuevoPrestamo(item, libro, usuario);
+            activos.add(prestamo);
+            stockRestante.merge(libro.getId(), -1, Integer::sum);
+            aceptados.put(i, prestamo);
+        }
         
-        if (prestamo.getFechaDevolucionEsperada() == null) {
-            prestamo.setFechaDevolucionEsperada(LocalDate.now().plusDays(14));
+        boolean hayRechazos = aceptados.size() < items.size();
+        if (modo == ModoLote.TODO_O_NADA && hayRechazos) {
+            log.info("Lote rechazado: {} de {} préstamos inválidos", items.size() - aceptados.size(), items.size());
+            return cerrarLote(response, "No registrado: el lote contiene préstamos inválidos");
         }
         
-        prestamo.setEstado(EstadoPrestamo.ACTIVO);
+        // 3. Descontar stock con una actualización condicional por libro, en orden de id
+        //    (el mismo orden en todos los lotes, para no bloquearse en orden cruzado)
+        Map<Long, Integer> cantidadPorLibro = new TreeMap<>();
+        aceptados.values().forEach(p -> cantidadPorLibro.merge(p.getLibro().getId(), 1, Integer::sum));
+        CirculacionDiaria.Lote movimientos = new CirculacionDiaria.Lote();
+        
+        for (Map.Entry<Long, Integer> entry : cantidadPorLibro.entrySet()) {
+            if (libroRepo.decrementarStock(entry.getKey(), entry.getValue()) > 0) {
+                libroRepo.sumarPrestamos(entry.getKey(), entry.getValue());
+                movimientos.prestamos(entry.getKey(), libros.get(entry.getKey()).getCategoria().getId(), entry.getValue());
+                continue;
+            }
+            
+            // Otro préstamo concurrente consumió el stock después de la lectura
+            String motivo = "El libro '" + libros.get(entry.getKey()).getTitulo() + "' no tiene stock suficiente para el lote";
+            if (modo == ModoLote.TODO_O_NADA) {
+                throw new BusinessException(motivo);
+            }
+            aceptados.entrySet().removeIf(e -> {
+                boolean afectado = e.getValue().getLibro().getId().equals(entry.getKey());
+                if (afectado) {
+                    response.getResultados().get(e.getKey()).setError(motivo);
+                }
+                return afectado;
+            });
+        }
         
-        // 8. OPERACIÓN CRÍTICA: Reducir stock del libro de forma atómica
-        Integer stockAnterior = libro.getCantidadDisponible();
-        libro.setCantidadDisponible(stockAnterior - 1);
+        circulacion.acumular(LocalDate.now(), movimientos);
         
-        // 9. Guardar ambas entidades en la misma transacción
-        libroRepo.save(libro);
-        Prestamo saved = prestamoRepo.save(prestamo);
+        // 4. Insertar los préstamos aceptados: ids por bloques, INSERT en batches de hibernate.jdbc.batch_size
+        List<Prestamo> guardados = prestamoRepo.saveAll(aceptados.values());
+        
+        int j = 0;
+        for (Integer indice : aceptados.keySet()) {
+            PrestamoLoteResponseDto.Resultado resultado = response.getResultados().get(indice);
+            Prestamo guardado = guardados.get(j++);
+            resultado.setRegistrado(true);
+            resultado.setPrestamo(mapper.toResponseDto(guardado));
+            eventos.publishEvent(new PrestamoEvento(guardado.getId(), guardado.getLibro().getId(),
+                                                    guardado.getFechaPrestamo(), PrestamoEvento.Tipo.REGISTRADO));
+        }
         
-        log.info("✓ Préstamo registrado - ID: {}, Libro: '{}', Stock anterior: {}, Stock actual: {}", 
-                 saved.getId(), libro.getTitulo(), stockAnterior, libro.getCantidadDisponible());
+        cerrarLote(response, null);
+        log.info("✓ Lote registrado - {} préstamos registrados, {} rechazados", 
+                 response.getRegistrados(), response.getRechazados());
         
-        return mapper.toResponseDto(saved);
+        return response;
     }
     
     /**
      * OPERACIÓN TRANSACCIONAL CRÍTICA:
-     * Registra la devolución de un libro y aumenta el stock de forma atómica.
+     * Registra la devolución de un libro, aumenta el stock y fija la multa por atraso
+     * de forma atómica. Ante un conflicto de versión se reintenta en una transacción nueva.
      */
     @Override
+    @ReintentoPorConflicto("prestamos.devolver")
     public PrestamoResponseDto registrarDevolucion(Long prestamoId, String observaciones) {
         log.info("Registrando devolución: prestamoId={}", prestamoId);
         
@@ -145,11 +282,12 @@ public class PrestamoServiceImpl implements PrestamoService {
         
         // 3. Obtener el libro asociado
         Libro libro = prestamo.getLibro();
-        Integer stockAnterior = libro.getCantidadDisponible();
         
-        // 4. Actualizar el préstamo
+        // 4. Actualizar el préstamo y fijar la multa por atraso
         prestamo.setFechaDevolucionReal(LocalDate.now());
         prestamo.setEstado(EstadoPrestamo.DEVUELTO);
+        long diasAtraso = prestamo.getDiasAtraso();
+        prestamo.setMulta(multas.calcular(libro.getCategoria(), diasAtraso));
         
         // 5. Agregar observaciones si se proporcionaron
         if (observaciones != null && !observaciones.trim().isEmpty()) {
@@ -161,30 +299,145 @@ public class PrestamoServiceImpl implements PrestamoService {
             }
         }
         
-        // 6. OPERACIÓN CRÍTICA: Aumentar stock del libro de forma atómica
-        libro.setCantidadDisponible(stockAnterior + 1);
-        
-        // Validar que no exceda el total
-        if (libro.getCantidadDisponible() > libro.getCantidadTotal()) {
+        // 6. OPERACIÓN CRÍTICA: Aumentar stock con una actualización condicional
+        //    (nunca por encima de la cantidad total)
+        if (libroRepo.incrementarStock(libro.getId()) == 0) {
             throw new BusinessException(
                 "Error: La cantidad disponible no puede exceder la cantidad total del libro"
             );
         }
         
-        // 7. Guardar ambas entidades en la misma transacción
-        libroRepo.save(libro);
-        Prestamo saved = prestamoRepo.save(prestamo);
+        circulacion.devoluciones(prestamo.getFechaDevolucionReal(), libro.getId(), libro.getCategoria().getId(),
+                                 1, diasAtraso > 0 ? 1 : 0);
         
-        long diasAtraso = saved.getDiasAtraso();
-        String mensajeAtraso = diasAtraso > 0 ? " (con " + diasAtraso + " día(s) de atraso)" : " (a tiempo)";
+        // 7. Guardar el préstamo en la misma transacción y luego el saldo de multas del usuario
+        Prestamo saved = prestamoRepo.saveAndFlush(prestamo);
+        multas.registrarDevueltos(List.of(saved.getId()));
+        eventos.publishEvent(new PrestamoEvento(saved.getId(), libro.getId(), saved.getFechaPrestamo(),
+                                                PrestamoEvento.Tipo.DEVUELTO));
         
-        log.info("✓ Devolución registrada - ID: {}, Libro: '{}', Stock anterior: {}, Stock actual: {}{}", 
-                 saved.getId(), libro.getTitulo(), stockAnterior, libro.getCantidadDisponible(), mensajeAtraso);
+        String mensajeAtraso = diasAtraso > 0
+                ? " (con " + diasAtraso + " día(s) de atraso, multa " + saved.getMulta() + ")"
+                : " (a tiempo)";
+        
+        log.info("✓ Devolución registrada - ID: {}, Libro: '{}'{}", 
+                 saved.getId(), libro.getTitulo(), mensajeAtraso);
         
         return mapper.toResponseDto(saved);
     }
     
+    /**
+     * Devuelve en lote los préstamos del buzón de devoluciones, identificados por id
+     * o por ISBN + DNI. Los préstamos se marcan con una actualización por conjunto y el
+     * stock se repone con un único incremento por libro. Si otra transacción devolvió
+     * alguno de los préstamos entre la lectura y la escritura, el lote se reintenta.
+     */
+    @Override
+    @ReintentoPorConflicto("prestamos.devolver-lote")
+    public DevolucionLoteResponseDto registrarDevolucionLote(DevolucionLoteRequestDto req) {
+        log.info("Registrando devolución en lote: {} ids, {} pares ISBN/DNI", 
+                 req.getPrestamoIds().size(), req.getLibrosUsuarios().size());
+        
+        LocalDate hoy = LocalDate.now();
+        DevolucionLoteResponseDto response = new DevolucionLoteResponseDto();
+        Map<Long, PrestamoPendiente> aDevolver = new LinkedHashMap<>();
+        
+        // 1. Resolver préstamos por id (una consulta)
+        Map<Long, PrestamoPendiente> porId = req.getPrestamoIds().isEmpty() ? Map.of()
+                : prestamoRepo.findPendientesPorIds(req.getPrestamoIds()).stream()
+                        .collect(Collectors.toMap(PrestamoPendiente::id, Function.identity()));
+        
+        for (Long id : req.getPrestamoIds()) {
+            DevolucionLoteResponseDto.Resultado resultado = nuevoResultado(response, id, null, null);
+            PrestamoPendiente pendiente = porId.get(id);
+            if (pendiente == null) {
+                resultado.setError("Préstamo no encontrado: " + id);
+            } else {
+                resultado.setIsbn(pendiente.isbn());
+                resultado.setDni(pendiente.dni());
+                aceptarDevolucion(resultado, pendiente, aDevolver, hoy);
+            }
+        }
+        
+        // 2. Resolver préstamos por ISBN + DNI (una consulta)
+        if (!req.getLibrosUsuarios().isEmpty()) {
+            Set<String> isbns = req.getLibrosUsuarios().stream()
+                    .map(lu -> lu.getIsbn().trim().toUpperCase()).collect(Collectors.toSet());
+            Set<String> dnis = req.getLibrosUsuarios().stream()
+                    .map(lu -> lu.getDni().trim()).collect(Collectors.toSet());
+            
+            Map<String, PrestamoPendiente> porIsbnDni = new HashMap<>();
+            for (PrestamoPendiente pendiente : prestamoRepo.findPendientesPorIsbnYDni(isbns, dnis)) {
+                porIsbnDni.put(pendiente.isbn() + "|" + pendiente.dni(), pendiente);
+            }
+            
+            for (DevolucionLoteRequestDto.LibroUsuario lu : req.getLibrosUsuarios()) {
+                String isbn = lu.getIsbn().trim().toUpperCase();
+                String dni = lu.getDni().trim();
+                DevolucionLoteResponseDto.Resultado resultado = nuevoResultado(response, null, isbn, dni);
+                PrestamoPendiente pendiente = porIsbnDni.get(isbn + "|" + dni);
+                if (pendiente == null) {
+                    resultado.setError("No hay préstamo pendiente del libro " + isbn + " para el DNI " + dni);
+                } else {
+                    resultado.setPrestamoId(pendiente.id());
+                    aceptarDevolucion(resultado, pendiente, aDevolver, hoy);
+                }
+            }
+        }
+        
+        if (!aDevolver.isEmpty()) {
+            // 3. Marcar los préstamos como devueltos con actualizaciones por conjunto
+            Set<Long> ids = aDevolver.keySet();
+            
+            if (req.getObservaciones() != null && !req.getObservaciones().trim().isEmpty()) {
+                prestamoRepo.agregarObservacion(ids, "Devolución: " + req.getObservaciones().trim());
+            }
+            
+            int actualizados = prestamoRepo.marcarDevueltos(ids, hoy, EstadoPrestamo.DEVUELTO);
+            if (actualizados != ids.size()) {
+                throw new OptimisticLockingFailureException(
+                    "Se devolvieron " + actualizados + " de " + ids.size() + " préstamos; otro proceso modificó el lote"
+                );
+            }
+            
+            // 4. Reponer stock con una actualización agregada por libro, en orden de id, y sumar
+            //    la circulación del día una vez por libro y por categoría
+            Map<Long, List<PrestamoPendiente>> porLibro = aDevolver.values().stream()
+                    .collect(Collectors.groupingBy(PrestamoPendiente::libroId, TreeMap::new, Collectors.toList()));
+            CirculacionDiaria.Lote movimientos = new CirculacionDiaria.Lote();
+            
+            for (List<PrestamoPendiente> delLibro : porLibro.values()) {
+                PrestamoPendiente primero = delLibro.get(0);
+                if (libroRepo.incrementarStock(primero.libroId(), delLibro.size()) == 0) {
+                    throw new BusinessException(
+                        "Error: La cantidad disponible del libro id=" + primero.libroId() + " no puede exceder la cantidad total"
+                    );
+                }
+                long conAtraso = delLibro.stream().filter(p -> p.diasAtraso(hoy) > 0).count();
+                movimientos.devoluciones(primero.libroId(), primero.categoriaId(), delLibro.size(), conAtraso);
+            }
+            circulacion.acumular(hoy, movimientos);
+            
+            // 5. Fijar las multas por atraso y actualizar los saldos de los usuarios
+            multas.liquidar(ids, hoy);
+            
+            aDevolver.values().forEach(p -> 
+                    eventos.publishEvent(new PrestamoEvento(p.id(), p.libroId(), p.fechaPrestamo(),
+                                                            PrestamoEvento.Tipo.DEVUELTO)));
+        }
+        
+        response.setTotal(response.getResultados().size());
+        response.setDevueltos(aDevolver.size());
+        response.setRechazados(response.getTotal() - aDevolver.size());
+        
+        log.info("✓ Devolución en lote registrada - {} devueltos, {} rechazados", 
+                 response.getDevueltos(), response.getRechazados());
+        
+        return response;
+    }
+    
     @Override
+    @ReintentoPorConflicto("prestamos.cancelar")
     public void cancelar(Long id) {
         log.info("Cancelando préstamo id={}", id);
         
@@ -197,16 +450,24 @@ public class PrestamoServiceImpl implements PrestamoService {
             );
         }
         
-        // Restaurar stock del libro
-        Libro libro = prestamo.getLibro();
-        Integer stockAnterior = libro.getCantidadDisponible();
-        libro.setCantidadDisponible(stockAnterior + 1);
+        // Restaurar stock del libro con una actualización condicional
+        Long libroId = prestamo.getLibro().getId();
+        if (libroRepo.incrementarStock(libroId) == 0) {
+            throw new BusinessException(
+                "Error: La cantidad disponible no puede exceder la cantidad total del libro"
+            );
+        }
         
+        // Un préstamo cancelado deja de contar para la popularidad del libro
+        libroRepo.sumarPrestamos(libroId, -1);
+        circulacion.prestamos(prestamo.getFechaPrestamo(), libroId, prestamo.getLibro().getCategoria().getId(), -1);
+        
+        Long usuarioId = prestamo.getUsuario().getId();
         prestamoRepo.delete(prestamo);
-        libroRepo.save(libro);
+        multas.recalcular(usuarioId);
+        eventos.publishEvent(new PrestamoEvento(id, libroId, prestamo.getFechaPrestamo(), PrestamoEvento.Tipo.CANCELADO));
         
-        log.info("✓ Préstamo cancelado - ID: {}, Stock restaurado de {} a {}", 
-                 id, stockAnterior, libro.getCantidadDisponible());
+        log.info("✓ Préstamo cancelado - ID: {}, Stock restaurado del libro id={}", id, libroId);
     }
     
     @Override
@@ -222,81 +483,176 @@ public class PrestamoServiceImpl implements PrestamoService {
     
     @Override
     @Transactional(readOnly = true)
-    public List<PrestamoResponseDto> listar() {
+    public PaginaResponseDto<PrestamoResponseDto> listar(PaginaRequestDto pagina) {
         log.info("Listando todos los préstamos");
         
-        return prestamoRepo.findAll().stream()
-                .map(mapper::toResponseDto)
-                .collect(Collectors.toList());
+        return paginador.paginar(pagina,
+                (despuesDe, pageable) -> prestamoRepo.listarResumen(despuesDe, pageable),
+                PrestamoResumen::id, mapper::toResponseDto);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<PrestamoResponseDto> listarActivos() {
+    public PaginaResponseDto<PrestamoResponseDto> listarActivos(PaginaRequestDto pagina) {
         log.info("Listando préstamos activos");
         
-        return prestamoRepo.findByEstado(EstadoPrestamo.ACTIVO).stream()
-                .map(mapper::toResponseDto)
-                .collect(Collectors.toList());
+        return paginador.paginar(pagina,
+                (despuesDe, pageable) -> prestamoRepo.listarResumenPorEstado(EstadoPrestamo.ACTIVO, despuesDe, pageable),
+                PrestamoResumen::id, mapper::toResponseDto);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<PrestamoResponseDto> listarVencidos() {
+    public PaginaResponseDto<PrestamoResponseDto> listarVencidos(PaginaRequestDto pagina) {
         log.info("Listando préstamos vencidos");
         
-        return prestamoRepo.findPrestamosVencidos(LocalDate.now()).stream()
-                .map(mapper::toResponseDto)
-                .collect(Collectors.toList());
+        return paginador.paginar(pagina,
+                (despuesDe, pageable) -> prestamoRepo.listarResumenVencidos(LocalDate.now(), despuesDe, pageable),
+                PrestamoResumen::id, mapper::toResponseDto);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<PrestamoResponseDto> listarPorUsuario(Long usuarioId) {
+    public PaginaResponseDto<PrestamoResponseDto> listarPorUsuario(Long usuarioId, PaginaRequestDto pagina) {
         log.info("Listando préstamos por usuario id={}", usuarioId);
         
         if (!usuarioRepo.existsById(usuarioId)) {
             throw new NotFoundException("Usuario no encontrado: " + usuarioId);
         }
         
-        return prestamoRepo.findByUsuarioId(usuarioId).stream()
-                .map(mapper::toResponseDto)
-                .collect(Collectors.toList());
+        return paginador.paginar(pagina,
+                (despuesDe, pageable) -> prestamoRepo.listarResumenPorUsuario(usuarioId, despuesDe, pageable),
+                PrestamoResumen::id, mapper::toResponseDto);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<PrestamoResponseDto> listarPorLibro(Long libroId) {
+    public PaginaResponseDto<PrestamoResponseDto> listarPorLibro(Long libroId, PaginaRequestDto pagina) {
         log.info("Listando préstamos por libro id={}", libroId);
         
         if (!libroRepo.existsById(libroId)) {
             throw new NotFoundException("Libro no encontrado: " + libroId);
         }
         
-        return prestamoRepo.findByLibroId(libroId).stream()
-                .map(mapper::toResponseDto)
-                .collect(Collectors.toList());
+        return paginador.paginar(pagina,
+                (despuesDe, pageable) -> prestamoRepo.listarResumenPorLibro(libroId, despuesDe, pageable),
+                PrestamoResumen::id, mapper::toResponseDto);
     }
     
+    /**
+     * Delegado al barrido por bloques; cada bloque gestiona su propia transacción.
+     */
     @Override
-    public void actualizarEstadosVencidos() {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BarridoVencidosResponseDto actualizarEstadosVencidos() {
         log.info("Actualizando estados de préstamos vencidos");
         
-        List<Prestamo> prestamosVencidos = prestamoRepo.findPrestamosVencidos(LocalDate.now());
+        return barridoVencidos.ejecutar();
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public long exportar(OutputStream salida) throws IOException {
+        log.info("Exportando préstamos en NDJSON");
+        long inicio = System.currentTimeMillis();
+        
+        // Las proyecciones no son entidades administradas: el contexto de persistencia no crece
+        try (Stream<PrestamoResumen> filas = streaming.leer(PrestamoRepository.EXPORTAR_RESUMEN, PrestamoResumen.class)) {
+            long exportados = exportadorNdjson.escribir(filas.map(mapper::toResponseDto), salida);
+            log.info("✓ Exportación de préstamos terminada - {} registros en {} ms", 
+                     exportados, System.currentTimeMillis() - inicio);
+            return exportados;
+        }
+    }
+    
+    /**
+     * Reglas de negocio de un préstamo evaluadas sobre datos ya cargados.
+     * Devuelve el motivo del rechazo, o null si el préstamo es válido.
+     */
+    private String motivoRechazo(Libro libro, Integer stockDisponible, Usuario usuario, List<Prestamo> prestamosActivosUsuario) {
+        // Validar que hay stock disponible
+        if (stockDisponible == null || stockDisponible <= 0) {
+            return "El libro '" + libro.getTitulo() + "' no está disponible. Stock disponible: " + stockDisponible;
+        }
+        
+        // Validar que el usuario está activo
+        if (!usuario.getActivo()) {
+            return "El usuario " + usuario.getNombreCompleto() + " está inactivo y no puede realizar préstamos";
+        }
         
-        int actualizados = 0;
-        for (Prestamo prestamo : prestamosVencidos) {
-            if (prestamo.getEstado() == EstadoPrestamo.ACTIVO) {
-                prestamo.setEstado(EstadoPrestamo.VENCIDO);
-                actualizados++;
-            }
+        // Validar que el usuario no tenga préstamos vencidos (ya barridos a VENCIDO o aún ACTIVO con fecha pasada)
+        long prestamosVencidos = prestamosActivosUsuario.stream()
+                .filter(p -> p.getEstado() == EstadoPrestamo.VENCIDO || p.isVencido())
+                .count();
+        
+        if (prestamosVencidos > 0) {
+            return "El usuario tiene " + prestamosVencidos + " préstamo(s) vencido(s). Debe devolverlos antes de solicitar un nuevo préstamo";
+        }
+        
+        // Validar límite de préstamos simultáneos
+        long prestamosActivos = prestamosActivosUsuario.size();
+        if (prestamosActivos >= MAX_PRESTAMOS_ACTIVOS) {
+            return "El usuario ya tiene " + prestamosActivos + " préstamos activos. Límite máximo: " + MAX_PRESTAMOS_ACTIVOS;
+        }
+        
+        // Validar que el usuario no tenga ya este mismo libro prestado
+        boolean yaTieneLibro = prestamosActivosUsuario.stream()
+                .anyMatch(p -> p.getLibro().getId().equals(libro.getId()));
+        
+        if (yaTieneLibro) {
+            return "El usuario ya tiene prestado el libro '" + libro.getTitulo() + "'";
+        }
+        
+        return null;
+    }
+    
+    private Prestamo nuevoPrestamo(PrestamoRequestDto req, Libro libro, Usuario usuario) {
+        Prestamo prestamo = mapper.toEntity(req);
+        prestamo.setLibro(libro);
+        prestamo.setUsuario(usuario);
+        prestamo.setFechaPrestamo(LocalDate.now());
+        
+        if (prestamo.getFechaDevolucionEsperada() == null) {
+            prestamo.setFechaDevolucionEsperada(LocalDate.now().plusDays(14));
         }
         
-        if (actualizados > 0) {
-            prestamoRepo.saveAll(prestamosVencidos);
-            log.info("✓ Actualizados {} préstamos a estado VENCIDO", actualizados);
+        prestamo.setEstado(EstadoPrestamo.ACTIVO);
+        return prestamo;
+    }
+    
+    private PrestamoLoteResponseDto cerrarLote(PrestamoLoteResponseDto response, String motivoNoRegistrado) {
+        int registrados = 0;
+        for (PrestamoLoteResponseDto.Resultado resultado : response.getResultados()) {
+            if (resultado.isRegistrado()) {
+                registrados++;
+            } else if (resultado.getError() == null) {
+                resultado.setError(motivoNoRegistrado);
+            }
+        }
+        response.setRegistrados(registrados);
+        response.setRechazados(response.getTotal() - registrados);
+        return response;
+    }
+    
+    private DevolucionLoteResponseDto.Resultado nuevoResultado(DevolucionLoteResponseDto response, Long prestamoId, String isbn, String dni) {
+        DevolucionLoteResponseDto.Resultado resultado = new DevolucionLoteResponseDto.Resultado();
+        resultado.setPrestamoId(prestamoId);
+        resultado.setIsbn(isbn);
+        resultado.setDni(dni);
+        response.getResultados().add(resultado);
+        return resultado;
+    }
+    
+    private void aceptarDevolucion(DevolucionLoteResponseDto.Resultado resultado, PrestamoPendiente pendiente,
+                                   Map<Long, PrestamoPendiente> aDevolver, LocalDate hoy) {
+        if (!pendiente.isDevolvible()) {
+            resultado.setError("El préstamo no está en un estado válido para devolución. Estado actual: " + pendiente.estado());
+        } else if (aDevolver.containsKey(pendiente.id())) {
+            resultado.setError("El préstamo " + pendiente.id() + " aparece más de una vez en el lote");
         } else {
-            log.info("No hay préstamos que actualizar");
+            aDevolver.put(pendiente.id(), pendiente);
+            resultado.setDevuelto(true);
+            resultado.setDiasAtraso(pendiente.diasAtraso(hoy));
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,134 @@
+package pe.edu.cibertec.bibliotech.service.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import pe.edu.cibertec.bibliotech.api.request.ReportePrestamosRequestDto;
+import pe.edu.cibertec.bibliotech.api.request.ReporteTrabajoRequestDto;
+import pe.edu.cibertec.bibliotech.api.response.ReporteTrabajoResponseDto;
+import pe.edu.cibertec.bibliotech.exception.BusinessException;
+import pe.edu.cibertec.bibliotech.exception.NotFoundException;
+import pe.edu.cibertec.bibliotech.repository.PrestamoRepository;
+import pe.edu.cibertec.bibliotech.repository.projection.PrestamoResumen;
+import pe.edu.cibertec.bibliotech.service.ReporteService;
+import pe.edu.cibertec.bibliotech.service.support.ExportadorExcel;
+import pe.edu.cibertec.bibliotech.service.support.LecturaEnStreaming;
+import pe.edu.cibertec.bibliotech.service.support.ReportesPdf;
+import pe.edu.cibertec.bibliotech.service.support.TrabajosReporte;
+import pe.edu.cibertec.bibliotech.service.support.TrabajosReporte.Estado;
+import pe.edu.cibertec.bibliotech.service.support.TrabajosReporte.Trabajo;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ReporteServiceImpl implements ReporteService {
+    
+    private static final List<String> COLUMNAS_PRESTAMOS = List.of(
+            "ID", "Libro ID", "Libro", "Usuario ID", "Usuario", "Fecha préstamo",
+            "Devolución esperada", "Devolución real", "Estado", "Días de atraso", "Observaciones");
+    
+    private final ExportadorExcel exportadorExcel;
+    private final LecturaEnStreaming streaming;
+    private final ReportesPdf reportesPdf;
+    private final TrabajosReporte trabajos;
+    
+    @Override
+    public long prestamosExcel(ReportePrestamosRequestDto filtro, OutputStream salida) throws IOException {
+        log.info("Generando reporte de préstamos en Excel - {}", filtro);
+        long inicio = System.currentTimeMillis();
+        
+        // Proyecciones leídas fila a fila: el contexto de persistencia no crece con las filas
+        try (Stream<PrestamoResumen> filas = streaming.leer(PrestamoRepository.REPORTE, PrestamoResumen.class, consulta -> consulta
+                .setParameter("desde", filtro.getDesde())
+                .setParameter("hasta", filtro.getHasta())
+                .setParameter("estado", filtro.getEstado())
+                .setParameter("usuarioId", filtro.getUsuarioId()))) {
+            long escritas = exportadorExcel.escribir("Préstamos", COLUMNAS_PRESTAMOS, filas, this::celdas, salida);
+            log.info("✓ Reporte de préstamos generado - {} filas en {} ms",
+                     escritas, System.currentTimeMillis() - inicio);
+            return escritas;
+        }
+    }
+    
+    // Solo encola el trabajo: no debe tomar una conexión en el hilo web
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ReporteTrabajoResponseDto solicitarPdf(ReporteTrabajoRequestDto request) {
+        log.info("Solicitando reporte PDF {}", request);
+        
+        Trabajo trabajo = switch (request.getTipo()) {
+            case AVISOS_VENCIDOS -> {
+                LocalDate fecha = request.getFecha() != null ? request.getFecha() : LocalDate.now();
+                String nombre = "avisos-vencidos-" + fecha;
+                yield trabajos.enviar(nombre, nombre + ".pdf",
+                        (salida, progreso) -> reportesPdf.avisosVencimiento(fecha, salida, progreso));
+            }
+            case CIRCULACION_MENSUAL -> {
+                YearMonth periodo = request.getPeriodo();
+                String nombre = "circulacion-" + periodo;
+                yield trabajos.enviar(nombre, nombre + ".pdf",
+                        (salida, progreso) -> reportesPdf.circulacionMensual(periodo, salida, progreso));
+            }
+        };
+        return toResponseDto(trabajo);
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ReporteTrabajoResponseDto obtenerTrabajo(String id) {
+        return toResponseDto(buscarTrabajo(id));
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Resource descargarTrabajo(String id) {
+        Trabajo trabajo = buscarTrabajo(id);
+        if (trabajo.getEstado() != Estado.TERMINADO) {
+            throw new BusinessException(
+                "El reporte aún no está disponible. Estado: " + trabajo.getEstado() + ", progreso: " + trabajo.getProgreso() + "%"
+            );
+        }
+        return new FileSystemResource(trabajo.getArchivo());
+    }
+    
+    private Trabajo buscarTrabajo(String id) {
+        return trabajos.buscar(id)
+                .orElseThrow(() -> new NotFoundException("Trabajo de reporte no encontrado o vencido: " + id));
+    }
+    
+    private ReporteTrabajoResponseDto toResponseDto(Trabajo trabajo) {
+        ReporteTrabajoResponseDto dto = new ReporteTrabajoResponseDto();
+        dto.setId(trabajo.getId());
+        dto.setArchivo(trabajo.getNombreArchivo());
+        dto.setEstado(trabajo.getEstado().name());
+        dto.setProgreso(trabajo.getProgreso());
+        dto.setError(trabajo.getError());
+        dto.setFechaSolicitud(trabajo.getFechaSolicitud());
+        dto.setFechaFin(trabajo.getFechaFin());
+        if (trabajo.getEstado() == Estado.TERMINADO) {
+            dto.setUrlDescarga("/api/reportes/trabajos/" + trabajo.getId() + "/archivo");
+        }
+        return dto;
+    }
+    
+    private List<?> celdas(PrestamoResumen p) {
+        return Arrays.asList(
+                p.id(), p.libroId(), p.libroTitulo(), p.usuarioId(), p.usuarioNombreCompleto(),
+                p.fechaPrestamo(), p.fechaDevolucionEsperada(), p.fechaDevolucionReal(),
+                p.estado().name(), p.getDiasAtraso(), p.observaciones());
+    }
+}
\ No newline at end of file
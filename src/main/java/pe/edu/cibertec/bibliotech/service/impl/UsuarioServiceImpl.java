@@ -1,23 +1,34 @@
 package pe.edu.cibertec.bibliotech.service.impl;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import pe.edu.cibertec.bibliotech.api.request.PaginaRequestDto;
 import pe.edu.cibertec.bibliotech.api.request.UsuarioRequestDto;
+import pe.edu.cibertec.bibliotech.api.response.ImportacionUsuariosResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.PaginaResponseDto;
 import pe.edu.cibertec.bibliotech.api.response.UsuarioResponseDto;
 import pe.edu.cibertec.bibliotech.entity.Prestamo;
 import pe.edu.cibertec.bibliotech.entity.Usuario;
+import pe.edu.cibertec.bibliotech.event.UsuarioEvento;
 import pe.edu.cibertec.bibliotech.exception.BusinessException;
 import pe.edu.cibertec.bibliotech.exception.NotFoundException;
 import pe.edu.cibertec.bibliotech.mapper.UsuarioMapper;
 import pe.edu.cibertec.bibliotech.repository.UsuarioRepository;
+import pe.edu.cibertec.bibliotech.repository.projection.UsuarioResumen;
 import pe.edu.cibertec.bibliotech.service.UsuarioService;
+import pe.edu.cibertec.bibliotech.service.support.FiltroClavesUnicas;
+import pe.edu.cibertec.bibliotech.service.support.FiltroClavesUnicas.Clave;
+import pe.edu.cibertec.bibliotech.service.support.ImportadorUsuarios;
+import pe.edu.cibertec.bibliotech.service.support.Paginador;
 
 @Slf4j
 @Service
@@ -27,22 +38,30 @@ public class UsuarioServiceImpl implements UsuarioService {
     
     private final UsuarioRepository usuarioRepo;
     private final UsuarioMapper mapper;
+    private final Paginador paginador;
+    private final FiltroClavesUnicas filtroClaves;
+    private final ApplicationEventPublisher eventos;
+    private final ImportadorUsuarios importador;
     
     @Override
     public UsuarioResponseDto crear(UsuarioRequestDto req) {
         log.info("Creando usuario: dni='{}', email='{}'", req.getDni(), req.getEmail());
         
-        // Validar DNI único
-        usuarioRepo.findByDni(req.getDni().trim())
-                .ifPresent(usuario -> {
-                    throw new BusinessException("Ya existe un usuario con el DNI: " + req.getDni());
-                });
+        // Validar DNI único (sin consulta si el filtro asegura que el DNI es nuevo)
+        if (filtroClaves.puedeExistir(Clave.DNI, req.getDni().trim())) {
+            usuarioRepo.findByDni(req.getDni().trim())
+                    .ifPresent(usuario -> {
+                        throw new BusinessException("Ya existe un usuario con el DNI: " + req.getDni());
+                    });
+        }
         
         // Validar email único
-        usuarioRepo.findByEmail(req.getEmail().trim().toLowerCase())
-                .ifPresent(usuario -> {
-                    throw new BusinessException("Ya existe un usuario con el email: " + req.getEmail());
-                });
+        if (filtroClaves.puedeExistir(Clave.EMAIL, req.getEmail().trim().toLowerCase())) {
+            usuarioRepo.findByEmail(req.getEmail().trim().toLowerCase())
+                    .ifPresent(usuario -> {
+                        throw new BusinessException("Ya existe un usuario con el email: " + req.getEmail());
+                    });
+        }
         
         // Validar formato de DNI
         if (!req.getDni().matches("\\d{8}")) {
@@ -65,6 +84,9 @@ public class UsuarioServiceImpl implements UsuarioService {
         entity.setUltimaActualizacion(LocalDateTime.now());
         
         Usuario saved = usuarioRepo.save(entity);
+        filtroClaves.registrar(Clave.DNI, saved.getDni());
+        filtroClaves.registrar(Clave.EMAIL, saved.getEmail());
+        eventos.publishEvent(UsuarioEvento.guardado(saved));
         log.info("✓ Usuario creado id={}, DNI={}", saved.getId(), saved.getDni());
         
         return mapper.toResponseDto(saved);
@@ -78,7 +100,8 @@ public class UsuarioServiceImpl implements UsuarioService {
                 .orElseThrow(() -> new NotFoundException("Usuario no encontrado: " + id));
         
         // Validar DNI único (excepto el mismo usuario)
-        if (req.getDni() != null && !req.getDni().trim().isEmpty()) {
+        if (req.getDni() != null && !req.getDni().trim().isEmpty()
+                && filtroClaves.puedeExistir(Clave.DNI, req.getDni().trim())) {
             usuarioRepo.findByDni(req.getDni().trim())
                     .ifPresent(usuario -> {
                         if (!usuario.getId().equals(id)) {
@@ -88,7 +111,8 @@ public class UsuarioServiceImpl implements UsuarioService {
         }
         
         // Validar email único (excepto el mismo usuario)
-        if (req.getEmail() != null && !req.getEmail().trim().isEmpty()) {
+        if (req.getEmail() != null && !req.getEmail().trim().isEmpty()
+                && filtroClaves.puedeExistir(Clave.EMAIL, req.getEmail().trim().toLowerCase())) {
             usuarioRepo.findByEmail(req.getEmail().trim().toLowerCase())
                     .ifPresent(usuario -> {
                         if (!usuario.getId().equals(id)) {
@@ -121,6 +145,9 @@ public class UsuarioServiceImpl implements UsuarioService {
         actual.setUltimaActualizacion(LocalDateTime.now());
         
         Usuario saved = usuarioRepo.save(actual);
+        filtroClaves.registrar(Clave.DNI, saved.getDni());
+        filtroClaves.registrar(Clave.EMAIL, saved.getEmail());
+        eventos.publishEvent(UsuarioEvento.guardado(saved));
         log.info("✓ Usuario actualizado id={}", saved.getId());
         
         return mapper.toResponseDto(saved);
@@ -146,6 +173,7 @@ public class UsuarioServiceImpl implements UsuarioService {
         }
         
         usuarioRepo.delete(usuario);
+        eventos.publishEvent(UsuarioEvento.eliminado(id));
         log.info("✓ Usuario eliminado id={}", id);
     }
     
@@ -162,22 +190,22 @@ public class UsuarioServiceImpl implements UsuarioService {
     
     @Override
     @Transactional(readOnly = true)
-    public List<UsuarioResponseDto> listar() {
+    public PaginaResponseDto<UsuarioResponseDto> listar(PaginaRequestDto pagina) {
         log.info("Listando todos los usuarios");
         
-        return usuarioRepo.findAll().stream()
-                .map(mapper::toResponseDto)
-                .collect(Collectors.toList());
+        return paginador.paginar(pagina,
+                (despuesDe, pageable) -> usuarioRepo.listarResumen(despuesDe, pageable),
+                UsuarioResumen::id, mapper::toResponseDto);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<UsuarioResponseDto> listarActivos() {
+    public PaginaResponseDto<UsuarioResponseDto> listarActivos(PaginaRequestDto pagina) {
         log.info("Listando usuarios activos");
         
-        return usuarioRepo.findByActivoTrue().stream()
-                .map(mapper::toResponseDto)
-                .collect(Collectors.toList());
+        return paginador.paginar(pagina,
+                (despuesDe, pageable) -> usuarioRepo.listarResumenActivos(despuesDe, pageable),
+                UsuarioResumen::id, mapper::toResponseDto);
     }
     
     @Override
@@ -229,6 +257,7 @@ public class UsuarioServiceImpl implements UsuarioService {
         usuario.setActivo(true);
         usuario.setUltimaActualizacion(LocalDateTime.now());
         usuarioRepo.save(usuario);
+        eventos.publishEvent(UsuarioEvento.guardado(usuario));
         
         log.info("✓ Usuario activado id={}", id);
     }
@@ -261,7 +290,19 @@ public class UsuarioServiceImpl implements UsuarioService {
         usuario.setActivo(false);
         usuario.setUltimaActualizacion(LocalDateTime.now());
         usuarioRepo.save(usuario);
+        eventos.publishEvent(UsuarioEvento.guardado(usuario));
         
         log.info("✓ Usuario desactivado id={}", id);
     }
+    
+    /**
+     * Delegado al importador por bloques; cada bloque gestiona su propia transacción.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ImportacionUsuariosResponseDto importarCsv(InputStream entrada, boolean desactivarAusentes) throws IOException {
+        log.info("Importando padrón de usuarios desde CSV - desactivarAusentes={}", desactivarAusentes);
+        
+        return importador.importar(entrada, desactivarAusentes);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import java.time.LocalDate;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import pe.edu.cibertec.bibliotech.api.response.BarridoVencidosResponseDto;
+import pe.edu.cibertec.bibliotech.entity.Prestamo.EstadoPrestamo;
+import pe.edu.cibertec.bibliotech.repository.PrestamoRepository;
+
+/**
+ * Marca como VENCIDO los préstamos activos cuya fecha de devolución ya pasó, por bloques
+ * de ids con un UPDATE por conjunto cada uno (ProcesoPorBloques).
+ * Lo ejecutan job.BarridoVencidosJob (cada noche) y PrestamoService.actualizarEstadosVencidos.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BarridoVencidos {
+    
+    private final PrestamoRepository prestamoRepo;
+    private final ProcesoPorBloques proceso;
+    
+    @Value("${bibliotech.vencidos.tamanio-lote:500}")
+    private int tamanioLote;
+    
+    public BarridoVencidosResponseDto ejecutar() {
+        LocalDate hoy = LocalDate.now();
+        log.info("Barrido de préstamos vencidos con corte {}", hoy);
+        
+        ProcesoPorBloques.Resultado bloques = proceso.ejecutar(
+                new ProcesoPorBloques.Definicion("barrido de vencidos", "bibliotech.vencidos.actualizados",
+                                                 "bibliotech.vencidos.duracion", tamanioLote),
+                (despuesDe, limite) -> prestamoRepo.findIdsVencidos(hoy, despuesDe, limite),
+                ids -> prestamoRepo.marcarVencidos(ids, hoy, EstadoPrestamo.VENCIDO));
+        
+        BarridoVencidosResponseDto resultado = new BarridoVencidosResponseDto();
+        resultado.setFechaCorte(hoy);
+        resultado.setActualizados(bloques.actualizados());
+        resultado.setLotes(bloques.lotes());
+        resultado.setDuracionMs(bloques.duracionMs());
+        return resultado;
+    }
+}
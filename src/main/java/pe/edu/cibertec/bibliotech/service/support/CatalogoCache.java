@@ -0,0 +1,63 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import java.util.Optional;
+
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import lombok.RequiredArgsConstructor;
+import pe.edu.cibertec.bibliotech.event.AutorEvento;
+import pe.edu.cibertec.bibliotech.event.CategoriaEvento;
+import pe.edu.cibertec.bibliotech.repository.AutorRepository;
+import pe.edu.cibertec.bibliotech.repository.CategoriaRepository;
+import pe.edu.cibertec.bibliotech.repository.projection.AutorRef;
+import pe.edu.cibertec.bibliotech.repository.projection.CategoriaRef;
+
+/**
+ * Caché local de autores y categorías (id y nombre). Son datos que casi no cambian;
+ * las entradas se invalidan con los eventos de escritura, después del commit.
+ * Los ids inexistentes no se guardan.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogoCache {
+    
+    public static final String AUTORES = "autores";
+    public static final String CATEGORIAS = "categorias";
+    public static final String CATEGORIAS_POR_NOMBRE = "categoriasPorNombre";
+    
+    private final AutorRepository autorRepo;
+    private final CategoriaRepository categoriaRepo;
+    
+    @Cacheable(cacheNames = AUTORES, unless = "#result == null")
+    public Optional<AutorRef> autor(Long id) {
+        return autorRepo.buscarRef(id);
+    }
+    
+    @Cacheable(cacheNames = CATEGORIAS, unless = "#result == null")
+    public Optional<CategoriaRef> categoria(Long id) {
+        return categoriaRepo.buscarRef(id);
+    }
+    
+    @Cacheable(cacheNames = CATEGORIAS_POR_NOMBRE, unless = "#result == null")
+    public Optional<CategoriaRef> categoriaPorNombre(String nombre) {
+        return categoriaRepo.buscarRefPorNombre(nombre);
+    }
+    
+    @TransactionalEventListener
+    @CacheEvict(cacheNames = AUTORES, key = "#evento.autorId()")
+    public void alCambiarAutor(AutorEvento evento) {
+    }
+    
+    // El nombre anterior no viaja en el evento: se vacía todo el índice por nombre
+    @TransactionalEventListener
+    @Caching(evict = {
+        @CacheEvict(cacheNames = CATEGORIAS, key = "#evento.categoriaId()"),
+        @CacheEvict(cacheNames = CATEGORIAS_POR_NOMBRE, allEntries = true)
+    })
+    public void alCambiarCategoria(CategoriaEvento evento) {
+    }
+}
\ No newline at end of file
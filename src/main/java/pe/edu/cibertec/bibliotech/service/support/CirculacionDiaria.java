@@ -0,0 +1,77 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import pe.edu.cibertec.bibliotech.repository.CirculacionCategoriaRepository;
+import pe.edu.cibertec.bibliotech.repository.CirculacionLibroRepository;
+
+/**
+ * Mantiene las tablas de circulación diaria (por libro y por categoría) dentro de la
+ * transacción del préstamo, la devolución o la cancelación que las origina.
+ * <p>
+ * Las filas se bloquean siempre en el mismo orden: primero las de libros y luego las de
+ * categorías, cada grupo por id ascendente. Los lotes (Lote) suman antes por libro y por
+ * categoría, así escriben cada fila una sola vez y dos lotes concurrentes no se bloquean
+ * en orden cruzado.
+ */
+@Component
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class CirculacionDiaria {
+    
+    private final CirculacionLibroRepository libroRepo;
+    private final CirculacionCategoriaRepository categoriaRepo;
+    
+    // Cantidad negativa al cancelar préstamos
+    public void prestamos(LocalDate fecha, Long libroId, Long categoriaId, long cantidad) {
+        acumular(fecha, libroId, categoriaId, cantidad, 0, 0);
+    }
+    
+    public void devoluciones(LocalDate fecha, Long libroId, Long categoriaId, long cantidad, long conAtraso) {
+        acumular(fecha, libroId, categoriaId, 0, cantidad, conAtraso);
+    }
+    
+    public void acumular(LocalDate fecha, Lote lote) {
+        lote.porLibro.forEach((libroId, c) -> libroRepo.acumular(fecha, libroId, c[0], c[1], c[2]));
+        lote.porCategoria.forEach((categoriaId, c) -> categoriaRepo.acumular(fecha, categoriaId, c[0], c[1], c[2]));
+    }
+    
+    private void acumular(LocalDate fecha, Long libroId, Long categoriaId, long prestamos, long devoluciones, long atraso) {
+        libroRepo.acumular(fecha, libroId, prestamos, devoluciones, atraso);
+        categoriaRepo.acumular(fecha, categoriaId, prestamos, devoluciones, atraso);
+    }
+    
+    /**
+     * Movimientos de un lote del mismo día, sumados por libro y por categoría
+     * (préstamos, devoluciones y devoluciones con atraso).
+     */
+    public static final class Lote {
+        
+        private final Map<Long, long[]> porLibro = new TreeMap<>();
+        private final Map<Long, long[]> porCategoria = new TreeMap<>();
+        
+        public void prestamos(Long libroId, Long categoriaId, long cantidad) {
+            sumar(libroId, categoriaId, cantidad, 0, 0);
+        }
+        
+        public void devoluciones(Long libroId, Long categoriaId, long cantidad, long conAtraso) {
+            sumar(libroId, categoriaId, 0, cantidad, conAtraso);
+        }
+        
+        private void sumar(Long libroId, Long categoriaId, long prestamos, long devoluciones, long atraso) {
+            for (long[] c : new long[][] { porLibro.computeIfAbsent(libroId, id -> new long[3]),
+                                           porCategoria.computeIfAbsent(categoriaId, id -> new long[3]) }) {
+                c[0] += prestamos;
+                c[1] += devoluciones;
+                c[2] += atraso;
+            }
+        }
+    }
+}
\ No newline at end of file
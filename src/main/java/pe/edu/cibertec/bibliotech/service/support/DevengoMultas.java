@@ -0,0 +1,48 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import java.time.LocalDate;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import pe.edu.cibertec.bibliotech.api.response.DevengoMultasResponseDto;
+import pe.edu.cibertec.bibliotech.repository.PrestamoRepository;
+
+/**
+ * Devenga las multas de los préstamos abiertos con atraso al corte del día y recalcula el
+ * devengado de sus usuarios en saldos_multas, por bloques de ids (ProcesoPorBloques).
+ * Lo ejecutan job.DevengoMultasJob (cada noche) y MultaService.devengar (a pedido); las
+ * devoluciones concurrentes de esos préstamos se reintentan por versión.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DevengoMultas {
+    
+    private final PrestamoRepository prestamoRepo;
+    private final MotorMultas multas;
+    private final ProcesoPorBloques proceso;
+    
+    @Value("${bibliotech.multas.tamanio-lote:500}")
+    private int tamanioLote;
+    
+    public DevengoMultasResponseDto ejecutar() {
+        LocalDate hoy = LocalDate.now();
+        log.info("Devengo de multas con corte {}", hoy);
+        
+        ProcesoPorBloques.Resultado bloques = proceso.ejecutar(
+                new ProcesoPorBloques.Definicion("devengo de multas", "bibliotech.multas.devengados",
+                                                 "bibliotech.multas.duracion", tamanioLote),
+                (despuesDe, limite) -> prestamoRepo.findIdsConAtraso(hoy, despuesDe, limite),
+                ids -> multas.devengar(ids, hoy));
+        
+        DevengoMultasResponseDto resultado = new DevengoMultasResponseDto();
+        resultado.setFechaCorte(hoy);
+        resultado.setActualizados(bloques.actualizados());
+        resultado.setLotes(bloques.lotes());
+        resultado.setDuracionMs(bloques.duracionMs());
+        return resultado;
+    }
+}
@@ -0,0 +1,112 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.stereotype.Component;
+
+/**
+ * Escribe un Stream en un libro de Excel (.xlsx) con SXSSF: solo una ventana de filas
+ * queda en memoria y el resto se vuelca a un archivo temporal comprimido, así que el
+ * consumo no depende de la cantidad de filas. Si se supera el límite de filas de una
+ * hoja, continúa en una hoja nueva.
+ */
+@Component
+public class ExportadorExcel {
+    
+    private static final int FILAS_EN_MEMORIA = 100;
+    private static final int MAX_FILAS_HOJA = SpreadsheetVersion.EXCEL2007.getMaxRows();
+    private static final int ANCHO_COLUMNA = 18 * 256;
+    
+    private static final class Estilos {
+        private CellStyle encabezado;
+        private CellStyle fecha;
+    }
+    
+    public <T> long escribir(String nombreHoja, List<String> encabezados, Stream<T> filas,
+                             Function<T, List<?>> celdas, OutputStream salida) throws IOException {
+        SXSSFWorkbook libro = new SXSSFWorkbook(FILAS_EN_MEMORIA);
+        libro.setCompressTempFiles(true);
+        try {
+            Estilos estilos = estilos(libro);
+            int hojas = 1;
+            SXSSFSheet hoja = nuevaHoja(libro, nombreHoja, encabezados, estilos);
+            int fila = 1;
+            long escritas = 0;
+            
+            Iterator<T> iterador = filas.iterator();
+            while (iterador.hasNext()) {
+                if (fila == MAX_FILAS_HOJA) {
+                    hoja = nuevaHoja(libro, nombreHoja + " (" + ++hojas + ")", encabezados, estilos);
+                    fila = 1;
+                }
+                Row row = hoja.createRow(fila++);
+                List<?> valores = celdas.apply(iterador.next());
+                for (int i = 0; i < valores.size(); i++) {
+                    escribirCelda(row.createCell(i), valores.get(i), estilos);
+                }
+                escritas++;
+            }
+            
+            libro.write(salida);
+            salida.flush();
+            return escritas;
+        } finally {
+            // Borra los archivos temporales de las hojas
+            libro.dispose();
+            libro.close();
+        }
+    }
+    
+    private static SXSSFSheet nuevaHoja(SXSSFWorkbook libro, String nombre, List<String> encabezados, Estilos estilos) {
+        SXSSFSheet hoja = libro.createSheet(nombre);
+        Row row = hoja.createRow(0);
+        for (int i = 0; i < encabezados.size(); i++) {
+            Cell cell = row.createCell(i);
+            cell.setCellValue(encabezados.get(i));
+            cell.setCellStyle(estilos.encabezado);
+            hoja.setColumnWidth(i, ANCHO_COLUMNA);
+        }
+        hoja.createFreezePane(0, 1);
+        return hoja;
+    }
+    
+    private static void escribirCelda(Cell cell, Object valor, Estilos estilos) {
+        if (valor == null) {
+            return;
+        }
+        if (valor instanceof Number numero) {
+            cell.setCellValue(numero.doubleValue());
+        } else if (valor instanceof LocalDate fecha) {
+            cell.setCellValue(fecha);
+            cell.setCellStyle(estilos.fecha);
+        } else {
+            cell.setCellValue(valor.toString());
+        }
+    }
+    
+    private static Estilos estilos(SXSSFWorkbook libro) {
+        Estilos estilos = new Estilos();
+        
+        Font negrita = libro.createFont();
+        negrita.setBold(true);
+        estilos.encabezado = libro.createCellStyle();
+        estilos.encabezado.setFont(negrita);
+        
+        estilos.fecha = libro.createCellStyle();
+        estilos.fecha.setDataFormat(libro.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+        return estilos;
+    }
+}
\ No newline at end of file
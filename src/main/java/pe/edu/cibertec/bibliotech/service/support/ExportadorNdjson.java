@@ -0,0 +1,44 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Escribe un Stream como JSON delimitado por saltos de línea (NDJSON),
+ * un objeto por línea, sin acumular el resultado en memoria.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExportadorNdjson {
+    
+    private static final int FILAS_POR_FLUSH = 500;
+    
+    private final ObjectMapper objectMapper;
+    
+    public long escribir(Stream<?> filas, OutputStream salida) throws IOException {
+        ObjectWriter writer = objectMapper.writer();
+        long escritas = 0;
+        
+        Iterator<?> iterador = filas.iterator();
+        while (iterador.hasNext()) {
+            salida.write(writer.writeValueAsBytes(iterador.next()));
+            salida.write('\n');
+            
+            // Entregar al cliente lo escrito en lugar de esperar al final
+            if (++escritas % FILAS_POR_FLUSH == 0) {
+                salida.flush();
+            }
+        }
+        salida.flush();
+        return escritas;
+    }
+}
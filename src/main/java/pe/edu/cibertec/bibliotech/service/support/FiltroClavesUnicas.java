@@ -0,0 +1,134 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import pe.edu.cibertec.bibliotech.repository.LibroRepository;
+import pe.edu.cibertec.bibliotech.repository.UsuarioRepository;
+
+/**
+ * Filtros de Bloom para ISBN, DNI y email. Sirven para evitar la consulta de unicidad
+ * cuando el valor seguro no existe; un "puede existir" siempre se confirma en la base.
+ * Los valores eliminados no se quitan (solo agregan falsos positivos) y la restricción
+ * UNIQUE de la tabla sigue siendo la garantía final.
+ */
+@Slf4j
+@Component
+public class FiltroClavesUnicas {
+    
+    public enum Clave {
+        ISBN, DNI, EMAIL
+    }
+    
+    private final LibroRepository libroRepo;
+    private final UsuarioRepository usuarioRepo;
+    private final TransactionTemplate lectura;
+    private final MeterRegistry registry;
+    
+    @Value("${bibliotech.unicidad.capacidad:100000}")
+    private int capacidad;
+    
+    @Value("${bibliotech.unicidad.falsos-positivos:0.01}")
+    private double falsosPositivos;
+    
+    private volatile Map<Clave, BloomFilter<CharSequence>> filtros = new EnumMap<>(Clave.class);
+    private volatile boolean listo;
+    
+    public FiltroClavesUnicas(LibroRepository libroRepo, UsuarioRepository usuarioRepo,
+                              PlatformTransactionManager transactionManager, MeterRegistry registry) {
+        this.libroRepo = libroRepo;
+        this.usuarioRepo = usuarioRepo;
+        this.registry = registry;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        long inicio = System.currentTimeMillis();
+        long isbns = libroRepo.count();
+        long usuarios = usuarioRepo.count();
+        
+        // Los filtros se publican vacíos antes de recorrer la base: las altas concurrentes
+        // se registran en ellos y no se pierden aunque el recorrido ya haya pasado por su fila
+        Map<Clave, BloomFilter<CharSequence>> nuevos = new EnumMap<>(Clave.class);
+        nuevos.put(Clave.ISBN, nuevo(isbns));
+        nuevos.put(Clave.DNI, nuevo(usuarios));
+        nuevos.put(Clave.EMAIL, nuevo(usuarios));
+        filtros = nuevos;
+        
+        lectura.executeWithoutResult(status -> {
+            cargar(Clave.ISBN, libroRepo::streamIsbns);
+            cargar(Clave.DNI, usuarioRepo::streamDnis);
+            cargar(Clave.EMAIL, usuarioRepo::streamEmails);
+        });
+        listo = true;
+        
+        log.info("✓ Filtros de unicidad cargados - {} ISBN y {} usuarios en {} ms (~{} KB, fpp={})",
+                 isbns, usuarios, System.currentTimeMillis() - inicio,
+                 (bits(isbns) + 2 * bits(usuarios)) / 8 / 1024, falsosPositivos);
+    }
+    
+    /**
+     * false solo si el valor seguro no está registrado; true si hay que confirmarlo en la base
+     * (incluye el caso en que los filtros todavía no están cargados).
+     */
+    public boolean puedeExistir(Clave clave, String valor) {
+        if (!listo || valor == null) {
+            return true;
+        }
+        boolean puede = filtros.get(clave).mightContain(normalizar(valor));
+        registry.counter("bibliotech.unicidad.consultas",
+                         "clave", clave.name(), "resultado", puede ? "verificada" : "evitada").increment();
+        return puede;
+    }
+    
+    /**
+     * Debe llamarse al guardar, dentro de la transacción: si luego hay rollback solo queda
+     * un falso positivo, pero nunca una ventana en la que el valor confirmado se dé por libre.
+     */
+    public void registrar(Clave clave, String valor) {
+        BloomFilter<CharSequence> filtro = filtros.get(clave);
+        if (filtro != null && valor != null) {
+            filtro.put(normalizar(valor));
+        }
+    }
+    
+    private void cargar(Clave clave, Supplier<Stream<String>> valores) {
+        try (Stream<String> stream = valores.get()) {
+            stream.forEach(valor -> registrar(clave, valor));
+        }
+    }
+    
+    private BloomFilter<CharSequence> nuevo(long existentes) {
+        // Holgura para crecer sin degradar la tasa de falsos positivos configurada
+        long esperados = Math.max(capacidad, existentes * 2);
+        return BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), esperados, falsosPositivos);
+    }
+    
+    private long bits(long existentes) {
+        long esperados = Math.max(capacidad, existentes * 2);
+        return (long) (-esperados * Math.log(falsosPositivos) / (Math.log(2) * Math.log(2)));
+    }
+    
+    // Igual que la collation de MySQL: sin distinguir mayúsculas ni espacios alrededor
+    private static String normalizar(String valor) {
+        return valor.trim().toLowerCase(Locale.ROOT);
+    }
+}
\ No newline at end of file
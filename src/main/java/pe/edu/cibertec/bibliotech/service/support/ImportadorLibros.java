@@ -0,0 +1,328 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.apache.commons.csv.CSVRecord;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import pe.edu.cibertec.bibliotech.api.request.AutorRequestDto;
+import pe.edu.cibertec.bibliotech.api.request.CategoriaRequestDto;
+import pe.edu.cibertec.bibliotech.api.request.LibroRequestDto;
+import pe.edu.cibertec.bibliotech.api.response.ImportacionLibrosResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.ImportacionLibrosResponseDto.FilaRechazada;
+import pe.edu.cibertec.bibliotech.entity.Autor;
+import pe.edu.cibertec.bibliotech.entity.Categoria;
+import pe.edu.cibertec.bibliotech.event.AutorEvento;
+import pe.edu.cibertec.bibliotech.event.CategoriaEvento;
+import pe.edu.cibertec.bibliotech.event.LibroEvento;
+import pe.edu.cibertec.bibliotech.event.LibrosImportadosEvento;
+import pe.edu.cibertec.bibliotech.repository.AutorRepository;
+import pe.edu.cibertec.bibliotech.repository.CategoriaRepository;
+import pe.edu.cibertec.bibliotech.repository.LibroRepository;
+import pe.edu.cibertec.bibliotech.repository.projection.AutorRef;
+import pe.edu.cibertec.bibliotech.repository.projection.CategoriaRef;
+import pe.edu.cibertec.bibliotech.service.support.FiltroClavesUnicas.Clave;
+import pe.edu.cibertec.bibliotech.service.support.LectorCsv.Lectura;
+
+/**
+ * Importación masiva del catálogo desde un CSV con encabezado. El archivo se lee como
+ * stream por bloques: las filas de cada bloque se validan en paralelo, los ISBN repetidos
+ * se buscan con una consulta, los autores y categorías se resuelven por nombre (y se crean
+ * los que faltan) y los libros se insertan con un batch JDBC, en una transacción por bloque.
+ * Las filas inválidas se informan y no detienen la importación.
+ */
+@Slf4j
+@Component
+public class ImportadorLibros {
+    
+    public static final List<String> COLUMNAS = List.of(
+            "titulo", "isbn", "anio_publicacion", "cantidad_total", "descripcion", "autor", "categoria");
+    
+    private static final List<String> COLUMNAS_OBLIGATORIAS = List.of("titulo", "isbn", "autor", "categoria");
+    
+    // Columnas de LibroRequestDto que trae el archivo; el autor y la categoría vienen por nombre
+    private static final List<String> PROPIEDADES = List.of(
+            "titulo", "isbn", "anioPublicacion", "cantidadTotal", "descripcion");
+    
+    private static final String INSERT_LIBRO =
+            "INSERT INTO libros (titulo, isbn, anio_publicacion, cantidad_total, cantidad_disponible, descripcion, " +
+            "autor_id, categoria_id, fecha_registro, ultima_actualizacion, total_prestamos, version) " +
+            "VALUES (:titulo, :isbn, :anioPublicacion, :cantidadTotal, :cantidadTotal, :descripcion, " +
+            ":autorId, :categoriaId, :fecha, :fecha, 0, 0)";
+    
+    /**
+     * Una fila del CSV, validada con las reglas de LibroRequestDto; el autor y la categoría,
+     * con las del nombre en AutorRequestDto y CategoriaRequestDto.
+     */
+    private static final class Fila extends LectorCsv.Fila<LibroRequestDto> {
+        
+        private String autor;
+        private String categoria;
+        
+        private Fila(CSVRecord registro) {
+            super(registro, new LibroRequestDto());
+        }
+        
+        @Override
+        public String clave() {
+            return getDatos().getIsbn();
+        }
+    }
+    
+    // Estado de una importación: nombres ya resueltos e ISBN ya vistos en el archivo
+    private static final class Contexto {
+        private final Map<String, AutorRef> autores = new HashMap<>();
+        private final Map<String, CategoriaRef> categorias = new HashMap<>();
+        private final Set<String> isbns = new HashSet<>();
+        private final ImportacionLibrosResponseDto resultado = new ImportacionLibrosResponseDto();
+        private final Lectura<FilaRechazada> lectura;
+        
+        private Contexto(LectorCsv lector) {
+            lectura = lector.nueva(resultado, FilaRechazada::new);
+        }
+    }
+    
+    // Lo que un bloque agrega al contexto; se aplica solo si su transacción confirma
+    private static final class Bloque {
+        private final Map<String, AutorRef> autores = new HashMap<>();
+        private final Map<String, CategoriaRef> categorias = new HashMap<>();
+        private int autoresCreados;
+        private int categoriasCreadas;
+        private int importados;
+    }
+    
+    private final LibroRepository libroRepo;
+    private final AutorRepository autorRepo;
+    private final CategoriaRepository categoriaRepo;
+    private final LectorCsv lector;
+    private final FiltroClavesUnicas filtroClaves;
+    private final NamedParameterJdbcTemplate jdbc;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventos;
+    private final TransactionTemplate escritura;
+    
+    public ImportadorLibros(LibroRepository libroRepo, AutorRepository autorRepo, CategoriaRepository categoriaRepo,
+                            LectorCsv lector, FiltroClavesUnicas filtroClaves, NamedParameterJdbcTemplate jdbc,
+                            Validator validator, ApplicationEventPublisher eventos,
+                            PlatformTransactionManager transactionManager) {
+        this.libroRepo = libroRepo;
+        this.autorRepo = autorRepo;
+        this.categoriaRepo = categoriaRepo;
+        this.lector = lector;
+        this.filtroClaves = filtroClaves;
+        this.jdbc = jdbc;
+        this.validator = validator;
+        this.eventos = eventos;
+        this.escritura = new TransactionTemplate(transactionManager);
+    }
+    
+    public ImportacionLibrosResponseDto importar(InputStream entrada) throws IOException {
+        long inicio = System.currentTimeMillis();
+        Contexto contexto = new Contexto(lector);
+        ImportacionLibrosResponseDto resultado = contexto.resultado;
+        contexto.lectura.leer(entrada, COLUMNAS_OBLIGATORIAS, COLUMNAS, this::leer, filas -> procesar(filas, contexto));
+        
+        resultado.setRechazados(resultado.getTotal() - resultado.getImportados());
+        resultado.setDuracionMs(System.currentTimeMillis() - inicio);
+        log.info("✓ Importación de libros terminada - {} importados, {} rechazados, {} autores y {} categorías creados en {} ms",
+                 resultado.getImportados(), resultado.getRechazados(), resultado.getAutoresCreados(),
+                 resultado.getCategoriasCreadas(), resultado.getDuracionMs());
+        return resultado;
+    }
+    
+    private void procesar(List<Fila> filas, Contexto contexto) {
+        // 1. ISBN repetidos dentro del archivo
+        for (Fila fila : filas) {
+            if (fila.getError() == null && !contexto.isbns.add(fila.clave())) {
+                fila.setError("ISBN repetido en el archivo: " + fila.clave());
+            }
+        }
+        
+        // 2. ISBN ya registrados (una consulta, solo para los que el filtro no descarta)
+        List<String> candidatos = filas.stream()
+                .filter(fila -> fila.getError() == null && filtroClaves.puedeExistir(Clave.ISBN, fila.clave()))
+                .map(Fila::clave)
+                .toList();
+        if (!candidatos.isEmpty()) {
+            Set<String> existentes = new HashSet<>(libroRepo.buscarIsbnsExistentes(candidatos));
+            filas.stream()
+                    .filter(fila -> fila.getError() == null && existentes.contains(fila.clave()))
+                    .forEach(fila -> fila.setError("Ya existe un libro con el ISBN: " + fila.clave()));
+        }
+        
+        List<Fila> validas = new ArrayList<>();
+        for (Fila fila : filas) {
+            if (fila.getError() == null) {
+                validas.add(fila);
+            } else {
+                contexto.lectura.rechazar(fila);
+            }
+        }
+        
+        // 3. Insertar el bloque
+        contexto.lectura.guardar(validas, bloque -> insertar(bloque, contexto));
+    }
+    
+    private void insertar(List<Fila> filas, Contexto contexto) {
+        Bloque bloque = escritura.execute(status -> {
+            Bloque nuevo = new Bloque();
+            Map<String, AutorRef> autores = resolverAutores(filas, contexto, nuevo);
+            Map<String, CategoriaRef> categorias = resolverCategorias(filas, contexto, nuevo);
+            
+            LocalDateTime ahora = LocalDateTime.now();
+            SqlParameterSource[] parametros = filas.stream()
+                    .map(fila -> {
+                        LibroRequestDto datos = fila.getDatos();
+                        return new MapSqlParameterSource()
+                                .addValue("titulo", datos.getTitulo())
+                                .addValue("isbn", datos.getIsbn())
+                                .addValue("anioPublicacion", datos.getAnioPublicacion())
+                                .addValue("cantidadTotal", datos.getCantidadTotal() != null ? datos.getCantidadTotal() : 1)
+                                .addValue("descripcion", datos.getDescripcion())
+                                .addValue("autorId", autores.get(clave(fila.autor)).id())
+                                .addValue("categoriaId", categorias.get(clave(fila.categoria)).id())
+                                .addValue("fecha", ahora);
+                    })
+                    .toArray(SqlParameterSource[]::new);
+            KeyHolder ids = new GeneratedKeyHolder();
+            jdbc.batchUpdate(INSERT_LIBRO, parametros, ids, new String[] {"id"});
+            
+            // Un evento por bloque: los índices en memoria se actualizan después del commit
+            List<Map<String, Object>> claves = ids.getKeyList();
+            List<LibroEvento> libros = new ArrayList<>(filas.size());
+            for (int i = 0; i < filas.size(); i++) {
+                Fila fila = filas.get(i);
+                AutorRef autor = autores.get(clave(fila.autor));
+                Long id = ((Number) claves.get(i).values().iterator().next()).longValue();
+                libros.add(new LibroEvento(id, fila.getDatos().getTitulo(), fila.clave(), autor.id(), autor.nombre(), 0L, false));
+            }
+            eventos.publishEvent(new LibrosImportadosEvento(libros));
+            // Dentro de la transacción, como en el alta individual: ningún ISBN queda confirmado
+            // en la base y ausente del filtro; si el bloque se deshace solo quedan falsos positivos
+            filas.forEach(fila -> filtroClaves.registrar(Clave.ISBN, fila.clave()));
+            nuevo.importados = filas.size();
+            return nuevo;
+        });
+        
+        contexto.autores.putAll(bloque.autores);
+        contexto.categorias.putAll(bloque.categorias);
+        ImportacionLibrosResponseDto resultado = contexto.resultado;
+        resultado.setImportados(resultado.getImportados() + bloque.importados);
+        resultado.setAutoresCreados(resultado.getAutoresCreados() + bloque.autoresCreados);
+        resultado.setCategoriasCreadas(resultado.getCategoriasCreadas() + bloque.categoriasCreadas);
+    }
+    
+    // Nombres conocidos + los encontrados en la base (una consulta) + los creados en este bloque
+    private Map<String, AutorRef> resolverAutores(List<Fila> filas, Contexto contexto, Bloque bloque) {
+        Map<String, AutorRef> autores = new HashMap<>(contexto.autores);
+        Map<String, String> faltantes = new LinkedHashMap<>();
+        filas.stream().filter(fila -> !autores.containsKey(clave(fila.autor)))
+                .forEach(fila -> faltantes.putIfAbsent(clave(fila.autor), fila.autor));
+        if (faltantes.isEmpty()) {
+            return autores;
+        }
+        
+        for (AutorRef ref : autorRepo.buscarRefsPorNombres(faltantes.keySet())) {
+            String clave = clave(ref.nombre());
+            if (faltantes.remove(clave) != null) {
+                autores.put(clave, ref);
+                bloque.autores.put(clave, ref);
+            }
+        }
+        for (Map.Entry<String, String> faltante : faltantes.entrySet()) {
+            Autor autor = new Autor();
+            autor.setNombre(faltante.getValue());
+            autor.setFechaRegistro(LocalDateTime.now());
+            Autor saved = autorRepo.save(autor);
+            eventos.publishEvent(AutorEvento.guardado(saved));
+            AutorRef ref = new AutorRef(saved.getId(), saved.getNombre());
+            autores.put(faltante.getKey(), ref);
+            bloque.autores.put(faltante.getKey(), ref);
+            bloque.autoresCreados++;
+        }
+        return autores;
+    }
+    
+    private Map<String, CategoriaRef> resolverCategorias(List<Fila> filas, Contexto contexto, Bloque bloque) {
+        Map<String, CategoriaRef> categorias = new HashMap<>(contexto.categorias);
+        Map<String, String> faltantes = new LinkedHashMap<>();
+        filas.stream().filter(fila -> !categorias.containsKey(clave(fila.categoria)))
+                .forEach(fila -> faltantes.putIfAbsent(clave(fila.categoria), fila.categoria));
+        if (faltantes.isEmpty()) {
+            return categorias;
+        }
+        
+        for (CategoriaRef ref : categoriaRepo.buscarRefsPorNombres(faltantes.keySet())) {
+            String clave = clave(ref.nombre());
+            if (faltantes.remove(clave) != null) {
+                categorias.put(clave, ref);
+                bloque.categorias.put(clave, ref);
+            }
+        }
+        for (Map.Entry<String, String> faltante : faltantes.entrySet()) {
+            Categoria categoria = new Categoria();
+            categoria.setNombre(faltante.getValue());
+            Categoria saved = categoriaRepo.save(categoria);
+            eventos.publishEvent(CategoriaEvento.guardado(saved));
+            CategoriaRef ref = new CategoriaRef(saved.getId(), saved.getNombre());
+            categorias.put(faltante.getKey(), ref);
+            bloque.categorias.put(faltante.getKey(), ref);
+            bloque.categoriasCreadas++;
+        }
+        return categorias;
+    }
+    
+    private Fila leer(CSVRecord registro) {
+        Fila fila = new Fila(registro);
+        LibroRequestDto datos = fila.getDatos();
+        try {
+            datos.setTitulo(LectorCsv.texto(registro, "titulo"));
+            String isbn = LectorCsv.texto(registro, "isbn");
+            datos.setIsbn(isbn != null ? isbn.toUpperCase() : null);
+            datos.setAnioPublicacion(LectorCsv.entero(registro, "anio_publicacion"));
+            datos.setCantidadTotal(LectorCsv.entero(registro, "cantidad_total"));
+            datos.setDescripcion(LectorCsv.texto(registro, "descripcion"));
+            fila.autor = LectorCsv.texto(registro, "autor");
+            fila.categoria = LectorCsv.texto(registro, "categoria");
+        } catch (NumberFormatException ex) {
+            fila.setError("Valor numérico inválido: " + ex.getMessage());
+            return fila;
+        }
+        
+        Stream<String> libro = PROPIEDADES.stream()
+                .flatMap(propiedad -> validator.validateProperty(datos, propiedad).stream())
+                .map(ConstraintViolation::getMessage);
+        Stream<String> autor = validator.validateValue(AutorRequestDto.class, "nombre", fila.autor).stream()
+                .map(violacion -> "Autor: " + violacion.getMessage());
+        Stream<String> categoria = validator.validateValue(CategoriaRequestDto.class, "nombre", fila.categoria).stream()
+                .map(violacion -> "Categoría: " + violacion.getMessage());
+        fila.setError(LectorCsv.error(Stream.of(libro, autor, categoria).flatMap(mensajes -> mensajes)));
+        return fila;
+    }
+    
+    private static String clave(String nombre) {
+        return nombre.trim().toLowerCase(Locale.ROOT);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,334 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.apache.commons.csv.CSVRecord;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.google.common.collect.Lists;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import pe.edu.cibertec.bibliotech.api.request.UsuarioRequestDto;
+import pe.edu.cibertec.bibliotech.api.response.ImportacionUsuariosResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.ImportacionUsuariosResponseDto.FilaRechazada;
+import pe.edu.cibertec.bibliotech.event.UsuarioEvento;
+import pe.edu.cibertec.bibliotech.event.UsuariosImportadosEvento;
+import pe.edu.cibertec.bibliotech.repository.PrestamoRepository;
+import pe.edu.cibertec.bibliotech.repository.UsuarioRepository;
+import pe.edu.cibertec.bibliotech.repository.projection.UsuarioPadron;
+import pe.edu.cibertec.bibliotech.service.support.FiltroClavesUnicas.Clave;
+import pe.edu.cibertec.bibliotech.service.support.LectorCsv.Lectura;
+
+/**
+ * Importación del padrón de alumnos desde un CSV con encabezado. Los DNI y emails
+ * registrados se cargan en memoria con una sola lectura al inicio, así cada fila se
+ * resuelve sin consultas: las filas de cada bloque se validan en paralelo, los DNI nuevos
+ * se insertan y los existentes se actualizan (y reactivan) con batch JDBC, en una
+ * transacción por bloque. Opcionalmente, al final se desactiva a los usuarios activos que
+ * no figuran en el padrón, salvo los que tienen préstamos pendientes.
+ */
+@Slf4j
+@Component
+public class ImportadorUsuarios {
+    
+    public static final List<String> COLUMNAS = List.of(
+            "dni", "nombre", "apellido", "email", "telefono", "direccion");
+    
+    private static final List<String> COLUMNAS_OBLIGATORIAS = List.of("dni", "nombre", "apellido", "email", "telefono");
+    
+    private static final String INSERT_USUARIO =
+            "INSERT INTO usuarios (nombre, apellido, dni, email, telefono, direccion, activo, " +
+            "fecha_registro, ultima_actualizacion) " +
+            "VALUES (:nombre, :apellido, :dni, :email, :telefono, :direccion, true, :fecha, :fecha)";
+    
+    // Sin dirección en el archivo se conserva la registrada
+    private static final String UPDATE_USUARIO =
+            "UPDATE usuarios SET nombre = :nombre, apellido = :apellido, email = :email, telefono = :telefono, " +
+            "direccion = COALESCE(:direccion, direccion), activo = true, ultima_actualizacion = :fecha WHERE id = :id";
+    
+    /**
+     * Una fila del CSV, validada con las mismas reglas que UsuarioRequestDto.
+     */
+    private static final class Fila extends LectorCsv.Fila<UsuarioRequestDto> {
+        
+        // Usuario registrado con el mismo DNI, si existe
+        private UsuarioPadron actual;
+        
+        private Fila(CSVRecord registro) {
+            super(registro, new UsuarioRequestDto());
+        }
+        
+        @Override
+        public String clave() {
+            return getDatos().getDni();
+        }
+    }
+    
+    // Estado de una importación: usuarios registrados y claves ya vistas en el archivo
+    private static final class Contexto {
+        private final Map<String, UsuarioPadron> porDni = new HashMap<>();
+        private final Map<String, Long> emails = new HashMap<>();
+        // Todos los DNI del archivo, incluso de filas rechazadas: no cuentan como ausentes
+        private final Set<String> presentes = new HashSet<>();
+        private final Set<String> dnis = new HashSet<>();
+        private final Set<String> emailsArchivo = new HashSet<>();
+        private final ImportacionUsuariosResponseDto resultado = new ImportacionUsuariosResponseDto();
+        private final Lectura<FilaRechazada> lectura;
+        
+        private Contexto(LectorCsv lector) {
+            lectura = lector.nueva(resultado, FilaRechazada::new);
+        }
+    }
+    
+    private final UsuarioRepository usuarioRepo;
+    private final PrestamoRepository prestamoRepo;
+    private final LectorCsv lector;
+    private final FiltroClavesUnicas filtroClaves;
+    private final NamedParameterJdbcTemplate jdbc;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventos;
+    private final TransactionTemplate escritura;
+    private final TransactionTemplate lectura;
+    
+    public ImportadorUsuarios(UsuarioRepository usuarioRepo, PrestamoRepository prestamoRepo, LectorCsv lector,
+                              FiltroClavesUnicas filtroClaves, NamedParameterJdbcTemplate jdbc, Validator validator,
+                              ApplicationEventPublisher eventos, PlatformTransactionManager transactionManager) {
+        this.usuarioRepo = usuarioRepo;
+        this.prestamoRepo = prestamoRepo;
+        this.lector = lector;
+        this.filtroClaves = filtroClaves;
+        this.jdbc = jdbc;
+        this.validator = validator;
+        this.eventos = eventos;
+        this.escritura = new TransactionTemplate(transactionManager);
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+    }
+    
+    public ImportacionUsuariosResponseDto importar(InputStream entrada, boolean desactivarAusentes) throws IOException {
+        long inicio = System.currentTimeMillis();
+        Contexto contexto = new Contexto(lector);
+        ImportacionUsuariosResponseDto resultado = contexto.resultado;
+        boolean completo = contexto.lectura.leer(entrada, COLUMNAS_OBLIGATORIAS, COLUMNAS,
+                () -> cargarRegistrados(contexto), this::leer, filas -> procesar(filas, contexto));
+        
+        resultado.setRechazados(resultado.getTotal() - resultado.getCreados()
+                - resultado.getActualizados() - resultado.getSinCambios());
+        if (desactivarAusentes) {
+            if (completo) {
+                desactivarAusentes(contexto);
+            } else {
+                // Con el padrón incompleto, todos los alumnos después del error parecerían ausentes
+                log.warn("Padrón leído de forma incompleta - no se desactivan usuarios ausentes");
+                resultado.setDesactivacionOmitida(true);
+            }
+        }
+        resultado.setDuracionMs(System.currentTimeMillis() - inicio);
+        log.info("✓ Importación de usuarios terminada - {} creados, {} actualizados, {} sin cambios, {} rechazados, " +
+                 "{} desactivados en {} ms", resultado.getCreados(), resultado.getActualizados(), resultado.getSinCambios(),
+                 resultado.getRechazados(), resultado.getDesactivados(), resultado.getDuracionMs());
+        return resultado;
+    }
+    
+    private void cargarRegistrados(Contexto contexto) {
+        lectura.executeWithoutResult(status -> {
+            try (Stream<UsuarioPadron> usuarios = usuarioRepo.streamPadron()) {
+                usuarios.forEach(usuario -> {
+                    contexto.porDni.put(usuario.dni(), usuario);
+                    contexto.emails.put(usuario.email(), usuario.id());
+                });
+            }
+        });
+        log.debug("Padrón: {} usuarios registrados cargados", contexto.porDni.size());
+    }
+    
+    private void procesar(List<Fila> filas, Contexto contexto) {
+        ImportacionUsuariosResponseDto resultado = contexto.resultado;
+        
+        // DNI y emails contra el archivo y contra los usuarios registrados, en memoria
+        List<Fila> guardables = new ArrayList<>();
+        for (Fila fila : filas) {
+            UsuarioRequestDto datos = fila.getDatos();
+            if (datos.getDni() != null) {
+                contexto.presentes.add(datos.getDni());
+            }
+            if (fila.getError() == null) {
+                fila.actual = contexto.porDni.get(datos.getDni());
+                fila.setError(conflicto(fila, contexto));
+            }
+            if (fila.getError() != null) {
+                contexto.lectura.rechazar(fila);
+            } else if (fila.actual != null && sinCambios(fila)) {
+                resultado.setSinCambios(resultado.getSinCambios() + 1);
+            } else {
+                guardables.add(fila);
+            }
+        }
+        contexto.lectura.guardar(guardables, bloque -> guardar(bloque, contexto));
+    }
+    
+    private String conflicto(Fila fila, Contexto contexto) {
+        UsuarioRequestDto datos = fila.getDatos();
+        if (!contexto.dnis.add(datos.getDni())) {
+            return "DNI repetido en el archivo: " + datos.getDni();
+        }
+        if (!contexto.emailsArchivo.add(datos.getEmail())) {
+            return "Email repetido en el archivo: " + datos.getEmail();
+        }
+        Long duenio = contexto.emails.get(datos.getEmail());
+        if (duenio != null && (fila.actual == null || !duenio.equals(fila.actual.id()))) {
+            return "Ya existe otro usuario con el email: " + datos.getEmail();
+        }
+        return null;
+    }
+    
+    // Inserta los DNI nuevos y actualiza (y reactiva) los existentes, en una transacción
+    private void guardar(List<Fila> filas, Contexto contexto) {
+        List<Fila> nuevas = filas.stream().filter(fila -> fila.actual == null).toList();
+        List<Fila> cambios = filas.stream().filter(fila -> fila.actual != null).toList();
+        List<UsuarioPadron> guardados = escritura.execute(status -> {
+            LocalDateTime ahora = LocalDateTime.now();
+            List<UsuarioPadron> usuarios = new ArrayList<>(nuevas.size() + cambios.size());
+            
+            if (!nuevas.isEmpty()) {
+                SqlParameterSource[] parametros = nuevas.stream()
+                        .map(fila -> parametros(fila, ahora))
+                        .toArray(SqlParameterSource[]::new);
+                KeyHolder ids = new GeneratedKeyHolder();
+                jdbc.batchUpdate(INSERT_USUARIO, parametros, ids, new String[] {"id"});
+                List<Map<String, Object>> claves = ids.getKeyList();
+                for (int i = 0; i < nuevas.size(); i++) {
+                    Long id = ((Number) claves.get(i).values().iterator().next()).longValue();
+                    usuarios.add(padron(id, nuevas.get(i), nuevas.get(i).getDatos().getDireccion()));
+                }
+            }
+            if (!cambios.isEmpty()) {
+                SqlParameterSource[] parametros = cambios.stream()
+                        .map(fila -> parametros(fila, ahora).addValue("id", fila.actual.id()))
+                        .toArray(SqlParameterSource[]::new);
+                jdbc.batchUpdate(UPDATE_USUARIO, parametros);
+                for (Fila fila : cambios) {
+                    String direccion = fila.getDatos().getDireccion();
+                    if (direccion == null) {
+                        direccion = fila.actual.direccion();
+                    }
+                    usuarios.add(padron(fila.actual.id(), fila, direccion));
+                }
+            }
+            
+            // Un evento por bloque: la instantánea de estadísticas se invalida después del commit
+            eventos.publishEvent(new UsuariosImportadosEvento(usuarios.stream()
+                    .map(usuario -> new UsuarioEvento(usuario.id(), true, false))
+                    .toList()));
+            // Dentro de la transacción, como en el alta individual (ver ImportadorLibros)
+            for (UsuarioPadron usuario : usuarios) {
+                filtroClaves.registrar(Clave.DNI, usuario.dni());
+                filtroClaves.registrar(Clave.EMAIL, usuario.email());
+            }
+            return usuarios;
+        });
+        
+        for (Fila fila : cambios) {
+            contexto.emails.remove(fila.actual.email(), fila.actual.id());
+        }
+        for (UsuarioPadron usuario : guardados) {
+            contexto.porDni.put(usuario.dni(), usuario);
+            contexto.emails.put(usuario.email(), usuario.id());
+        }
+        ImportacionUsuariosResponseDto resultado = contexto.resultado;
+        resultado.setCreados(resultado.getCreados() + nuevas.size());
+        resultado.setActualizados(resultado.getActualizados() + cambios.size());
+    }
+    
+    // Usuarios activos que no figuran en el archivo, por bloques de ids en transacciones cortas
+    private void desactivarAusentes(Contexto contexto) {
+        List<Long> ausentes = contexto.porDni.values().stream()
+                .filter(usuario -> Boolean.TRUE.equals(usuario.activo()) && !contexto.presentes.contains(usuario.dni()))
+                .map(UsuarioPadron::id)
+                .toList();
+        ImportacionUsuariosResponseDto resultado = contexto.resultado;
+        for (List<Long> ids : Lists.partition(ausentes, lector.tamanioLote())) {
+            escritura.executeWithoutResult(status -> {
+                Set<Long> conPendientes = new HashSet<>(prestamoRepo.buscarUsuariosConPendientes(ids));
+                List<Long> desactivables = ids.stream().filter(id -> !conPendientes.contains(id)).toList();
+                resultado.setAusentesConPrestamos(resultado.getAusentesConPrestamos() + conPendientes.size());
+                if (desactivables.isEmpty()) {
+                    return;
+                }
+                int desactivados = usuarioRepo.desactivarSinPendientes(desactivables, LocalDateTime.now());
+                eventos.publishEvent(new UsuariosImportadosEvento(desactivables.stream()
+                        .map(id -> new UsuarioEvento(id, false, false))
+                        .toList()));
+                resultado.setDesactivados(resultado.getDesactivados() + desactivados);
+            });
+        }
+        if (!ausentes.isEmpty()) {
+            log.info("Padrón: {} usuarios ausentes desactivados, {} con préstamos pendientes se mantienen activos",
+                     resultado.getDesactivados(), resultado.getAusentesConPrestamos());
+        }
+    }
+    
+    private Fila leer(CSVRecord registro) {
+        Fila fila = new Fila(registro);
+        UsuarioRequestDto datos = fila.getDatos();
+        datos.setDni(LectorCsv.texto(registro, "dni"));
+        datos.setNombre(LectorCsv.texto(registro, "nombre"));
+        datos.setApellido(LectorCsv.texto(registro, "apellido"));
+        String email = LectorCsv.texto(registro, "email");
+        datos.setEmail(email != null ? email.toLowerCase(Locale.ROOT) : null);
+        datos.setTelefono(LectorCsv.texto(registro, "telefono"));
+        datos.setDireccion(LectorCsv.texto(registro, "direccion"));
+        
+        fila.setError(LectorCsv.error(validator.validate(datos).stream().map(ConstraintViolation::getMessage)));
+        return fila;
+    }
+    
+    private static boolean sinCambios(Fila fila) {
+        UsuarioRequestDto datos = fila.getDatos();
+        UsuarioPadron actual = fila.actual;
+        return Boolean.TRUE.equals(actual.activo())
+                && datos.getNombre().equals(actual.nombre())
+                && datos.getApellido().equals(actual.apellido())
+                && datos.getEmail().equals(actual.email())
+                && datos.getTelefono().equals(actual.telefono())
+                && (datos.getDireccion() == null || datos.getDireccion().equals(actual.direccion()));
+    }
+    
+    private static MapSqlParameterSource parametros(Fila fila, LocalDateTime fecha) {
+        UsuarioRequestDto datos = fila.getDatos();
+        return new MapSqlParameterSource()
+                .addValue("nombre", datos.getNombre())
+                .addValue("apellido", datos.getApellido())
+                .addValue("dni", datos.getDni())
+                .addValue("email", datos.getEmail())
+                .addValue("telefono", datos.getTelefono())
+                .addValue("direccion", datos.getDireccion())
+                .addValue("fecha", fecha);
+    }
+    
+    private static UsuarioPadron padron(Long id, Fila fila, String direccion) {
+        UsuarioRequestDto datos = fila.getDatos();
+        return new UsuarioPadron(id, datos.getDni(), datos.getEmail(), datos.getNombre(), datos.getApellido(),
+                                 datos.getTelefono(), direccion, true);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,327 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+import pe.edu.cibertec.bibliotech.event.LibroEvento;
+import pe.edu.cibertec.bibliotech.event.LibrosImportadosEvento;
+import pe.edu.cibertec.bibliotech.event.PrestamoEvento;
+import pe.edu.cibertec.bibliotech.repository.LibroRepository;
+import pe.edu.cibertec.bibliotech.repository.projection.ResumenStock;
+import pe.edu.cibertec.bibliotech.repository.projection.StockLibro;
+
+/**
+ * Índice en memoria del stock de cada libro: arreglos indexados por id con la cantidad
+ * disponible, la total y la versión, y un BitSet por estado (con stock, sin stock, stock bajo).
+ * <p>
+ * Después de cada commit que toca el stock se relee la fila por clave primaria y se aplica
+ * solo si su versión es más nueva que la del índice, así no importa el orden en que lleguen
+ * los eventos. Los libros de los préstamos de una misma transacción se juntan y se releen
+ * con una sola consulta. Se reconstruye completo al arrancar y periódicamente, para corregir
+ * cambios hechos fuera de los servicios.
+ */
+@Slf4j
+@Component
+public class IndiceDisponibilidad {
+    
+    public enum Estado {
+        CON_STOCK, SIN_STOCK, STOCK_BAJO
+    }
+    
+    private final class Tabla {
+        
+        private int[] disponibles = new int[0];
+        private int[] totales = new int[0];
+        private long[] versiones = new long[0];
+        private final BitSet existentes = new BitSet();
+        private final BitSet conStock = new BitSet();
+        private final BitSet sinStock = new BitSet();
+        private final BitSet stockBajo = new BitSet();
+        // Los ids no se reutilizan: un libro eliminado no vuelve por una lectura atrasada
+        private final BitSet eliminados = new BitSet();
+        private long ejemplares;
+        private long ejemplaresDisponibles;
+        
+        private void aplicar(int id, int disponible, int total, long version) {
+            if (eliminados.get(id) || (existentes.get(id) && versiones[id] >= version)) {
+                return;
+            }
+            asegurarCapacidad(id);
+            descontar(id);
+            disponibles[id] = disponible;
+            totales[id] = total;
+            versiones[id] = version;
+            existentes.set(id);
+            ejemplares += total;
+            ejemplaresDisponibles += disponible;
+            
+            conStock.set(id, disponible > 0);
+            sinStock.set(id, disponible == 0);
+            stockBajo.set(id, disponible > 0 && disponible <= umbralStockBajo);
+        }
+        
+        private void quitar(int id) {
+            eliminados.set(id);
+            descontar(id);
+            existentes.clear(id);
+            conStock.clear(id);
+            sinStock.clear(id);
+            stockBajo.clear(id);
+        }
+        
+        private void descontar(int id) {
+            if (existentes.get(id)) {
+                ejemplares -= totales[id];
+                ejemplaresDisponibles -= disponibles[id];
+            }
+        }
+        
+        private void asegurarCapacidad(int id) {
+            if (id < disponibles.length) {
+                return;
+            }
+            int capacidad = (int) Math.min(Integer.MAX_VALUE - 8L, Math.max(id + 1L, disponibles.length * 3L / 2 + 16));
+            disponibles = Arrays.copyOf(disponibles, capacidad);
+            totales = Arrays.copyOf(totales, capacidad);
+            versiones = Arrays.copyOf(versiones, capacidad);
+        }
+        
+        private BitSet conjunto(Estado estado) {
+            return switch (estado) {
+                case CON_STOCK -> conStock;
+                case SIN_STOCK -> sinStock;
+                case STOCK_BAJO -> stockBajo;
+            };
+        }
+    }
+    
+    private final LibroRepository libroRepo;
+    private final TransactionTemplate lectura;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Clave del conjunto de libros tocados en la transacción en curso
+    private final Object librosDeLaTransaccion = new Object();
+    
+    @Value("${bibliotech.disponibilidad.umbral-stock-bajo:2}")
+    private int umbralStockBajo;
+    
+    private Tabla tabla = new Tabla();
+    
+    // Libros tocados mientras se reconstruye; se releen sobre la tabla nueva
+    private final Set<Long> tocados = new HashSet<>();
+    private boolean reconstruyendo;
+    private volatile boolean listo;
+    private volatile boolean fueraDeRango;
+    
+    public IndiceDisponibilidad(LibroRepository libroRepo, PlatformTransactionManager transactionManager) {
+        this.libroRepo = libroRepo;
+        // Los eventos llegan después del commit, con la conexión de la transacción todavía tomada:
+        // la relectura la reutiliza en lugar de pedir una segunda al pool (REQUIRES_NEW agotaba
+        // el pool cuando todas las conexiones eran de transacciones esperando su relectura)
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+    }
+    
+    public boolean isListo() {
+        return listo && !fueraDeRango;
+    }
+    
+    public int getUmbralStockBajo() {
+        return umbralStockBajo;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        long inicio = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            reconstruyendo = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        Tabla nueva = new Tabla();
+        long[] cargados = new long[1];
+        lectura.executeWithoutResult(status -> {
+            try (Stream<StockLibro> filas = libroRepo.streamStock()) {
+                filas.forEach(fila -> {
+                    if (enRango(fila.id())) {
+                        nueva.aplicar(fila.id().intValue(), fila.cantidadDisponible(), fila.cantidadTotal(), version(fila));
+                        cargados[0]++;
+                    }
+                });
+            }
+        });
+        
+        List<Long> pendientes;
+        lock.writeLock().lock();
+        try {
+            tabla = nueva;
+            reconstruyendo = false;
+            pendientes = new ArrayList<>(tocados);
+            tocados.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        pendientes.forEach(this::refrescar);
+        listo = true;
+        log.info("✓ Índice de disponibilidad construido - {} libros en {} ms",
+                 cargados[0], System.currentTimeMillis() - inicio);
+    }
+    
+    @Scheduled(cron = "${bibliotech.disponibilidad.recarga-cron:0 0 * * * *}")
+    public void recargar() {
+        reconstruir();
+    }
+    
+    @TransactionalEventListener
+    public void alCambiarLibro(LibroEvento evento) {
+        refrescar(evento.libroId());
+    }
+    
+    // Un lote publica un evento por préstamo: se acumulan los libros y se releen todos
+    // juntos después del commit (si hay rollback el conjunto se descarta)
+    @EventListener
+    public void alCambiarPrestamo(PrestamoEvento evento) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refrescar(evento.libroId());
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Long> libros = (Set<Long>) TransactionSynchronizationManager.getResource(librosDeLaTransaccion);
+        if (libros == null) {
+            Set<Long> nuevos = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(librosDeLaTransaccion, nuevos);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                
+                @Override
+                public void afterCommit() {
+                    refrescar(List.copyOf(nuevos));
+                }
+                
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(librosDeLaTransaccion);
+                }
+            });
+            libros = nuevos;
+        }
+        libros.add(evento.libroId());
+    }
+    
+    @TransactionalEventListener
+    public void alImportarLibros(LibrosImportadosEvento evento) {
+        refrescar(evento.libros().stream().map(LibroEvento::libroId).toList());
+    }
+    
+    /**
+     * Ids del estado indicado mayores que despuesDe, en orden ascendente; se saltan los
+     * primeros "saltar" (para la paginación por desplazamiento).
+     */
+    public List<Long> ids(Estado estado, long despuesDe, long saltar, int limite) {
+        lock.readLock().lock();
+        try {
+            BitSet conjunto = tabla.conjunto(estado);
+            List<Long> ids = new ArrayList<>(Math.min(limite, 256));
+            int desde = (int) Math.min(Math.max(despuesDe + 1, 0), Integer.MAX_VALUE);
+            for (int id = conjunto.nextSetBit(desde); id >= 0 && ids.size() < limite; id = conjunto.nextSetBit(id + 1)) {
+                if (saltar > 0) {
+                    saltar--;
+                } else {
+                    ids.add((long) id);
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public ResumenStock resumen() {
+        lock.readLock().lock();
+        try {
+            return new ResumenStock((long) tabla.conStock.cardinality(), (long) tabla.sinStock.cardinality(),
+                                    (long) tabla.stockBajo.cardinality(), tabla.ejemplares, tabla.ejemplaresDisponibles);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // Se relee la fila (o se confirma que ya no existe) y se aplica con control de versión
+    private void refrescar(Long libroId) {
+        if (!enRango(libroId)) {
+            return;
+        }
+        Optional<StockLibro> fila = lectura.execute(status -> libroRepo.buscarStock(libroId));
+        int id = libroId.intValue();
+        
+        lock.writeLock().lock();
+        try {
+            if (reconstruyendo) {
+                tocados.add(libroId);
+            }
+            if (fila != null && fila.isPresent()) {
+                tabla.aplicar(id, fila.get().cantidadDisponible(), fila.get().cantidadTotal(), version(fila.get()));
+            } else {
+                tabla.quitar(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // Relectura de un bloque de libros con una sola consulta
+    private void refrescar(List<Long> libroIds) {
+        List<Long> ids = libroIds.stream().filter(this::enRango).toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<StockLibro> filas = lectura.execute(status -> libroRepo.buscarStocks(ids));
+        
+        lock.writeLock().lock();
+        try {
+            if (reconstruyendo) {
+                tocados.addAll(ids);
+            }
+            if (filas != null) {
+                filas.forEach(fila -> tabla.aplicar(fila.id().intValue(), fila.cantidadDisponible(),
+                                                    fila.cantidadTotal(), version(fila)));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private boolean enRango(Long id) {
+        if (id > Integer.MAX_VALUE - 8) {
+            log.warn("Libro id={} fuera del rango del índice de disponibilidad; se usará la base", id);
+            fueraDeRango = true;
+            return false;
+        }
+        return true;
+    }
+    
+    private static long version(StockLibro fila) {
+        return fila.version() != null ? fila.version() : 0;
+    }
+}
\ No newline at end of file
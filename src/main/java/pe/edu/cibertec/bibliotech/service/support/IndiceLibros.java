@@ -0,0 +1,308 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+import pe.edu.cibertec.bibliotech.event.AutorEvento;
+import pe.edu.cibertec.bibliotech.event.LibroEvento;
+import pe.edu.cibertec.bibliotech.event.LibrosImportadosEvento;
+import pe.edu.cibertec.bibliotech.repository.LibroRepository;
+import pe.edu.cibertec.bibliotech.repository.projection.LibroIndexado;
+
+/**
+ * Índice invertido de trigramas sobre título, ISBN y nombre del autor.
+ * Se construye al arrancar y se mantiene con los eventos de libros y autores
+ * (después del commit). Mientras no está listo, las búsquedas van a la base de datos.
+ * <p>
+ * Los eventos de un mismo libro pueden llegar en otro orden que sus commits: se descartan
+ * los de versión no mayor que la indexada, y los ids eliminados no vuelven a indexarse
+ * (los ids no se reutilizan), como en IndiceDisponibilidad.
+ */
+@Slf4j
+@Component
+public class IndiceLibros {
+    
+    // Proporción mínima de trigramas de la consulta que debe tener un campo para ser candidato
+    private static final double COINCIDENCIA_MINIMA = 0.5;
+    
+    public enum Campo {
+        TITULO(1.0), ISBN(1.0), AUTOR(0.8);
+        
+        private final double peso;
+        
+        Campo(double peso) {
+            this.peso = peso;
+        }
+    }
+    
+    // trigramas: cantidad de trigramas distintos de cada campo, calculada al indexar
+    private record Documento(long id, Long autorId, long version, EnumMap<Campo, String> textos,
+                             EnumMap<Campo, Integer> trigramas) {
+    }
+    
+    private final LibroRepository libroRepo;
+    private final TransactionTemplate lectura;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    private Map<Long, Documento> documentos = new HashMap<>();
+    private EnumMap<Campo, Map<String, Set<Long>>> postings = nuevosPostings();
+    // Se conservan entre reconstrucciones: una lectura iniciada antes del borrado no lo revive
+    private final Set<Long> eliminados = new HashSet<>();
+    
+    // Eventos recibidos mientras se reconstruye; se aplican sobre el índice nuevo
+    private final List<Object> pendientes = new ArrayList<>();
+    private boolean reconstruyendo;
+    private volatile boolean listo;
+    
+    public IndiceLibros(LibroRepository libroRepo, PlatformTransactionManager transactionManager) {
+        this.libroRepo = libroRepo;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+    }
+    
+    public boolean isListo() {
+        return listo;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        long inicio = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            reconstruyendo = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        Map<Long, Documento> nuevosDocumentos = new HashMap<>();
+        EnumMap<Campo, Map<String, Set<Long>>> nuevosPostings = nuevosPostings();
+        lectura.executeWithoutResult(status -> {
+            try (Stream<LibroIndexado> libros = libroRepo.streamIndexados()) {
+                libros.forEach(libro -> agregar(nuevosDocumentos, nuevosPostings, libro.id(), libro.autorId(),
+                        version(libro.version()), textos(libro.titulo(), libro.isbn(), libro.autorNombre())));
+            }
+        });
+        
+        lock.writeLock().lock();
+        try {
+            documentos = nuevosDocumentos;
+            postings = nuevosPostings;
+            eliminados.forEach(this::quitar);
+            reconstruyendo = false;
+            pendientes.forEach(this::aplicar);
+            pendientes.clear();
+            listo = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("✓ Índice de búsqueda de libros construido - {} libros en {} ms",
+                 nuevosDocumentos.size(), System.currentTimeMillis() - inicio);
+    }
+    
+    @TransactionalEventListener
+    public void alCambiarLibro(LibroEvento evento) {
+        recibir(evento);
+    }
+    
+    @TransactionalEventListener
+    public void alImportarLibros(LibrosImportadosEvento evento) {
+        evento.libros().forEach(this::recibir);
+    }
+    
+    @TransactionalEventListener
+    public void alCambiarAutor(AutorEvento evento) {
+        recibir(evento);
+    }
+    
+    /**
+     * Ids de los k libros más relevantes para la consulta, de mayor a menor puntaje.
+     */
+    public List<Long> buscar(String consulta, int k, Set<Campo> campos) {
+        String normalizada = Texto.normalizar(consulta);
+        Set<String> trigramasConsulta = Texto.trigramas(normalizada);
+        if (trigramasConsulta.isEmpty() || k <= 0) {
+            return List.of();
+        }
+        
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> puntajes = new HashMap<>();
+            for (Campo campo : campos) {
+                Map<Long, Integer> coincidencias = new HashMap<>();
+                Map<String, Set<Long>> indiceCampo = postings.get(campo);
+                for (String trigrama : trigramasConsulta) {
+                    Set<Long> ids = indiceCampo.get(trigrama);
+                    if (ids != null) {
+                        ids.forEach(id -> coincidencias.merge(id, 1, Integer::sum));
+                    }
+                }
+                coincidencias.forEach((id, cantidad) -> {
+                    Documento doc = documentos.get(id);
+                    double puntaje = puntaje(campo, doc.textos().get(campo), doc.trigramas().get(campo),
+                                             normalizada, cantidad, trigramasConsulta.size());
+                    if (puntaje > 0) {
+                        puntajes.merge(id, puntaje, Math::max);
+                    }
+                });
+            }
+            return mejores(puntajes, k);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public List<Long> buscar(String consulta, int k) {
+        return buscar(consulta, k, EnumSet.allOf(Campo.class));
+    }
+    
+    private void recibir(Object evento) {
+        lock.writeLock().lock();
+        try {
+            if (reconstruyendo) {
+                pendientes.add(evento);
+            } else {
+                aplicar(evento);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // Debe llamarse con el write lock tomado
+    private void aplicar(Object evento) {
+        if (evento instanceof LibroEvento libro) {
+            if (libro.eliminado()) {
+                eliminados.add(libro.libroId());
+                quitar(libro.libroId());
+                return;
+            }
+            Documento actual = documentos.get(libro.libroId());
+            if (eliminados.contains(libro.libroId())
+                    || (actual != null && actual.version() >= version(libro.version()))) {
+                return;
+            }
+            quitar(libro.libroId());
+            agregar(documentos, postings, libro.libroId(), libro.autorId(), version(libro.version()),
+                    textos(libro.titulo(), libro.isbn(), libro.autorNombre()));
+        } else if (evento instanceof AutorEvento autor && !autor.eliminado()) {
+            List<Documento> delAutor = documentos.values().stream()
+                    .filter(doc -> autor.autorId().equals(doc.autorId()))
+                    .toList();
+            for (Documento doc : delAutor) {
+                quitar(doc.id());
+                EnumMap<Campo, String> textos = new EnumMap<>(doc.textos());
+                textos.put(Campo.AUTOR, Texto.normalizar(autor.nombre()));
+                agregar(documentos, postings, doc.id(), doc.autorId(), doc.version(), textos);
+            }
+        }
+    }
+    
+    private void quitar(Long id) {
+        Documento anterior = documentos.remove(id);
+        if (anterior == null) {
+            return;
+        }
+        anterior.textos().forEach((campo, texto) -> {
+            Map<String, Set<Long>> indiceCampo = postings.get(campo);
+            for (String trigrama : Texto.trigramas(texto)) {
+                Set<Long> ids = indiceCampo.get(trigrama);
+                if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                    indiceCampo.remove(trigrama);
+                }
+            }
+        });
+    }
+    
+    private static void agregar(Map<Long, Documento> documentos, EnumMap<Campo, Map<String, Set<Long>>> postings,
+                                long id, Long autorId, long version, EnumMap<Campo, String> textos) {
+        EnumMap<Campo, Integer> trigramas = new EnumMap<>(Campo.class);
+        textos.forEach((campo, texto) -> {
+            Map<String, Set<Long>> indiceCampo = postings.get(campo);
+            Set<String> trigramasTexto = Texto.trigramas(texto);
+            for (String trigrama : trigramasTexto) {
+                indiceCampo.computeIfAbsent(trigrama, t -> new HashSet<>()).add(id);
+            }
+            trigramas.put(campo, trigramasTexto.size());
+        });
+        documentos.put(id, new Documento(id, autorId, version, textos, trigramas));
+    }
+    
+    private static long version(Long version) {
+        return version != null ? version : 0;
+    }
+    
+    private static EnumMap<Campo, String> textos(String titulo, String isbn, String autorNombre) {
+        EnumMap<Campo, String> textos = new EnumMap<>(Campo.class);
+        textos.put(Campo.TITULO, Texto.normalizar(titulo));
+        textos.put(Campo.ISBN, Texto.normalizar(isbn));
+        textos.put(Campo.AUTOR, Texto.normalizar(autorNombre));
+        return textos;
+    }
+    
+    /**
+     * Proporción de trigramas de la consulta presentes en el campo, con un ajuste
+     * por la longitud del campo y bonificaciones si contiene la consulta completa o empieza por ella.
+     */
+    private static double puntaje(Campo campo, String texto, int trigramasCampo, String consulta,
+                                  int coincidencias, int trigramasConsulta) {
+        double cobertura = (double) coincidencias / trigramasConsulta;
+        if (cobertura < COINCIDENCIA_MINIMA) {
+            return 0;
+        }
+        int trigramasTexto = Math.max(trigramasCampo, 1);
+        double puntaje = 0.85 * cobertura + 0.15 * Math.min(1.0, (double) coincidencias / trigramasTexto);
+        if (texto.contains(consulta)) {
+            puntaje += 0.5;
+            if (texto.startsWith(consulta)) {
+                puntaje += 0.25;
+            }
+        }
+        return puntaje * campo.peso;
+    }
+    
+    private static List<Long> mejores(Map<Long, Double> puntajes, int k) {
+        Comparator<Map.Entry<Long, Double>> orden = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed());
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(orden);
+        for (Map.Entry<Long, Double> entrada : puntajes.entrySet()) {
+            heap.offer(entrada);
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        }
+        List<Long> ids = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            ids.add(heap.poll().getKey());
+        }
+        Collections.reverse(ids);
+        return ids;
+    }
+    
+    private static EnumMap<Campo, Map<String, Set<Long>>> nuevosPostings() {
+        EnumMap<Campo, Map<String, Set<Long>>> postings = new EnumMap<>(Campo.class);
+        for (Campo campo : Campo.values()) {
+            postings.put(campo, new HashMap<>());
+        }
+        return postings;
+    }
+}
\ No newline at end of file
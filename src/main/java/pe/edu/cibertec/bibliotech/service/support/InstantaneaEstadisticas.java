@@ -0,0 +1,135 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+import pe.edu.cibertec.bibliotech.event.LibroEvento;
+import pe.edu.cibertec.bibliotech.event.LibrosImportadosEvento;
+import pe.edu.cibertec.bibliotech.event.PrestamoEvento;
+import pe.edu.cibertec.bibliotech.event.UsuarioEvento;
+import pe.edu.cibertec.bibliotech.event.UsuariosImportadosEvento;
+import pe.edu.cibertec.bibliotech.repository.LibroRepository;
+import pe.edu.cibertec.bibliotech.repository.PrestamoRepository;
+import pe.edu.cibertec.bibliotech.repository.UsuarioRepository;
+import pe.edu.cibertec.bibliotech.repository.projection.ResumenPrestamos;
+import pe.edu.cibertec.bibliotech.repository.projection.ResumenStock;
+import pe.edu.cibertec.bibliotech.repository.projection.ResumenUsuarios;
+
+/**
+ * Última instantánea de las estadísticas del panel: una consulta agregada por tabla
+ * (los libros salen del índice de disponibilidad cuando está listo). Se recalcula al
+ * leerla si supera la antigüedad máxima, o si hubo escrituras y ya pasó la antigüedad
+ * mínima, de modo que una ráfaga de escrituras no recalcula en cada lectura.
+ */
+@Slf4j
+@Component
+public class InstantaneaEstadisticas {
+    
+    public record Instantanea(
+        ResumenStock libros,
+        ResumenPrestamos prestamos,
+        ResumenUsuarios usuarios,
+        LocalDateTime generadaEn,
+        long nanos
+    ) {
+    }
+    
+    private final LibroRepository libroRepo;
+    private final PrestamoRepository prestamoRepo;
+    private final UsuarioRepository usuarioRepo;
+    private final IndiceDisponibilidad disponibilidad;
+    private final TransactionTemplate lectura;
+    private final long antiguedadMinima;
+    private final long antiguedadMaxima;
+    
+    private volatile Instantanea actual;
+    // Hubo escrituras confirmadas después de tomar la instantánea actual
+    private volatile boolean modificada;
+    
+    public InstantaneaEstadisticas(LibroRepository libroRepo, PrestamoRepository prestamoRepo,
+                                   UsuarioRepository usuarioRepo, IndiceDisponibilidad disponibilidad,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${bibliotech.estadisticas.antiguedad-minima:5s}") Duration antiguedadMinima,
+                                   @Value("${bibliotech.estadisticas.antiguedad-maxima:1m}") Duration antiguedadMaxima) {
+        this.libroRepo = libroRepo;
+        this.prestamoRepo = prestamoRepo;
+        this.usuarioRepo = usuarioRepo;
+        this.disponibilidad = disponibilidad;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+        this.antiguedadMinima = antiguedadMinima.toNanos();
+        this.antiguedadMaxima = antiguedadMaxima.toNanos();
+    }
+    
+    public Instantanea obtener() {
+        Instantanea instantanea = actual;
+        if (vigente(instantanea)) {
+            return instantanea;
+        }
+        // Un solo hilo recalcula; los demás esperan y reciben el mismo resultado
+        synchronized (this) {
+            instantanea = actual;
+            if (vigente(instantanea)) {
+                return instantanea;
+            }
+            modificada = false;
+            actual = calcular();
+            return actual;
+        }
+    }
+    
+    @TransactionalEventListener
+    public void alCambiarPrestamo(PrestamoEvento evento) {
+        modificada = true;
+    }
+    
+    @TransactionalEventListener
+    public void alCambiarLibro(LibroEvento evento) {
+        modificada = true;
+    }
+    
+    @TransactionalEventListener
+    public void alImportarLibros(LibrosImportadosEvento evento) {
+        modificada = true;
+    }
+    
+    @TransactionalEventListener
+    public void alCambiarUsuario(UsuarioEvento evento) {
+        modificada = true;
+    }
+    
+    @TransactionalEventListener
+    public void alImportarUsuarios(UsuariosImportadosEvento evento) {
+        modificada = true;
+    }
+    
+    private boolean vigente(Instantanea instantanea) {
+        if (instantanea == null) {
+            return false;
+        }
+        long antiguedad = System.nanoTime() - instantanea.nanos();
+        return antiguedad < antiguedadMaxima && (!modificada || antiguedad < antiguedadMinima);
+    }
+    
+    private Instantanea calcular() {
+        long inicio = System.nanoTime();
+        Instantanea instantanea = lectura.execute(status -> new Instantanea(
+                disponibilidad.isListo()
+                        ? disponibilidad.resumen()
+                        : libroRepo.resumenStock(disponibilidad.getUmbralStockBajo()),
+                prestamoRepo.resumenPorEstado(LocalDate.now()),
+                usuarioRepo.resumenUsuarios(),
+                LocalDateTime.now(),
+                inicio));
+        log.debug("Estadísticas recalculadas en {} ms", Duration.ofNanos(System.nanoTime() - inicio).toMillis());
+        return instantanea;
+    }
+}
\ No newline at end of file
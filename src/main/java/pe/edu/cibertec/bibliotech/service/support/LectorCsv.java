@@ -0,0 +1,217 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import pe.edu.cibertec.bibliotech.api.response.ResultadoImportacion;
+import pe.edu.cibertec.bibliotech.exception.BusinessException;
+
+/**
+ * Lectura por bloques de los CSV de importación (ImportadorLibros, ImportadorUsuarios).
+ * Valida el encabezado, entrega las filas de a bibliotech.importacion.tamanio-lote ya
+ * leídas en paralelo, informa un CSV mal formado como fila rechazada y, si la base rechaza
+ * un bloque, lo reintenta fila por fila para aislar las culpables. Cada importador conserva
+ * solo la lectura de sus columnas y la resolución y escritura de sus entidades.
+ */
+@Slf4j
+@Component
+public class LectorCsv {
+    
+    private static final CSVFormat FORMATO = CSVFormat.DEFAULT.builder()
+            .setHeader()
+            .setSkipHeaderRecord(true)
+            .setIgnoreHeaderCase(true)
+            .setIgnoreEmptyLines(true)
+            .setTrim(true)
+            .build();
+    
+    /**
+     * Una fila de datos del CSV con los valores leídos (D) y, si se rechaza, el motivo.
+     * El encabezado no cuenta: la primera fila de datos es la 1.
+     */
+    @Getter
+    public abstract static class Fila<D> {
+        
+        private final long numero;
+        private final D datos;
+        @Setter
+        private String error;
+        
+        protected Fila(CSVRecord registro, D datos) {
+            this.numero = registro.getRecordNumber();
+            this.datos = datos;
+        }
+        
+        // Lo que identifica a la fila en el detalle de rechazos (ISBN, DNI)
+        public abstract String clave();
+    }
+    
+    // Crea el detalle de una fila rechazada del resultado
+    @FunctionalInterface
+    public interface Rechazo<E> {
+        E crear(long fila, String clave, String error);
+    }
+    
+    @Value("${bibliotech.importacion.tamanio-lote:500}")
+    private int tamanioLote;
+    
+    @Value("${bibliotech.importacion.max-errores:1000}")
+    private int maxErrores;
+    
+    public int tamanioLote() {
+        return tamanioLote;
+    }
+    
+    public <E> Lectura<E> nueva(ResultadoImportacion<E> resultado, Rechazo<E> rechazo) {
+        return new Lectura<>(resultado, rechazo);
+    }
+    
+    /**
+     * Una importación en curso: acumula el total de filas y los rechazos en el resultado.
+     */
+    public final class Lectura<E> {
+        
+        private final ResultadoImportacion<E> resultado;
+        private final Rechazo<E> rechazo;
+        
+        private Lectura(ResultadoImportacion<E> resultado, Rechazo<E> rechazo) {
+            this.resultado = resultado;
+            this.rechazo = rechazo;
+        }
+        
+        public <F extends Fila<?>> boolean leer(InputStream entrada, List<String> obligatorias, List<String> admitidas,
+                                                Function<CSVRecord, F> leerFila, Consumer<List<F>> procesar)
+                throws IOException {
+            return leer(entrada, obligatorias, admitidas, () -> { }, leerFila, procesar);
+        }
+        
+        /**
+         * Lee el archivo completo y entrega cada bloque de filas a procesar. alIniciar corre
+         * con el encabezado ya validado, antes del primer bloque. Devuelve false si el CSV está
+         * mal formado: lo importado hasta ese punto se conserva.
+         */
+        public <F extends Fila<?>> boolean leer(InputStream entrada, List<String> obligatorias, List<String> admitidas,
+                                                Runnable alIniciar, Function<CSVRecord, F> leerFila,
+                                                Consumer<List<F>> procesar) throws IOException {
+            boolean completo = true;
+            try (Reader lector = new InputStreamReader(entrada, StandardCharsets.UTF_8);
+                 CSVParser parser = FORMATO.parse(lector)) {
+                Set<String> encabezados = parser.getHeaderNames().stream()
+                        .map(nombre -> nombre.toLowerCase(Locale.ROOT))
+                        .collect(Collectors.toSet());
+                List<String> faltantes = obligatorias.stream().filter(c -> !encabezados.contains(c)).toList();
+                if (!faltantes.isEmpty()) {
+                    throw new BusinessException("Faltan columnas en el CSV: " + String.join(", ", faltantes)
+                            + ". Columnas admitidas: " + String.join(", ", admitidas));
+                }
+                
+                alIniciar.run();
+                
+                List<CSVRecord> registros = new ArrayList<>(tamanioLote);
+                try {
+                    for (CSVRecord registro : parser) {
+                        registros.add(registro);
+                        if (registros.size() == tamanioLote) {
+                            bloque(registros, leerFila, procesar);
+                            registros.clear();
+                        }
+                    }
+                } catch (UncheckedIOException ex) {
+                    // CSV mal formado (p. ej. comillas sin cerrar): se conserva lo importado hasta aquí
+                    completo = false;
+                    resultado.setTotal(resultado.getTotal() + 1);
+                    rechazar(parser.getRecordNumber() + 1, null, "CSV mal formado: " + ex.getCause().getMessage());
+                }
+                if (!registros.isEmpty()) {
+                    bloque(registros, leerFila, procesar);
+                }
+            }
+            return completo;
+        }
+        
+        private <F extends Fila<?>> void bloque(List<CSVRecord> registros, Function<CSVRecord, F> leerFila,
+                                                Consumer<List<F>> procesar) {
+            resultado.setTotal(resultado.getTotal() + registros.size());
+            // Leer y validar en paralelo (el orden de las filas se conserva)
+            procesar.accept(registros.parallelStream().map(leerFila).toList());
+        }
+        
+        /**
+         * Guarda las filas en una sola operación; si la base la rechaza, reintenta fila por
+         * fila y rechaza solo las que vuelven a fallar.
+         */
+        public <F extends Fila<?>> void guardar(List<F> filas, Consumer<List<F>> guardar) {
+            if (filas.isEmpty()) {
+                return;
+            }
+            try {
+                guardar.accept(filas);
+            } catch (DataAccessException ex) {
+                log.warn("Bloque de importación rechazado por la base ({} filas); se reintenta fila por fila: {}",
+                         filas.size(), NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+                for (F fila : filas) {
+                    try {
+                        guardar.accept(List.of(fila));
+                    } catch (DataAccessException exFila) {
+                        rechazar(fila.getNumero(), fila.clave(),
+                                 "No se pudo guardar: " + NestedExceptionUtils.getMostSpecificCause(exFila).getMessage());
+                    }
+                }
+            }
+        }
+        
+        public void rechazar(Fila<?> fila) {
+            rechazar(fila.getNumero(), fila.clave(), fila.getError());
+        }
+        
+        private void rechazar(long numero, String clave, String error) {
+            if (resultado.getErrores().size() >= maxErrores) {
+                resultado.setErroresTruncados(true);
+                return;
+            }
+            resultado.getErrores().add(rechazo.crear(numero, clave, error));
+        }
+    }
+    
+    // Mensajes de validación de una fila, ordenados; null si no hay ninguno
+    public static String error(Stream<String> mensajes) {
+        String error = mensajes.sorted().collect(Collectors.joining("; "));
+        return error.isEmpty() ? null : error;
+    }
+    
+    public static String texto(CSVRecord registro, String columna) {
+        if (!registro.isMapped(columna) || !registro.isSet(columna)) {
+            return null;
+        }
+        String valor = registro.get(columna);
+        return valor.isEmpty() ? null : valor;
+    }
+    
+    public static Integer entero(CSVRecord registro, String columna) {
+        String valor = texto(registro, columna);
+        return valor != null ? Integer.valueOf(valor) : null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+/**
+ * Lecturas fila a fila para las exportaciones y los reportes. Con MySQL, un fetch size de
+ * Integer.MIN_VALUE hace que Connector/J entregue las filas a medida que llegan en lugar de
+ * cargar el resultado completo; el resto de las consultas de la aplicación no se ven afectadas.
+ * Mientras el Stream está abierto la conexión no admite otras sentencias.
+ */
+@Component
+public class LecturaEnStreaming {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    // H2 (pruebas) no acepta un fetch size negativo: se configura uno positivo
+    @Value("${bibliotech.exportacion.fetch-size:" + Integer.MIN_VALUE + "}")
+    private int fetchSize;
+    
+    public <T> Stream<T> leer(String jpql, Class<T> tipo) {
+        return leer(jpql, tipo, consulta -> { });
+    }
+    
+    public <T> Stream<T> leer(String jpql, Class<T> tipo, Consumer<TypedQuery<T>> parametros) {
+        TypedQuery<T> consulta = entityManager.createQuery(jpql, tipo)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        parametros.accept(consulta);
+        return consulta.getResultStream();
+    }
+}
\ No newline at end of file
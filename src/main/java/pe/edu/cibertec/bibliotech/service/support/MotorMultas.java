@@ -0,0 +1,78 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import pe.edu.cibertec.bibliotech.entity.Categoria;
+import pe.edu.cibertec.bibliotech.repository.PrestamoRepository;
+import pe.edu.cibertec.bibliotech.repository.SaldoMultasRepository;
+
+/**
+ * Multas por atraso: días de atraso x tarifa diaria, hasta un tope por préstamo. Las tarifas
+ * se configuran por categoría y, sin valor, se usan las de bibliotech.multas. Mantiene
+ * saldos_multas dentro de la transacción que devuelve, cancela o devenga los préstamos;
+ * siempre escribe los préstamos antes que el saldo, para bloquear las filas en el mismo orden.
+ */
+@Component
+@Transactional(propagation = Propagation.MANDATORY)
+public class MotorMultas {
+    
+    private final PrestamoRepository prestamoRepo;
+    private final SaldoMultasRepository saldoRepo;
+    private final BigDecimal tarifaDiaria;
+    private final BigDecimal tope;
+    
+    public MotorMultas(PrestamoRepository prestamoRepo, SaldoMultasRepository saldoRepo,
+                       @Value("${bibliotech.multas.tarifa-diaria:0.50}") BigDecimal tarifaDiaria,
+                       @Value("${bibliotech.multas.tope:20.00}") BigDecimal tope) {
+        this.prestamoRepo = prestamoRepo;
+        this.saldoRepo = saldoRepo;
+        this.tarifaDiaria = tarifaDiaria;
+        this.tope = tope;
+    }
+    
+    public BigDecimal calcular(Categoria categoria, long diasAtraso) {
+        if (diasAtraso <= 0) {
+            return BigDecimal.ZERO.setScale(2);
+        }
+        BigDecimal tarifa = categoria.getMultaDiaria() != null ? categoria.getMultaDiaria() : tarifaDiaria;
+        BigDecimal maximo = categoria.getMultaMaxima() != null ? categoria.getMultaMaxima() : tope;
+        return tarifa.multiply(BigDecimal.valueOf(diasAtraso)).min(maximo).setScale(2, RoundingMode.HALF_UP);
+    }
+    
+    // Préstamos ya guardados como DEVUELTO con su multa: pasa la multa de devengado a adeudado
+    public void registrarDevueltos(Collection<Long> prestamoIds) {
+        LocalDateTime ahora = LocalDateTime.now();
+        saldoRepo.asegurar(prestamoIds, ahora);
+        saldoRepo.sumarAdeudado(prestamoIds, ahora);
+        saldoRepo.recalcularDevengado(prestamoIds, ahora);
+    }
+    
+    // Devoluciones en lote: fija la multa con una actualización por conjunto
+    public void liquidar(Collection<Long> prestamoIds, LocalDate fecha) {
+        prestamoRepo.liquidarMultas(prestamoIds, fecha, tarifaDiaria, tope);
+        registrarDevueltos(prestamoIds);
+    }
+    
+    // Devengo nocturno de un bloque de préstamos abiertos con atraso
+    public int devengar(Collection<Long> prestamoIds, LocalDate fecha) {
+        int actualizados = prestamoRepo.devengarMultas(prestamoIds, fecha, tarifaDiaria, tope);
+        LocalDateTime ahora = LocalDateTime.now();
+        saldoRepo.asegurar(prestamoIds, ahora);
+        saldoRepo.recalcularDevengado(prestamoIds, ahora);
+        return actualizados;
+    }
+    
+    // Tras cancelar un préstamo, que pudo tener multa devengada
+    public void recalcular(Long usuarioId) {
+        saldoRepo.recalcularDevengadoDeUsuario(usuarioId, LocalDateTime.now());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,106 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import pe.edu.cibertec.bibliotech.api.request.PaginaRequestDto;
+import pe.edu.cibertec.bibliotech.api.response.PaginaResponseDto;
+
+/**
+ * Ejecuta una consulta paginada y arma la respuesta con el cursor siguiente.
+ * Las consultas reciben el último id visto (keyset: WHERE id > :despuesDe ORDER BY id)
+ * y un Pageable que limita las filas, así nunca se carga un resultado sin tope.
+ */
+@Component
+public class Paginador {
+    
+    // Tope de resultados alcanzables en las búsquedas por relevancia
+    static final int MAX_POSICION_RANKING = 10_000;
+    
+    @Value("${bibliotech.paginacion.tamanio-defecto:20}")
+    private int tamanioDefecto;
+    
+    @Value("${bibliotech.paginacion.tamanio-maximo:200}")
+    private int tamanioMaximo;
+    
+    public <R, T> PaginaResponseDto<T> paginar(PaginaRequestDto solicitud,
+                                              BiFunction<Long, Pageable, List<R>> consulta,
+                                              Function<R, Long> id,
+                                              Function<R, T> mapeo) {
+        PaginaRequestDto pagina = solicitud != null ? solicitud : new PaginaRequestDto();
+        int tamanio = tamanio(pagina);
+        
+        List<R> filas;
+        boolean hayMas;
+        if (pagina.isPorDesplazamiento()) {
+            // OFFSET: se piden exactamente "tamanio" filas; una página llena indica que puede haber más
+            filas = consulta.apply(0L, PageRequest.of(pagina.getPagina(), tamanio));
+            hayMas = filas.size() == tamanio;
+        } else {
+            // Keyset: se pide una fila extra solo para saber si existe página siguiente
+            Long despuesDe = pagina.getCursor() != null ? pagina.getCursor() : 0L;
+            filas = consulta.apply(despuesDe, PageRequest.of(0, tamanio + 1));
+            hayMas = filas.size() > tamanio;
+            if (hayMas) {
+                filas = filas.subList(0, tamanio);
+            }
+        }
+        
+        PaginaResponseDto<T> respuesta = new PaginaResponseDto<>();
+        respuesta.setContenido(filas.stream().map(mapeo).toList());
+        respuesta.setTamanio(tamanio);
+        respuesta.setPagina(pagina.getPagina());
+        respuesta.setHayMas(hayMas);
+        // El cursor solo se ofrece en modo keyset: junto con "pagina" la validación lo rechaza
+        if (hayMas && !pagina.isPorDesplazamiento()) {
+            respuesta.setSiguienteCursor(id.apply(filas.get(filas.size() - 1)));
+        }
+        return respuesta;
+    }
+    
+    /**
+     * Pagina resultados ordenados por relevancia (no por id): se piden los k mejores ids
+     * necesarios para la página solicitada y solo esos se cargan. Como no hay un id por el
+     * que continuar, el cursor es la posición del primer resultado de la página siguiente.
+     * Más allá de MAX_POSICION_RANKING no se devuelven resultados.
+     */
+    public <T> PaginaResponseDto<T> paginarRanking(PaginaRequestDto solicitud,
+                                                  IntFunction<List<Long>> mejores,
+                                                  Function<List<Long>, List<T>> cargar) {
+        PaginaRequestDto pagina = solicitud != null ? solicitud : new PaginaRequestDto();
+        int tamanio = tamanio(pagina);
+        long posicion = pagina.isPorDesplazamiento()
+                ? (long) pagina.getPagina() * tamanio
+                : pagina.getCursor() != null ? pagina.getCursor() : 0L;
+        int desde = (int) Math.min(posicion, MAX_POSICION_RANKING);
+        int hasta = Math.min(desde + tamanio, MAX_POSICION_RANKING);
+        
+        List<Long> ids = desde < hasta ? mejores.apply(hasta + 1) : List.of();
+        boolean hayMas = ids.size() > hasta && hasta < MAX_POSICION_RANKING;
+        List<Long> idsPagina = ids.subList(Math.min(desde, ids.size()), Math.min(hasta, ids.size()));
+        
+        PaginaResponseDto<T> respuesta = new PaginaResponseDto<>();
+        respuesta.setContenido(cargar.apply(idsPagina));
+        respuesta.setTamanio(tamanio);
+        respuesta.setPagina(pagina.getPagina());
+        respuesta.setHayMas(hayMas);
+        if (hayMas && !pagina.isPorDesplazamiento()) {
+            respuesta.setSiguienteCursor((long) hasta);
+        }
+        return respuesta;
+    }
+    
+    private int tamanio(PaginaRequestDto pagina) {
+        if (pagina.getTamanio() == null) {
+            return tamanioDefecto;
+        }
+        return Math.min(pagina.getTamanio(), tamanioMaximo);
+    }
+}
\ No newline at end of file
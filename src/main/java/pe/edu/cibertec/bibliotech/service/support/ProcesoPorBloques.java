@@ -0,0 +1,80 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Recorre por keyset los ids que devuelve una consulta (WHERE id > :despuesDe ORDER BY id)
+ * y aplica una acción por conjunto a cada bloque en su propia transacción, de modo que nunca
+ * se hidratan entidades ni se bloquea toda la tabla. Registra las filas afectadas y la
+ * duración en las métricas indicadas. Lo usan BarridoVencidos y DevengoMultas.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProcesoPorBloques {
+    
+    /**
+     * Métricas y textos de log de un proceso.
+     */
+    public record Definicion(String nombre, String contador, String temporizador, int tamanioLote) {
+    }
+    
+    public record Resultado(int actualizados, int lotes, long duracionMs) {
+    }
+    
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry registry;
+    
+    /**
+     * @param ids    siguiente bloque de ids mayores que el último visto, limitado por el Pageable
+     * @param accion actualización por conjunto del bloque; devuelve las filas afectadas
+     */
+    public Resultado ejecutar(Definicion definicion, BiFunction<Long, Pageable, List<Long>> ids,
+                              Function<List<Long>, Integer> accion) {
+        int tamanioLote = definicion.tamanioLote();
+        long inicio = System.nanoTime();
+        log.info("Iniciando {} (bloques de {})", definicion.nombre(), tamanioLote);
+        
+        int actualizados = 0;
+        int lotes = 0;
+        Long ultimoId = 0L;
+        
+        while (true) {
+            List<Long> bloque = ids.apply(ultimoId, PageRequest.of(0, tamanioLote));
+            if (bloque.isEmpty()) {
+                break;
+            }
+            
+            Integer filas = transactionTemplate.execute(status -> accion.apply(bloque));
+            actualizados += filas != null ? filas : 0;
+            lotes++;
+            ultimoId = bloque.get(bloque.size() - 1);
+            
+            if (bloque.size() < tamanioLote) {
+                break;
+            }
+        }
+        
+        long duracionNs = System.nanoTime() - inicio;
+        registry.counter(definicion.contador()).increment(actualizados);
+        registry.timer(definicion.temporizador()).record(duracionNs, TimeUnit.NANOSECONDS);
+        
+        Resultado resultado = new Resultado(actualizados, lotes, TimeUnit.NANOSECONDS.toMillis(duracionNs));
+        log.info("✓ Terminó el {} - {} filas actualizadas en {} bloque(s), {} ms",
+                 definicion.nombre(), actualizados, lotes, resultado.duracionMs());
+        
+        return resultado;
+    }
+}
@@ -0,0 +1,288 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+import pe.edu.cibertec.bibliotech.event.LibroEvento;
+import pe.edu.cibertec.bibliotech.event.PrestamoEvento;
+import pe.edu.cibertec.bibliotech.repository.PrestamoRepository;
+import pe.edu.cibertec.bibliotech.repository.projection.ConteoPorId;
+import pe.edu.cibertec.bibliotech.repository.projection.PrestamoDelDia;
+
+/**
+ * Ventanas deslizantes de préstamos por libro (últimos 30 días y semestre).
+ * Guarda un contador por libro y día en un anillo de casilleros diarios, más el
+ * acumulado de cada ventana: al cambiar de día se restan los casilleros que salen.
+ * El ranking histórico no pasa por aquí: se lee de libros.total_prestamos.
+ * <p>
+ * La carga lee los préstamos con su id: los eventos que llegan mientras tanto se aplican
+ * después solo si el préstamo no estaba en la lectura (registros) o si sí estaba o se
+ * registró por un evento de la cola (cancelaciones, que borran la fila).
+ */
+@Slf4j
+@Component
+public class RankingPrestamos {
+    
+    public enum Ventana {
+        TOTAL(0), ULTIMOS_30_DIAS(30), SEMESTRE(182);
+        
+        private final int dias;
+        
+        Ventana(int dias) {
+            this.dias = dias;
+        }
+        
+        public int getDias() {
+            return dias;
+        }
+        
+        public boolean isEnMemoria() {
+            return dias > 0;
+        }
+    }
+    
+    // La ventana más larga define cuántos días se conservan
+    private static final int DIAS_RETENIDOS = Ventana.SEMESTRE.dias;
+    
+    private static final class Contadores {
+        
+        private final long[] diaDeCasillero = new long[DIAS_RETENIDOS];
+        @SuppressWarnings("unchecked")
+        private final Map<Long, Long>[] casilleros = new Map[DIAS_RETENIDOS];
+        private final EnumMap<Ventana, Map<Long, Long>> acumulados = new EnumMap<>(Ventana.class);
+        private long hoy;
+        
+        private Contadores(long hoy) {
+            this.hoy = hoy;
+            Arrays.fill(diaDeCasillero, Long.MIN_VALUE);
+            for (Ventana ventana : Ventana.values()) {
+                if (ventana.isEnMemoria()) {
+                    acumulados.put(ventana, new HashMap<>());
+                }
+            }
+        }
+    }
+    
+    private final PrestamoRepository prestamoRepo;
+    private final TransactionTemplate lectura;
+    private final Clock reloj;
+    
+    private Contadores contadores;
+    
+    // Eventos recibidos mientras se carga; se aplican sobre los contadores nuevos
+    private final List<Object> pendientes = new ArrayList<>();
+    private boolean cargando;
+    private volatile boolean listo;
+    
+    @Autowired
+    public RankingPrestamos(PrestamoRepository prestamoRepo, PlatformTransactionManager transactionManager) {
+        this(prestamoRepo, transactionManager, Clock.systemDefaultZone());
+    }
+    
+    RankingPrestamos(PrestamoRepository prestamoRepo, PlatformTransactionManager transactionManager, Clock reloj) {
+        this.prestamoRepo = prestamoRepo;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+        this.reloj = reloj;
+        this.contadores = new Contadores(LocalDate.now(reloj).toEpochDay());
+    }
+    
+    public boolean isListo() {
+        return listo;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        long inicio = System.currentTimeMillis();
+        synchronized (this) {
+            cargando = true;
+        }
+        
+        LocalDate hoy = LocalDate.now(reloj);
+        Contadores nuevos = new Contadores(hoy.toEpochDay());
+        // Préstamos contados en los contadores nuevos: los leídos y los registrados por la cola
+        Set<Long> contados = new HashSet<>();
+        lectura.executeWithoutResult(status -> {
+            try (Stream<PrestamoDelDia> prestamos = prestamoRepo.streamPorLibroYDia(hoy.minusDays(DIAS_RETENIDOS - 1))) {
+                prestamos.forEach(prestamo -> {
+                    contados.add(prestamo.id());
+                    sumar(nuevos, prestamo.libroId(), prestamo.fecha().toEpochDay(), 1);
+                });
+            }
+        });
+        
+        synchronized (this) {
+            contadores = nuevos;
+            cargando = false;
+            for (Object evento : pendientes) {
+                if (!(evento instanceof PrestamoEvento prestamo) || pendienteAplica(prestamo, contados)) {
+                    aplicar(evento);
+                }
+            }
+            pendientes.clear();
+            listo = true;
+        }
+        log.info("✓ Ranking de préstamos cargado - {} libros con préstamos en el semestre en {} ms",
+                 nuevos.acumulados.get(Ventana.SEMESTRE).size(), System.currentTimeMillis() - inicio);
+    }
+    
+    @TransactionalEventListener
+    public void alCambiarPrestamo(PrestamoEvento evento) {
+        recibir(evento);
+    }
+    
+    @TransactionalEventListener
+    public void alCambiarLibro(LibroEvento evento) {
+        if (evento.eliminado()) {
+            recibir(evento);
+        }
+    }
+    
+    /**
+     * Los libros más prestados en la ventana, de mayor a menor (id del libro y cantidad).
+     */
+    public synchronized List<ConteoPorId> mejores(Ventana ventana, int limite) {
+        if (!ventana.isEnMemoria()) {
+            throw new IllegalArgumentException("La ventana " + ventana + " no se mantiene en memoria");
+        }
+        avanzar(contadores, LocalDate.now(reloj).toEpochDay());
+        
+        Comparator<Map.Entry<Long, Long>> orden = Map.Entry.<Long, Long>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Long>comparingByKey().reversed());
+        PriorityQueue<Map.Entry<Long, Long>> heap = new PriorityQueue<>(orden);
+        for (Map.Entry<Long, Long> entrada : contadores.acumulados.get(ventana).entrySet()) {
+            heap.offer(entrada);
+            if (heap.size() > limite) {
+                heap.poll();
+            }
+        }
+        List<ConteoPorId> resultado = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            Map.Entry<Long, Long> entrada = heap.poll();
+            resultado.add(new ConteoPorId(entrada.getKey(), entrada.getValue()));
+        }
+        Collections.reverse(resultado);
+        return resultado;
+    }
+    
+    private synchronized void recibir(Object evento) {
+        if (cargando) {
+            pendientes.add(evento);
+        } else {
+            aplicar(evento);
+        }
+    }
+    
+    // Debe llamarse con el monitor tomado
+    private void aplicar(Object evento) {
+        if (evento instanceof PrestamoEvento prestamo) {
+            long delta = switch (prestamo.tipo()) {
+                case REGISTRADO -> 1;
+                case CANCELADO -> -1;
+                case DEVUELTO -> 0;
+            };
+            if (delta != 0 && prestamo.fechaPrestamo() != null) {
+                avanzar(contadores, LocalDate.now(reloj).toEpochDay());
+                sumar(contadores, prestamo.libroId(), prestamo.fechaPrestamo().toEpochDay(), delta);
+            }
+        } else if (evento instanceof LibroEvento libro) {
+            for (Map<Long, Long> casillero : contadores.casilleros) {
+                if (casillero != null) {
+                    casillero.remove(libro.libroId());
+                }
+            }
+            contadores.acumulados.values().forEach(acumulado -> acumulado.remove(libro.libroId()));
+        }
+    }
+    
+    // Un registro ya leído no se vuelve a sumar; una cancelación solo resta lo que se sumó
+    private static boolean pendienteAplica(PrestamoEvento evento, Set<Long> contados) {
+        return switch (evento.tipo()) {
+            case REGISTRADO -> contados.add(evento.prestamoId());
+            case CANCELADO -> contados.remove(evento.prestamoId());
+            case DEVUELTO -> true;
+        };
+    }
+    
+    private static void sumar(Contadores contadores, Long libroId, long dia, long delta) {
+        long antiguedad = contadores.hoy - dia;
+        if (antiguedad < 0 || antiguedad >= DIAS_RETENIDOS) {
+            return;
+        }
+        acumular(casillero(contadores, dia), libroId, delta);
+        contadores.acumulados.forEach((ventana, acumulado) -> {
+            if (antiguedad < ventana.dias) {
+                acumular(acumulado, libroId, delta);
+            }
+        });
+    }
+    
+    /**
+     * Lleva los contadores hasta el día indicado: por cada día nuevo, los casilleros que
+     * quedan fuera de una ventana se restan de su acumulado y el casillero más viejo se recicla.
+     */
+    private static void avanzar(Contadores contadores, long hoy) {
+        if (hoy <= contadores.hoy) {
+            return;
+        }
+        if (hoy - contadores.hoy >= DIAS_RETENIDOS) {
+            Arrays.fill(contadores.casilleros, null);
+            Arrays.fill(contadores.diaDeCasillero, Long.MIN_VALUE);
+            contadores.acumulados.values().forEach(Map::clear);
+            contadores.hoy = hoy;
+            return;
+        }
+        for (long dia = contadores.hoy + 1; dia <= hoy; dia++) {
+            long nuevoDia = dia;
+            contadores.acumulados.forEach((ventana, acumulado) -> {
+                long sale = nuevoDia - ventana.dias;
+                int indice = indice(sale);
+                if (contadores.diaDeCasillero[indice] == sale && contadores.casilleros[indice] != null) {
+                    contadores.casilleros[indice].forEach((libroId, cantidad) -> acumular(acumulado, libroId, -cantidad));
+                }
+            });
+        }
+        contadores.hoy = hoy;
+    }
+    
+    // Casillero del día; si guarda un día que ya salió del anillo, se vacía
+    private static Map<Long, Long> casillero(Contadores contadores, long dia) {
+        int indice = indice(dia);
+        if (contadores.diaDeCasillero[indice] != dia || contadores.casilleros[indice] == null) {
+            contadores.diaDeCasillero[indice] = dia;
+            contadores.casilleros[indice] = new HashMap<>();
+        }
+        return contadores.casilleros[indice];
+    }
+    
+    private static void acumular(Map<Long, Long> contador, Long libroId, long delta) {
+        if (contador.merge(libroId, delta, Long::sum) <= 0) {
+            contador.remove(libroId);
+        }
+    }
+    
+    private static int indice(long dia) {
+        return (int) Math.floorMod(dia, (long) DIAS_RETENIDOS);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,76 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import pe.edu.cibertec.bibliotech.api.response.ReconstruccionCirculacionResponseDto;
+import pe.edu.cibertec.bibliotech.repository.CirculacionCategoriaRepository;
+import pe.edu.cibertec.bibliotech.repository.CirculacionLibroRepository;
+import pe.edu.cibertec.bibliotech.repository.PrestamoRepository;
+
+/**
+ * Recalcula las tablas de circulación diaria desde la tabla de préstamos, por bloques
+ * de un mes: cada bloque borra sus filas y las vuelve a insertar con INSERT ... SELECT
+ * agrupado, en su propia transacción. Sirve para la carga inicial del historial y para
+ * corregir desvíos; conviene ejecutarlo fuera del horario de atención, porque una
+ * operación que confirme mientras se reconstruye su mismo mes puede contarse dos veces.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReconstruccionCirculacion {
+    
+    private final PrestamoRepository prestamoRepo;
+    private final CirculacionLibroRepository circulacionLibroRepo;
+    private final CirculacionCategoriaRepository circulacionCategoriaRepo;
+    private final TransactionTemplate transactionTemplate;
+    
+    /**
+     * Sin límites, reconstruye desde el primer préstamo registrado hasta hoy.
+     */
+    public ReconstruccionCirculacionResponseDto ejecutar(LocalDate desde, LocalDate hasta) {
+        long inicio = System.currentTimeMillis();
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        LocalDate primera = desde != null ? desde : prestamoRepo.primeraFechaPrestamo();
+        LocalDate comienzo = primera != null ? primera : fin;
+        log.info("Reconstruyendo circulación diaria del {} al {}", comienzo, fin);
+        
+        ReconstruccionCirculacionResponseDto resultado = new ReconstruccionCirculacionResponseDto();
+        resultado.setDesde(comienzo);
+        resultado.setHasta(fin);
+        
+        LocalDate bloqueDesde = comienzo;
+        while (!bloqueDesde.isAfter(fin)) {
+            LocalDate bloqueHasta = YearMonth.from(bloqueDesde).atEndOfMonth();
+            if (bloqueHasta.isAfter(fin)) {
+                bloqueHasta = fin;
+            }
+            
+            LocalDate d = bloqueDesde;
+            LocalDate h = bloqueHasta;
+            int[] filas = transactionTemplate.execute(status -> {
+                circulacionCategoriaRepo.borrarEntre(d, h);
+                circulacionLibroRepo.borrarEntre(d, h);
+                // Las categorías se agregan desde las filas de libros recién insertadas
+                int libros = circulacionLibroRepo.reconstruirEntre(d, h);
+                int categorias = circulacionCategoriaRepo.reconstruirEntre(d, h);
+                return new int[] {libros, categorias};
+            });
+            
+            resultado.setBloques(resultado.getBloques() + 1);
+            resultado.setFilasLibros(resultado.getFilasLibros() + filas[0]);
+            resultado.setFilasCategorias(resultado.getFilasCategorias() + filas[1]);
+            bloqueDesde = bloqueHasta.plusDays(1);
+        }
+        
+        resultado.setDuracionMs(System.currentTimeMillis() - inicio);
+        log.info("✓ Circulación diaria reconstruida - {} bloque(s), {} filas por libro, {} por categoría, {} ms",
+                 resultado.getBloques(), resultado.getFilasLibros(), resultado.getFilasCategorias(), resultado.getDuracionMs());
+        return resultado;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,215 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.FontFactory;
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+
+import lombok.RequiredArgsConstructor;
+import pe.edu.cibertec.bibliotech.repository.PrestamoRepository;
+import pe.edu.cibertec.bibliotech.repository.projection.ConteoPorNombre;
+import pe.edu.cibertec.bibliotech.repository.projection.PrestamoResumen;
+
+/**
+ * Reportes PDF con iText. Leen proyecciones con cursor y escriben el documento mientras
+ * avanzan: las tablas largas se agregan por bloques para que iText libere las páginas completas.
+ */
+@Component
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ReportesPdf {
+    
+    private static final int FILAS_POR_BLOQUE = 200;
+    private static final int LIBROS_MAS_PRESTADOS = 10;
+    private static final Locale ES = Locale.forLanguageTag("es-PE");
+    private static final DateTimeFormatter FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    
+    private static final Font TITULO = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 16);
+    private static final Font SUBTITULO = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 12);
+    private static final Font TEXTO = FontFactory.getFont(FontFactory.HELVETICA, 10);
+    private static final Font ENCABEZADO = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 9);
+    private static final Font CELDA = FontFactory.getFont(FontFactory.HELVETICA, 9);
+    
+    private final PrestamoRepository prestamoRepo;
+    private final LecturaEnStreaming streaming;
+    
+    /**
+     * Un aviso por usuario (una página) con sus préstamos vencidos a la fecha de corte.
+     */
+    public void avisosVencimiento(LocalDate fecha, OutputStream salida, IntConsumer progreso) throws DocumentException {
+        long total = prestamoRepo.contarVencidosPendientes(fecha);
+        Document documento = new Document(PageSize.A4);
+        PdfWriter.getInstance(documento, salida);
+        documento.open();
+        try {
+            if (total == 0) {
+                documento.add(new Paragraph("Avisos de préstamos vencidos", TITULO));
+                documento.add(new Paragraph("No hay préstamos vencidos al " + FECHA.format(fecha) + ".", TEXTO));
+                return;
+            }
+            
+            long procesados = 0;
+            List<PrestamoResumen> delUsuario = new ArrayList<>();
+            try (Stream<PrestamoResumen> filas = streaming.leer(PrestamoRepository.VENCIDOS_PENDIENTES, PrestamoResumen.class,
+                    consulta -> consulta.setParameter("fecha", fecha))) {
+                Iterator<PrestamoResumen> iterador = filas.iterator();
+                while (iterador.hasNext()) {
+                    PrestamoResumen prestamo = iterador.next();
+                    if (!delUsuario.isEmpty() && !delUsuario.get(0).usuarioId().equals(prestamo.usuarioId())) {
+                        agregarAviso(documento, delUsuario, fecha);
+                        delUsuario.clear();
+                    }
+                    delUsuario.add(prestamo);
+                    progreso.accept((int) (++procesados * 100 / total));
+                }
+            }
+            if (!delUsuario.isEmpty()) {
+                agregarAviso(documento, delUsuario, fecha);
+            }
+        } finally {
+            documento.close();
+        }
+    }
+    
+    /**
+     * Resumen de circulación del mes (préstamos, devoluciones, categorías y libros
+     * más prestados) seguido del detalle de los préstamos registrados.
+     */
+    public void circulacionMensual(YearMonth periodo, OutputStream salida, IntConsumer progreso) throws DocumentException {
+        LocalDate desde = periodo.atDay(1);
+        LocalDate hasta = periodo.atEndOfMonth();
+        long registrados = prestamoRepo.contarRegistradosEntre(desde, hasta);
+        
+        Document documento = new Document(PageSize.A4.rotate());
+        PdfWriter.getInstance(documento, salida);
+        documento.open();
+        try {
+            String mes = periodo.getMonth().getDisplayName(TextStyle.FULL, ES);
+            documento.add(new Paragraph("Reporte de circulación - " + mes + " " + periodo.getYear(), TITULO));
+            documento.add(new Paragraph("Del " + FECHA.format(desde) + " al " + FECHA.format(hasta), TEXTO));
+            
+            documento.add(new Paragraph("Resumen", SUBTITULO));
+            PdfPTable resumen = tabla(new float[] {3, 1}, "Indicador", "Cantidad");
+            fila(resumen, "Préstamos registrados", registrados);
+            fila(resumen, "Devoluciones", prestamoRepo.contarDevueltosEntre(desde, hasta));
+            fila(resumen, "Devoluciones con atraso", prestamoRepo.contarDevueltosConAtrasoEntre(desde, hasta));
+            documento.add(resumen);
+            
+            documento.add(new Paragraph("Préstamos por categoría", SUBTITULO));
+            documento.add(tablaConteos("Categoría", prestamoRepo.contarPorCategoriaEntre(desde, hasta)));
+            
+            documento.add(new Paragraph("Libros más prestados", SUBTITULO));
+            documento.add(tablaConteos("Libro", prestamoRepo.contarPorLibroEntre(
+                    desde, hasta, PageRequest.of(0, LIBROS_MAS_PRESTADOS))));
+            
+            documento.newPage();
+            documento.add(new Paragraph("Detalle de préstamos", SUBTITULO));
+            PdfPTable detalle = tabla(new float[] {1, 4, 3, 2, 2, 2, 2},
+                    "ID", "Libro", "Usuario", "Préstamo", "Devolución esperada", "Devolución real", "Estado");
+            detalle.setComplete(false);
+            long procesados = 0;
+            try (Stream<PrestamoResumen> filas = streaming.leer(PrestamoRepository.REPORTE, PrestamoResumen.class, consulta -> consulta
+                    .setParameter("desde", desde)
+                    .setParameter("hasta", hasta)
+                    .setParameter("estado", null)
+                    .setParameter("usuarioId", null))) {
+                Iterator<PrestamoResumen> iterador = filas.iterator();
+                while (iterador.hasNext()) {
+                    PrestamoResumen p = iterador.next();
+                    celdas(detalle, String.valueOf(p.id()), p.libroTitulo(), p.usuarioNombreCompleto(),
+                           fecha(p.fechaPrestamo()), fecha(p.fechaDevolucionEsperada()),
+                           fecha(p.fechaDevolucionReal()), p.estado().name());
+                    if (++procesados % FILAS_POR_BLOQUE == 0) {
+                        documento.add(detalle);
+                        progreso.accept((int) (procesados * 100 / Math.max(registrados, 1)));
+                    }
+                }
+            }
+            detalle.setComplete(true);
+            documento.add(detalle);
+        } finally {
+            documento.close();
+        }
+    }
+    
+    private static void agregarAviso(Document documento, List<PrestamoResumen> prestamos, LocalDate fecha)
+            throws DocumentException {
+        PrestamoResumen primero = prestamos.get(0);
+        documento.newPage();
+        documento.add(new Paragraph("Aviso de préstamos vencidos", TITULO));
+        documento.add(new Paragraph("Fecha: " + FECHA.format(fecha), TEXTO));
+        documento.add(new Paragraph("Usuario: " + primero.usuarioNombreCompleto() + " (código " + primero.usuarioId() + ")", TEXTO));
+        documento.add(new Paragraph("Los siguientes libros debieron devolverse y siguen pendientes. "
+                + "Por favor, acérquese a la biblioteca para regularizar su situación.", TEXTO));
+        
+        PdfPTable tabla = tabla(new float[] {4, 2, 2, 1}, "Libro", "Fecha de préstamo", "Devolución esperada", "Días de atraso");
+        for (PrestamoResumen p : prestamos) {
+            long atraso = Math.max(ChronoUnit.DAYS.between(p.fechaDevolucionEsperada(), fecha), 0);
+            celdas(tabla, p.libroTitulo(), fecha(p.fechaPrestamo()), fecha(p.fechaDevolucionEsperada()), String.valueOf(atraso));
+        }
+        documento.add(tabla);
+    }
+    
+    private static PdfPTable tablaConteos(String etiqueta, List<ConteoPorNombre> conteos) throws DocumentException {
+        PdfPTable tabla = tabla(new float[] {3, 1}, etiqueta, "Préstamos");
+        for (ConteoPorNombre conteo : conteos) {
+            fila(tabla, conteo.nombre(), conteo.cantidad());
+        }
+        return tabla;
+    }
+    
+    private static PdfPTable tabla(float[] anchos, String... encabezados) throws DocumentException {
+        PdfPTable tabla = new PdfPTable(anchos.length);
+        tabla.setWidthPercentage(100);
+        tabla.setWidths(anchos);
+        tabla.setSpacingBefore(6);
+        tabla.setSpacingAfter(10);
+        for (String encabezado : encabezados) {
+            tabla.addCell(new PdfPCell(new Phrase(encabezado, ENCABEZADO)));
+        }
+        // El encabezado se repite en cada página
+        tabla.setHeaderRows(1);
+        return tabla;
+    }
+    
+    private static void fila(PdfPTable tabla, String etiqueta, long cantidad) {
+        tabla.addCell(new PdfPCell(new Phrase(etiqueta, CELDA)));
+        PdfPCell valor = new PdfPCell(new Phrase(String.valueOf(cantidad), CELDA));
+        valor.setHorizontalAlignment(Element.ALIGN_RIGHT);
+        tabla.addCell(valor);
+    }
+    
+    private static void celdas(PdfPTable tabla, String... valores) {
+        for (String valor : valores) {
+            tabla.addCell(new PdfPCell(new Phrase(valor, CELDA)));
+        }
+    }
+    
+    private static String fecha(LocalDate fecha) {
+        return fecha != null ? FECHA.format(fecha) : "";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalización de texto para las búsquedas en memoria:
+ * minúsculas, sin tildes ni diéresis (la ñ se pliega a n) y solo letras y dígitos.
+ */
+public final class Texto {
+    
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern NO_ALFANUMERICO = Pattern.compile("[^a-z0-9]+");
+    
+    private Texto() {
+    }
+    
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinMarcas = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return NO_ALFANUMERICO.matcher(sinMarcas.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+    
+    /**
+     * Trigramas de un texto ya normalizado. Cada palabra se rellena con dos espacios
+     * al inicio y uno al final, así las búsquedas de una o dos letras también producen trigramas.
+     */
+    public static Set<String> trigramas(String normalizado) {
+        Set<String> trigramas = new LinkedHashSet<>();
+        if (normalizado.isEmpty()) {
+            return trigramas;
+        }
+        for (String palabra : normalizado.split(" ")) {
+            String relleno = "  " + palabra + " ";
+            for (int i = 0; i + 3 <= relleno.length(); i++) {
+                trigramas.add(relleno.substring(i, i + 3));
+            }
+        }
+        return trigramas;
+    }
+}
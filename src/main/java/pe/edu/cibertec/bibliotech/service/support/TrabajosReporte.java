@@ -0,0 +1,195 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import pe.edu.cibertec.bibliotech.exception.BusinessException;
+
+/**
+ * Trabajos de generación de reportes en segundo plano. Corren en un pool acotado, separado
+ * de los hilos web, y dejan el archivo en disco, donde se conserva durante el TTL.
+ * Una solicitud idéntica (misma clave) a un trabajo pendiente o vigente recibe ese mismo trabajo.
+ */
+@Slf4j
+@Component
+public class TrabajosReporte {
+    
+    public enum Estado {
+        PENDIENTE, EN_PROCESO, TERMINADO, FALLIDO
+    }
+    
+    /**
+     * Escribe el reporte en la salida e informa el avance (0 a 100).
+     */
+    @FunctionalInterface
+    public interface Generador {
+        void generar(OutputStream salida, IntConsumer progreso) throws Exception;
+    }
+    
+    @Getter
+    public static final class Trabajo {
+        
+        private final String id = UUID.randomUUID().toString();
+        private final String clave;
+        private final String nombreArchivo;
+        private final LocalDateTime fechaSolicitud = LocalDateTime.now();
+        private volatile Estado estado = Estado.PENDIENTE;
+        private volatile int progreso;
+        private volatile String error;
+        private volatile LocalDateTime fechaFin;
+        private volatile Path archivo;
+        
+        private Trabajo(String clave, String nombreArchivo) {
+            this.clave = clave;
+            this.nombreArchivo = nombreArchivo;
+        }
+        
+        private boolean isVencido(LocalDateTime limite) {
+            return fechaFin != null && fechaFin.isBefore(limite);
+        }
+    }
+    
+    private final Map<String, Trabajo> trabajos = new ConcurrentHashMap<>();
+    private final Map<String, Trabajo> porClave = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+    private final Path directorio;
+    private final Duration ttl;
+    
+    public TrabajosReporte(@Value("${bibliotech.reportes.hilos:2}") int hilos,
+                           @Value("${bibliotech.reportes.cola:20}") int cola,
+                           @Value("${bibliotech.reportes.directorio:${java.io.tmpdir}/bibliotech-reportes}") Path directorio,
+                           @Value("${bibliotech.reportes.ttl:1h}") Duration ttl) throws IOException {
+        this.directorio = directorio;
+        this.ttl = ttl;
+        
+        // Las carpetas de trabajos de una ejecución anterior no están registradas: se descartan
+        Files.createDirectories(directorio);
+        try (Stream<Path> anteriores = Files.list(directorio)) {
+            anteriores.filter(ruta -> esIdTrabajo(ruta.getFileName().toString()))
+                      .forEach(TrabajosReporte::borrar);
+        }
+        
+        this.executor = new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cola), new CustomizableThreadFactory("reporte-"));
+    }
+    
+    /**
+     * Encola un trabajo, o devuelve el que ya existe para la misma clave si sigue
+     * pendiente, en proceso o terminado dentro del TTL.
+     */
+    public Trabajo enviar(String clave, String nombreArchivo, Generador generador) {
+        LocalDateTime limite = LocalDateTime.now().minus(ttl);
+        Trabajo nuevo = new Trabajo(clave, nombreArchivo);
+        Trabajo trabajo = porClave.compute(clave, (k, actual) ->
+                actual != null && actual.estado != Estado.FALLIDO && !actual.isVencido(limite) ? actual : nuevo);
+        if (trabajo != nuevo) {
+            log.info("Reporte '{}' ya solicitado - se reutiliza el trabajo {} ({})", clave, trabajo.id, trabajo.estado);
+            return trabajo;
+        }
+        
+        trabajos.put(trabajo.id, trabajo);
+        try {
+            executor.execute(() -> ejecutar(trabajo, generador));
+        } catch (RejectedExecutionException ex) {
+            trabajos.remove(trabajo.id);
+            porClave.remove(clave, trabajo);
+            throw new BusinessException("Hay demasiados reportes en cola. Intente nuevamente en unos minutos");
+        }
+        log.info("Reporte '{}' encolado - trabajo {}", clave, trabajo.id);
+        return trabajo;
+    }
+    
+    public Optional<Trabajo> buscar(String id) {
+        return Optional.ofNullable(trabajos.get(id));
+    }
+    
+    @Scheduled(cron = "${bibliotech.reportes.limpieza-cron:0 */5 * * * *}")
+    public void limpiar() {
+        LocalDateTime limite = LocalDateTime.now().minus(ttl);
+        int eliminados = 0;
+        for (Trabajo trabajo : trabajos.values()) {
+            if (trabajo.isVencido(limite)) {
+                trabajos.remove(trabajo.id);
+                porClave.remove(trabajo.clave, trabajo);
+                borrar(directorio.resolve(trabajo.id));
+                eliminados++;
+            }
+        }
+        if (eliminados > 0) {
+            log.info("✓ Limpieza de reportes - {} trabajos vencidos eliminados", eliminados);
+        }
+    }
+    
+    @PreDestroy
+    public void detener() {
+        executor.shutdownNow();
+    }
+    
+    private void ejecutar(Trabajo trabajo, Generador generador) {
+        long inicio = System.currentTimeMillis();
+        trabajo.estado = Estado.EN_PROCESO;
+        Path carpeta = directorio.resolve(trabajo.id);
+        try {
+            Files.createDirectories(carpeta);
+            Path temporal = carpeta.resolve(trabajo.nombreArchivo + ".tmp");
+            try (OutputStream salida = new BufferedOutputStream(Files.newOutputStream(temporal))) {
+                generador.generar(salida, avance -> trabajo.progreso = Math.max(0, Math.min(avance, 99)));
+            }
+            // Se publica solo el archivo completo
+            Path archivo = Files.move(temporal, carpeta.resolve(trabajo.nombreArchivo), StandardCopyOption.ATOMIC_MOVE);
+            trabajo.archivo = archivo;
+            trabajo.progreso = 100;
+            trabajo.fechaFin = LocalDateTime.now();
+            trabajo.estado = Estado.TERMINADO;
+            log.info("✓ Reporte '{}' generado - trabajo {} en {} ms",
+                     trabajo.clave, trabajo.id, System.currentTimeMillis() - inicio);
+        } catch (Exception ex) {
+            log.error("Error al generar el reporte '{}' (trabajo {})", trabajo.clave, trabajo.id, ex);
+            borrar(carpeta);
+            trabajo.error = ex.getMessage();
+            trabajo.fechaFin = LocalDateTime.now();
+            trabajo.estado = Estado.FALLIDO;
+        }
+    }
+    
+    private static boolean esIdTrabajo(String nombre) {
+        try {
+            return UUID.fromString(nombre).toString().equals(nombre);
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+    
+    private static void borrar(Path ruta) {
+        try {
+            FileSystemUtils.deleteRecursively(ruta);
+        } catch (IOException ex) {
+            log.warn("No se pudo eliminar {}: {}", ruta, ex.getMessage());
+        }
+    }
+}
\ No newline at end of file
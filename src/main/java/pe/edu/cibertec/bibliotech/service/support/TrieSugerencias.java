@@ -0,0 +1,469 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+import pe.edu.cibertec.bibliotech.event.AutorEvento;
+import pe.edu.cibertec.bibliotech.event.LibroEvento;
+import pe.edu.cibertec.bibliotech.event.LibrosImportadosEvento;
+import pe.edu.cibertec.bibliotech.event.PrestamoEvento;
+import pe.edu.cibertec.bibliotech.repository.AutorRepository;
+import pe.edu.cibertec.bibliotech.repository.LibroRepository;
+import pe.edu.cibertec.bibliotech.repository.projection.AutorRef;
+import pe.edu.cibertec.bibliotech.repository.projection.ConteoPorId;
+import pe.edu.cibertec.bibliotech.repository.projection.LibroIndexado;
+
+/**
+ * Trie de prefijos sobre títulos de libros y nombres de autores para el autocompletado.
+ * Cada nodo guarda las mejores sugerencias de su subárbol (por cantidad de préstamos),
+ * así una consulta solo recorre el prefijo. Se indexa el texto completo y desde cada
+ * palabra, para que "soledad" sugiera "Cien años de soledad".
+ * <p>
+ * Como en IndiceLibros, los eventos de libro con versión no mayor que la indexada se
+ * descartan y los libros eliminados no vuelven por un evento atrasado.
+ */
+@Slf4j
+@Component
+public class TrieSugerencias {
+    
+    public static final int MAX_SUGERENCIAS = 10;
+    
+    // Las claves se truncan a esta longitud; prefijos más largos se filtran sobre el último nodo
+    private static final int PROFUNDIDAD_MAXIMA = 24;
+    
+    public enum Tipo {
+        LIBRO, AUTOR
+    }
+    
+    public record Sugerencia(Tipo tipo, long id, String texto, long popularidad) {
+    }
+    
+    private static final class Entrada {
+        
+        private final Tipo tipo;
+        private final long id;
+        private final String texto;
+        private final List<String> claves;
+        private long peso;
+        
+        private Entrada(Tipo tipo, long id, String texto, long peso) {
+            this.tipo = tipo;
+            this.id = id;
+            this.texto = texto;
+            this.claves = claves(texto);
+            this.peso = peso;
+        }
+        
+        private Sugerencia sugerencia() {
+            return new Sugerencia(tipo, id, texto, peso);
+        }
+    }
+    
+    private static final Comparator<Entrada> ORDEN = Comparator.comparingLong((Entrada e) -> e.peso).reversed()
+            .thenComparingInt(e -> e.texto.length())
+            .thenComparing(e -> e.texto);
+    
+    private static final Entrada[] SIN_ENTRADAS = new Entrada[0];
+    
+    private static final class Nodo {
+        
+        private char[] letras = new char[0];
+        private Nodo[] hijos = new Nodo[0];
+        private final List<Entrada> propias = new ArrayList<>(1);
+        private Entrada[] mejores = SIN_ENTRADAS;
+        
+        private Nodo hijo(char letra) {
+            int i = Arrays.binarySearch(letras, letra);
+            return i >= 0 ? hijos[i] : null;
+        }
+        
+        private Nodo hijoOCrear(char letra) {
+            int i = Arrays.binarySearch(letras, letra);
+            if (i >= 0) {
+                return hijos[i];
+            }
+            int pos = -i - 1;
+            Nodo nuevo = new Nodo();
+            char[] nuevasLetras = new char[letras.length + 1];
+            Nodo[] nuevosHijos = new Nodo[hijos.length + 1];
+            System.arraycopy(letras, 0, nuevasLetras, 0, pos);
+            System.arraycopy(hijos, 0, nuevosHijos, 0, pos);
+            nuevasLetras[pos] = letra;
+            nuevosHijos[pos] = nuevo;
+            System.arraycopy(letras, pos, nuevasLetras, pos + 1, letras.length - pos);
+            System.arraycopy(hijos, pos, nuevosHijos, pos + 1, hijos.length - pos);
+            letras = nuevasLetras;
+            hijos = nuevosHijos;
+            return nuevo;
+        }
+        
+        private void quitarHijo(Nodo hijo) {
+            for (int i = 0; i < hijos.length; i++) {
+                if (hijos[i] == hijo) {
+                    char[] nuevasLetras = new char[letras.length - 1];
+                    Nodo[] nuevosHijos = new Nodo[hijos.length - 1];
+                    System.arraycopy(letras, 0, nuevasLetras, 0, i);
+                    System.arraycopy(hijos, 0, nuevosHijos, 0, i);
+                    System.arraycopy(letras, i + 1, nuevasLetras, i, letras.length - i - 1);
+                    System.arraycopy(hijos, i + 1, nuevosHijos, i, hijos.length - i - 1);
+                    letras = nuevasLetras;
+                    hijos = nuevosHijos;
+                    return;
+                }
+            }
+        }
+        
+        private boolean isVacio() {
+            return propias.isEmpty() && hijos.length == 0;
+        }
+        
+        // Mejores del subárbol = propias + mejores de cada hijo
+        private void recalcular() {
+            List<Entrada> candidatas = new ArrayList<>(propias);
+            for (Nodo hijo : hijos) {
+                candidatas.addAll(Arrays.asList(hijo.mejores));
+            }
+            mejores = candidatas.stream()
+                    .distinct()
+                    .sorted(ORDEN)
+                    .limit(MAX_SUGERENCIAS)
+                    .toArray(Entrada[]::new);
+        }
+    }
+    
+    /**
+     * Estado completo del trie; se reemplaza entero al reconstruir.
+     */
+    private static final class Estado {
+        
+        private final Nodo raiz = new Nodo();
+        private final Map<Long, Entrada> libros = new HashMap<>();
+        private final Map<Long, Entrada> autores = new HashMap<>();
+        private final Map<Long, Long> autorDeLibro = new HashMap<>();
+        private final Map<Long, Long> versionDeLibro = new HashMap<>();
+        private final Map<Long, Long> prestamosPorLibro = new HashMap<>();
+        private final Map<Long, Long> prestamosPorAutor = new HashMap<>();
+        // Durante la carga inicial los mejores se calculan una sola vez al final
+        private boolean cargando;
+    }
+    
+    private final LibroRepository libroRepo;
+    private final AutorRepository autorRepo;
+    private final TransactionTemplate lectura;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    private Estado estado = new Estado();
+    // Se conservan entre reconstrucciones: una lectura iniciada antes del borrado no lo revive
+    private final Set<Long> eliminados = new HashSet<>();
+    
+    // Eventos recibidos mientras se reconstruye; se aplican sobre el trie nuevo
+    private final List<Object> pendientes = new ArrayList<>();
+    private boolean reconstruyendo;
+    
+    public TrieSugerencias(LibroRepository libroRepo, AutorRepository autorRepo,
+                           PlatformTransactionManager transactionManager) {
+        this.libroRepo = libroRepo;
+        this.autorRepo = autorRepo;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        long inicio = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            reconstruyendo = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        Estado nuevo = new Estado();
+        nuevo.cargando = true;
+        lectura.executeWithoutResult(status -> {
+            for (ConteoPorId conteo : libroRepo.listarTotalesPrestamos()) {
+                nuevo.prestamosPorLibro.put(conteo.id(), conteo.cantidad());
+            }
+            try (Stream<LibroIndexado> libros = libroRepo.streamIndexados()) {
+                libros.forEach(libro -> ponerLibro(nuevo, libro.id(), libro.titulo(), libro.autorId(),
+                                                   version(libro.version())));
+            }
+            for (AutorRef autor : autorRepo.listarRefs()) {
+                ponerAutor(nuevo, autor.id(), autor.nombre());
+            }
+        });
+        nuevo.cargando = false;
+        recalcularTodo(nuevo.raiz);
+        
+        lock.writeLock().lock();
+        try {
+            estado = nuevo;
+            eliminados.forEach(libroId -> quitarLibro(estado, libroId));
+            reconstruyendo = false;
+            pendientes.forEach(this::aplicar);
+            pendientes.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("✓ Trie de autocompletado construido - {} libros y {} autores en {} ms",
+                 nuevo.libros.size(), nuevo.autores.size(), System.currentTimeMillis() - inicio);
+    }
+    
+    @TransactionalEventListener
+    public void alCambiarLibro(LibroEvento evento) {
+        recibir(evento);
+    }
+    
+    @TransactionalEventListener
+    public void alImportarLibros(LibrosImportadosEvento evento) {
+        evento.libros().forEach(this::recibir);
+    }
+    
+    @TransactionalEventListener
+    public void alCambiarAutor(AutorEvento evento) {
+        recibir(evento);
+    }
+    
+    @TransactionalEventListener
+    public void alCambiarPrestamo(PrestamoEvento evento) {
+        recibir(evento);
+    }
+    
+    /**
+     * Sugerencias cuyo texto (o alguna de sus palabras) empieza por el prefijo,
+     * de la más prestada a la menos prestada.
+     */
+    public List<Sugerencia> sugerir(String prefijo, int limite) {
+        String normalizado = Texto.normalizar(prefijo);
+        if (normalizado.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+        
+        lock.readLock().lock();
+        try {
+            Nodo nodo = estado.raiz;
+            int largo = Math.min(normalizado.length(), PROFUNDIDAD_MAXIMA);
+            for (int i = 0; i < largo && nodo != null; i++) {
+                nodo = nodo.hijo(normalizado.charAt(i));
+            }
+            if (nodo == null) {
+                return List.of();
+            }
+            
+            Stream<Entrada> candidatas = Arrays.stream(nodo.mejores);
+            if (normalizado.length() > PROFUNDIDAD_MAXIMA) {
+                // El nodo truncado guarda todas sus entradas: se filtran por el prefijo completo
+                // contra el texto sin truncar (las claves solo tienen PROFUNDIDAD_MAXIMA letras)
+                String conEspacio = " " + normalizado;
+                candidatas = nodo.propias.stream()
+                        .filter(e -> (" " + Texto.normalizar(e.texto)).contains(conEspacio))
+                        .distinct()
+                        .sorted(ORDEN);
+            }
+            return candidatas.limit(limite).map(Entrada::sugerencia).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void recibir(Object evento) {
+        lock.writeLock().lock();
+        try {
+            if (reconstruyendo) {
+                pendientes.add(evento);
+            } else {
+                aplicar(evento);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // Debe llamarse con el write lock tomado
+    private void aplicar(Object evento) {
+        if (evento instanceof LibroEvento libro) {
+            if (libro.eliminado()) {
+                eliminados.add(libro.libroId());
+                quitarLibro(estado, libro.libroId());
+            } else if (!eliminados.contains(libro.libroId())
+                    && estado.versionDeLibro.getOrDefault(libro.libroId(), -1L) < version(libro.version())) {
+                ponerLibro(estado, libro.libroId(), libro.titulo(), libro.autorId(), version(libro.version()));
+            }
+        } else if (evento instanceof AutorEvento autor) {
+            if (autor.eliminado()) {
+                quitar(estado.raiz, estado.autores.remove(autor.autorId()));
+                estado.prestamosPorAutor.remove(autor.autorId());
+            } else {
+                ponerAutor(estado, autor.autorId(), autor.nombre());
+            }
+        } else if (evento instanceof PrestamoEvento prestamo && !eliminados.contains(prestamo.libroId())) {
+            switch (prestamo.tipo()) {
+                case REGISTRADO -> sumarPrestamos(estado, prestamo.libroId(), 1);
+                case CANCELADO -> sumarPrestamos(estado, prestamo.libroId(), -1);
+                case DEVUELTO -> { }
+            }
+        }
+    }
+    
+    private static void ponerLibro(Estado estado, Long libroId, String titulo, Long autorId, long version) {
+        estado.versionDeLibro.put(libroId, version);
+        long prestamos = estado.prestamosPorLibro.getOrDefault(libroId, 0L);
+        Long autorAnterior = estado.autorDeLibro.put(libroId, autorId);
+        if (!autorId.equals(autorAnterior)) {
+            // El libro cambia de autor: su popularidad pasa al nuevo
+            if (autorAnterior != null) {
+                sumarAlAutor(estado, autorAnterior, -prestamos);
+            }
+            sumarAlAutor(estado, autorId, prestamos);
+        }
+        quitar(estado.raiz, estado.libros.remove(libroId));
+        Entrada entrada = new Entrada(Tipo.LIBRO, libroId, titulo, prestamos);
+        estado.libros.put(libroId, entrada);
+        insertar(estado, entrada);
+    }
+    
+    private static void quitarLibro(Estado estado, Long libroId) {
+        quitar(estado.raiz, estado.libros.remove(libroId));
+        Long prestamos = estado.prestamosPorLibro.remove(libroId);
+        Long autorId = estado.autorDeLibro.remove(libroId);
+        estado.versionDeLibro.remove(libroId);
+        if (autorId != null && prestamos != null) {
+            sumarAlAutor(estado, autorId, -prestamos);
+        }
+    }
+    
+    private static long version(Long version) {
+        return version != null ? version : 0;
+    }
+    
+    private static void ponerAutor(Estado estado, Long autorId, String nombre) {
+        quitar(estado.raiz, estado.autores.remove(autorId));
+        Entrada entrada = new Entrada(Tipo.AUTOR, autorId, nombre, estado.prestamosPorAutor.getOrDefault(autorId, 0L));
+        estado.autores.put(autorId, entrada);
+        insertar(estado, entrada);
+    }
+    
+    private static void sumarPrestamos(Estado estado, Long libroId, long delta) {
+        long prestamos = Math.max(estado.prestamosPorLibro.getOrDefault(libroId, 0L) + delta, 0);
+        estado.prestamosPorLibro.put(libroId, prestamos);
+        cambiarPeso(estado, estado.libros.get(libroId), prestamos);
+        
+        Long autorId = estado.autorDeLibro.get(libroId);
+        if (autorId != null) {
+            sumarAlAutor(estado, autorId, delta);
+        }
+    }
+    
+    private static void sumarAlAutor(Estado estado, Long autorId, long delta) {
+        long prestamos = Math.max(estado.prestamosPorAutor.getOrDefault(autorId, 0L) + delta, 0);
+        estado.prestamosPorAutor.put(autorId, prestamos);
+        cambiarPeso(estado, estado.autores.get(autorId), prestamos);
+    }
+    
+    private static void insertar(Estado estado, Entrada entrada) {
+        for (String clave : entrada.claves) {
+            List<Nodo> camino = camino(estado.raiz, clave, true);
+            camino.get(camino.size() - 1).propias.add(entrada);
+            if (!estado.cargando) {
+                recalcular(camino);
+            }
+        }
+    }
+    
+    private static void quitar(Nodo raiz, Entrada entrada) {
+        if (entrada == null) {
+            return;
+        }
+        for (String clave : entrada.claves) {
+            List<Nodo> camino = camino(raiz, clave, false);
+            if (camino == null) {
+                continue;
+            }
+            camino.get(camino.size() - 1).propias.remove(entrada);
+            recalcular(camino);
+            // Podar los nodos que quedaron vacíos
+            for (int i = camino.size() - 1; i > 0 && camino.get(i).isVacio(); i--) {
+                camino.get(i - 1).quitarHijo(camino.get(i));
+                camino.get(i - 1).recalcular();
+            }
+        }
+    }
+    
+    private static void cambiarPeso(Estado estado, Entrada entrada, long peso) {
+        if (entrada == null || entrada.peso == peso) {
+            return;
+        }
+        entrada.peso = peso;
+        if (estado.cargando) {
+            return;
+        }
+        for (String clave : entrada.claves) {
+            List<Nodo> camino = camino(estado.raiz, clave, false);
+            if (camino != null) {
+                recalcular(camino);
+            }
+        }
+    }
+    
+    private static List<Nodo> camino(Nodo raiz, String clave, boolean crear) {
+        List<Nodo> camino = new ArrayList<>(clave.length() + 1);
+        Nodo nodo = raiz;
+        camino.add(nodo);
+        for (int i = 0; i < clave.length(); i++) {
+            nodo = crear ? nodo.hijoOCrear(clave.charAt(i)) : nodo.hijo(clave.charAt(i));
+            if (nodo == null) {
+                return null;
+            }
+            camino.add(nodo);
+        }
+        return camino;
+    }
+    
+    private static void recalcularTodo(Nodo nodo) {
+        for (Nodo hijo : nodo.hijos) {
+            recalcularTodo(hijo);
+        }
+        nodo.recalcular();
+    }
+    
+    private static void recalcular(List<Nodo> camino) {
+        for (int i = camino.size() - 1; i >= 0; i--) {
+            camino.get(i).recalcular();
+        }
+    }
+    
+    // Texto completo y desde cada palabra, normalizados y truncados
+    private static List<String> claves(String texto) {
+        String normalizado = Texto.normalizar(texto);
+        Set<String> claves = new LinkedHashSet<>();
+        if (normalizado.isEmpty()) {
+            return List.of();
+        }
+        int desde = 0;
+        while (desde >= 0) {
+            String clave = normalizado.substring(desde);
+            claves.add(clave.length() > PROFUNDIDAD_MAXIMA ? clave.substring(0, PROFUNDIDAD_MAXIMA) : clave);
+            int espacio = normalizado.indexOf(' ', desde);
+            desde = espacio >= 0 ? espacio + 1 : -1;
+        }
+        return List.copyOf(claves);
+    }
+}
\ No newline at end of file
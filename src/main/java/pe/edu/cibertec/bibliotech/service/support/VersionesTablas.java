@@ -0,0 +1,80 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import pe.edu.cibertec.bibliotech.event.AutorEvento;
+import pe.edu.cibertec.bibliotech.event.CategoriaEvento;
+import pe.edu.cibertec.bibliotech.event.LibroEvento;
+import pe.edu.cibertec.bibliotech.event.LibrosImportadosEvento;
+import pe.edu.cibertec.bibliotech.event.PrestamoEvento;
+
+/**
+ * Contador de cambios por tabla para armar ETags. Se incrementa después del commit
+ * (a partir de los eventos de escritura de los servicios) y se combina con el instante
+ * de arranque, así un reinicio nunca repite una versión anterior. Los contadores son
+ * locales a cada instancia.
+ */
+@Component
+public class VersionesTablas {
+    
+    public enum Tabla {
+        LIBROS, AUTORES, CATEGORIAS
+    }
+    
+    private final long epoca = System.currentTimeMillis();
+    private final Map<Tabla, AtomicLong> versiones = new EnumMap<>(Tabla.class);
+    
+    public VersionesTablas() {
+        for (Tabla tabla : Tabla.values()) {
+            versiones.put(tabla, new AtomicLong());
+        }
+    }
+    
+    /**
+     * Firma de las tablas indicadas; debe tomarse antes de consultar los datos que valida.
+     */
+    public String firma(Tabla... tablas) {
+        return epoca + "-" + Arrays.stream(tablas)
+                .map(tabla -> tabla.name().toLowerCase() + versiones.get(tabla).get())
+                .collect(Collectors.joining("-"));
+    }
+    
+    // Los listados de libros muestran stock, autor y categoría; el de categorías, la cantidad de libros
+    @TransactionalEventListener
+    public void alCambiarLibro(LibroEvento evento) {
+        incrementar(Tabla.LIBROS, Tabla.CATEGORIAS);
+    }
+    
+    @TransactionalEventListener
+    public void alImportarLibros(LibrosImportadosEvento evento) {
+        incrementar(Tabla.LIBROS, Tabla.CATEGORIAS);
+    }
+    
+    @TransactionalEventListener
+    public void alCambiarPrestamo(PrestamoEvento evento) {
+        incrementar(Tabla.LIBROS);
+    }
+    
+    @TransactionalEventListener
+    public void alCambiarAutor(AutorEvento evento) {
+        incrementar(Tabla.AUTORES, Tabla.LIBROS);
+    }
+    
+    @TransactionalEventListener
+    public void alCambiarCategoria(CategoriaEvento evento) {
+        incrementar(Tabla.CATEGORIAS, Tabla.LIBROS);
+    }
+    
+    private void incrementar(Tabla... tablas) {
+        for (Tabla tabla : tablas) {
+            versiones.get(tabla).incrementAndGet();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,8 @@
+-- Columnas de versión para el control de concurrencia optimista (@Version)
+-- en Libro y Prestamo. Ejecutar una sola vez sobre bibliotech_db.
+
+ALTER TABLE libros
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE prestamos
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,5 @@
+-- Índice para el barrido de préstamos vencidos
+-- (WHERE estado = 'ACTIVO' AND fecha_devolucion_esperada < ?).
+
+CREATE INDEX idx_prestamos_estado_vencimiento
+    ON prestamos (estado, fecha_devolucion_esperada);
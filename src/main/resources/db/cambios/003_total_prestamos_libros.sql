@@ -0,0 +1,16 @@
+-- Contador de préstamos por libro, mantenido al registrar y cancelar préstamos
+-- (reemplaza el GROUP BY sobre todo el historial para el ranking de popularidad).
+-- Ejecutar una sola vez sobre bibliotech_db.
+
+ALTER TABLE libros
+    ADD COLUMN total_prestamos BIGINT NOT NULL DEFAULT 0;
+
+UPDATE libros l
+   SET total_prestamos = (SELECT COUNT(*) FROM prestamos p WHERE p.libro_id = l.id);
+
+CREATE INDEX idx_libros_total_prestamos
+    ON libros (total_prestamos);
+
+-- Carga de las ventanas de 30 días y semestre al arrancar (WHERE fecha_prestamo >= ?)
+CREATE INDEX idx_prestamos_fecha_libro
+    ON prestamos (fecha_prestamo, libro_id);
\ No newline at end of file
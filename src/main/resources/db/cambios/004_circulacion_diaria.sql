@@ -0,0 +1,26 @@
+-- Tablas de circulación diaria (día x libro y día x categoría), mantenidas por las
+-- transacciones de préstamo, devolución y cancelación con INSERT ... ON DUPLICATE KEY UPDATE.
+-- Ejecutar una sola vez sobre bibliotech_db y luego cargar el historial con
+-- POST /api/circulacion/reconstruir.
+
+CREATE TABLE circulacion_libros_dia (
+    fecha               DATE   NOT NULL,
+    libro_id            BIGINT NOT NULL,
+    prestamos           BIGINT NOT NULL DEFAULT 0,
+    devoluciones        BIGINT NOT NULL DEFAULT 0,
+    devoluciones_atraso BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (fecha, libro_id)
+);
+
+CREATE TABLE circulacion_categorias_dia (
+    fecha               DATE   NOT NULL,
+    categoria_id        BIGINT NOT NULL,
+    prestamos           BIGINT NOT NULL DEFAULT 0,
+    devoluciones        BIGINT NOT NULL DEFAULT 0,
+    devoluciones_atraso BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (fecha, categoria_id)
+);
+
+-- Reconstrucción por rangos: devoluciones de un período (WHERE fecha_devolucion_real BETWEEN ? AND ?)
+CREATE INDEX idx_prestamos_devolucion_real
+    ON prestamos (fecha_devolucion_real);
\ No newline at end of file
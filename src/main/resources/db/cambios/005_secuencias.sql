@@ -0,0 +1,14 @@
+-- Tabla de secuencias para los ids generados por bloques (@TableGenerator con pooled-lo):
+-- siguiente_valor es el primer id del próximo bloque que reservará la aplicación.
+-- Permite a Hibernate enviar los INSERT de préstamos en batches JDBC.
+-- Ejecutar una sola vez sobre bibliotech_db, con la aplicación detenida.
+
+CREATE TABLE secuencias (
+    nombre          VARCHAR(64) NOT NULL,
+    siguiente_valor BIGINT      NOT NULL,
+    PRIMARY KEY (nombre)
+);
+
+-- La secuencia continúa después del último id asignado por AUTO_INCREMENT
+INSERT INTO secuencias (nombre, siguiente_valor)
+SELECT 'prestamos', COALESCE(MAX(id), 0) + 1 FROM prestamos;
\ No newline at end of file
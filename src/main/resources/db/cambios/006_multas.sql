@@ -0,0 +1,23 @@
+-- Multas por atraso: tarifas por categoría (NULL = tarifas generales de bibliotech.multas),
+-- multa por préstamo y saldo de multas por usuario, mantenido por la aplicación.
+-- Ejecutar una sola vez sobre bibliotech_db y luego devengar los préstamos abiertos con
+-- POST /api/multas/devengar. Las devoluciones anteriores no generan multa.
+
+ALTER TABLE categorias
+    ADD COLUMN multa_diaria DECIMAL(8, 2) NULL,
+    ADD COLUMN multa_maxima DECIMAL(8, 2) NULL;
+
+ALTER TABLE prestamos
+    ADD COLUMN multa DECIMAL(10, 2) NOT NULL DEFAULT 0;
+
+CREATE TABLE saldos_multas (
+    usuario_id           BIGINT         NOT NULL,
+    devengado            DECIMAL(12, 2) NOT NULL DEFAULT 0,
+    adeudado             DECIMAL(12, 2) NOT NULL DEFAULT 0,
+    ultima_actualizacion DATETIME(6)    NOT NULL,
+    PRIMARY KEY (usuario_id)
+);
+
+-- Recalcular el devengado de un usuario (WHERE usuario_id = ? AND estado IN ('ACTIVO', 'VENCIDO'))
+CREATE INDEX idx_prestamos_usuario_estado
+    ON prestamos (usuario_id, estado);
\ No newline at end of file
@@ -0,0 +1,128 @@
+package pe.edu.cibertec.bibliotech;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestComponent;
+
+import jakarta.persistence.EntityManagerFactory;
+import pe.edu.cibertec.bibliotech.entity.Autor;
+import pe.edu.cibertec.bibliotech.entity.Categoria;
+import pe.edu.cibertec.bibliotech.entity.Libro;
+import pe.edu.cibertec.bibliotech.entity.Prestamo;
+import pe.edu.cibertec.bibliotech.entity.Usuario;
+import pe.edu.cibertec.bibliotech.repository.AutorRepository;
+import pe.edu.cibertec.bibliotech.repository.CategoriaRepository;
+import pe.edu.cibertec.bibliotech.repository.CirculacionCategoriaRepository;
+import pe.edu.cibertec.bibliotech.repository.CirculacionLibroRepository;
+import pe.edu.cibertec.bibliotech.repository.LibroRepository;
+import pe.edu.cibertec.bibliotech.repository.PrestamoRepository;
+import pe.edu.cibertec.bibliotech.repository.SaldoMultasRepository;
+import pe.edu.cibertec.bibliotech.repository.UsuarioRepository;
+
+/**
+ * Datos comunes de los tests de integración: crea autores, categorías, libros y usuarios
+ * y deja la base vacía al terminar. Se incluye con @Import(DatosDePrueba.class).
+ */
+@TestComponent
+public class DatosDePrueba {
+
+	@Autowired
+	private PrestamoRepository prestamoRepo;
+
+	@Autowired
+	private LibroRepository libroRepo;
+
+	@Autowired
+	private UsuarioRepository usuarioRepo;
+
+	@Autowired
+	private AutorRepository autorRepo;
+
+	@Autowired
+	private CategoriaRepository categoriaRepo;
+
+	@Autowired
+	private CirculacionLibroRepository circulacionLibroRepo;
+
+	@Autowired
+	private CirculacionCategoriaRepository circulacionCategoriaRepo;
+
+	@Autowired
+	private SaldoMultasRepository saldoMultasRepo;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	public Autor autor(String nombre) {
+		Autor autor = new Autor();
+		autor.setNombre(nombre);
+		return autorRepo.save(autor);
+	}
+
+	public Categoria categoria(String nombre) {
+		Categoria categoria = new Categoria();
+		categoria.setNombre(nombre);
+		return categoriaRepo.save(categoria);
+	}
+
+	// Categoría con tarifas de multa propias
+	public Categoria categoria(String nombre, BigDecimal multaDiaria, BigDecimal multaMaxima) {
+		Categoria categoria = new Categoria();
+		categoria.setNombre(nombre);
+		categoria.setMultaDiaria(multaDiaria);
+		categoria.setMultaMaxima(multaMaxima);
+		return categoriaRepo.save(categoria);
+	}
+
+	public Libro libro(String titulo, String isbn, int cantidad, Autor autor, Categoria categoria) {
+		Libro libro = new Libro();
+		libro.setTitulo(titulo);
+		libro.setIsbn(isbn);
+		libro.setCantidadTotal(cantidad);
+		libro.setCantidadDisponible(cantidad);
+		libro.setAutor(autor);
+		libro.setCategoria(categoria);
+		return libroRepo.save(libro);
+	}
+
+	public Usuario usuario(String apellido, String dni, String email) {
+		Usuario usuario = new Usuario();
+		usuario.setNombre("Lector");
+		usuario.setApellido(apellido);
+		usuario.setDni(dni);
+		usuario.setEmail(email);
+		usuario.setTelefono("999999999");
+		return usuarioRepo.save(usuario);
+	}
+
+	// Préstamo abierto que venció hace diasAtraso días; descuenta el ejemplar del stock del libro
+	public Prestamo prestamoVencido(Libro libro, Usuario usuario, int diasAtraso) {
+		Libro actual = libroRepo.findById(libro.getId()).orElseThrow();
+		actual.setCantidadDisponible(actual.getCantidadDisponible() - 1);
+		libroRepo.save(actual);
+
+		Prestamo prestamo = new Prestamo(actual, usuario);
+		prestamo.setFechaPrestamo(LocalDate.now().minusDays(14L + diasAtraso));
+		prestamo.setFechaDevolucionEsperada(LocalDate.now().minusDays(diasAtraso));
+		return prestamoRepo.save(prestamo);
+	}
+
+	public Statistics estadisticas() {
+		return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	public void limpiar() {
+		prestamoRepo.deleteAllInBatch();
+		circulacionLibroRepo.deleteAllInBatch();
+		circulacionCategoriaRepo.deleteAllInBatch();
+		saldoMultasRepo.deleteAllInBatch();
+		libroRepo.deleteAll();
+		usuarioRepo.deleteAll();
+		autorRepo.deleteAll();
+		categoriaRepo.deleteAll();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,115 @@
+package pe.edu.cibertec.bibliotech.api.restcontroller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import pe.edu.cibertec.bibliotech.DatosDePrueba;
+import pe.edu.cibertec.bibliotech.api.request.LibroRequestDto;
+import pe.edu.cibertec.bibliotech.api.request.PrestamoRequestDto;
+import pe.edu.cibertec.bibliotech.entity.Autor;
+import pe.edu.cibertec.bibliotech.entity.Categoria;
+import pe.edu.cibertec.bibliotech.entity.Libro;
+import pe.edu.cibertec.bibliotech.entity.Usuario;
+import pe.edu.cibertec.bibliotech.service.LibroService;
+import pe.edu.cibertec.bibliotech.service.PrestamoService;
+
+/**
+ * GET condicional de libros: con el ETag vigente en If-None-Match se responde 304, y
+ * después de una escritura el ETag cambia y se vuelve a responder el cuerpo.
+ */
+@SpringBootTest
+@Import(DatosDePrueba.class)
+class LibroRestControllerTests {
+
+	@Autowired
+	private DatosDePrueba datos;
+
+	@Autowired
+	private WebApplicationContext contexto;
+
+	@Autowired
+	private LibroService libroService;
+
+	@Autowired
+	private PrestamoService prestamoService;
+
+	private MockMvc mvc;
+	private Autor autor;
+	private Categoria categoria;
+	private Libro libro;
+
+	@BeforeEach
+	void preparar() {
+		// Se arma sobre el contexto compartido: @AutoConfigureMockMvc levantaría otro
+		mvc = MockMvcBuilders.webAppContextSetup(contexto).build();
+		autor = datos.autor("Autor ETag");
+		categoria = datos.categoria("ETag");
+		libro = datos.libro("Libro condicional", "ISBN-ETAG-001", 3, autor, categoria);
+	}
+
+	@AfterEach
+	void limpiar() {
+		datos.limpiar();
+	}
+
+	@Test
+	void elLibroSinCambiosRespondeNotModifiedHastaQueCambiaSuStock() throws Exception {
+		String url = "/api/libros/" + libro.getId();
+		String etag = etag(url);
+
+		mvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+
+		Usuario usuario = datos.usuario("ETag", "40000000", "etag@cibertec.edu.pe");
+		PrestamoRequestDto req = new PrestamoRequestDto();
+		req.setLibroId(libro.getId());
+		req.setUsuarioId(usuario.getId());
+		prestamoService.registrarPrestamo(req);
+
+		String nuevo = mvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(nuevo).isNotEqualTo(etag);
+	}
+
+	@Test
+	void elListadoSinCambiosRespondeNotModifiedHastaUnAlta() throws Exception {
+		String etag = etag("/api/libros");
+
+		mvc.perform(get("/api/libros").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+
+		LibroRequestDto req = new LibroRequestDto();
+		req.setTitulo("Libro nuevo");
+		req.setIsbn("ISBN-ETAG-002");
+		req.setCantidadTotal(1);
+		req.setAutorId(autor.getId());
+		req.setCategoriaId(categoria.getId());
+		libroService.crear(req);
+
+		String nuevo = mvc.perform(get("/api/libros").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(nuevo).isNotEqualTo(etag);
+	}
+
+	private String etag(String url) throws Exception {
+		String etag = mvc.perform(get(url))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(etag).isNotBlank();
+		return etag;
+	}
+}
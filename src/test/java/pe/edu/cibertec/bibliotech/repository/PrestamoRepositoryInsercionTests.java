@@ -0,0 +1,184 @@
+package pe.edu.cibertec.bibliotech.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.extern.slf4j.Slf4j;
+import pe.edu.cibertec.bibliotech.DatosDePrueba;
+import pe.edu.cibertec.bibliotech.entity.Libro;
+import pe.edu.cibertec.bibliotech.entity.Prestamo;
+import pe.edu.cibertec.bibliotech.entity.Usuario;
+
+/**
+ * Con ids por bloques (entity.Secuencias) los préstamos se insertan en batches JDBC: las
+ * sentencias no crecen de a una por préstamo, como con IDENTITY. Para comparar, inserta los
+ * mismos lotes en una copia de la tabla con IDENTITY (PrestamoConIdentity, solo de test) y
+ * registra el rendimiento de ambas estrategias (préstamos/s). En H2 en memoria no hay viaje
+ * de red por sentencia: en MySQL la diferencia de tiempo es mayor.
+ */
+@Slf4j
+@SpringBootTest
+@Import(DatosDePrueba.class)
+class PrestamoRepositoryInsercionTests {
+
+	private static final int LOTE = 500;
+	private static final int RONDAS = 5;
+
+	/**
+	 * Las columnas de prestamos, con el id por IDENTITY como antes de entity.Secuencias.
+	 */
+	@Entity(name = "PrestamoConIdentity")
+	@Table(name = "prestamos_identity")
+	static class PrestamoConIdentity {
+
+		@Id
+		@GeneratedValue(strategy = GenerationType.IDENTITY)
+		private Long id;
+
+		@ManyToOne(fetch = FetchType.LAZY)
+		@JoinColumn(name = "libro_id", nullable = false)
+		private Libro libro;
+
+		@ManyToOne(fetch = FetchType.LAZY)
+		@JoinColumn(name = "usuario_id", nullable = false)
+		private Usuario usuario;
+
+		@Column(name = "fecha_prestamo", nullable = false)
+		private LocalDate fechaPrestamo = LocalDate.now();
+
+		@Column(name = "fecha_devolucion_esperada", nullable = false)
+		private LocalDate fechaDevolucionEsperada = LocalDate.now().plusDays(14);
+
+		@Column(name = "fecha_devolucion_real")
+		private LocalDate fechaDevolucionReal;
+
+		@Column(nullable = false, length = 20)
+		private String estado = "ACTIVO";
+
+		@Column(length = 500)
+		private String observaciones;
+
+		@Column(nullable = false, precision = 10, scale = 2)
+		private BigDecimal multa = BigDecimal.ZERO;
+
+		@Column(name = "fecha_registro", updatable = false)
+		private LocalDateTime fechaRegistro = LocalDateTime.now();
+
+		@Version
+		@Column(nullable = false)
+		private Long version;
+
+		protected PrestamoConIdentity() {
+		}
+
+		PrestamoConIdentity(Libro libro, Usuario usuario) {
+			this.libro = libro;
+			this.usuario = usuario;
+		}
+	}
+
+	@Autowired
+	private DatosDePrueba datos;
+
+	@Autowired
+	private PrestamoRepository prestamoRepo;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private Statistics estadisticas;
+	private Libro libro;
+	private Usuario usuario;
+
+	@BeforeEach
+	void preparar() {
+		estadisticas = datos.estadisticas();
+		libro = datos.libro("Libro de inserción", "ISBN-INS-001", 1,
+				datos.autor("Autor Inserción"), datos.categoria("Inserción"));
+		usuario = datos.usuario("Inserción", "40000000", "insercion@cibertec.edu.pe");
+	}
+
+	@AfterEach
+	void limpiar() {
+		transactionTemplate.executeWithoutResult(status ->
+				entityManager.createQuery("DELETE FROM PrestamoConIdentity").executeUpdate());
+		datos.limpiar();
+	}
+
+	@Test
+	void saveAllInsertaLosPrestamosEnBatches() {
+		long[] nanos = new long[2];
+		// Las rondas alternan las estrategias para que ambas corran con el mismo calentamiento;
+		// la primera no se cuenta (incluye el arranque de la conexión y del generador)
+		for (int ronda = 0; ronda < RONDAS; ronda++) {
+			List<Prestamo> porBloques = new ArrayList<>(LOTE);
+			List<PrestamoConIdentity> conIdentity = new ArrayList<>(LOTE);
+			for (int i = 0; i < LOTE; i++) {
+				porBloques.add(new Prestamo(libro, usuario));
+				conIdentity.add(new PrestamoConIdentity(libro, usuario));
+			}
+
+			long bloques = insertar("Ids por bloques", ronda, () -> prestamoRepo.saveAll(porBloques),
+					sentencias -> assertThat(sentencias).isLessThan(LOTE / 10));
+			// IDENTITY: un INSERT por préstamo para conocer su id
+			long identity = insertar("IDENTITY", ronda, () -> conIdentity.forEach(entityManager::persist),
+					sentencias -> assertThat(sentencias).isGreaterThanOrEqualTo(LOTE));
+			if (ronda > 0) {
+				nanos[0] += bloques;
+				nanos[1] += identity;
+			}
+		}
+
+		log.info("✓ {} préstamos/s con ids por bloques, {} préstamos/s con IDENTITY",
+				porSegundo(nanos[0]), porSegundo(nanos[1]));
+		assertThat(prestamoRepo.count()).isEqualTo((long) LOTE * RONDAS);
+	}
+
+	private long insertar(String estrategia, int ronda, Runnable guardar, LongConsumer verificar) {
+		estadisticas.clear();
+		long inicio = System.nanoTime();
+		transactionTemplate.executeWithoutResult(status -> guardar.run());
+		long nanos = System.nanoTime() - inicio;
+		long sentencias = estadisticas.getPrepareStatementCount();
+
+		log.info("{} - ronda {}: {} préstamos insertados en {} ms con {} sentencias",
+				estrategia, ronda, LOTE, TimeUnit.NANOSECONDS.toMillis(nanos), sentencias);
+		verificar.accept(sentencias);
+		return nanos;
+	}
+
+	private static long porSegundo(long nanos) {
+		return (long) LOTE * (RONDAS - 1) * TimeUnit.SECONDS.toNanos(1) / nanos;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,120 @@
+package pe.edu.cibertec.bibliotech.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import pe.edu.cibertec.bibliotech.DatosDePrueba;
+import pe.edu.cibertec.bibliotech.api.request.PaginaRequestDto;
+import pe.edu.cibertec.bibliotech.api.request.PrestamoRequestDto;
+import pe.edu.cibertec.bibliotech.entity.Categoria;
+import pe.edu.cibertec.bibliotech.entity.Libro;
+import pe.edu.cibertec.bibliotech.entity.Usuario;
+import pe.edu.cibertec.bibliotech.service.LibroService;
+import pe.edu.cibertec.bibliotech.service.PrestamoService;
+
+/**
+ * Perfil cache-l2: cuenta las sentencias SQL que se ahorran las lecturas repetidas
+ * del catálogo y verifica que un préstamo no deje stock desactualizado en caché.
+ */
+@Slf4j
+@ActiveProfiles("cache-l2")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:bibliotech_cache;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@Import(DatosDePrueba.class)
+class LibroServiceCacheTests {
+
+	private static final int LECTURAS = 50;
+
+	@Autowired
+	private DatosDePrueba datos;
+
+	@Autowired
+	private LibroService libroService;
+
+	@Autowired
+	private PrestamoService prestamoService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics estadisticas;
+	private Libro libro;
+	private Categoria categoria;
+	private Usuario usuario;
+
+	@BeforeEach
+	void preparar() {
+		SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+		sessionFactory.getCache().evictAllRegions();
+		estadisticas = sessionFactory.getStatistics();
+
+		categoria = datos.categoria("Caché");
+		libro = datos.libro("Libro cacheado", "ISBN-CACHE-001", 3, datos.autor("Autor Caché"), categoria);
+		usuario = datos.usuario("Caché", "30000000", "lector.cache@cibertec.edu.pe");
+	}
+
+	@AfterEach
+	void limpiar() {
+		datos.limpiar();
+	}
+
+	@Test
+	void obtenerRepetidoSeSirveDesdeLaCache() {
+		long primera = sentencias(() -> libroService.obtener(libro.getId()));
+		long repetidas = sentencias(() -> {
+			for (int i = 0; i < LECTURAS; i++) {
+				libroService.obtener(libro.getId());
+			}
+			return null;
+		});
+
+		log.info("obtener: {} sentencias en frío, {} en {} lecturas repetidas (sin caché serían {})",
+				primera, repetidas, LECTURAS, primera * LECTURAS);
+
+		// Libro, Autor y Categoria: una sentencia por entidad al poblar las regiones.
+		assertThat(primera).isEqualTo(3);
+		assertThat(repetidas).isZero();
+	}
+
+	@Test
+	void buscarPorCategoriaRepetidoSeSirveDesdeLaCacheDeConsultas() {
+		sentencias(() -> libroService.buscarPorCategoria(categoria.getId(), new PaginaRequestDto()));
+
+		assertThat(sentencias(() -> libroService.buscarPorCategoria(categoria.getId(), new PaginaRequestDto()))).isZero();
+		assertThat(estadisticas.getQueryCacheHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	void prestamoInvalidaElStockCacheado() {
+		libroService.obtener(libro.getId());
+		libroService.buscarPorCategoria(categoria.getId(), new PaginaRequestDto());
+
+		PrestamoRequestDto req = new PrestamoRequestDto();
+		req.setLibroId(libro.getId());
+		req.setUsuarioId(usuario.getId());
+		prestamoService.registrarPrestamo(req);
+
+		assertThat(libroService.obtener(libro.getId()).getCantidadDisponible()).isEqualTo(2);
+		assertThat(libroService.buscarPorCategoria(categoria.getId(), new PaginaRequestDto()).getContenido())
+				.singleElement()
+				.satisfies(dto -> assertThat(dto.getCantidadDisponible()).isEqualTo(2));
+	}
+
+	private long sentencias(Supplier<?> lectura) {
+		estadisticas.clear();
+		lectura.get();
+		return estadisticas.getPrepareStatementCount();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,178 @@
+package pe.edu.cibertec.bibliotech.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import pe.edu.cibertec.bibliotech.DatosDePrueba;
+import pe.edu.cibertec.bibliotech.api.request.DevolucionLoteRequestDto;
+import pe.edu.cibertec.bibliotech.api.response.DevengoMultasResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.SaldoMultasResponseDto;
+import pe.edu.cibertec.bibliotech.entity.Autor;
+import pe.edu.cibertec.bibliotech.entity.Categoria;
+import pe.edu.cibertec.bibliotech.entity.Libro;
+import pe.edu.cibertec.bibliotech.entity.Prestamo;
+import pe.edu.cibertec.bibliotech.entity.Usuario;
+import pe.edu.cibertec.bibliotech.repository.PrestamoRepository;
+import pe.edu.cibertec.bibliotech.service.MultaService;
+import pe.edu.cibertec.bibliotech.service.PrestamoService;
+
+/**
+ * Multas por atraso con las tarifas de test (0.50 por día, tope 20.00): la devolución
+ * individual (MotorMultas.calcular), la devolución en lote y el devengo nocturno
+ * (PrestamoRepository.MULTA) deben dar los mismos montos, y saldos_multas debe seguirlos.
+ */
+@SpringBootTest
+@Import(DatosDePrueba.class)
+class MultaServiceTests {
+
+	@Autowired
+	private DatosDePrueba datos;
+
+	@Autowired
+	private PrestamoService prestamoService;
+
+	@Autowired
+	private MultaService multaService;
+
+	@Autowired
+	private PrestamoRepository prestamoRepo;
+
+	private Autor autor;
+	private Libro libro;
+	private Libro conTarifa;
+	private Usuario usuario;
+	private Usuario otroUsuario;
+
+	@BeforeEach
+	void preparar() {
+		autor = datos.autor("Autor Multas");
+		libro = datos.libro("Libro con tarifa general", "ISBN-MUL-001", 10, autor, datos.categoria("Multas"));
+		// 2.00 por día hasta 5.00, en lugar de las tarifas generales
+		Categoria categoria = datos.categoria("Multas con tarifa", new BigDecimal("2.00"), new BigDecimal("5.00"));
+		conTarifa = datos.libro("Libro con tarifa propia", "ISBN-MUL-002", 10, autor, categoria);
+		usuario = datos.usuario("Multas", "50000000", "multas@cibertec.edu.pe");
+		otroUsuario = datos.usuario("Multas Lote", "50000001", "multas.lote@cibertec.edu.pe");
+	}
+
+	@AfterEach
+	void limpiar() {
+		datos.limpiar();
+	}
+
+	@Test
+	void devolucionConAtrasoFijaLaMultaYLaPasaAlAdeudado() {
+		Prestamo prestamo = datos.prestamoVencido(libro, usuario, 6);
+		multaService.devengar();
+		assertThat(saldo(usuario).getDevengado()).isEqualByComparingTo("3.00");
+
+		prestamoService.registrarDevolucion(prestamo.getId(), null);
+
+		assertThat(multa(prestamo)).isEqualByComparingTo("3.00");
+		SaldoMultasResponseDto saldo = saldo(usuario);
+		assertThat(saldo.getDevengado()).isEqualByComparingTo("0.00");
+		assertThat(saldo.getAdeudado()).isEqualByComparingTo("3.00");
+		assertThat(saldo.getTotal()).isEqualByComparingTo("3.00");
+	}
+
+	@Test
+	void devolucionEnLoteDaLosMismosMontosQueLaIndividual() {
+		int[] atrasos = {0, 3, 50};
+		Prestamo[] individuales = new Prestamo[atrasos.length];
+		DevolucionLoteRequestDto lote = new DevolucionLoteRequestDto();
+		List<Prestamo> enLote = new ArrayList<>();
+		for (int i = 0; i < atrasos.length; i++) {
+			individuales[i] = datos.prestamoVencido(libro, usuario, atrasos[i]);
+			enLote.add(datos.prestamoVencido(libro, otroUsuario, atrasos[i]));
+		}
+		enLote.forEach(prestamo -> lote.getPrestamoIds().add(prestamo.getId()));
+
+		for (Prestamo prestamo : individuales) {
+			prestamoService.registrarDevolucion(prestamo.getId(), null);
+		}
+		assertThat(prestamoService.registrarDevolucionLote(lote).getDevueltos()).isEqualTo(atrasos.length);
+
+		for (int i = 0; i < atrasos.length; i++) {
+			assertThat(multa(enLote.get(i))).isEqualByComparingTo(multa(individuales[i]));
+		}
+		// 0.00 + 1.50 + 20.00 (50 días llegan al tope)
+		assertThat(saldo(usuario).getAdeudado()).isEqualByComparingTo("21.50");
+		assertThat(saldo(otroUsuario).getAdeudado()).isEqualByComparingTo("21.50");
+		assertThat(saldo(otroUsuario).getDevengado()).isEqualByComparingTo("0.00");
+	}
+
+	@Test
+	void devengarDosVecesNoDuplicaLasMultas() {
+		Prestamo prestamo = datos.prestamoVencido(libro, usuario, 4);
+		datos.prestamoVencido(libro, usuario, 10);
+
+		DevengoMultasResponseDto primero = multaService.devengar();
+		DevengoMultasResponseDto segundo = multaService.devengar();
+
+		assertThat(primero.getActualizados()).isEqualTo(2);
+		assertThat(segundo.getActualizados()).isEqualTo(2);
+		assertThat(multa(prestamo)).isEqualByComparingTo("2.00");
+		SaldoMultasResponseDto saldo = saldo(usuario);
+		assertThat(saldo.getDevengado()).isEqualByComparingTo("7.00");
+		assertThat(saldo.getAdeudado()).isEqualByComparingTo("0.00");
+	}
+
+	@Test
+	void cancelarRecalculaElDevengado() {
+		Prestamo cancelado = datos.prestamoVencido(libro, usuario, 4);
+		datos.prestamoVencido(libro, usuario, 10);
+		multaService.devengar();
+		assertThat(saldo(usuario).getDevengado()).isEqualByComparingTo("7.00");
+
+		prestamoService.cancelar(cancelado.getId());
+
+		assertThat(saldo(usuario).getDevengado()).isEqualByComparingTo("5.00");
+	}
+
+	@Test
+	void laCategoriaDefineTarifaYTopePropios() {
+		Prestamo dosDias = datos.prestamoVencido(conTarifa, usuario, 2);
+		Prestamo diezDias = datos.prestamoVencido(conTarifa, usuario, 10);
+		Prestamo general = datos.prestamoVencido(libro, usuario, 50);
+		Prestamo enLote = datos.prestamoVencido(conTarifa, otroUsuario, 10);
+
+		// Devengo (sentencia nativa): 2 x 2.00, el tope propio de 5.00 y el tope general de 20.00
+		multaService.devengar();
+		assertThat(multa(dosDias)).isEqualByComparingTo("4.00");
+		assertThat(multa(diezDias)).isEqualByComparingTo("5.00");
+		assertThat(multa(general)).isEqualByComparingTo("20.00");
+		assertThat(saldo(usuario).getDevengado()).isEqualByComparingTo("29.00");
+
+		// Devolución individual (MotorMultas.calcular) y en lote fijan los mismos montos
+		prestamoService.registrarDevolucion(dosDias.getId(), null);
+		prestamoService.registrarDevolucion(diezDias.getId(), null);
+		DevolucionLoteRequestDto lote = new DevolucionLoteRequestDto();
+		lote.getPrestamoIds().add(enLote.getId());
+		prestamoService.registrarDevolucionLote(lote);
+
+		assertThat(multa(dosDias)).isEqualByComparingTo("4.00");
+		assertThat(multa(diezDias)).isEqualByComparingTo("5.00");
+		assertThat(multa(enLote)).isEqualByComparingTo("5.00");
+		SaldoMultasResponseDto saldo = saldo(usuario);
+		assertThat(saldo.getAdeudado()).isEqualByComparingTo("9.00");
+		assertThat(saldo.getDevengado()).isEqualByComparingTo("20.00");
+		assertThat(saldo(otroUsuario).getAdeudado()).isEqualByComparingTo("5.00");
+	}
+
+	private BigDecimal multa(Prestamo prestamo) {
+		return prestamoRepo.findById(prestamo.getId()).orElseThrow().getMulta();
+	}
+
+	private SaldoMultasResponseDto saldo(Usuario lector) {
+		return multaService.saldoDeUsuario(lector.getId());
+	}
+}
@@ -0,0 +1,225 @@
+package pe.edu.cibertec.bibliotech.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import lombok.extern.slf4j.Slf4j;
+import pe.edu.cibertec.bibliotech.DatosDePrueba;
+import pe.edu.cibertec.bibliotech.api.request.DevolucionLoteRequestDto;
+import pe.edu.cibertec.bibliotech.api.request.PrestamoLoteRequestDto;
+import pe.edu.cibertec.bibliotech.api.request.PrestamoRequestDto;
+import pe.edu.cibertec.bibliotech.api.response.PrestamoLoteResponseDto;
+import pe.edu.cibertec.bibliotech.entity.Autor;
+import pe.edu.cibertec.bibliotech.entity.Libro;
+import pe.edu.cibertec.bibliotech.entity.Secuencias;
+import pe.edu.cibertec.bibliotech.entity.Usuario;
+import pe.edu.cibertec.bibliotech.exception.BusinessException;
+import pe.edu.cibertec.bibliotech.repository.CirculacionCategoriaRepository;
+import pe.edu.cibertec.bibliotech.repository.LibroRepository;
+import pe.edu.cibertec.bibliotech.repository.PrestamoRepository;
+import pe.edu.cibertec.bibliotech.service.PrestamoService;
+
+@Slf4j
+@SpringBootTest
+@Import(DatosDePrueba.class)
+class PrestamoServiceConcurrenciaTests {
+
+	private static final int HILOS = 64;
+	private static final int STOCK_INICIAL = 5;
+	private static final int LOTES = 16;
+
+	@Autowired
+	private DatosDePrueba datos;
+
+	@Autowired
+	private PrestamoService prestamoService;
+
+	@Autowired
+	private PrestamoRepository prestamoRepo;
+
+	@Autowired
+	private LibroRepository libroRepo;
+
+	@Autowired
+	private CirculacionCategoriaRepository circulacionCategoriaRepo;
+
+	private Libro libro;
+	private final List<Usuario> usuarios = new ArrayList<>();
+
+	@BeforeEach
+	void preparar() {
+		libro = datos.libro("Libro muy solicitado", "ISBN-CONC-001", STOCK_INICIAL,
+				datos.autor("Autor Concurrencia"), datos.categoria("Concurrencia"));
+
+		for (int i = 0; i < HILOS; i++) {
+			usuarios.add(datos.usuario("N" + i, String.format("%08d", 10_000_000 + i), "alumno" + i + "@cibertec.edu.pe"));
+		}
+	}
+
+	@AfterEach
+	void limpiar() {
+		datos.limpiar();
+		usuarios.clear();
+	}
+
+	@Test
+	void registrarPrestamoConcurrenteNoSobrevendeStock() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+		CountDownLatch largada = new CountDownLatch(1);
+		List<Future<Boolean>> resultados = new ArrayList<>();
+
+		for (Usuario usuario : usuarios) {
+			resultados.add(executor.submit(() -> {
+				PrestamoRequestDto req = new PrestamoRequestDto();
+				req.setLibroId(libro.getId());
+				req.setUsuarioId(usuario.getId());
+				largada.await();
+				try {
+					prestamoService.registrarPrestamo(req);
+					return true;
+				} catch (BusinessException ex) {
+					return false;
+				}
+			}));
+		}
+
+		long inicio = System.nanoTime();
+		largada.countDown();
+
+		int exitosos = 0;
+		for (Future<Boolean> resultado : resultados) {
+			if (resultado.get(30, TimeUnit.SECONDS)) {
+				exitosos++;
+			}
+		}
+		long duracionMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+		executor.shutdown();
+
+		log.info("{} solicitudes concurrentes resueltas en {} ms ({} préstamos registrados)",
+				HILOS, duracionMs, exitosos);
+
+		assertThat(exitosos).isEqualTo(STOCK_INICIAL);
+		assertThat(libroRepo.findById(libro.getId()).orElseThrow().getCantidadDisponible()).isZero();
+		assertThat(prestamoRepo.findByLibroId(libro.getId())).hasSize(STOCK_INICIAL);
+	}
+
+	@Test
+	void prestamosConcurrentesQueCruzanUnBloqueDeIdsNoAgotanElPool() throws Exception {
+		// Más hilos que conexiones (pool de test: 10) y más préstamos que ids por bloque: al menos
+		// una reserva de bloque ocurre con el resto de hilos esperando ids o conexión
+		Libro abundante = datos.libro("Libro con stock para todos", "ISBN-CONC-002", HILOS,
+				datos.autor("Autor Bloques"), datos.categoria("Bloques"));
+		assertThat(HILOS).isGreaterThan(Secuencias.TAMANIO_BLOQUE);
+
+		List<Long> ids = enParalelo(HILOS, indice -> {
+			PrestamoRequestDto req = new PrestamoRequestDto();
+			req.setLibroId(abundante.getId());
+			req.setUsuarioId(usuarios.get(indice).getId());
+			return prestamoService.registrarPrestamo(req).getId();
+		});
+
+		assertThat(ids).doesNotHaveDuplicates().hasSize(HILOS);
+		assertThat(libroRepo.findById(abundante.getId()).orElseThrow().getCantidadDisponible()).isZero();
+	}
+
+	@Test
+	void lotesConcurrentesEnOrdenCruzadoNoSeBloquean() throws Exception {
+		// Dos libros de categorías distintas cuyos ids difieren en 16: caen en el mismo bucket de
+		// un HashMap, donde el orden de iteración sería el del pedido y no el del id
+		Autor autor = datos.autor("Autor Lotes");
+		List<Libro> creados = new ArrayList<>();
+		for (int i = 0; i <= 16; i++) {
+			creados.add(datos.libro("Libro de lote " + i, "ISBN-LOTE-" + i, HILOS, autor,
+					datos.categoria("Lotes " + i)));
+		}
+		List<Libro> libros = List.of(creados.get(0), creados.get(16));
+		assertThat(libros.get(1).getId() - libros.get(0).getId()).isEqualTo(16);
+		int porLote = HILOS / LOTES;
+
+		// Cada usuario lleva los dos libros: los lotes pares los piden en un orden y los impares en el otro
+		List<List<Long>> prestados = enParalelo(LOTES, lote -> {
+			List<PrestamoRequestDto> items = new ArrayList<>();
+			for (Usuario usuario : usuarios.subList(lote * porLote, (lote + 1) * porLote)) {
+				for (int k = 0; k < 2; k++) {
+					PrestamoRequestDto item = new PrestamoRequestDto();
+					item.setLibroId(libros.get((k + lote) % 2).getId());
+					item.setUsuarioId(usuario.getId());
+					items.add(item);
+				}
+			}
+			PrestamoLoteRequestDto req = new PrestamoLoteRequestDto();
+			req.setPrestamos(items);
+			PrestamoLoteResponseDto res = prestamoService.registrarLote(req);
+			assertThat(res.getRegistrados()).isEqualTo(items.size());
+			return res.getResultados().stream().map(r -> r.getPrestamo().getId()).toList();
+		});
+
+		// Devolución de los mismos préstamos, también en orden cruzado
+		enParalelo(LOTES, lote -> {
+			List<Long> ids = new ArrayList<>(prestados.get(lote));
+			if (lote % 2 == 1) {
+				Collections.reverse(ids);
+			}
+			DevolucionLoteRequestDto req = new DevolucionLoteRequestDto();
+			req.setPrestamoIds(ids);
+			assertThat(prestamoService.registrarDevolucionLote(req).getDevueltos()).isEqualTo(ids.size());
+			return null;
+		});
+
+		for (Libro libro : libros) {
+			assertThat(libroRepo.findById(libro.getId()).orElseThrow().getCantidadDisponible()).isEqualTo(HILOS);
+		}
+		LocalDate hoy = LocalDate.now();
+		assertThat(circulacionCategoriaRepo.sumarPorCategoria(hoy, hoy)).hasSize(2).allSatisfy(conteo -> {
+			assertThat(conteo.prestamos()).isEqualTo((long) HILOS);
+			assertThat(conteo.devoluciones()).isEqualTo((long) HILOS);
+		});
+	}
+
+	private interface Tarea<T> {
+		T ejecutar(int indice) throws Exception;
+	}
+
+	// Lanza las tareas a la vez y devuelve sus resultados en orden; falla si alguna falló
+	private <T> List<T> enParalelo(int cantidad, Tarea<T> tarea) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(cantidad);
+		CountDownLatch largada = new CountDownLatch(1);
+		List<Future<T>> futuros = new ArrayList<>();
+		for (int i = 0; i < cantidad; i++) {
+			int indice = i;
+			Callable<T> llamada = () -> {
+				largada.await();
+				return tarea.ejecutar(indice);
+			};
+			futuros.add(executor.submit(llamada));
+		}
+		largada.countDown();
+
+		List<T> resultados = new ArrayList<>();
+		try {
+			for (Future<T> futuro : futuros) {
+				resultados.add(futuro.get(30, TimeUnit.SECONDS));
+			}
+		} finally {
+			executor.shutdown();
+		}
+		return resultados;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,120 @@
+package pe.edu.cibertec.bibliotech.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import pe.edu.cibertec.bibliotech.DatosDePrueba;
+import pe.edu.cibertec.bibliotech.api.request.PaginaRequestDto;
+import pe.edu.cibertec.bibliotech.api.response.PaginaResponseDto;
+import pe.edu.cibertec.bibliotech.entity.Autor;
+import pe.edu.cibertec.bibliotech.entity.Categoria;
+import pe.edu.cibertec.bibliotech.entity.Libro;
+import pe.edu.cibertec.bibliotech.entity.Prestamo;
+import pe.edu.cibertec.bibliotech.entity.Usuario;
+import pe.edu.cibertec.bibliotech.repository.LibroRepository;
+import pe.edu.cibertec.bibliotech.repository.PrestamoRepository;
+import pe.edu.cibertec.bibliotech.repository.UsuarioRepository;
+import pe.edu.cibertec.bibliotech.service.PrestamoService;
+
+/**
+ * Fija la cantidad de sentencias SQL de cada listado de préstamos
+ * (Hibernate statistics), para que un N+1 reintroducido rompa el build.
+ */
+@SpringBootTest
+@Import(DatosDePrueba.class)
+class PrestamoServiceConsultasTests {
+
+	private static final int LIBROS = 4;
+	private static final int USUARIOS = 3;
+
+	@Autowired
+	private DatosDePrueba datos;
+
+	@Autowired
+	private PrestamoService prestamoService;
+
+	@Autowired
+	private PrestamoRepository prestamoRepo;
+
+	@Autowired
+	private LibroRepository libroRepo;
+
+	@Autowired
+	private UsuarioRepository usuarioRepo;
+
+	private Statistics estadisticas;
+	private Libro libro;
+	private Usuario usuario;
+
+	@BeforeEach
+	void preparar() {
+		estadisticas = datos.estadisticas();
+
+		Autor autor = datos.autor("Autor Consultas");
+		Categoria categoria = datos.categoria("Consultas");
+
+		for (int i = 0; i < USUARIOS; i++) {
+			usuario = datos.usuario("N" + i, String.format("%08d", 20_000_000 + i), "lector" + i + "@cibertec.edu.pe");
+		}
+
+		for (int i = 0; i < LIBROS; i++) {
+			libro = datos.libro("Libro " + i, "ISBN-CONS-" + i, 10, autor, categoria);
+		}
+
+		// Todos los préstamos quedan vencidos: aparecen en cada uno de los listados
+		for (Libro existente : libroRepo.findAll()) {
+			for (Usuario lector : usuarioRepo.findAll()) {
+				Prestamo prestamo = new Prestamo(existente, lector);
+				prestamo.setFechaDevolucionEsperada(LocalDate.now().minusDays(1));
+				prestamoRepo.save(prestamo);
+			}
+		}
+	}
+
+	@AfterEach
+	void limpiar() {
+		datos.limpiar();
+	}
+
+	@Test
+	void listarUsaUnaSolaConsulta() {
+		assertThat(sentencias(() -> prestamoService.listar(new PaginaRequestDto()))).isEqualTo(1);
+	}
+
+	@Test
+	void listarActivosUsaUnaSolaConsulta() {
+		assertThat(sentencias(() -> prestamoService.listarActivos(new PaginaRequestDto()))).isEqualTo(1);
+	}
+
+	@Test
+	void listarVencidosUsaUnaSolaConsulta() {
+		assertThat(sentencias(() -> prestamoService.listarVencidos(new PaginaRequestDto()))).isEqualTo(1);
+	}
+
+	@Test
+	void listarPorUsuarioUsaExistenciaMasUnaConsulta() {
+		assertThat(sentencias(() -> prestamoService.listarPorUsuario(usuario.getId(), new PaginaRequestDto()))).isEqualTo(2);
+	}
+
+	@Test
+	void listarPorLibroUsaExistenciaMasUnaConsulta() {
+		assertThat(sentencias(() -> prestamoService.listarPorLibro(libro.getId(), new PaginaRequestDto()))).isEqualTo(2);
+	}
+
+	private long sentencias(Supplier<PaginaResponseDto<?>> listado) {
+		estadisticas.clear();
+		PaginaResponseDto<?> resultado = listado.get();
+		assertThat(resultado.getContenido()).isNotEmpty();
+		return estadisticas.getPrepareStatementCount();
+	}
+}
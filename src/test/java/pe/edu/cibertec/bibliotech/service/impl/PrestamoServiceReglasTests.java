@@ -0,0 +1,154 @@
+package pe.edu.cibertec.bibliotech.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import pe.edu.cibertec.bibliotech.DatosDePrueba;
+import pe.edu.cibertec.bibliotech.api.request.DevolucionLoteRequestDto;
+import pe.edu.cibertec.bibliotech.api.request.PaginaRequestDto;
+import pe.edu.cibertec.bibliotech.api.request.PrestamoLoteRequestDto;
+import pe.edu.cibertec.bibliotech.api.request.PrestamoRequestDto;
+import pe.edu.cibertec.bibliotech.api.response.DevolucionLoteResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.PrestamoLoteResponseDto;
+import pe.edu.cibertec.bibliotech.entity.Autor;
+import pe.edu.cibertec.bibliotech.entity.Categoria;
+import pe.edu.cibertec.bibliotech.entity.Libro;
+import pe.edu.cibertec.bibliotech.entity.Prestamo;
+import pe.edu.cibertec.bibliotech.entity.Prestamo.EstadoPrestamo;
+import pe.edu.cibertec.bibliotech.entity.Usuario;
+import pe.edu.cibertec.bibliotech.exception.BusinessException;
+import pe.edu.cibertec.bibliotech.repository.PrestamoRepository;
+import pe.edu.cibertec.bibliotech.service.LibroService;
+import pe.edu.cibertec.bibliotech.service.PrestamoService;
+
+/**
+ * Reglas de préstamo después del barrido nocturno: un préstamo que ya pasó a VENCIDO
+ * debe seguir listándose como vencido y bloqueando nuevos préstamos del usuario y la
+ * baja del libro, y se puede devolver en lote aunque una de las listas del pedido
+ * llegue como null.
+ */
+@SpringBootTest
+@Import(DatosDePrueba.class)
+class PrestamoServiceReglasTests {
+
+	@Autowired
+	private DatosDePrueba datos;
+
+	@Autowired
+	private PrestamoService prestamoService;
+
+	@Autowired
+	private LibroService libroService;
+
+	@Autowired
+	private PrestamoRepository prestamoRepo;
+
+	private Prestamo prestamo;
+	private Libro vencido;
+	private Libro otroLibro;
+	private Usuario usuario;
+
+	@BeforeEach
+	void preparar() {
+		Autor autor = datos.autor("Autor Reglas");
+		Categoria categoria = datos.categoria("Reglas");
+		vencido = datos.libro("Libro vencido", "ISBN-REG-001", 5, autor, categoria);
+		otroLibro = datos.libro("Libro disponible", "ISBN-REG-002", 5, autor, categoria);
+		usuario = datos.usuario("Reglas", "60000000", "reglas@cibertec.edu.pe");
+
+		prestamo = datos.prestamoVencido(vencido, usuario, 3);
+		prestamoService.actualizarEstadosVencidos();
+		assertThat(prestamoRepo.findById(prestamo.getId()).orElseThrow().getEstado()).isEqualTo(EstadoPrestamo.VENCIDO);
+	}
+
+	@AfterEach
+	void limpiar() {
+		datos.limpiar();
+	}
+
+	@Test
+	void prestamoBarridoAVencidoSigueEnElListadoDeVencidos() {
+		assertThat(prestamoService.listarVencidos(new PaginaRequestDto()).getContenido())
+				.extracting("id")
+				.containsExactly(prestamo.getId());
+	}
+
+	@Test
+	void prestamoBarridoAVencidoBloqueaElSiguientePrestamo() {
+		assertThatThrownBy(() -> prestamoService.registrarPrestamo(solicitud(otroLibro)))
+				.isInstanceOf(BusinessException.class)
+				.hasMessageContaining("1 préstamo(s) vencido(s)");
+	}
+
+	@Test
+	void prestamoBarridoAVencidoBloqueaElPrestamoEnLote() {
+		PrestamoLoteRequestDto req = new PrestamoLoteRequestDto();
+		req.setPrestamos(List.of(solicitud(otroLibro)));
+		req.setModo(PrestamoLoteRequestDto.ModoLote.MEJOR_ESFUERZO);
+
+		PrestamoLoteResponseDto response = prestamoService.registrarLote(req);
+
+		assertThat(response.getRegistrados()).isZero();
+		assertThat(response.getResultados().get(0).getError()).contains("préstamo(s) vencido(s)");
+	}
+
+	@Test
+	void libroConPrestamoVencidoNoSePuedeEliminar() {
+		assertThatThrownBy(() -> libroService.eliminar(vencido.getId()))
+				.isInstanceOf(BusinessException.class);
+		assertThat(prestamoRepo.findByLibroId(vencido.getId())).hasSize(1);
+	}
+
+	@Test
+	void devolucionLoteConLibrosUsuariosNulos() {
+		DevolucionLoteRequestDto req = new DevolucionLoteRequestDto();
+		req.setPrestamoIds(List.of(prestamo.getId()));
+		req.setLibrosUsuarios(null);
+
+		assertThat(req.isConPrestamos()).isTrue();
+		DevolucionLoteResponseDto response = prestamoService.registrarDevolucionLote(req);
+
+		assertThat(response.getDevueltos()).isEqualTo(1);
+	}
+
+	@Test
+	void devolucionLoteConPrestamoIdsNulos() {
+		DevolucionLoteRequestDto.LibroUsuario libroUsuario = new DevolucionLoteRequestDto.LibroUsuario();
+		libroUsuario.setIsbn(vencido.getIsbn());
+		libroUsuario.setDni(usuario.getDni());
+		DevolucionLoteRequestDto req = new DevolucionLoteRequestDto();
+		req.setPrestamoIds(null);
+		req.setLibrosUsuarios(List.of(libroUsuario));
+
+		assertThat(req.isConPrestamos()).isTrue();
+		DevolucionLoteResponseDto response = prestamoService.registrarDevolucionLote(req);
+
+		assertThat(response.getDevueltos()).isEqualTo(1);
+		assertThat(prestamoRepo.findById(prestamo.getId()).orElseThrow().getEstado()).isEqualTo(EstadoPrestamo.DEVUELTO);
+	}
+
+	@Test
+	void devolucionLoteSinPrestamosNoEsValida() {
+		DevolucionLoteRequestDto req = new DevolucionLoteRequestDto();
+		req.setPrestamoIds(null);
+		req.setLibrosUsuarios(null);
+
+		assertThat(req.isConPrestamos()).isFalse();
+	}
+
+	private PrestamoRequestDto solicitud(Libro libro) {
+		PrestamoRequestDto req = new PrestamoRequestDto();
+		req.setLibroId(libro.getId());
+		req.setUsuarioId(usuario.getId());
+		return req;
+	}
+}
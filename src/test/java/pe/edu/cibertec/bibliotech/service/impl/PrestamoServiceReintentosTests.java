@@ -0,0 +1,107 @@
+package pe.edu.cibertec.bibliotech.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.AopTestUtils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import pe.edu.cibertec.bibliotech.DatosDePrueba;
+import pe.edu.cibertec.bibliotech.api.request.PrestamoRequestDto;
+import pe.edu.cibertec.bibliotech.api.response.PrestamoResponseDto;
+import pe.edu.cibertec.bibliotech.entity.Libro;
+import pe.edu.cibertec.bibliotech.entity.Usuario;
+import pe.edu.cibertec.bibliotech.repository.LibroRepository;
+import pe.edu.cibertec.bibliotech.repository.PrestamoRepository;
+import pe.edu.cibertec.bibliotech.service.PrestamoService;
+import pe.edu.cibertec.bibliotech.service.support.CirculacionDiaria;
+
+/**
+ * Un conflicto de versión en el primer intento del préstamo: la transacción se deshace,
+ * el segundo intento lo registra una sola vez y el conflicto y el reintento se publican
+ * como métricas de la operación. El @SpyBean levanta otro contexto: usa su propia base
+ * para no recrear el esquema (ni los bloques de ids) del contexto de los demás tests.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:bibliotech_reintentos;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000")
+@Import(DatosDePrueba.class)
+class PrestamoServiceReintentosTests {
+
+	private static final String OPERACION = "prestamos.registrar";
+
+	@Autowired
+	private DatosDePrueba datos;
+
+	@Autowired
+	private PrestamoService prestamoService;
+
+	@Autowired
+	private PrestamoRepository prestamoRepo;
+
+	@Autowired
+	private LibroRepository libroRepo;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@SpyBean
+	private CirculacionDiaria circulacion;
+
+	private Libro libro;
+	private Usuario usuario;
+
+	@BeforeEach
+	void preparar() {
+		libro = datos.libro("Libro en conflicto", "ISBN-REINT-001", 3,
+				datos.autor("Autor Reintentos"), datos.categoria("Reintentos"));
+		usuario = datos.usuario("Reintentos", "50000000", "reintentos@cibertec.edu.pe");
+	}
+
+	@AfterEach
+	void limpiar() {
+		datos.limpiar();
+	}
+
+	@Test
+	void unConflictoEnElPrimerIntentoSeReintentaYSeCuenta() {
+		double conflictos = contador("bibliotech.concurrencia.conflictos");
+		double reintentos = contador("bibliotech.concurrencia.reintentos");
+		// Falla después de descontar el stock: el reintento debe partir de la transacción deshecha.
+		// Se configura el espía detrás del proxy transaccional (MANDATORY exige una transacción)
+		CirculacionDiaria espia = AopTestUtils.getUltimateTargetObject(circulacion);
+		doThrow(new OptimisticLockingFailureException("Versión desactualizada"))
+				.doCallRealMethod()
+				.when(espia).prestamos(any(), eq(libro.getId()), anyLong(), anyLong());
+
+		PrestamoRequestDto req = new PrestamoRequestDto();
+		req.setLibroId(libro.getId());
+		req.setUsuarioId(usuario.getId());
+		PrestamoResponseDto response = prestamoService.registrarPrestamo(req);
+
+		assertThat(response.getId()).isNotNull();
+		verify(espia, times(2)).prestamos(any(), eq(libro.getId()), anyLong(), anyLong());
+		assertThat(prestamoRepo.findByLibroId(libro.getId())).hasSize(1);
+		Libro actual = libroRepo.findById(libro.getId()).orElseThrow();
+		assertThat(actual.getCantidadDisponible()).isEqualTo(2);
+		assertThat(contador("bibliotech.concurrencia.conflictos")).isEqualTo(conflictos + 1);
+		assertThat(contador("bibliotech.concurrencia.reintentos")).isEqualTo(reintentos + 1);
+	}
+
+	private double contador(String nombre) {
+		Counter contador = registry.find(nombre).tag("operacion", OPERACION).counter();
+		return contador != null ? contador.count() : 0;
+	}
+}
@@ -0,0 +1,115 @@
+package pe.edu.cibertec.bibliotech.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import pe.edu.cibertec.bibliotech.DatosDePrueba;
+import pe.edu.cibertec.bibliotech.api.request.ReportePrestamosRequestDto;
+import pe.edu.cibertec.bibliotech.entity.Autor;
+import pe.edu.cibertec.bibliotech.entity.Categoria;
+import pe.edu.cibertec.bibliotech.entity.Libro;
+import pe.edu.cibertec.bibliotech.entity.Prestamo;
+import pe.edu.cibertec.bibliotech.entity.Usuario;
+import pe.edu.cibertec.bibliotech.service.ReporteService;
+
+/**
+ * Reporte de préstamos en Excel: encabezado, una fila por préstamo y filtros.
+ */
+@SpringBootTest
+@Import(DatosDePrueba.class)
+class ReporteServiceTests {
+
+	@Autowired
+	private DatosDePrueba datos;
+
+	@Autowired
+	private ReporteService reporteService;
+
+	private Usuario lector;
+	private final List<Prestamo> prestamos = new ArrayList<>();
+
+	@BeforeEach
+	void preparar() {
+		Autor autor = datos.autor("Autor Reportes");
+		Categoria categoria = datos.categoria("Reportes");
+		lector = datos.usuario("Reportes", "80000000", "reportes@cibertec.edu.pe");
+		Usuario otro = datos.usuario("Otro Reportes", "80000001", "otro.reportes@cibertec.edu.pe");
+		for (int i = 0; i < 3; i++) {
+			Libro libro = datos.libro("Libro de reporte " + i, "ISBN-REP-00" + i, 2, autor, categoria);
+			prestamos.add(datos.prestamoVencido(libro, i < 2 ? lector : otro, 3 - i));
+		}
+	}
+
+	@AfterEach
+	void limpiar() {
+		datos.limpiar();
+		prestamos.clear();
+	}
+
+	@Test
+	void elExcelTieneElEncabezadoYUnaFilaPorPrestamo() throws Exception {
+		ByteArrayOutputStream salida = new ByteArrayOutputStream();
+		long escritas = reporteService.prestamosExcel(new ReportePrestamosRequestDto(), salida);
+
+		assertThat(escritas).isEqualTo(3);
+		try (XSSFWorkbook libro = new XSSFWorkbook(new ByteArrayInputStream(salida.toByteArray()))) {
+			assertThat(libro.getNumberOfSheets()).isEqualTo(1);
+			Sheet hoja = libro.getSheet("Préstamos");
+			assertThat(valores(hoja.getRow(0))).containsExactly(
+					"ID", "Libro ID", "Libro", "Usuario ID", "Usuario", "Fecha préstamo",
+					"Devolución esperada", "Devolución real", "Estado", "Días de atraso", "Observaciones");
+			assertThat(hoja.getLastRowNum()).isEqualTo(3);
+
+			// Ordenadas por fecha de préstamo: el más atrasado primero
+			Row primera = hoja.getRow(1);
+			assertThat((long) primera.getCell(0).getNumericCellValue()).isEqualTo(prestamos.get(0).getId());
+			assertThat(primera.getCell(2).getStringCellValue()).isEqualTo("Libro de reporte 0");
+			assertThat(DateUtil.isCellDateFormatted(primera.getCell(5))).isTrue();
+			assertThat(primera.getCell(5).getLocalDateTimeCellValue().toLocalDate())
+					.isEqualTo(prestamos.get(0).getFechaPrestamo());
+			assertThat(primera.getCell(7).getCellType()).isEqualTo(CellType.BLANK);
+			assertThat(primera.getCell(8).getStringCellValue()).isEqualTo("ACTIVO");
+			assertThat(primera.getCell(9).getNumericCellValue()).isEqualTo(3);
+		}
+	}
+
+	@Test
+	void elExcelAplicaElFiltroPorUsuario() throws Exception {
+		ReportePrestamosRequestDto filtro = new ReportePrestamosRequestDto();
+		filtro.setUsuarioId(lector.getId());
+		ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+		assertThat(reporteService.prestamosExcel(filtro, salida)).isEqualTo(2);
+		try (XSSFWorkbook libro = new XSSFWorkbook(new ByteArrayInputStream(salida.toByteArray()))) {
+			Sheet hoja = libro.getSheetAt(0);
+			assertThat(hoja.getLastRowNum()).isEqualTo(2);
+			assertThat(hoja.getRow(1).getCell(3).getNumericCellValue()).isEqualTo(lector.getId().doubleValue());
+			assertThat(hoja.getRow(2).getCell(3).getNumericCellValue()).isEqualTo(lector.getId().doubleValue());
+		}
+	}
+
+	private static List<String> valores(Row fila) {
+		List<String> valores = new ArrayList<>();
+		for (Cell celda : fila) {
+			valores.add(celda.getStringCellValue());
+		}
+		return valores;
+	}
+}
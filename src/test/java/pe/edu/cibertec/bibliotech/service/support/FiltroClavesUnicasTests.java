@@ -0,0 +1,113 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import pe.edu.cibertec.bibliotech.DatosDePrueba;
+import pe.edu.cibertec.bibliotech.api.request.LibroRequestDto;
+import pe.edu.cibertec.bibliotech.entity.Autor;
+import pe.edu.cibertec.bibliotech.entity.Categoria;
+import pe.edu.cibertec.bibliotech.exception.BusinessException;
+import pe.edu.cibertec.bibliotech.repository.LibroRepository;
+import pe.edu.cibertec.bibliotech.service.LibroService;
+import pe.edu.cibertec.bibliotech.service.support.FiltroClavesUnicas.Clave;
+
+/**
+ * Prevalidación de ISBN con el filtro de Bloom: un ISBN nuevo se da de alta sin consultar
+ * la base (métrica bibliotech.unicidad.consultas "evitada") y uno repetido se sigue
+ * confirmando en la base y rechazando.
+ */
+@SpringBootTest
+@Import(DatosDePrueba.class)
+class FiltroClavesUnicasTests {
+
+	@Autowired
+	private DatosDePrueba datos;
+
+	@Autowired
+	private LibroService libroService;
+
+	@Autowired
+	private LibroRepository libroRepo;
+
+	@Autowired
+	private FiltroClavesUnicas filtroClaves;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	private Autor autor;
+	private Categoria categoria;
+	private String isbn;
+
+	@BeforeEach
+	void preparar() {
+		autor = datos.autor("Autor Filtro");
+		categoria = datos.categoria("Filtro");
+		// Un ISBN que el filtro descarta; se elige antes de leer las métricas
+		isbn = IntStream.range(0, 1000)
+				.mapToObj(i -> "ISBN-BLOOM-" + i)
+				.filter(candidato -> !filtroClaves.puedeExistir(Clave.ISBN, candidato))
+				.findFirst()
+				.orElseThrow();
+	}
+
+	@AfterEach
+	void limpiar() {
+		datos.limpiar();
+	}
+
+	@Test
+	void unIsbnNuevoNoSeConsultaEnLaBase() {
+		double evitadas = consultas("evitada");
+		double verificadas = consultas("verificada");
+
+		libroService.crear(solicitud(isbn));
+
+		assertThat(consultas("evitada")).isEqualTo(evitadas + 1);
+		assertThat(consultas("verificada")).isEqualTo(verificadas);
+		assertThat(libroRepo.findByIsbn(isbn)).isPresent();
+		assertThat(filtroClaves.puedeExistir(Clave.ISBN, isbn)).isTrue();
+	}
+
+	@Test
+	void unIsbnRepetidoSeConfirmaEnLaBaseYSeRechaza() {
+		libroService.crear(solicitud(isbn));
+		double verificadas = consultas("verificada");
+
+		assertThatThrownBy(() -> libroService.crear(solicitud(isbn.toLowerCase())))
+				.isInstanceOf(BusinessException.class)
+				.hasMessageContaining("Ya existe un libro con el ISBN");
+
+		assertThat(consultas("verificada")).isEqualTo(verificadas + 1);
+		assertThat(libroRepo.count()).isEqualTo(1);
+	}
+
+	private LibroRequestDto solicitud(String isbn) {
+		LibroRequestDto req = new LibroRequestDto();
+		req.setTitulo("Libro " + isbn);
+		req.setIsbn(isbn);
+		req.setCantidadTotal(1);
+		req.setAutorId(autor.getId());
+		req.setCategoriaId(categoria.getId());
+		return req;
+	}
+
+	private double consultas(String resultado) {
+		Counter contador = registry.find("bibliotech.unicidad.consultas")
+				.tags("clave", Clave.ISBN.name(), "resultado", resultado)
+				.counter();
+		return contador != null ? contador.count() : 0;
+	}
+}
@@ -0,0 +1,136 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import pe.edu.cibertec.bibliotech.DatosDePrueba;
+import pe.edu.cibertec.bibliotech.api.response.ImportacionLibrosResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.ImportacionLibrosResponseDto.FilaRechazada;
+import pe.edu.cibertec.bibliotech.entity.Autor;
+import pe.edu.cibertec.bibliotech.entity.Categoria;
+import pe.edu.cibertec.bibliotech.entity.Libro;
+import pe.edu.cibertec.bibliotech.repository.AutorRepository;
+import pe.edu.cibertec.bibliotech.repository.CategoriaRepository;
+import pe.edu.cibertec.bibliotech.repository.LibroRepository;
+import pe.edu.cibertec.bibliotech.service.support.FiltroClavesUnicas.Clave;
+
+/**
+ * Importación del catálogo por CSV: rechazos por fila, autores y categorías creados y
+ * reintento fila por fila cuando la base rechaza el bloque.
+ */
+@SpringBootTest
+@Import(DatosDePrueba.class)
+class ImportadorLibrosTests {
+
+	private static final String ENCABEZADO = "titulo,isbn,anio_publicacion,cantidad_total,descripcion,autor,categoria\n";
+
+	@Autowired
+	private DatosDePrueba datos;
+
+	@Autowired
+	private ImportadorLibros importador;
+
+	@Autowired
+	private FiltroClavesUnicas filtroClaves;
+
+	@Autowired
+	private LibroRepository libroRepo;
+
+	@Autowired
+	private AutorRepository autorRepo;
+
+	@Autowired
+	private CategoriaRepository categoriaRepo;
+
+	private Autor autor;
+	private Categoria categoria;
+
+	@BeforeEach
+	void preparar() {
+		autor = datos.autor("Autor Existente");
+		categoria = datos.categoria("Existente");
+	}
+
+	@AfterEach
+	void limpiar() {
+		datos.limpiar();
+	}
+
+	@Test
+	void informaCadaFilaRechazadaYCreaLosNombresNuevos() throws Exception {
+		datos.libro("Libro registrado", "ISBN-IMP-REG", 1, autor, categoria);
+		filtroClaves.registrar(Clave.ISBN, "ISBN-IMP-REG");
+
+		ImportacionLibrosResponseDto resultado = importar(
+				"Libro nuevo uno,ISBN-IMP-001,2001,2,,Autor Importado,Categoría Importada\n" +
+				"Libro repetido,isbn-imp-001,2002,1,,Autor Importado,Categoría Importada\n" +
+				"Libro registrado,ISBN-IMP-REG,2003,1,,Autor Existente,Existente\n" +
+				"Libro sin número,ISBN-IMP-002,dos mil,1,,Autor Existente,Existente\n" +
+				"Libro sin autor,ISBN-IMP-003,2004,1,,,Existente\n" +
+				"Libro nuevo dos,ISBN-IMP-004,,,Sin año,autor existente,Categoría Importada\n");
+
+		assertThat(resultado.getTotal()).isEqualTo(6);
+		assertThat(resultado.getImportados()).isEqualTo(2);
+		assertThat(resultado.getRechazados()).isEqualTo(4);
+		assertThat(resultado.getAutoresCreados()).isEqualTo(1);
+		assertThat(resultado.getCategoriasCreadas()).isEqualTo(1);
+		assertThat(resultado.getErrores()).extracting(FilaRechazada::getFila).containsExactly(2L, 3L, 4L, 5L);
+		assertThat(resultado.getErrores()).extracting(FilaRechazada::getError).satisfiesExactly(
+				error -> assertThat(error).isEqualTo("ISBN repetido en el archivo: ISBN-IMP-001"),
+				error -> assertThat(error).isEqualTo("Ya existe un libro con el ISBN: ISBN-IMP-REG"),
+				error -> assertThat(error).startsWith("Valor numérico inválido"),
+				error -> assertThat(error).startsWith("Autor: "));
+
+		Libro nuevo = libroRepo.findByIsbn("ISBN-IMP-004").orElseThrow();
+		assertThat(nuevo.getCantidadTotal()).isEqualTo(1);
+		assertThat(nuevo.getCantidadDisponible()).isEqualTo(1);
+		assertThat(nuevo.getAutor().getId()).isEqualTo(autor.getId());
+		assertThat(autorRepo.count()).isEqualTo(2);
+		assertThat(categoriaRepo.count()).isEqualTo(2);
+		assertThat(filtroClaves.puedeExistir(Clave.ISBN, "ISBN-IMP-004")).isTrue();
+	}
+
+	@Test
+	void unBloqueRechazadoPorLaBaseSeReintentaFilaPorFila() throws Exception {
+		// Un libro cargado por fuera de los servicios: el filtro no lo conoce, la importación no
+		// consulta su ISBN y el INSERT del bloque choca con la restricción UNIQUE
+		String fueraDelFiltro = IntStream.range(0, 1000)
+				.mapToObj(i -> "ISBN-IMP-DB-" + i)
+				.filter(isbn -> !filtroClaves.puedeExistir(Clave.ISBN, isbn))
+				.findFirst()
+				.orElseThrow();
+		datos.libro("Libro cargado por fuera", fueraDelFiltro, 1, autor, categoria);
+
+		ImportacionLibrosResponseDto resultado = importar(
+				"Libro antes,ISBN-IMP-010,2001,1,,Autor Del Bloque,Existente\n" +
+				"Libro duplicado en la base," + fueraDelFiltro + ",2002,1,,Autor Del Bloque,Existente\n" +
+				"Libro después,ISBN-IMP-011,2003,1,,Autor Del Bloque,Existente\n");
+
+		assertThat(resultado.getImportados()).isEqualTo(2);
+		assertThat(resultado.getErrores()).singleElement().satisfies(rechazo -> {
+			assertThat(rechazo.getFila()).isEqualTo(2L);
+			assertThat(rechazo.getIsbn()).isEqualTo(fueraDelFiltro);
+			assertThat(rechazo.getError()).startsWith("No se pudo guardar");
+		});
+		// El autor del bloque deshecho se crea una sola vez, en la primera fila que se guarda
+		assertThat(resultado.getAutoresCreados()).isEqualTo(1);
+		assertThat(autorRepo.count()).isEqualTo(2);
+		assertThat(libroRepo.findByIsbn("ISBN-IMP-010")).isPresent();
+		assertThat(libroRepo.findByIsbn("ISBN-IMP-011")).isPresent();
+		assertThat(libroRepo.findByIsbn(fueraDelFiltro).orElseThrow().getTitulo()).isEqualTo("Libro cargado por fuera");
+	}
+
+	private ImportacionLibrosResponseDto importar(String filas) throws Exception {
+		return importador.importar(new ByteArrayInputStream((ENCABEZADO + filas).getBytes(StandardCharsets.UTF_8)));
+	}
+}
@@ -0,0 +1,131 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import pe.edu.cibertec.bibliotech.DatosDePrueba;
+import pe.edu.cibertec.bibliotech.api.response.ImportacionUsuariosResponseDto;
+import pe.edu.cibertec.bibliotech.api.response.ImportacionUsuariosResponseDto.FilaRechazada;
+import pe.edu.cibertec.bibliotech.entity.Usuario;
+import pe.edu.cibertec.bibliotech.repository.UsuarioRepository;
+
+/**
+ * Importación del padrón por CSV: altas, actualizaciones, reactivaciones, filas sin
+ * cambios, conflictos de email y desactivación de los ausentes.
+ */
+@SpringBootTest
+@Import(DatosDePrueba.class)
+class ImportadorUsuariosTests {
+
+	private static final String ENCABEZADO = "dni,nombre,apellido,email,telefono,direccion\n";
+
+	@Autowired
+	private DatosDePrueba datos;
+
+	@Autowired
+	private ImportadorUsuarios importador;
+
+	@Autowired
+	private UsuarioRepository usuarioRepo;
+
+	private Usuario ausente;
+	private Usuario deudor;
+
+	@BeforeEach
+	void preparar() {
+		datos.usuario("Igual", "70000001", "igual@cibertec.edu.pe");
+		datos.usuario("Cambia", "70000002", "cambia@cibertec.edu.pe");
+		Usuario inactivo = datos.usuario("Inactivo", "70000003", "inactivo@cibertec.edu.pe");
+		inactivo.setActivo(false);
+		usuarioRepo.save(inactivo);
+		datos.usuario("Otro", "70000006", "otro@cibertec.edu.pe");
+
+		ausente = datos.usuario("Ausente", "70000004", "ausente@cibertec.edu.pe");
+		deudor = datos.usuario("Deudor", "70000005", "deudor@cibertec.edu.pe");
+		datos.prestamoVencido(datos.libro("Libro del deudor", "ISBN-PAD-001", 1,
+				datos.autor("Autor Padrón"), datos.categoria("Padrón")), deudor, 2);
+	}
+
+	@AfterEach
+	void limpiar() {
+		datos.limpiar();
+	}
+
+	@Test
+	void creaActualizaReactivaYRechazaLosConflictos() throws Exception {
+		ImportacionUsuariosResponseDto resultado = importar(true,
+				"70000001,Lector,Igual,igual@cibertec.edu.pe,999999999,\n" +
+				"70000002,Lector,Cambia,cambia@cibertec.edu.pe,988888888,Av. Nueva 123\n" +
+				"70000003,Lector,Inactivo,INACTIVO@cibertec.edu.pe,999999999,\n" +
+				"70000006,Lector,Otro,ausente@cibertec.edu.pe,999999999,\n" +
+				"70000010,Nuevo,Alumno,nuevo@cibertec.edu.pe,977777777,Jr. Lima 1\n" +
+				"70000011,Nuevo,Conflicto,deudor@cibertec.edu.pe,977777777,\n" +
+				"70000001,Lector,Repetido,repetido@cibertec.edu.pe,999999999,\n" +
+				"123,Mal,Dni,maldni@cibertec.edu.pe,999999999,\n");
+
+		assertThat(resultado.getTotal()).isEqualTo(8);
+		assertThat(resultado.getCreados()).isEqualTo(1);
+		assertThat(resultado.getActualizados()).isEqualTo(2);
+		assertThat(resultado.getSinCambios()).isEqualTo(1);
+		assertThat(resultado.getRechazados()).isEqualTo(4);
+		assertThat(resultado.getErrores()).extracting(FilaRechazada::getFila).containsExactly(4L, 6L, 7L, 8L);
+		assertThat(resultado.getErrores()).extracting(FilaRechazada::getError).satisfiesExactly(
+				error -> assertThat(error).isEqualTo("Ya existe otro usuario con el email: ausente@cibertec.edu.pe"),
+				error -> assertThat(error).isEqualTo("Ya existe otro usuario con el email: deudor@cibertec.edu.pe"),
+				error -> assertThat(error).isEqualTo("DNI repetido en el archivo: 70000001"),
+				error -> assertThat(error).contains("8 dígitos"));
+
+		Usuario cambiado = usuarioRepo.findByDni("70000002").orElseThrow();
+		assertThat(cambiado.getTelefono()).isEqualTo("988888888");
+		assertThat(cambiado.getDireccion()).isEqualTo("Av. Nueva 123");
+		assertThat(usuarioRepo.findByDni("70000003").orElseThrow().getActivo()).isTrue();
+		assertThat(usuarioRepo.findByDni("70000006").orElseThrow().getEmail()).isEqualTo("otro@cibertec.edu.pe");
+		assertThat(usuarioRepo.findByDni("70000010").orElseThrow().getEmail()).isEqualTo("nuevo@cibertec.edu.pe");
+		assertThat(usuarioRepo.findByDni("70000011")).isEmpty();
+
+		// Los ausentes se desactivan, salvo el que tiene un préstamo pendiente
+		assertThat(resultado.getDesactivados()).isEqualTo(1);
+		assertThat(resultado.getAusentesConPrestamos()).isEqualTo(1);
+		assertThat(usuarioRepo.findById(ausente.getId()).orElseThrow().getActivo()).isFalse();
+		assertThat(usuarioRepo.findById(deudor.getId()).orElseThrow().getActivo()).isTrue();
+	}
+
+	@Test
+	void sinDesactivarAusentesNadieSeDesactiva() throws Exception {
+		ImportacionUsuariosResponseDto resultado = importar(false,
+				"70000001,Lector,Igual,igual@cibertec.edu.pe,999999999,\n");
+
+		assertThat(resultado.getSinCambios()).isEqualTo(1);
+		assertThat(resultado.getDesactivados()).isZero();
+		assertThat(usuarioRepo.findById(ausente.getId()).orElseThrow().getActivo()).isTrue();
+	}
+
+	@Test
+	void unCsvMalFormadoConservaLasFilasLeidasPeroNoDesactivaAusentes() throws Exception {
+		ImportacionUsuariosResponseDto resultado = importar(true,
+				"70000010,Nuevo,Alumno,nuevo@cibertec.edu.pe,977777777,\n" +
+				"70000011,\"Sin cerrar,Alumno,sincerrar@cibertec.edu.pe,977777777,\n");
+
+		assertThat(resultado.isDesactivacionOmitida()).isTrue();
+		assertThat(resultado.getCreados()).isEqualTo(1);
+		assertThat(resultado.getErrores()).singleElement()
+				.satisfies(rechazo -> assertThat(rechazo.getError()).startsWith("CSV mal formado"));
+		assertThat(resultado.getDesactivados()).isZero();
+		assertThat(usuarioRepo.findById(ausente.getId()).orElseThrow().getActivo()).isTrue();
+		assertThat(usuarioRepo.findByDni("70000010")).isPresent();
+	}
+
+	private ImportacionUsuariosResponseDto importar(boolean desactivarAusentes, String filas) throws Exception {
+		return importador.importar(new ByteArrayInputStream((ENCABEZADO + filas).getBytes(StandardCharsets.UTF_8)),
+								   desactivarAusentes);
+	}
+}
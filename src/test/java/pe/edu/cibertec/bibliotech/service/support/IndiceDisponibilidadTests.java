@@ -0,0 +1,141 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import pe.edu.cibertec.bibliotech.event.LibroEvento;
+import pe.edu.cibertec.bibliotech.event.LibrosImportadosEvento;
+import pe.edu.cibertec.bibliotech.event.PrestamoEvento;
+import pe.edu.cibertec.bibliotech.repository.LibroRepository;
+import pe.edu.cibertec.bibliotech.repository.projection.ResumenStock;
+import pe.edu.cibertec.bibliotech.repository.projection.StockLibro;
+import pe.edu.cibertec.bibliotech.service.support.IndiceDisponibilidad.Estado;
+
+/**
+ * Relecturas con control de versión, bajas, eventos durante la reconstrucción y
+ * ids fuera de rango del índice de disponibilidad, sin base de datos.
+ */
+class IndiceDisponibilidadTests {
+
+	private final LibroRepository libroRepo = mock(LibroRepository.class);
+	private IndiceDisponibilidad indice;
+
+	@BeforeEach
+	void preparar() {
+		indice = new IndiceDisponibilidad(libroRepo, mock(PlatformTransactionManager.class));
+		ReflectionTestUtils.setField(indice, "umbralStockBajo", 2);
+	}
+
+	@Test
+	void laReconstruccionClasificaLosLibrosPorStock() {
+		reconstruir(new StockLibro(1L, 5, 5, 0L), new StockLibro(2L, 0, 3, 0L), new StockLibro(3L, 2, 4, 0L));
+
+		assertThat(indice.isListo()).isTrue();
+		assertThat(indice.ids(Estado.CON_STOCK, 0, 0, 10)).containsExactly(1L, 3L);
+		assertThat(indice.ids(Estado.SIN_STOCK, 0, 0, 10)).containsExactly(2L);
+		assertThat(indice.ids(Estado.STOCK_BAJO, 0, 0, 10)).containsExactly(3L);
+		assertThat(indice.ids(Estado.CON_STOCK, 1, 0, 10)).containsExactly(3L);
+		assertThat(indice.resumen()).isEqualTo(new ResumenStock(2L, 1L, 1L, 12L, 7L));
+	}
+
+	@Test
+	void unaRelecturaConVersionViejaNoPisaLaNueva() {
+		reconstruir(new StockLibro(1L, 5, 5, 3L));
+
+		when(libroRepo.buscarStock(1L)).thenReturn(Optional.of(new StockLibro(1L, 0, 5, 2L)));
+		indice.alCambiarLibro(evento(1L));
+		assertThat(indice.ids(Estado.SIN_STOCK, 0, 0, 10)).isEmpty();
+
+		when(libroRepo.buscarStock(1L)).thenReturn(Optional.of(new StockLibro(1L, 0, 5, 4L)));
+		indice.alCambiarPrestamo(new PrestamoEvento(10L, 1L, null, PrestamoEvento.Tipo.REGISTRADO));
+		assertThat(indice.ids(Estado.SIN_STOCK, 0, 0, 10)).containsExactly(1L);
+		assertThat(indice.resumen().ejemplaresDisponibles()).isZero();
+	}
+
+	@Test
+	void unLibroEliminadoNoVuelvePorUnaRelecturaAtrasada() {
+		reconstruir(new StockLibro(1L, 5, 5, 1L), new StockLibro(2L, 1, 1, 1L));
+
+		when(libroRepo.buscarStock(1L)).thenReturn(Optional.empty());
+		indice.alCambiarLibro(evento(1L));
+		assertThat(indice.ids(Estado.CON_STOCK, 0, 0, 10)).containsExactly(2L);
+		assertThat(indice.resumen().totalEjemplares()).isEqualTo(1L);
+
+		// Una relectura que empezó antes del borrado devuelve la fila, incluso con versión mayor
+		when(libroRepo.buscarStock(1L)).thenReturn(Optional.of(new StockLibro(1L, 5, 5, 9L)));
+		indice.alCambiarLibro(evento(1L));
+		assertThat(indice.ids(Estado.CON_STOCK, 0, 0, 10)).containsExactly(2L);
+		assertThat(indice.resumen().totalEjemplares()).isEqualTo(1L);
+	}
+
+	@Test
+	void losLibrosTocadosDuranteLaReconstruccionSeReleen() {
+		// El stream trae la versión 1 del libro 1; mientras se recorre se comitea la versión 2
+		when(libroRepo.buscarStock(1L)).thenReturn(Optional.of(new StockLibro(1L, 0, 5, 2L)));
+		when(libroRepo.streamStock()).thenAnswer(invocacion -> {
+			indice.alCambiarLibro(evento(1L));
+			return Stream.of(new StockLibro(1L, 5, 5, 1L), new StockLibro(2L, 3, 3, 1L));
+		});
+		indice.reconstruir();
+
+		assertThat(indice.ids(Estado.SIN_STOCK, 0, 0, 10)).containsExactly(1L);
+		assertThat(indice.ids(Estado.CON_STOCK, 0, 0, 10)).containsExactly(2L);
+		assertThat(indice.resumen()).isEqualTo(new ResumenStock(1L, 1L, 0L, 8L, 3L));
+	}
+
+	@Test
+	void laImportacionReleeLosLibrosConUnaSolaConsulta() {
+		reconstruir(new StockLibro(1L, 5, 5, 0L));
+		when(libroRepo.buscarStocks(List.of(2L, 3L))).thenReturn(List.of(new StockLibro(2L, 1, 1, 0L), new StockLibro(3L, 4, 4, 0L)));
+
+		indice.alImportarLibros(new LibrosImportadosEvento(List.of(evento(2L), evento(3L))));
+
+		assertThat(indice.ids(Estado.CON_STOCK, 0, 0, 10)).containsExactly(1L, 2L, 3L);
+		verify(libroRepo, never()).buscarStock(anyLong());
+	}
+
+	@Test
+	void unIdFueraDeRangoDesactivaElIndice() {
+		long fueraDeRango = Integer.MAX_VALUE - 7L;
+		reconstruir(new StockLibro(1L, 5, 5, 0L), new StockLibro(fueraDeRango, 1, 1, 0L));
+
+		// Los servicios consultan la base mientras isListo() sea falso
+		assertThat(indice.isListo()).isFalse();
+		assertThat(indice.resumen().totalEjemplares()).isEqualTo(5L);
+	}
+
+	@Test
+	void unEventoDeUnIdFueraDeRangoNoSeRelee() {
+		reconstruir(new StockLibro(1L, 5, 5, 0L));
+
+		indice.alCambiarLibro(evento(Integer.MAX_VALUE + 1L));
+		indice.alImportarLibros(new LibrosImportadosEvento(List.of(evento(Long.MAX_VALUE))));
+
+		assertThat(indice.isListo()).isFalse();
+		verify(libroRepo, never()).buscarStock(anyLong());
+		verify(libroRepo, never()).buscarStocks(anyList());
+	}
+
+	private void reconstruir(StockLibro... filas) {
+		when(libroRepo.streamStock()).thenReturn(Stream.of(filas));
+		indice.reconstruir();
+	}
+
+	private static LibroEvento evento(Long libroId) {
+		return new LibroEvento(libroId, null, null, null, null, null, false);
+	}
+}
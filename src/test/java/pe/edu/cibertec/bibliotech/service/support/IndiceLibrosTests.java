@@ -0,0 +1,96 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.EnumSet;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import pe.edu.cibertec.bibliotech.event.AutorEvento;
+import pe.edu.cibertec.bibliotech.event.LibroEvento;
+import pe.edu.cibertec.bibliotech.repository.LibroRepository;
+import pe.edu.cibertec.bibliotech.repository.projection.LibroIndexado;
+import pe.edu.cibertec.bibliotech.service.support.IndiceLibros.Campo;
+
+/**
+ * Normalización, ranking y mantenimiento del índice de búsqueda, sin base de datos.
+ */
+class IndiceLibrosTests {
+
+	private IndiceLibros indice;
+
+	@BeforeEach
+	void preparar() {
+		LibroRepository libroRepo = mock(LibroRepository.class);
+		when(libroRepo.streamIndexados()).thenReturn(Stream.of(
+				new LibroIndexado(1L, "Cien años de soledad", "978-0001", 10L, "Gabriel García Márquez", 0L),
+				new LibroIndexado(2L, "El amor en los tiempos del cólera", "978-0002", 10L, "Gabriel García Márquez", 0L),
+				new LibroIndexado(3L, "La ciudad y los perros", "978-0003", 20L, "Mario Vargas Llosa", 0L),
+				new LibroIndexado(4L, "Años de peregrinación", "978-0004", 30L, "Haruki Murakami", 0L)));
+		indice = new IndiceLibros(libroRepo, mock(PlatformTransactionManager.class));
+		indice.reconstruir();
+	}
+
+	@Test
+	void normalizarQuitaTildesMayusculasYSignos() {
+		assertThat(Texto.normalizar("  ¡Canción de Ñandú, 2da edición!  ")).isEqualTo("cancion de nandu 2da edicion");
+		assertThat(Texto.normalizar(null)).isEmpty();
+	}
+
+	@Test
+	void buscarIgnoraTildesYMayusculas() {
+		assertThat(indice.isListo()).isTrue();
+		assertThat(indice.buscar("COLERA", 10)).containsExactly(2L);
+		assertThat(indice.buscar("garcia marquez", 10)).containsExactlyInAnyOrder(1L, 2L);
+	}
+
+	@Test
+	void elTituloQueEmpiezaConLaConsultaVaPrimero() {
+		// "anos" aparece en ambos títulos; el que empieza por la consulta gana y el empate se resuelve por id
+		assertThat(indice.buscar("años", 10, EnumSet.of(Campo.TITULO))).containsExactly(4L, 1L);
+		assertThat(indice.buscar("años", 1, EnumSet.of(Campo.TITULO))).containsExactly(4L);
+	}
+
+	@Test
+	void toleraErroresDeTipeo() {
+		assertThat(indice.buscar("soledda", 10)).containsExactly(1L);
+		assertThat(indice.buscar("xyzw", 10)).isEmpty();
+	}
+
+	@Test
+	void losEventosActualizanElIndice() {
+		indice.alCambiarLibro(new LibroEvento(5L, "Rayuela", "978-0005", 40L, "Julio Cortázar", 0L, false));
+		assertThat(indice.buscar("rayuela", 10)).containsExactly(5L);
+
+		indice.alCambiarLibro(LibroEvento.eliminado(5L));
+		assertThat(indice.buscar("rayuela", 10)).isEmpty();
+
+		indice.alCambiarAutor(new AutorEvento(20L, "Jorge Mario Pedro Vargas Llosa", false));
+		assertThat(indice.buscar("pedro vargas", 10, EnumSet.of(Campo.AUTOR))).containsExactly(3L);
+	}
+
+	@Test
+	void losEventosAtrasadosNoPisanUnaVersionMasNueva() {
+		// Se actualizó a la versión 2 y luego a la 3, pero los listeners corrieron al revés
+		indice.alCambiarLibro(new LibroEvento(3L, "La ciudad y los perros (edición conmemorativa)", "978-0003",
+				20L, "Mario Vargas Llosa", 3L, false));
+		indice.alCambiarLibro(new LibroEvento(3L, "La ciudad y los perros (primera edición)", "978-0003",
+				20L, "Mario Vargas Llosa", 2L, false));
+		assertThat(indice.buscar("conmemorativa", 10)).containsExactly(3L);
+		assertThat(indice.buscar("primera", 10)).isEmpty();
+	}
+
+	@Test
+	void unaActualizacionAtrasadaNoReviveUnLibroEliminado() {
+		indice.alCambiarLibro(LibroEvento.eliminado(2L));
+		indice.alCambiarLibro(new LibroEvento(2L, "El amor en los tiempos del cólera", "978-0002",
+				10L, "Gabriel García Márquez", 1L, false));
+		assertThat(indice.buscar("colera", 10)).isEmpty();
+		assertThat(indice.buscar("garcia marquez", 10)).containsExactly(1L);
+	}
+}
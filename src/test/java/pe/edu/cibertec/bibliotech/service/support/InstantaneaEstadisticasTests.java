@@ -0,0 +1,89 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import pe.edu.cibertec.bibliotech.event.PrestamoEvento;
+import pe.edu.cibertec.bibliotech.event.UsuarioEvento;
+import pe.edu.cibertec.bibliotech.repository.LibroRepository;
+import pe.edu.cibertec.bibliotech.repository.PrestamoRepository;
+import pe.edu.cibertec.bibliotech.repository.UsuarioRepository;
+import pe.edu.cibertec.bibliotech.service.support.InstantaneaEstadisticas.Instantanea;
+
+/**
+ * Cuándo se reutiliza la instantánea de estadísticas y cuándo se recalcula, contando las
+ * consultas agregadas sobre repositorios simulados.
+ */
+class InstantaneaEstadisticasTests {
+
+	private static final Duration HORA = Duration.ofHours(1);
+
+	private final LibroRepository libroRepo = mock(LibroRepository.class);
+	private final PrestamoRepository prestamoRepo = mock(PrestamoRepository.class);
+	private final UsuarioRepository usuarioRepo = mock(UsuarioRepository.class);
+
+	@Test
+	void sinEscriturasSeReutilizaHastaLaAntiguedadMaxima() {
+		InstantaneaEstadisticas estadisticas = instantanea(Duration.ZERO, HORA);
+
+		Instantanea primera = estadisticas.obtener();
+
+		assertThat(estadisticas.obtener()).isSameAs(primera);
+		verify(prestamoRepo, times(1)).resumenPorEstado(any(LocalDate.class));
+	}
+
+	@Test
+	void unaEscrituraDentroDeLaAntiguedadMinimaNoRecalcula() {
+		InstantaneaEstadisticas estadisticas = instantanea(HORA, HORA.multipliedBy(2));
+		Instantanea primera = estadisticas.obtener();
+
+		estadisticas.alCambiarPrestamo(new PrestamoEvento(1L, 1L, LocalDate.now(), PrestamoEvento.Tipo.REGISTRADO));
+		estadisticas.alCambiarUsuario(new UsuarioEvento(1L, true, false));
+
+		assertThat(estadisticas.obtener()).isSameAs(primera);
+		verify(prestamoRepo, times(1)).resumenPorEstado(any(LocalDate.class));
+	}
+
+	@Test
+	void unaEscrituraPasadaLaAntiguedadMinimaRecalculaUnaVez() throws InterruptedException {
+		InstantaneaEstadisticas estadisticas = instantanea(Duration.ofMillis(300), HORA);
+		Instantanea primera = estadisticas.obtener();
+
+		estadisticas.alCambiarPrestamo(new PrestamoEvento(1L, 1L, LocalDate.now(), PrestamoEvento.Tipo.REGISTRADO));
+		assertThat(estadisticas.obtener()).isSameAs(primera);
+
+		Thread.sleep(400);
+		Instantanea segunda = estadisticas.obtener();
+		assertThat(segunda).isNotSameAs(primera);
+		// La escritura ya está incluida: la siguiente lectura reutiliza la nueva
+		assertThat(estadisticas.obtener()).isSameAs(segunda);
+		verify(prestamoRepo, times(2)).resumenPorEstado(any(LocalDate.class));
+		verify(usuarioRepo, times(2)).resumenUsuarios();
+	}
+
+	@Test
+	void pasadaLaAntiguedadMaximaRecalculaAunqueNoHayaEscrituras() throws InterruptedException {
+		InstantaneaEstadisticas estadisticas = instantanea(Duration.ZERO, Duration.ofMillis(100));
+		Instantanea primera = estadisticas.obtener();
+
+		Thread.sleep(150);
+
+		assertThat(estadisticas.obtener()).isNotSameAs(primera);
+		verify(prestamoRepo, times(2)).resumenPorEstado(any(LocalDate.class));
+	}
+
+	private InstantaneaEstadisticas instantanea(Duration antiguedadMinima, Duration antiguedadMaxima) {
+		// El índice no está listo: los libros también salen de la base
+		return new InstantaneaEstadisticas(libroRepo, prestamoRepo, usuarioRepo, mock(IndiceDisponibilidad.class),
+				mock(PlatformTransactionManager.class), antiguedadMinima, antiguedadMaxima);
+	}
+}
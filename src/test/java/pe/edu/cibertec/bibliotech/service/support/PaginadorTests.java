@@ -0,0 +1,71 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import pe.edu.cibertec.bibliotech.api.request.PaginaRequestDto;
+import pe.edu.cibertec.bibliotech.api.response.PaginaResponseDto;
+
+class PaginadorTests {
+
+	private static final int RESULTADOS = 25;
+
+	private final Paginador paginador = new Paginador();
+
+	// Ranking simulado: ids 1..25 ya ordenados por relevancia
+	private final IntFunction<List<Long>> mejores = k -> LongStream.rangeClosed(1, Math.min(k, RESULTADOS)).boxed().toList();
+
+	@BeforeEach
+	void preparar() {
+		ReflectionTestUtils.setField(paginador, "tamanioDefecto", 10);
+		ReflectionTestUtils.setField(paginador, "tamanioMaximo", 200);
+	}
+
+	@Test
+	void rankingSeRecorrePorCursor() {
+		PaginaRequestDto solicitud = new PaginaRequestDto();
+		PaginaResponseDto<Long> primera = paginador.paginarRanking(solicitud, mejores, Function.identity());
+		assertThat(primera.getContenido()).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+		assertThat(primera.getSiguienteCursor()).isEqualTo(10L);
+
+		solicitud.setCursor(primera.getSiguienteCursor());
+		PaginaResponseDto<Long> segunda = paginador.paginarRanking(solicitud, mejores, Function.identity());
+		assertThat(segunda.getContenido()).first().isEqualTo(11L);
+
+		solicitud.setCursor(segunda.getSiguienteCursor());
+		PaginaResponseDto<Long> tercera = paginador.paginarRanking(solicitud, mejores, Function.identity());
+		assertThat(tercera.getContenido()).containsExactly(21L, 22L, 23L, 24L, 25L);
+		assertThat(tercera.isHayMas()).isFalse();
+		assertThat(tercera.getSiguienteCursor()).isNull();
+	}
+
+	@Test
+	void rankingPorPaginaNoOfreceCursor() {
+		PaginaRequestDto solicitud = new PaginaRequestDto();
+		solicitud.setPagina(1);
+		PaginaResponseDto<Long> respuesta = paginador.paginarRanking(solicitud, mejores, Function.identity());
+		assertThat(respuesta.getContenido()).first().isEqualTo(11L);
+		assertThat(respuesta.isHayMas()).isTrue();
+		assertThat(respuesta.getSiguienteCursor()).isNull();
+	}
+
+	@Test
+	void rankingConPaginaEnormeDevuelvePaginaVacia() {
+		PaginaRequestDto solicitud = new PaginaRequestDto();
+		solicitud.setPagina(20_000_000);
+		solicitud.setTamanio(200);
+		PaginaResponseDto<Long> respuesta = paginador.paginarRanking(solicitud, k -> {
+			throw new AssertionError("No debe consultar el ranking más allá del tope");
+		}, Function.identity());
+		assertThat(respuesta.getContenido()).isEmpty();
+		assertThat(respuesta.isHayMas()).isFalse();
+	}
+}
\ No newline at end of file
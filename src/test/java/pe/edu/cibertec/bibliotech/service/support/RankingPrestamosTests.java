@@ -0,0 +1,176 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import pe.edu.cibertec.bibliotech.event.LibroEvento;
+import pe.edu.cibertec.bibliotech.event.PrestamoEvento;
+import pe.edu.cibertec.bibliotech.repository.PrestamoRepository;
+import pe.edu.cibertec.bibliotech.repository.projection.ConteoPorId;
+import pe.edu.cibertec.bibliotech.repository.projection.PrestamoDelDia;
+import pe.edu.cibertec.bibliotech.service.support.RankingPrestamos.Ventana;
+
+/**
+ * Ventanas de 30 días y semestre, cambio de día y eventos recibidos durante la carga,
+ * con un reloj que avanza a mano y sin base de datos.
+ */
+class RankingPrestamosTests {
+
+	private static final LocalDate HOY = LocalDate.of(2026, 3, 1);
+	private static final int DIAS_SEMESTRE = Ventana.SEMESTRE.getDias();
+
+	private final Reloj reloj = new Reloj(HOY);
+	private final PrestamoRepository prestamoRepo = mock(PrestamoRepository.class);
+	private RankingPrestamos ranking;
+
+	@BeforeEach
+	void preparar() {
+		ranking = new RankingPrestamos(prestamoRepo, mock(PlatformTransactionManager.class), reloj);
+	}
+
+	@Test
+	void laVentanaDe30DiasSoloCuentaLosPrestamosRecientes() {
+		cargar(new PrestamoDelDia(1L, 1L, HOY),
+				new PrestamoDelDia(2L, 1L, HOY.minusDays(29)),
+				new PrestamoDelDia(3L, 2L, HOY.minusDays(30)),
+				new PrestamoDelDia(4L, 2L, HOY.minusDays(100)),
+				new PrestamoDelDia(5L, 2L, HOY.minusDays(181)));
+
+		assertThat(ranking.mejores(Ventana.ULTIMOS_30_DIAS, 10)).containsExactly(new ConteoPorId(1L, 2L));
+		assertThat(ranking.mejores(Ventana.SEMESTRE, 10)).containsExactly(new ConteoPorId(2L, 3L), new ConteoPorId(1L, 2L));
+	}
+
+	@Test
+	void alCambiarDeDiaLosPrestamosSalenDeCadaVentana() {
+		cargar(new PrestamoDelDia(1L, 1L, HOY), new PrestamoDelDia(2L, 2L, HOY.minusDays(29)));
+
+		reloj.avanzarDias(1);
+		assertThat(ranking.mejores(Ventana.ULTIMOS_30_DIAS, 10)).containsExactly(new ConteoPorId(1L, 1L));
+		assertThat(ranking.mejores(Ventana.SEMESTRE, 10)).hasSize(2);
+
+		reloj.avanzarDias(29);
+		assertThat(ranking.mejores(Ventana.ULTIMOS_30_DIAS, 10)).isEmpty();
+		assertThat(ranking.mejores(Ventana.SEMESTRE, 10)).hasSize(2);
+
+		// El libro 2 se prestó 29 días antes: sale del semestre 153 días más tarde
+		reloj.avanzarDias(123);
+		assertThat(ranking.mejores(Ventana.SEMESTRE, 10)).containsExactly(new ConteoPorId(1L, 1L));
+
+		reloj.avanzarDias(29);
+		assertThat(ranking.mejores(Ventana.SEMESTRE, 10)).isEmpty();
+	}
+
+	@Test
+	void elCasilleroRecicladoNoArrastraElDiaAnterior() {
+		cargar(new PrestamoDelDia(1L, 1L, HOY));
+
+		reloj.avanzarDias(100);
+		ranking.alCambiarPrestamo(registrado(2L, 2L, reloj.hoy()));
+
+		// Un semestre después de HOY el anillo vuelve al casillero de HOY
+		reloj.avanzarDias(DIAS_SEMESTRE - 100);
+		ranking.alCambiarPrestamo(registrado(3L, 3L, reloj.hoy()));
+		assertThat(ranking.mejores(Ventana.SEMESTRE, 10)).containsExactly(new ConteoPorId(2L, 1L), new ConteoPorId(3L, 1L));
+
+		reloj.avanzarDias(100);
+		assertThat(ranking.mejores(Ventana.SEMESTRE, 10)).containsExactly(new ConteoPorId(3L, 1L));
+		assertThat(ranking.mejores(Ventana.ULTIMOS_30_DIAS, 10)).isEmpty();
+	}
+
+	@Test
+	void laCancelacionRestaDelDiaDelPrestamo() {
+		cargar(new PrestamoDelDia(1L, 1L, HOY.minusDays(40)), new PrestamoDelDia(2L, 1L, HOY));
+
+		ranking.alCambiarPrestamo(new PrestamoEvento(1L, 1L, HOY.minusDays(40), PrestamoEvento.Tipo.CANCELADO));
+		ranking.alCambiarPrestamo(new PrestamoEvento(2L, 1L, HOY, PrestamoEvento.Tipo.DEVUELTO));
+
+		assertThat(ranking.mejores(Ventana.ULTIMOS_30_DIAS, 10)).containsExactly(new ConteoPorId(1L, 1L));
+		assertThat(ranking.mejores(Ventana.SEMESTRE, 10)).containsExactly(new ConteoPorId(1L, 1L));
+
+		ranking.alCambiarPrestamo(new PrestamoEvento(2L, 1L, HOY, PrestamoEvento.Tipo.CANCELADO));
+		assertThat(ranking.mejores(Ventana.SEMESTRE, 10)).isEmpty();
+	}
+
+	@Test
+	void losEventosRecibidosDuranteLaCargaNoSeCuentanDosVeces() {
+		// El préstamo 1 ya está en la lectura y su evento llega durante la carga; el 2 solo llega
+		// como evento; el 3 se registra y se cancela antes de la lectura; el 4 se cancela después
+		when(prestamoRepo.streamPorLibroYDia(any())).thenAnswer(invocacion -> {
+			ranking.alCambiarPrestamo(registrado(1L, 1L, HOY));
+			ranking.alCambiarPrestamo(registrado(2L, 1L, HOY));
+			ranking.alCambiarPrestamo(new PrestamoEvento(3L, 2L, HOY, PrestamoEvento.Tipo.CANCELADO));
+			ranking.alCambiarPrestamo(new PrestamoEvento(4L, 2L, HOY, PrestamoEvento.Tipo.CANCELADO));
+			return Stream.of(new PrestamoDelDia(1L, 1L, HOY), new PrestamoDelDia(4L, 2L, HOY), new PrestamoDelDia(5L, 2L, HOY));
+		});
+		ranking.cargar();
+
+		assertThat(ranking.isListo()).isTrue();
+		assertThat(ranking.mejores(Ventana.ULTIMOS_30_DIAS, 10))
+				.containsExactly(new ConteoPorId(1L, 2L), new ConteoPorId(2L, 1L));
+	}
+
+	@Test
+	void elLibroEliminadoSaleDelRanking() {
+		cargar(new PrestamoDelDia(1L, 1L, HOY), new PrestamoDelDia(2L, 2L, HOY));
+
+		ranking.alCambiarLibro(new LibroEvento(1L, null, null, null, null, null, true));
+
+		assertThat(ranking.mejores(Ventana.SEMESTRE, 10)).containsExactly(new ConteoPorId(2L, 1L));
+	}
+
+	private void cargar(PrestamoDelDia... prestamos) {
+		when(prestamoRepo.streamPorLibroYDia(HOY.minusDays(DIAS_SEMESTRE - 1))).thenReturn(Stream.of(prestamos));
+		ranking.cargar();
+	}
+
+	private static PrestamoEvento registrado(Long prestamoId, Long libroId, LocalDate fecha) {
+		return new PrestamoEvento(prestamoId, libroId, fecha, PrestamoEvento.Tipo.REGISTRADO);
+	}
+
+	// Reloj fijo que el test mueve de a días
+	private static final class Reloj extends Clock {
+
+		private Instant ahora;
+
+		private Reloj(LocalDate dia) {
+			this.ahora = dia.atStartOfDay(ZoneOffset.UTC).toInstant();
+		}
+
+		private void avanzarDias(long dias) {
+			ahora = ahora.plusSeconds(dias * 86_400);
+		}
+
+		private LocalDate hoy() {
+			return LocalDate.ofInstant(ahora, ZoneOffset.UTC);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return ahora;
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import pe.edu.cibertec.bibliotech.exception.BusinessException;
+import pe.edu.cibertec.bibliotech.service.support.TrabajosReporte.Estado;
+import pe.edu.cibertec.bibliotech.service.support.TrabajosReporte.Generador;
+import pe.edu.cibertec.bibliotech.service.support.TrabajosReporte.Trabajo;
+
+/**
+ * Ciclo de vida de los trabajos de reporte con un hilo y un lugar en la cola: los
+ * generadores esperan un latch, así el estado de cada trabajo es predecible.
+ */
+class TrabajosReporteTests {
+
+	@TempDir
+	private Path directorio;
+
+	private TrabajosReporte trabajos;
+	private final CountDownLatch liberar = new CountDownLatch(1);
+
+	@BeforeEach
+	void preparar() throws Exception {
+		trabajos = new TrabajosReporte(1, 1, directorio, Duration.ofHours(1));
+	}
+
+	@AfterEach
+	void detener() {
+		liberar.countDown();
+		trabajos.detener();
+	}
+
+	@Test
+	void unTrabajoEncoladoPasaDePendienteATerminado() throws Exception {
+		Trabajo enCurso = trabajos.enviar("primero", "primero.pdf", bloqueado("uno"));
+		Trabajo encolado = trabajos.enviar("segundo", "segundo.pdf", bloqueado("dos"));
+
+		assertThat(encolado.getEstado()).isEqualTo(Estado.PENDIENTE);
+		assertThat(encolado.getArchivo()).isNull();
+		assertThat(trabajos.buscar(encolado.getId())).containsSame(encolado);
+
+		liberar.countDown();
+		esperar(enCurso, Estado.TERMINADO);
+		esperar(encolado, Estado.TERMINADO);
+
+		assertThat(encolado.getProgreso()).isEqualTo(100);
+		assertThat(encolado.getFechaFin()).isNotNull();
+		assertThat(encolado.getArchivo()).hasFileName("segundo.pdf");
+		assertThat(Files.readString(encolado.getArchivo(), StandardCharsets.UTF_8)).isEqualTo("dos");
+		// Solo queda el archivo publicado, sin el temporal
+		try (Stream<Path> archivos = Files.list(encolado.getArchivo().getParent())) {
+			assertThat(archivos).containsExactly(encolado.getArchivo());
+		}
+	}
+
+	@Test
+	void unaSolicitudRepetidaReutilizaElTrabajo() throws Exception {
+		Trabajo trabajo = trabajos.enviar("mismo", "mismo.pdf", bloqueado("uno"));
+
+		assertThat(trabajos.enviar("mismo", "mismo.pdf", bloqueado("otro"))).isSameAs(trabajo);
+
+		liberar.countDown();
+		esperar(trabajo, Estado.TERMINADO);
+		assertThat(trabajos.enviar("mismo", "mismo.pdf", bloqueado("otro"))).isSameAs(trabajo);
+		assertThat(Files.readString(trabajo.getArchivo(), StandardCharsets.UTF_8)).isEqualTo("uno");
+	}
+
+	@Test
+	void unTrabajoFallidoNoSeReutiliza() throws Exception {
+		Trabajo fallido = trabajos.enviar("falla", "falla.pdf", (salida, progreso) -> {
+			throw new IllegalStateException("Sin datos");
+		});
+		esperar(fallido, Estado.FALLIDO);
+		assertThat(fallido.getError()).isEqualTo("Sin datos");
+		assertThat(directorio.resolve(fallido.getId())).doesNotExist();
+
+		liberar.countDown();
+		Trabajo nuevo = trabajos.enviar("falla", "falla.pdf", bloqueado("ahora sí"));
+		assertThat(nuevo).isNotSameAs(fallido);
+		esperar(nuevo, Estado.TERMINADO);
+	}
+
+	@Test
+	void conLaColaLlenaSeRechazaLaSolicitud() throws Exception {
+		trabajos.enviar("primero", "primero.pdf", bloqueado("uno"));
+		Trabajo encolado = trabajos.enviar("segundo", "segundo.pdf", bloqueado("dos"));
+
+		assertThatThrownBy(() -> trabajos.enviar("tercero", "tercero.pdf", bloqueado("tres")))
+				.isInstanceOf(BusinessException.class)
+				.hasMessageContaining("demasiados reportes en cola");
+
+		// El rechazo no deja la clave tomada: se puede volver a pedir cuando hay lugar
+		liberar.countDown();
+		esperar(encolado, Estado.TERMINADO);
+		Trabajo tercero = trabajos.enviar("tercero", "tercero.pdf", bloqueado("tres"));
+		esperar(tercero, Estado.TERMINADO);
+	}
+
+	// Escribe el contenido cuando el test lo libera
+	private Generador bloqueado(String contenido) {
+		return (salida, progreso) -> {
+			progreso.accept(50);
+			assertThat(liberar.await(10, TimeUnit.SECONDS)).isTrue();
+			salida.write(contenido.getBytes(StandardCharsets.UTF_8));
+		};
+	}
+
+	private static void esperar(Trabajo trabajo, Estado estado) throws InterruptedException {
+		long limite = System.currentTimeMillis() + 10_000;
+		while (trabajo.getEstado() != estado && System.currentTimeMillis() < limite) {
+			Thread.sleep(10);
+		}
+		assertThat(trabajo.getEstado()).isEqualTo(estado);
+	}
+}
@@ -0,0 +1,104 @@
+package pe.edu.cibertec.bibliotech.service.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import pe.edu.cibertec.bibliotech.event.LibroEvento;
+import pe.edu.cibertec.bibliotech.event.PrestamoEvento;
+import pe.edu.cibertec.bibliotech.repository.AutorRepository;
+import pe.edu.cibertec.bibliotech.repository.LibroRepository;
+import pe.edu.cibertec.bibliotech.repository.projection.AutorRef;
+import pe.edu.cibertec.bibliotech.repository.projection.ConteoPorId;
+import pe.edu.cibertec.bibliotech.repository.projection.LibroIndexado;
+import pe.edu.cibertec.bibliotech.service.support.TrieSugerencias.Sugerencia;
+import pe.edu.cibertec.bibliotech.service.support.TrieSugerencias.Tipo;
+
+/**
+ * Prefijos, orden por préstamos y mantenimiento del trie de autocompletado, sin base de datos.
+ */
+class TrieSugerenciasTests {
+
+	private TrieSugerencias trie;
+
+	@BeforeEach
+	void preparar() {
+		LibroRepository libroRepo = mock(LibroRepository.class);
+		AutorRepository autorRepo = mock(AutorRepository.class);
+		when(libroRepo.listarTotalesPrestamos()).thenReturn(List.of(new ConteoPorId(1L, 5L), new ConteoPorId(2L, 9L)));
+		when(libroRepo.streamIndexados()).thenReturn(Stream.of(
+				new LibroIndexado(1L, "Cien años de soledad", "978-0001", 10L, "Gabriel García Márquez", 0L),
+				new LibroIndexado(2L, "Ciudad de cristal", "978-0002", 20L, "Paul Auster", 0L),
+				new LibroIndexado(3L, "Crónica de una muerte anunciada", "978-0003", 10L, "Gabriel García Márquez", 0L),
+				new LibroIndexado(4L, "Una historia de amor y oscuridad para lectores con mucha paciencia", "978-0004", 30L, "Amos Oz", 0L)));
+		when(autorRepo.listarRefs()).thenReturn(List.of(
+				new AutorRef(10L, "Gabriel García Márquez"), new AutorRef(20L, "Paul Auster"), new AutorRef(30L, "Amos Oz")));
+		trie = new TrieSugerencias(libroRepo, autorRepo, mock(PlatformTransactionManager.class));
+		trie.reconstruir();
+	}
+
+	@Test
+	void sugiereDesdeCualquierPalabraOrdenadoPorPrestamos() {
+		assertThat(ids(trie.sugerir("ci", 10))).containsExactly(2L, 1L);
+		assertThat(ids(trie.sugerir("SOLEDAD", 10))).containsExactly(1L);
+		assertThat(trie.sugerir("xyz", 10)).isEmpty();
+	}
+
+	@Test
+	void losAutoresSumanLosPrestamosDeSusLibros() {
+		List<Sugerencia> sugerencias = trie.sugerir("garcia", 10);
+		assertThat(sugerencias).singleElement().satisfies(s -> {
+			assertThat(s.tipo()).isEqualTo(Tipo.AUTOR);
+			assertThat(s.popularidad()).isEqualTo(5L);
+		});
+	}
+
+	@Test
+	void prefijoMasLargoQueLaProfundidadMaxima() {
+		assertThat(ids(trie.sugerir("una historia de amor y oscuridad", 10))).containsExactly(4L);
+		assertThat(trie.sugerir("una historia de amor y oscuridades", 10)).isEmpty();
+	}
+
+	@Test
+	void losEventosActualizanSugerenciasYOrden() {
+		for (int i = 0; i < 5; i++) {
+			trie.alCambiarPrestamo(new PrestamoEvento((long) i, 1L, LocalDate.now(), PrestamoEvento.Tipo.REGISTRADO));
+		}
+		assertThat(ids(trie.sugerir("ci", 10))).containsExactly(1L, 2L);
+
+		trie.alCambiarLibro(LibroEvento.eliminado(1L));
+		assertThat(ids(trie.sugerir("ci", 10))).containsExactly(2L);
+		assertThat(trie.sugerir("garcia", 10)).singleElement()
+				.extracting(Sugerencia::popularidad).isEqualTo(0L);
+
+		trie.alCambiarLibro(new LibroEvento(5L, "Cisnes salvajes", "978-0005", 20L, "Paul Auster", 0L, false));
+		assertThat(ids(trie.sugerir("cis", 10))).containsExactly(5L);
+	}
+
+	@Test
+	void losEventosDeLibroAtrasadosSeDescartan() {
+		trie.alCambiarLibro(new LibroEvento(3L, "Crónica de un secuestro", "978-0003", 10L, "Gabriel García Márquez", 2L, false));
+		trie.alCambiarLibro(new LibroEvento(3L, "Crónica de una muerte anunciada", "978-0003", 10L, "Gabriel García Márquez", 1L, false));
+		assertThat(ids(trie.sugerir("secuestro", 10))).containsExactly(3L);
+		assertThat(trie.sugerir("anunciada", 10)).isEmpty();
+
+		trie.alCambiarLibro(LibroEvento.eliminado(2L));
+		trie.alCambiarLibro(new LibroEvento(2L, "Ciudad de cristal", "978-0002", 20L, "Paul Auster", 1L, false));
+		trie.alCambiarPrestamo(new PrestamoEvento(99L, 2L, LocalDate.now(), PrestamoEvento.Tipo.REGISTRADO));
+		assertThat(ids(trie.sugerir("ciudad", 10))).isEmpty();
+		assertThat(trie.sugerir("auster", 10)).singleElement()
+				.extracting(Sugerencia::popularidad).isEqualTo(0L);
+	}
+
+	private static List<Long> ids(List<Sugerencia> sugerencias) {
+		return sugerencias.stream().map(Sugerencia::id).toList();
+	}
+}
\ No newline at end of file